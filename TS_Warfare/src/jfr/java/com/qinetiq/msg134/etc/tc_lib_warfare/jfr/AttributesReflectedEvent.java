@@ -0,0 +1,60 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Attribute values of a tracked object instance reflected by the RTI.
+ *
+ * @author QinetiQ
+ */
+@Name("com.qinetiq.msg134.warfare.AttributesReflected")
+@Label("Attributes Reflected")
+@Category({ "IVCT", "Warfare" })
+@Description("Attribute values of a tracked object instance reflected by the RTI.")
+class AttributesReflectedEvent extends Event
+{
+    /**
+     * The name of the object class.
+     */
+    @Label("Object Class")
+    String objectClass;
+    
+    /**
+     * The name of the object instance.
+     */
+    @Label("Object Name")
+    String objectName;
+    
+    /**
+     * The number of attributes reflected.
+     */
+    @Label("Attribute Count")
+    int attributeCount;
+    
+    /**
+     * The total length of the encoded attributes.
+     */
+    @Label("Byte Length")
+    @DataAmount
+    int byteLength;
+}
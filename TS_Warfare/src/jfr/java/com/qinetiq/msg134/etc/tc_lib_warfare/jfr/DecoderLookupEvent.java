@@ -0,0 +1,66 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The generation of a decoder for a parameter or attribute from the FOM.
+ *
+ * @author QinetiQ
+ */
+@Name("com.qinetiq.msg134.warfare.DecoderLookup")
+@Label("Decoder Lookup")
+@Category({ "IVCT", "Warfare" })
+@Description("The generation of a decoder for a parameter or attribute from the FOM.")
+class DecoderLookupEvent extends Event
+{
+    /**
+     * The name of the interaction or object class.
+     */
+    @Label("Class")
+    String className;
+    
+    /**
+     * The name of the parameter or attribute.
+     */
+    @Label("Member")
+    String member;
+    
+    /**
+     * The name of the data type of the parameter or attribute, if it was found.
+     */
+    @Label("Data Type")
+    String dataType;
+    
+    /**
+     * True if a decoder was generated.
+     */
+    @Label("Found")
+    boolean found;
+    
+    /**
+     * The time taken to generate the decoder.
+     */
+    @Label("Lookup Time")
+    @Timespan
+    long lookupTime;
+}
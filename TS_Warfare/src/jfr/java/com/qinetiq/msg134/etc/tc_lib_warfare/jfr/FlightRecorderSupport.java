@@ -0,0 +1,155 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.jfr;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Creates and commits the flight recorder events on behalf of
+ * {@link ValidationEvents}. This is the only class, other than the events
+ * themselves, that refers to the flight recorder API. It is kept in the jfr
+ * source set and loaded by reflection once the API is known to be present.
+ *
+ * @author QinetiQ
+ */
+final class FlightRecorderSupport implements EventEmitter
+{
+    /**
+     * The identifiers of the recordings that are running.
+     */
+    private static final Set<Long> RUNNING = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * Constructor, called by reflection.
+     */
+    FlightRecorderSupport()
+    {
+    }
+    
+    @Override
+    public void followRecordings()
+    {
+        FlightRecorder.addListener(new FlightRecorderListener()
+        {
+            @Override
+            public void recorderInitialized(final FlightRecorder recorder)
+            {
+                // Recordings started before the listener was added, for example from the
+                // command line, are not otherwise reported
+                for (Recording recording : recorder.getRecordings())
+                {
+                    recordingStateChanged(recording);
+                }
+            }
+            
+            @Override
+            public void recordingStateChanged(final Recording recording)
+            {
+                if (recording.getState() == RecordingState.RUNNING)
+                {
+                    RUNNING.add(recording.getId());
+                }
+                else
+                {
+                    RUNNING.remove(recording.getId());
+                }
+                ValidationEvents.setRecording(!RUNNING.isEmpty());
+            }
+        });
+    }
+    
+    @Override
+    public void interactionReceived(final String interactionClass, final int parameterCount, final int byteLength)
+    {
+        InteractionReceivedEvent event = new InteractionReceivedEvent();
+        if (event.isEnabled())
+        {
+            event.interactionClass = interactionClass;
+            event.parameterCount = parameterCount;
+            event.byteLength = byteLength;
+            event.commit();
+        }
+    }
+    
+    @Override
+    public void parameterDecoded(final String interactionClass, final String issuingObjectIdentifier,
+            final String parameter, final String dataType, final int byteLength, final String outcome,
+            final long decodeTime)
+    {
+        ParameterDecodeEvent event = new ParameterDecodeEvent();
+        if (event.isEnabled())
+        {
+            event.interactionClass = interactionClass;
+            event.issuingObjectIdentifier = issuingObjectIdentifier;
+            event.parameter = parameter;
+            event.dataType = dataType;
+            event.byteLength = byteLength;
+            event.outcome = outcome;
+            event.decodeTime = decodeTime;
+            event.commit();
+        }
+    }
+    
+    @Override
+    public void decoderLookup(final String className, final String member, final String dataType,
+            final boolean found, final long lookupTime)
+    {
+        DecoderLookupEvent event = new DecoderLookupEvent();
+        if (event.isEnabled())
+        {
+            event.className = className;
+            event.member = member;
+            event.dataType = dataType;
+            event.found = found;
+            event.lookupTime = lookupTime;
+            event.commit();
+        }
+    }
+    
+    @Override
+    public void attributesReflected(final String objectClass, final String objectName, final int attributeCount,
+            final int byteLength)
+    {
+        AttributesReflectedEvent event = new AttributesReflectedEvent();
+        if (event.isEnabled())
+        {
+            event.objectClass = objectClass;
+            event.objectName = objectName;
+            event.attributeCount = attributeCount;
+            event.byteLength = byteLength;
+            event.commit();
+        }
+    }
+    
+    @Override
+    public void pairMatch(final String issuingObjectIdentifier, final boolean matched, final long flightTime)
+    {
+        PairMatchEvent event = new PairMatchEvent();
+        if (event.isEnabled())
+        {
+            event.issuingObjectIdentifier = issuingObjectIdentifier;
+            event.matched = matched;
+            event.flightTime = flightTime;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A tracked interaction received from the RTI and queued to be tested.
+ *
+ * @author QinetiQ
+ */
+@Name("com.qinetiq.msg134.warfare.InteractionReceived")
+@Label("Interaction Received")
+@Category({ "IVCT", "Warfare" })
+@Description("A tracked interaction received from the RTI and queued to be tested.")
+class InteractionReceivedEvent extends Event
+{
+    /**
+     * The name of the interaction class.
+     */
+    @Label("Interaction Class")
+    String interactionClass;
+    
+    /**
+     * The number of parameters received.
+     */
+    @Label("Parameter Count")
+    int parameterCount;
+    
+    /**
+     * The total length of the encoded parameters.
+     */
+    @Label("Byte Length")
+    @DataAmount
+    int byteLength;
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The search for the WeaponFire that preceded a MunitionDetonation.
+ *
+ * @author QinetiQ
+ */
+@Name("com.qinetiq.msg134.warfare.PairMatch")
+@Label("Pair Match")
+@Category({ "IVCT", "Warfare" })
+@Description("The search for the WeaponFire that preceded a MunitionDetonation.")
+class PairMatchEvent extends Event
+{
+    /**
+     * The IssuingObjectIdentifier of the EventIdentifier of the
+     * MunitionDetonation.
+     */
+    @Label("Issuing Object Identifier")
+    String issuingObjectIdentifier;
+    
+    /**
+     * True if a matching WeaponFire was found.
+     */
+    @Label("Matched")
+    boolean matched;
+    
+    /**
+     * The time between the receipt of the WeaponFire and the MunitionDetonation,
+     * if they were matched.
+     */
+    @Label("Flight Time")
+    @Timespan(Timespan.MILLISECONDS)
+    long flightTime;
+}
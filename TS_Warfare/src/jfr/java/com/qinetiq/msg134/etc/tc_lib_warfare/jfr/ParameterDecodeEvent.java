@@ -0,0 +1,81 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The decoding of a parameter of a received WeaponFire or MunitionDetonation
+ * interaction.
+ *
+ * @author QinetiQ
+ */
+@Name("com.qinetiq.msg134.warfare.ParameterDecode")
+@Label("Parameter Decode")
+@Category({ "IVCT", "Warfare" })
+@Description("The decoding of a parameter of a received WeaponFire or MunitionDetonation interaction.")
+class ParameterDecodeEvent extends Event
+{
+    /**
+     * The name of the interaction class.
+     */
+    @Label("Interaction Class")
+    String interactionClass;
+    
+    /**
+     * The IssuingObjectIdentifier of the EventIdentifier of the interaction.
+     */
+    @Label("Issuing Object Identifier")
+    String issuingObjectIdentifier;
+    
+    /**
+     * The name of the parameter.
+     */
+    @Label("Parameter")
+    String parameter;
+    
+    /**
+     * The type of the data element with which the parameter was decoded.
+     */
+    @Label("Data Type")
+    String dataType;
+    
+    /**
+     * The length of the encoded parameter.
+     */
+    @Label("Byte Length")
+    @DataAmount
+    int byteLength;
+    
+    /**
+     * The outcome of the decoding.
+     */
+    @Label("Outcome")
+    String outcome;
+    
+    /**
+     * The time taken to decode the parameter.
+     */
+    @Label("Decode Time")
+    @Timespan
+    long decodeTime;
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare;
+
+import java.io.File;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.helpers.NOPLogger;
+
+import hla.rti1516e.RtiFactoryFactory;
+import hla.rti1516e.encoding.DataElement;
+import hla.rti1516e.encoding.EncoderFactory;
+
+/**
+ * Benchmarks of {@link DecoderGenerator#generateParameterDecoder(String, String)}
+ * for a selection of WeaponFire and MunitionDetonation parameters. The cold
+ * benchmark generates a decoder from a newly loaded generator, so nothing has
+ * been looked up before; the warm benchmark repeatedly generates decoders from
+ * the same generator.
+ * 
+ * @author QinetiQ
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecoderGeneratorBenchmark
+{
+    /**
+     * The FOM modules to load, relative to the TS_Warfare project directory.
+     */
+    public static final String[] FOM_FILES = { "src/test/resources/RPR-Warfare_v2.0.xml",
+            "src/test/resources/RPR-Foundation_v2.0.xml", "src/test/resources/RPR-Enumerations_v2.0.xml",
+            "src/test/resources/RPR-Base_v2.0.xml" };
+    
+    /**
+     * The interaction and parameter for which to generate a decoder.
+     */
+    @Param({ "WeaponFire.EventIdentifier", "WeaponFire.FiringLocation", "WeaponFire.MunitionType",
+            "MunitionDetonation.DetonationResultCode", "MunitionDetonation.ArticulatedPartData" })
+    public String parameter;
+    
+    /**
+     * The URLs of the FOM modules.
+     */
+    private URL[] urls;
+    
+    /**
+     * The encoder factory given to the generators.
+     */
+    private EncoderFactory encoderFactory;
+    
+    /**
+     * A generator that has already generated the decoder under test.
+     */
+    private DecoderGenerator warmGenerator;
+    
+    /**
+     * The interaction part of {@link #parameter}.
+     */
+    private String interactionName;
+    
+    /**
+     * The parameter name part of {@link #parameter}.
+     */
+    private String parameterName;
+    
+    /**
+     * Loads the FOM modules and warms up the generator used by the warm benchmark.
+     * 
+     * @throws Exception
+     *             If the FOM modules could not be loaded
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        urls = fomUrls();
+        encoderFactory = RtiFactoryFactory.getRtiFactory().getEncoderFactory();
+        
+        interactionName = parameter.substring(0, parameter.indexOf('.'));
+        parameterName = parameter.substring(parameter.indexOf('.') + 1);
+        
+        warmGenerator = new DecoderGenerator(urls, encoderFactory, NOPLogger.NOP_LOGGER);
+        if (warmGenerator.generateParameterDecoder(interactionName, parameterName) == null)
+        {
+            throw new IllegalStateException("No decoder could be generated for " + parameter);
+        }
+    }
+    
+    /**
+     * Holds a newly loaded generator, replaced before every cold invocation. This
+     * is kept apart from the main state so that the warm benchmark does not pay
+     * for loading it.
+     */
+    @State(Scope.Thread)
+    public static class ColdGenerator
+    {
+        /**
+         * The newly loaded generator.
+         */
+        private DecoderGenerator generator;
+        
+        /**
+         * Loads a new generator, dropping the FOM modules cached by earlier
+         * generators so that they are parsed again.
+         * 
+         * @param benchmark
+         *            The main benchmark state
+         * @throws Exception
+         *             If the FOM modules could not be loaded
+         */
+        @Setup(Level.Invocation)
+        public void setUp(final DecoderGeneratorBenchmark benchmark) throws Exception
+        {
+            FomModel.clearCache();
+            generator = new DecoderGenerator(benchmark.urls, benchmark.encoderFactory, NOPLogger.NOP_LOGGER);
+        }
+    }
+    
+    @Benchmark
+    public DataElement generateParameterDecoderCold(final ColdGenerator cold)
+    {
+        return cold.generator.generateParameterDecoder(interactionName, parameterName);
+    }
+    
+    @Benchmark
+    public DataElement generateParameterDecoderWarm()
+    {
+        return warmGenerator.generateParameterDecoder(interactionName, parameterName);
+    }
+    
+    /**
+     * @return The URLs of the FOM modules used by the benchmarks.
+     * @throws Exception
+     *             If a URL could not be formed
+     */
+    public static URL[] fomUrls() throws Exception
+    {
+        URL[] urls = new URL[FOM_FILES.length];
+        for (int index = 0; index < FOM_FILES.length; index++)
+        {
+            urls[index] = new File(FOM_FILES[index]).toURI().toURL();
+        }
+        return urls;
+    }
+}
@@ -0,0 +1,259 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.decode;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.DetonationResultCode;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.EntityTypeStruct;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.EventIdentifierStruct;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.FuseType;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.VelocityVectorColumns;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.VelocityVectorStruct;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.WarheadType;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.WorldLocationColumns;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.WorldLocationStruct;
+
+import hla.rti1516e.RtiFactoryFactory;
+import hla.rti1516e.encoding.DecoderException;
+import hla.rti1516e.encoding.EncoderFactory;
+import hla.rti1516e.encoding.HLAfixedRecord;
+import hla.rti1516e.encoding.HLAunicodeString;
+import hla.rti1516e.encoding.HLAvariableArray;
+
+/**
+ * Benchmarks of each of the decoders in this package, decoding a typical
+ * encoded value. Run with the gc profiler to see the allocation per decode.
+ * 
+ * @author QinetiQ
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecoderBenchmark
+{
+    /**
+     * The number of values decoded by each of the batch benchmarks.
+     */
+    private static final int BATCH_SIZE = 1024;
+    
+    /*
+     * The decoders under test.
+     */
+    private DetonationResultCodeDecoder detonationResultCodeDecoder;
+    private EntityTypeStructDecoder entityTypeStructDecoder;
+    private EventIdentifierStructDecoder eventIdentifierStructDecoder;
+    private FuseTypeDecoder fuseTypeDecoder;
+    private HLAVariableStringArrayDecoder variableStringArrayDecoder;
+    private VelocityVectorStructDecoder velocityVectorStructDecoder;
+    private WarheadTypeDecoder warheadTypeDecoder;
+    private WorldLocationStructDecoder worldLocationStructDecoder;
+    private RTIobjectIdDecoder rtiObjectIdDecoder;
+    private WorldLocationStructBatchDecoder worldLocationStructBatchDecoder;
+    private VelocityVectorStructBatchDecoder velocityVectorStructBatchDecoder;
+    
+    /*
+     * The encoded values to decode, one for each decoder.
+     */
+    private byte[] detonationResultCode;
+    private byte[] entityType;
+    private byte[] eventIdentifier;
+    private byte[] fuseType;
+    private byte[] variableStringArray;
+    private byte[] velocityVector;
+    private byte[] warheadType;
+    private byte[] worldLocation;
+    private byte[] rtiObjectId;
+    
+    /**
+     * The same world locations and velocities, as wrapped buffers for the batch
+     * decoders.
+     */
+    private List<ByteBuffer> worldLocations;
+    private List<ByteBuffer> velocityVectors;
+    
+    /**
+     * Creates the decoders and encodes the values to decode.
+     * 
+     * @throws Exception
+     *             If the RTI encoder factory is not available
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        EncoderFactory factory = RtiFactoryFactory.getRtiFactory().getEncoderFactory();
+        
+        detonationResultCodeDecoder = new DetonationResultCodeDecoder();
+        entityTypeStructDecoder = new EntityTypeStructDecoder();
+        eventIdentifierStructDecoder = new EventIdentifierStructDecoder();
+        fuseTypeDecoder = new FuseTypeDecoder();
+        variableStringArrayDecoder = new HLAVariableStringArrayDecoder();
+        velocityVectorStructDecoder = new VelocityVectorStructDecoder();
+        warheadTypeDecoder = new WarheadTypeDecoder();
+        worldLocationStructDecoder = new WorldLocationStructDecoder();
+        rtiObjectIdDecoder = new RTIobjectIdDecoder();
+        worldLocationStructBatchDecoder = new WorldLocationStructBatchDecoder();
+        velocityVectorStructBatchDecoder = new VelocityVectorStructBatchDecoder();
+        
+        detonationResultCode = factory.createHLAoctet((byte) 1).toByteArray();
+        fuseType = factory.createHLAinteger16BE((short) 1000).toByteArray();
+        warheadType = factory.createHLAinteger16BE((short) 1000).toByteArray();
+        
+        HLAfixedRecord entityTypeRecord = factory.createHLAfixedRecord();
+        entityTypeRecord.add(factory.createHLAoctet((byte) 2));
+        entityTypeRecord.add(factory.createHLAoctet((byte) 1));
+        entityType = entityTypeRecord.toByteArray();
+        
+        RTIobjectIdDecoder issuingObject = new RTIobjectIdDecoder();
+        issuingObject.setValue("Shooter.1");
+        HLAfixedRecord eventIdentifierRecord = factory.createHLAfixedRecord();
+        eventIdentifierRecord.add(factory.createHLAinteger16BE((short) 42));
+        eventIdentifierRecord.add(issuingObject);
+        eventIdentifier = eventIdentifierRecord.toByteArray();
+        
+        HLAvariableArray<HLAunicodeString> foms = factory.createHLAvariableArray(
+                index -> factory.createHLAunicodeString(), factory.createHLAunicodeString("RPR-Base_v2.0"),
+                factory.createHLAunicodeString("RPR-Warfare_v2.0"));
+        variableStringArray = foms.toByteArray();
+        
+        HLAfixedRecord velocityRecord = factory.createHLAfixedRecord();
+        velocityRecord.add(factory.createHLAfloat32BE(120.5f));
+        velocityRecord.add(factory.createHLAfloat32BE(-3.25f));
+        velocityRecord.add(factory.createHLAfloat32BE(9.75f));
+        velocityVector = velocityRecord.toByteArray();
+        
+        HLAfixedRecord locationRecord = factory.createHLAfixedRecord();
+        locationRecord.add(factory.createHLAfloat64BE(3980000.0));
+        locationRecord.add(factory.createHLAfloat64BE(-10000.0));
+        locationRecord.add(factory.createHLAfloat64BE(4970000.0));
+        worldLocation = locationRecord.toByteArray();
+        
+        RTIobjectIdDecoder munitionObject = new RTIobjectIdDecoder();
+        munitionObject.setValue("Munition.1");
+        rtiObjectId = munitionObject.toByteArray();
+        
+        worldLocations = new ArrayList<>(BATCH_SIZE);
+        velocityVectors = new ArrayList<>(BATCH_SIZE);
+        for (int index = 0; index < BATCH_SIZE; index++)
+        {
+            worldLocations.add(ByteBuffer.wrap(worldLocation));
+            velocityVectors.add(ByteBuffer.wrap(velocityVector));
+        }
+    }
+    
+    @Benchmark
+    public DetonationResultCode detonationResultCode() throws DecoderException
+    {
+        return detonationResultCodeDecoder.decode(detonationResultCode);
+    }
+    
+    @Benchmark
+    public EntityTypeStruct entityTypeStruct() throws DecoderException
+    {
+        return entityTypeStructDecoder.decode(entityType);
+    }
+    
+    @Benchmark
+    public EventIdentifierStruct eventIdentifierStruct() throws DecoderException
+    {
+        return eventIdentifierStructDecoder.decode(eventIdentifier);
+    }
+    
+    @Benchmark
+    public FuseType fuseType() throws DecoderException
+    {
+        return fuseTypeDecoder.decode(fuseType);
+    }
+    
+    @Benchmark
+    public HLAvariableArray<HLAunicodeString> variableStringArray() throws DecoderException
+    {
+        return variableStringArrayDecoder.decode(variableStringArray);
+    }
+    
+    @Benchmark
+    public VelocityVectorStruct velocityVectorStruct() throws DecoderException
+    {
+        return velocityVectorStructDecoder.decode(velocityVector);
+    }
+    
+    @Benchmark
+    public WarheadType warheadType() throws DecoderException
+    {
+        return warheadTypeDecoder.decode(warheadType);
+    }
+    
+    @Benchmark
+    public WorldLocationStruct worldLocationStruct() throws DecoderException
+    {
+        return worldLocationStructDecoder.decode(worldLocation);
+    }
+    
+    @Benchmark
+    public String rtiObjectId()
+    {
+        rtiObjectIdDecoder.decode(rtiObjectId);
+        return rtiObjectIdDecoder.getValue();
+    }
+    
+    /**
+     * Decodes a batch of world locations one at a time, for comparison with
+     * {@link #worldLocationBatch()}.
+     * 
+     * @param blackhole
+     *            Consumes the decoded values
+     * @throws DecoderException
+     *             If a value failed to decode
+     */
+    @Benchmark
+    public void worldLocationStructLoop(final Blackhole blackhole) throws DecoderException
+    {
+        for (int index = 0; index < BATCH_SIZE; index++)
+        {
+            blackhole.consume(worldLocationStructDecoder.decode(worldLocation));
+        }
+    }
+    
+    @Benchmark
+    public WorldLocationColumns worldLocationBatch() throws DecoderException
+    {
+        return worldLocationStructBatchDecoder.decodeAll(worldLocations);
+    }
+    
+    @Benchmark
+    public VelocityVectorColumns velocityVectorBatch() throws DecoderException
+    {
+        return velocityVectorStructBatchDecoder.decodeAll(velocityVectors);
+    }
+}
@@ -0,0 +1,249 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_warfare;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.helpers.NOPLogger;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.DecoderGenerator;
+import com.qinetiq.msg134.etc.tc_lib_warfare.DecoderGeneratorBenchmark;
+import com.qinetiq.msg134.etc.tc_lib_warfare.InteractionRecord;
+import com.qinetiq.msg134.etc.tc_lib_warfare.ReceiveClock;
+import com.qinetiq.msg134.etc.tc_lib_warfare.ReceivedInteraction;
+import com.qinetiq.msg134.etc.tc_lib_warfare.decode.RTIobjectIdDecoder;
+import com.qinetiq.msg134.etc.tc_lib_warfare.loopback.LoopbackFederation;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.EventIdentifierStruct;
+
+import de.fraunhofer.iosb.tc_lib.IVCT_RTIambassador;
+import hla.rti1516e.ParameterHandle;
+import hla.rti1516e.ParameterHandleValueMap;
+import hla.rti1516e.RtiFactoryFactory;
+import hla.rti1516e.encoding.DataElement;
+import hla.rti1516e.encoding.EncoderException;
+import hla.rti1516e.encoding.EncoderFactory;
+import hla.rti1516e.encoding.HLAfixedRecord;
+
+/**
+ * End to end benchmark of {@link TC_0001_Warfare#decodeReceivedInteraction}
+ * on synthetic WeaponFire and MunitionDetonation interactions, using the test
+ * case's own configuration and decoder generator.
+ * 
+ * The test case is connected to a {@link LoopbackFederation}, the same
+ * in-process stand-in for the RTI that {@link LoopbackLoadTest} uses, so the
+ * benchmark needs no RTI and its handles are those that the load generator
+ * sends.
+ * 
+ * @author QinetiQ
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecodeReceivedInteractionBenchmark
+{
+    /**
+     * The logger given to the test case. Logging is discarded so that the
+     * benchmark measures decoding rather than the logging back end.
+     */
+    private static final Logger LOGGER = NOPLogger.NOP_LOGGER;
+    
+    /**
+     * The test case under test.
+     */
+    private TC_0001_Warfare testCase;
+    
+    /**
+     * A synthetic WeaponFire interaction.
+     */
+    private ReceivedInteraction weaponFire;
+    
+    /**
+     * A synthetic MunitionDetonation interaction for the same event.
+     */
+    private ReceivedInteraction munitionDetonation;
+    
+    /**
+     * Creates the test case and the synthetic interactions.
+     * 
+     * @throws Exception
+     *             If the test case could not be prepared
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        final EncoderFactory encoderFactory = RtiFactoryFactory.getRtiFactory().getEncoderFactory();
+        final LoopbackFederation federation = new LoopbackFederation(encoderFactory);
+        
+        testCase = new TC_0001_Warfare()
+        {
+            @Override
+            protected IVCT_RTIambassador createRtiAmbassador(final Logger logger)
+            {
+                return federation.createIvctRtiAmbassador(logger);
+            }
+        };
+        testCase.getIVCT_BaseModel(tcParamJson(), LOGGER);
+        testCase.prepareDecoding(LOGGER);
+        
+        DecoderGenerator generator = new DecoderGenerator(DecoderGeneratorBenchmark.fomUrls(), encoderFactory,
+                LOGGER);
+        weaponFire = createInteraction(testCase.weaponFireRecord, generator, federation);
+        munitionDetonation = createInteraction(testCase.munitionDetonationRecord, generator, federation);
+    }
+    
+    /**
+     * Replaces the interaction records so that the decoded parameters retained by
+     * the test case do not accumulate across iterations.
+     * 
+     * @throws Exception
+     *             If the test case could not be prepared
+     */
+    @Setup(Level.Iteration)
+    public void resetRecords() throws Exception
+    {
+        testCase.prepareDecoding(LOGGER);
+    }
+    
+    @Benchmark
+    public EventIdentifierStruct weaponFire() throws Exception
+    {
+        return testCase.decodeReceivedInteraction(weaponFire, LOGGER);
+    }
+    
+    @Benchmark
+    public EventIdentifierStruct munitionDetonation() throws Exception
+    {
+        return testCase.decodeReceivedInteraction(munitionDetonation, LOGGER);
+    }
+    
+    /**
+     * Creates an interaction with every expected parameter set to the default
+     * encoding of its data type, except for the identifiers, which are given
+     * realistic values.
+     * 
+     * @param record
+     *            The record of the interaction class
+     * @param generator
+     *            Generates the data elements used to encode the parameters
+     * @param federation
+     *            The federation providing the parameter map and encoder factory
+     * @return The interaction
+     * @throws EncoderException
+     *             If an identifier could not be encoded
+     */
+    private static ReceivedInteraction createInteraction(final InteractionRecord record,
+            final DecoderGenerator generator, final LoopbackFederation federation) throws EncoderException
+    {
+        EncoderFactory encoderFactory = federation.getEncoderFactory();
+        ParameterHandleValueMap parameters = federation.createParameterMap(record.getExpectedParamMap().size());
+        
+        for (Map.Entry<String, ParameterHandle> e : record.getExpectedParamMap().entrySet())
+        {
+            byte[] encoded;
+            switch (e.getKey())
+            {
+                case "EventIdentifier":
+                    RTIobjectIdDecoder issuingObject = new RTIobjectIdDecoder();
+                    issuingObject.setValue("Shooter.1");
+                    HLAfixedRecord eventIdentifier = encoderFactory.createHLAfixedRecord();
+                    eventIdentifier.add(encoderFactory.createHLAinteger16BE((short) 42));
+                    eventIdentifier.add(issuingObject);
+                    encoded = eventIdentifier.toByteArray();
+                    break;
+                
+                case "FiringObjectIdentifier":
+                case "MunitionObjectIdentifier":
+                case "TargetObjectIdentifier":
+                    RTIobjectIdDecoder objectId = new RTIobjectIdDecoder();
+                    objectId.setValue(e.getKey().replace("ObjectIdentifier", ".1"));
+                    encoded = objectId.toByteArray();
+                    break;
+                
+                default:
+                    encoded = defaultEncoding(generator.generateParameterDecoder(record.getInteractionName(),
+                            e.getKey()));
+                    break;
+            }
+            
+            if (encoded != null)
+            {
+                parameters.put(e.getValue(), encoded);
+            }
+        }
+        
+        ReceiveClock clock = new ReceiveClock();
+        long receiveNanoTime = clock.nanoTime();
+        return new ReceivedInteraction(record.getInteractionClassHandle(), parameters, null,
+                clock.toMillis(receiveNanoTime), receiveNanoTime);
+    }
+    
+    /**
+     * @param element
+     *            A newly generated data element, or null
+     * @return The encoding of the element's default value, or null if it has none,
+     *         in which case the parameter is left out of the interaction
+     */
+    private static byte[] defaultEncoding(final DataElement element)
+    {
+        byte[] encoded;
+        try
+        {
+            encoded = element == null ? null : element.toByteArray();
+        }
+        catch (EncoderException e)
+        {
+            encoded = null;
+        }
+        return encoded;
+    }
+    
+    /**
+     * @return The TcParam JSON for the test case, naming the FOM modules used by
+     *         the benchmarks.
+     */
+    private static String tcParamJson()
+    {
+        StringBuilder urls = new StringBuilder();
+        for (String fom : DecoderGeneratorBenchmark.FOM_FILES)
+        {
+            urls.append(urls.length() == 0 ? "" : ", ").append('"')
+                    .append(new File(fom).getAbsolutePath().replace('\\', '/')).append('"');
+        }
+        
+        return String.join("", "{ \"rtiHost\": \"localhost\", \"federationName\": \"IVCT\",",
+                " \"tcFederateName\": \"TC_0001_Warfare\", \"sutFederateName\": \"SuT\",",
+                " \"sutFederateType\": \"SuT\", \"sutFederateJoinTimeout\": 1.0,",
+                " \"sutFederateResignTimeout\": 1.0, \"testTimeout\": 1.0, \"sleepTime\": 0.0,", " \"urls\": [ ",
+                urls.toString(), " ] }");
+    }
+}
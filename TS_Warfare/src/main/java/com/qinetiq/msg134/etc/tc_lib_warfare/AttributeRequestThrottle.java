@@ -0,0 +1,171 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which attribute update requests are sent to the RTI, so that polling
+ * many object instances does not flood it. A request for an object instance or
+ * class is not repeated while an earlier one is pending, that is until the
+ * attributes are reflected or the interval has passed, and no more than a given
+ * number of requests are sent in any one interval.
+ *
+ * @author QinetiQ
+ */
+public final class AttributeRequestThrottle
+{
+    /**
+     * The length of an interval in milliseconds.
+     */
+    private final long intervalMillis;
+    
+    /**
+     * The greatest number of requests sent in an interval.
+     */
+    private final int maxRequestsPerInterval;
+    
+    /**
+     * The clock that determines when an interval has passed.
+     */
+    private final LongSupplier clock;
+    
+    /**
+     * The times at which the pending requests were sent, by the object instance
+     * or class handle requested.
+     */
+    private final Map<Object, Long> pending = new HashMap<>();
+    
+    /**
+     * The time at which the current interval started.
+     */
+    private long intervalStart;
+    
+    /**
+     * The number of requests sent in the current interval.
+     */
+    private int sent;
+    
+    /**
+     * The number of requests that have not been sent.
+     */
+    private long suppressed;
+    
+    /**
+     * Constructor
+     *
+     * @param intervalMillis
+     *            The length of an interval in milliseconds
+     * @param maxRequestsPerInterval
+     *            The greatest number of requests sent in an interval
+     */
+    public AttributeRequestThrottle(final long intervalMillis, final int maxRequestsPerInterval)
+    {
+        this(intervalMillis, maxRequestsPerInterval, System::currentTimeMillis);
+    }
+    
+    /**
+     * Constructor
+     *
+     * @param intervalMillis
+     *            The length of an interval in milliseconds
+     * @param maxRequestsPerInterval
+     *            The greatest number of requests sent in an interval
+     * @param clock
+     *            The clock that determines when an interval has passed, in
+     *            milliseconds
+     */
+    public AttributeRequestThrottle(final long intervalMillis, final int maxRequestsPerInterval,
+            final LongSupplier clock)
+    {
+        this.intervalMillis = intervalMillis;
+        this.maxRequestsPerInterval = maxRequestsPerInterval;
+        this.clock = clock;
+        this.intervalStart = clock.getAsLong();
+    }
+    
+    /**
+     * Decides whether a request should be sent, and if so records it as pending.
+     *
+     * @param requested
+     *            The object instance or class handle whose attributes are to be
+     *            requested
+     * @return True if the request should be sent, or false if an earlier request
+     *         is still pending or too many requests have been sent in the current
+     *         interval
+     */
+    public synchronized boolean tryRequest(final Object requested)
+    {
+        long now = clock.getAsLong();
+        boolean result = false;
+        
+        if (now - intervalStart >= intervalMillis)
+        {
+            intervalStart = now;
+            sent = 0;
+        }
+        
+        Long pendingSince = pending.get(requested);
+        
+        if ((pendingSince == null || now - pendingSince >= intervalMillis) && sent < maxRequestsPerInterval)
+        {
+            pending.put(requested, now);
+            sent++;
+            result = true;
+        }
+        else
+        {
+            suppressed++;
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Records that the attributes of an object instance or class have been
+     * reflected, so that a further request may be sent straight away.
+     *
+     * @param requested
+     *            The object instance or class handle
+     */
+    public synchronized void satisfied(final Object requested)
+    {
+        pending.remove(requested);
+    }
+    
+    /**
+     * @param requested
+     *            The object instance or class handle
+     * @return True if a request for the object instance or class was sent in the
+     *         last interval and has not been satisfied
+     */
+    public synchronized boolean isPending(final Object requested)
+    {
+        Long pendingSince = pending.get(requested);
+        return pendingSince != null && clock.getAsLong() - pendingSince < intervalMillis;
+    }
+    
+    /**
+     * @return The number of requests that have not been sent because an earlier
+     *         request was pending or the rate was limited
+     */
+    public synchronized long getSuppressed()
+    {
+        return suppressed;
+    }
+}
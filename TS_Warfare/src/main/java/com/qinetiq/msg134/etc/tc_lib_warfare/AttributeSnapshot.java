@@ -0,0 +1,226 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import hla.rti1516e.AttributeHandle;
+
+/**
+ * An immutable view of every attribute value received for an object instance,
+ * merged from any number of partial updates. Each attribute carries the number
+ * of times that it has been updated and the time of its last update. A snapshot
+ * is never changed once created, so it may be read from any thread without
+ * locking; merging an update creates a new snapshot.
+ *
+ * @author QinetiQ
+ */
+public final class AttributeSnapshot
+{
+    /**
+     * The snapshot of an object for which no attributes have been received.
+     */
+    public static final AttributeSnapshot EMPTY = new AttributeSnapshot(new AttributeHandle[0], new byte[0][],
+            new long[0], new long[0], 0);
+    
+    /**
+     * The handles of the attributes received, in the order first received.
+     */
+    private final AttributeHandle[] handles;
+    
+    /**
+     * The latest encoded value of each attribute, indexed as the handles.
+     */
+    private final byte[][] values;
+    
+    /**
+     * The number of times each attribute has been updated, indexed as the
+     * handles.
+     */
+    private final long[] versions;
+    
+    /**
+     * The time of the last update to each attribute, indexed as the handles.
+     */
+    private final long[] updateTimes;
+    
+    /**
+     * The number of updates merged into the snapshot.
+     */
+    private final long version;
+    
+    /**
+     * Constructor
+     *
+     * @param handles
+     *            The handles of the attributes received
+     * @param values
+     *            The latest encoded value of each attribute
+     * @param versions
+     *            The number of times each attribute has been updated
+     * @param updateTimes
+     *            The time of the last update to each attribute
+     * @param version
+     *            The number of updates merged into the snapshot
+     */
+    private AttributeSnapshot(final AttributeHandle[] handles, final byte[][] values, final long[] versions,
+            final long[] updateTimes, final long version)
+    {
+        this.handles = handles;
+        this.values = values;
+        this.versions = versions;
+        this.updateTimes = updateTimes;
+        this.version = version;
+    }
+    
+    /**
+     * Creates a new snapshot holding the values of this snapshot overlaid with
+     * those of an update. Attributes that are not in the update keep their
+     * previous values. The values are copied, so the update may be reused by the
+     * caller.
+     *
+     * @param update
+     *            The attribute values received
+     * @param time
+     *            The time at which the update was received
+     * @return The merged snapshot
+     */
+    public AttributeSnapshot merge(final Map<AttributeHandle, byte[]> update, final long time)
+    {
+        AttributeHandle[] mergedHandles = Arrays.copyOf(handles, handles.length + update.size());
+        byte[][] mergedValues = Arrays.copyOf(values, mergedHandles.length);
+        long[] mergedVersions = Arrays.copyOf(versions, mergedHandles.length);
+        long[] mergedUpdateTimes = Arrays.copyOf(updateTimes, mergedHandles.length);
+        int size = handles.length;
+        
+        for (Map.Entry<AttributeHandle, byte[]> entry : update.entrySet())
+        {
+            int index = indexOf(mergedHandles, size, entry.getKey());
+            
+            if (index < 0)
+            {
+                index = size++;
+                mergedHandles[index] = entry.getKey();
+            }
+            
+            byte[] value = entry.getValue();
+            mergedValues[index] = value == null ? null : value.clone();
+            mergedVersions[index]++;
+            mergedUpdateTimes[index] = time;
+        }
+        
+        return new AttributeSnapshot(Arrays.copyOf(mergedHandles, size), Arrays.copyOf(mergedValues, size),
+                Arrays.copyOf(mergedVersions, size), Arrays.copyOf(mergedUpdateTimes, size), version + 1);
+    }
+    
+    /**
+     * @param handle
+     *            The attribute handle
+     * @return True if a value has been received for the attribute
+     */
+    public boolean contains(final AttributeHandle handle)
+    {
+        return indexOf(handles, handles.length, handle) >= 0;
+    }
+    
+    /**
+     * @param handle
+     *            The attribute handle
+     * @return The latest encoded value of the attribute, or null if none has been
+     *         received. The array must not be modified.
+     */
+    public byte[] get(final AttributeHandle handle)
+    {
+        int index = indexOf(handles, handles.length, handle);
+        return index < 0 ? null : values[index];
+    }
+    
+    /**
+     * @param handle
+     *            The attribute handle
+     * @return The number of times the attribute has been updated
+     */
+    public long getVersion(final AttributeHandle handle)
+    {
+        int index = indexOf(handles, handles.length, handle);
+        return index < 0 ? 0 : versions[index];
+    }
+    
+    /**
+     * @param handle
+     *            The attribute handle
+     * @return The time of the last update to the attribute, in milliseconds since
+     *         the epoch, or -1 if none has been received
+     */
+    public long getUpdateTime(final AttributeHandle handle)
+    {
+        int index = indexOf(handles, handles.length, handle);
+        return index < 0 ? -1 : updateTimes[index];
+    }
+    
+    /**
+     * @return The number of updates merged into the snapshot, which increases with
+     *         every update to the object
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+    
+    /**
+     * @return The number of attributes for which values have been received
+     */
+    public int size()
+    {
+        return handles.length;
+    }
+    
+    /**
+     * @return True if no attribute values have been received
+     */
+    public boolean isEmpty()
+    {
+        return handles.length == 0;
+    }
+    
+    /**
+     * Finds an attribute handle. Objects have few attributes, so a linear search
+     * of the compact array is cheaper than a hash lookup.
+     *
+     * @param handles
+     *            The handles to search
+     * @param size
+     *            The number of handles in use
+     * @param handle
+     *            The handle to find
+     * @return The index of the handle, or -1 if it is not present
+     */
+    private static int indexOf(final AttributeHandle[] handles, final int size, final AttributeHandle handle)
+    {
+        int result = -1;
+        
+        for (int i = 0; i < size && result < 0; i++)
+        {
+            if (handles[i].equals(handle))
+            {
+                result = i;
+            }
+        }
+        
+        return result;
+    }
+}
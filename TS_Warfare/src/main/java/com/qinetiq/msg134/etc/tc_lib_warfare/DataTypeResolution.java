@@ -0,0 +1,127 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare;
+
+import org.w3c.dom.Element;
+
+/**
+ * The outcome of searching the FOM documents for a data type, remembered by the
+ * {@link DecoderGenerator} so that each data type name is only searched for
+ * once. A resolution records where the definition was found, but not a data
+ * element, as every decoder that is generated needs its own instances.
+ *
+ * @author QinetiQ
+ */
+final class DataTypeResolution
+{
+    /**
+     * The kinds of definition that a data type name may resolve to.
+     */
+    enum Category
+    {
+        BASIC("BasicDataType"),
+        ENUMERATED("EnumeratedDataType"),
+        SIMPLE("SimpleDataType"),
+        ARRAY("ArrayDataType"),
+        FIXED_RECORD("FixedRecordDataType"),
+        VARIANT_RECORD("VariantRecordDataType"),
+        UNRESOLVED("Unresolved");
+        
+        /**
+         * The name used for the category in log messages.
+         */
+        private final String description;
+        
+        /**
+         * @param description
+         *            The name used for the category in log messages
+         */
+        Category(final String description)
+        {
+            this.description = description;
+        }
+        
+        @Override
+        public String toString()
+        {
+            return description;
+        }
+    }
+    
+    /**
+     * The shared resolution for names that are not defined anywhere.
+     */
+    static final DataTypeResolution UNRESOLVED = new DataTypeResolution(Category.UNRESOLVED, null, null);
+    
+    /**
+     * The kind of definition found.
+     */
+    private final Category category;
+    
+    /**
+     * For enumerated, simple and array data types, the name of the data type that
+     * the definition refers to.
+     */
+    private final String target;
+    
+    /**
+     * For fixed record data types, the element holding the definition.
+     */
+    private final Element definition;
+    
+    /**
+     * Constructor
+     *
+     * @param category
+     *            The kind of definition found
+     * @param target
+     *            The name of the data type the definition refers to, if any
+     * @param definition
+     *            The element holding the definition, if needed to build decoders
+     */
+    DataTypeResolution(final Category category, final String target, final Element definition)
+    {
+        this.category = category;
+        this.target = target;
+        this.definition = definition;
+    }
+    
+    /**
+     * @return The kind of definition found
+     */
+    Category getCategory()
+    {
+        return category;
+    }
+    
+    /**
+     * @return The name of the data type that the definition refers to, or null if
+     *         it does not refer to another data type
+     */
+    String getTarget()
+    {
+        return target;
+    }
+    
+    /**
+     * @return The element holding the definition, or null if it is not needed to
+     *         build decoders
+     */
+    Element getDefinition()
+    {
+        return definition;
+    }
+}
@@ -24,7 +24,11 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
+import com.qinetiq.msg134.etc.tc_lib_warfare.VariantRecordPlan.Alternative;
+import com.qinetiq.msg134.etc.tc_lib_warfare.VariantRecordPlan.Range;
 import com.qinetiq.msg134.etc.tc_lib_warfare.decode.RTIobjectIdDecoder;
+import com.qinetiq.msg134.etc.tc_lib_warfare.decode.VariantRecordDecoder;
+import com.qinetiq.msg134.etc.tc_lib_warfare.jfr.ValidationEvents;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -33,21 +37,122 @@ import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Stores files (FOM definitions) and will generate decoders for interactions or
  * objects
  *
+ * The FOM definitions are shared with the other generators in the JVM that use
+ * the same files, so they are only searched whilst holding their lock. The
+ * generators may therefore be used by several threads at once.
+ *
  * @author rjjones3
  * @since 20/09/2016
  */
 public class DecoderGenerator
 {
+    /**
+     * The enumerator that selects the default alternative of a variant record.
+     */
+    private static final String HLA_OTHER = "HLAother";
+    
+    /**
+     * The prefix of the names of the unsigned integer representations of the RPR
+     * FOM.
+     */
+    private static final String UNSIGNED_PREFIX = "RPRunsigned";
+    
+    /**
+     * The data type given to a variant record alternative that carries no data.
+     */
+    private static final String NO_DATA = "NA";
+    
+    /**
+     * Matches a range of enumerators of the form [first..last].
+     */
+    private static final Pattern ENUMERATOR_RANGE = Pattern.compile("\\[\\s*(.+?)\\s*\\.\\.\\s*(.+?)\\s*\\]");
+    
+    /**
+     * The data elements for the basic data representations and the predefined
+     * simple, enumerated and array data types of HLA 1516-2010, together with
+     * the basic data representations added by the RPR FOM. The RPR unsigned
+     * integers are decoded as the signed HLA integer of the same size, as the
+     * encoding factory provides no unsigned types.
+     */
+    private static final Map<String, Function<EncoderFactory, DataElement>> BASIC_DATA_TYPES;
+    
+    static
+    {
+        Map<String, Function<EncoderFactory, DataElement>> types = new HashMap<>();
+        
+        // HLA basic data representations
+        types.put("HLAinteger16BE", EncoderFactory::createHLAinteger16BE);
+        types.put("HLAinteger32BE", EncoderFactory::createHLAinteger32BE);
+        types.put("HLAinteger64BE", EncoderFactory::createHLAinteger64BE);
+        types.put("HLAfloat32BE", EncoderFactory::createHLAfloat32BE);
+        types.put("HLAfloat64BE", EncoderFactory::createHLAfloat64BE);
+        types.put("HLAoctetPairBE", EncoderFactory::createHLAoctetPairBE);
+        types.put("HLAinteger16LE", EncoderFactory::createHLAinteger16LE);
+        types.put("HLAinteger32LE", EncoderFactory::createHLAinteger32LE);
+        types.put("HLAinteger64LE", EncoderFactory::createHLAinteger64LE);
+        types.put("HLAfloat32LE", EncoderFactory::createHLAfloat32LE);
+        types.put("HLAfloat64LE", EncoderFactory::createHLAfloat64LE);
+        types.put("HLAoctetPairLE", EncoderFactory::createHLAoctetPairLE);
+        types.put("HLAoctet", EncoderFactory::createHLAoctet);
+        
+        // HLA predefined simple, enumerated and array data types
+        types.put("HLAASCIIchar", EncoderFactory::createHLAASCIIchar);
+        types.put("HLAunicodeChar", EncoderFactory::createHLAunicodeChar);
+        types.put("HLAbyte", EncoderFactory::createHLAbyte);
+        types.put("HLAboolean", EncoderFactory::createHLAboolean);
+        types.put("HLAASCIIstring", EncoderFactory::createHLAASCIIstring);
+        types.put("HLAunicodeString", EncoderFactory::createHLAunicodeString);
+        types.put("HLAopaqueData", EncoderFactory::createHLAopaqueData);
+        
+        // RPR basic data representations
+        types.put("RPRunsignedInteger8BE", EncoderFactory::createHLAoctet);
+        types.put("RPRunsignedInteger16BE", EncoderFactory::createHLAinteger16BE);
+        types.put("RPRunsignedInteger32BE", EncoderFactory::createHLAinteger32BE);
+        types.put("RPRunsignedInteger64BE", EncoderFactory::createHLAinteger64BE);
+        
+        // RTI object identifiers, for which we have our own decoder
+        types.put("RTIobjectId", encoderFactory -> new RTIobjectIdDecoder());
+        
+        BASIC_DATA_TYPES = Collections.unmodifiableMap(types);
+    }
+    
     private final Logger logger;
     private EncoderFactory encoder;
     private List<Document> docs;
     
+    /**
+     * The FOM model shared with the other generators that load the same modules,
+     * whose lock must be held whilst the documents are searched.
+     */
+    private final FomModel model;
+    
+    /**
+     * The variant record definitions of all documents, compiled when the documents
+     * are loaded and keyed by the (case insensitive) data type name.
+     */
+    private final Map<String, VariantRecordPlan> variantRecordPlans;
+    
+    /**
+     * Where each data type name that has been looked up is defined, including
+     * names that are not defined at all.
+     */
+    private final Map<String, DataTypeResolution> resolutions;
+    
     /**
      * Constructor
      * 
@@ -71,18 +176,22 @@ public class DecoderGenerator
         this.logger = logger;
         
         /**
-         * parse all the files from TcParam (or whereever) and put them in an arraylist.
+         * parse all the files from TcParam (or whereever), unless another generator
+         * in this JVM has already done so.
          */
-        docs = new ArrayList<>();
-        
-        DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-        
-        for (URL url : urls)
-        {
-            docs.add(dBuilder.parse(url.getFile()));
-        }
-        
+        model = FomModel.load(urls, this::indexVariantRecords);
+        docs = model.getDocuments();
+        variantRecordPlans = model.getVariantRecordPlans();
+        resolutions = model.getResolutions();
+    }
+    
+    /**
+     * @return The FOM model shared with the other generators that load the same
+     *         modules
+     */
+    FomModel getModel()
+    {
+        return model;
     }
     
     /**
@@ -105,7 +214,10 @@ public class DecoderGenerator
         if (nl.getLength() > 0)
         {
             Node topInteractions = nl.item(0);
-            logger.info("Interactions found in file" + document.getDocumentURI());
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Interactions found in file" + document.getDocumentURI());
+            }
             
             if (topInteractions.getNodeType() == Node.ELEMENT_NODE)
             {
@@ -127,7 +239,10 @@ public class DecoderGenerator
         
         if (interactions != null)
         {
-            logger.info("Number of interactions defined in file: " + interactions.getLength());
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Number of interactions defined in file: " + interactions.getLength());
+            }
             
             SEARCH_LOOP:
             for (int temp = 0; temp < interactions.getLength(); temp++)
@@ -150,13 +265,16 @@ public class DecoderGenerator
                             NodeList subTags = element.getElementsByTagName("sharing");
                             if (subTags.getLength() > 0)
                             {
-                                logger.info("Match successfully found in document " + document.getDocumentURI());
+                                if (logger.isDebugEnabled())
+                                {
+                                    logger.debug("Match successfully found in document " + document.getDocumentURI());
+                                }
                                 theNode = node;
                                 break SEARCH_LOOP;
                             }
                             else
                             {
-                                logger.info("Parentage indicator, not actual definition.");
+                                logger.debug("Parentage indicator, not actual definition.");
                             }
                         }
                         else
@@ -221,7 +339,10 @@ public class DecoderGenerator
         
         if (objects != null)
         {
-            logger.info("Number of objects defined in file: " + objects.getLength());
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Number of objects defined in file: " + objects.getLength());
+            }
             
             SEARCH_LOOP:
             for (int temp = 0; temp < objects.getLength(); temp++)
@@ -242,13 +363,16 @@ public class DecoderGenerator
                         NodeList subTags = element.getElementsByTagName("sharing");
                         if (subTags.getLength() > 0)
                         {
-                            logger.info("Match successfully found in document " + document.getDocumentURI());
+                            if (logger.isDebugEnabled())
+                            {
+                                logger.debug("Match successfully found in document " + document.getDocumentURI());
+                            }
                             theNode = node;
                             break SEARCH_LOOP;
                         }
                         else
                         {
-                            logger.info("Parentage indicator, not actual definition.");
+                            logger.debug("Parentage indicator, not actual definition.");
                         }
                     }
                     else
@@ -289,8 +413,11 @@ public class DecoderGenerator
             Node n = searchFileObject(d, objectName);
             if (n == null)
             {
-                logger.debug(String.join(" ", "Object class with name", objectName, "not found in document:",
-                        d.getDocumentURI()));
+                if (logger.isDebugEnabled())
+                {
+                    logger.debug(String.join(" ", "Object class with name", objectName, "not found in document:",
+                            d.getDocumentURI()));
+                }
             }
             else
             {
@@ -321,8 +448,11 @@ public class DecoderGenerator
             Node n = searchFileInteraction(d, interactionName);
             if (n == null)
             {
-                logger.debug(String.join(" ", "Interaction with name", interactionName, "not found in document:",
-                        d.getDocumentURI()));
+                if (logger.isDebugEnabled())
+                {
+                    logger.debug(String.join(" ", "Interaction with name", interactionName, "not found in document:",
+                            d.getDocumentURI()));
+                }
             }
             else
             {
@@ -464,56 +594,70 @@ public class DecoderGenerator
      */
     public DataElement generateParameterDecoder(String interaction, String parameter)
     {
-        /** search for the interaction */
-        Node parameterNode = null;
-        
-        Node interactionNode = searchFOMInteraction(interaction);
-        if (interactionNode == null)
-        {
-            logger.debug("Failed while searching for interaction.");
-        }
-        else
-        {
-            /** within the interaction search for the parameter */
-            parameterNode = getParameter((Element) interactionNode, parameter);
-            if (parameterNode == null)
-            {
-                logger.debug("Failed while searching for parameter.");
-            }
-        }
-        
-        // The data element to return.
-        DataElement theDataElement = null;
-        
-        if (parameterNode != null)
+        ReentrantLock lock = model.getLock();
+        lock.lock();
+        try
         {
-            // we have found both the object and attribute, get to building
+            long lookupStart = ValidationEvents.start();
             
-            // check datatype field
-            NodeList dataType = ((Element) parameterNode).getElementsByTagName("dataType");
-            if (dataType.getLength() != 1)
+            /** search for the interaction */
+            Node parameterNode = null;
+            
+            Node interactionNode = searchFOMInteraction(interaction);
+            if (interactionNode == null)
             {
-                logger.error("Error: Too many datatype tags.");
+                logger.debug("Failed while searching for interaction.");
             }
             else
             {
-                Element dtE = (Element) dataType.item(0);
-                String dt = dtE.getTextContent();
-                
-                /**
-                 * lookup data types in datatypes section search simple data types first
-                 */
-                theDataElement = getDataType(dt);
+                /** within the interaction search for the parameter */
+                parameterNode = getParameter((Element) interactionNode, parameter);
+                if (parameterNode == null)
+                {
+                    logger.debug("Failed while searching for parameter.");
+                }
             }
             
-            if (theDataElement == null)
+            // The data element to return, and the name of its data type.
+            DataElement theDataElement = null;
+            String dataTypeName = null;
+            
+            if (parameterNode != null)
             {
-                logger.error("Resolving data type failed.");
+                // we have found both the object and attribute, get to building
+                
+                // check datatype field
+                NodeList dataType = ((Element) parameterNode).getElementsByTagName("dataType");
+                if (dataType.getLength() != 1)
+                {
+                    logger.error("Error: Too many datatype tags.");
+                }
+                else
+                {
+                    Element dtE = (Element) dataType.item(0);
+                    dataTypeName = dtE.getTextContent();
+                    
+                    /**
+                     * lookup data types in datatypes section search simple data types first
+                     */
+                    theDataElement = getDataType(dataTypeName);
+                }
+                
+                if (theDataElement == null)
+                {
+                    logger.error("Resolving data type failed.");
+                }
             }
+            
+            ValidationEvents.decoderLookup(interaction, parameter, dataTypeName, theDataElement != null, lookupStart);
+            
+            return theDataElement;
+            
+        }
+        finally
+        {
+            lock.unlock();
         }
-        
-        return theDataElement;
-        
     }
     
     /**
@@ -530,56 +674,70 @@ public class DecoderGenerator
      */
     public DataElement generateAttributeDecoder(String object, String attribute)
     {
-        /** search for the object */
-        Node attributeNode = null;
-        Node objectNode = searchFOMObject(object);
-        if (objectNode == null)
-        {
-            logger.debug("Failed while searching for object.");
-        }
-        else
+        ReentrantLock lock = model.getLock();
+        lock.lock();
+        try
         {
-            /** within the object search for the attribute */
-            attributeNode = getAttribute((Element) objectNode, attribute);
-            if (attributeNode == null)
-            {
-                logger.debug("Failed while searching for attribute.");
-            }
-        }
-        
-        // The data element to return.
-        DataElement theDataElement = null;
-        
-        if (attributeNode != null)
-        {
-            /**
-             * we have found both the object and attribute, get to building
-             */
+            long lookupStart = ValidationEvents.start();
             
-            // check datatype field
-            NodeList dataType = ((Element) attributeNode).getElementsByTagName("dataType");
-            if (dataType.getLength() != 1)
+            /** search for the object */
+            Node attributeNode = null;
+            Node objectNode = searchFOMObject(object);
+            if (objectNode == null)
             {
-                logger.error("Too many datatype tags.");
+                logger.debug("Failed while searching for object.");
             }
             else
             {
-                Element dtE = (Element) dataType.item(0);
-                String dt = dtE.getTextContent();
-                
-                /**
-                 * lookup data types in datatypes section search simple data types first
-                 */
-                theDataElement = getDataType(dt);
+                /** within the object search for the attribute */
+                attributeNode = getAttribute((Element) objectNode, attribute);
+                if (attributeNode == null)
+                {
+                    logger.debug("Failed while searching for attribute.");
+                }
             }
             
-            if (theDataElement == null)
+            // The data element to return, and the name of its data type.
+            DataElement theDataElement = null;
+            String dataTypeName = null;
+            
+            if (attributeNode != null)
             {
-                logger.error("Resolving data type failed.");
+                /**
+                 * we have found both the object and attribute, get to building
+                 */
+                
+                // check datatype field
+                NodeList dataType = ((Element) attributeNode).getElementsByTagName("dataType");
+                if (dataType.getLength() != 1)
+                {
+                    logger.error("Too many datatype tags.");
+                }
+                else
+                {
+                    Element dtE = (Element) dataType.item(0);
+                    dataTypeName = dtE.getTextContent();
+                    
+                    /**
+                     * lookup data types in datatypes section search simple data types first
+                     */
+                    theDataElement = getDataType(dataTypeName);
+                }
+                
+                if (theDataElement == null)
+                {
+                    logger.error("Resolving data type failed.");
+                }
             }
+            
+            ValidationEvents.decoderLookup(object, attribute, dataTypeName, theDataElement != null, lookupStart);
+            
+            return theDataElement;
+        }
+        finally
+        {
+            lock.unlock();
         }
-        
-        return theDataElement;
     }
     
     /**
@@ -591,48 +749,57 @@ public class DecoderGenerator
      */
     public List<String> generateParameterList(String interaction)
     {
-        /** search for the interaction */
-        ArrayList<String> list;
-        Element interactionNode = (Element) searchFOMInteraction(interaction);
-        if (interactionNode == null)
+        ReentrantLock lock = model.getLock();
+        lock.lock();
+        try
         {
-            logger.debug("Failed while searching for interaction.");
-            list = null;
-        }
-        else
-        {
-            list = new ArrayList<>();
-            /** interpret the node as an Element, and get attributes from it */
-            NodeList parameters = interactionNode.getElementsByTagName("parameter");
-            
-            /** get the parameter we need */
-            for (int temp = 0; temp < parameters.getLength(); temp++)
+            /** search for the interaction */
+            ArrayList<String> list;
+            Element interactionNode = (Element) searchFOMInteraction(interaction);
+            if (interactionNode == null)
             {
-                Node node = parameters.item(temp);
-                if (node.getNodeType() == Node.ELEMENT_NODE)
+                logger.debug("Failed while searching for interaction.");
+                list = null;
+            }
+            else
+            {
+                list = new ArrayList<>();
+                /** interpret the node as an Element, and get attributes from it */
+                NodeList parameters = interactionNode.getElementsByTagName("parameter");
+                
+                /** get the parameter we need */
+                for (int temp = 0; temp < parameters.getLength(); temp++)
                 {
-                    Element element = (Element) node;
-                    
-                    /** grab the first element, which should be the name */
-                    NodeList name = element.getElementsByTagName("name");
-                    
-                    if (name.getLength() > 0)
-                    {
-                        /** first and only node should be the name */
-                        Node n = name.item(0);
-                        String givenName = n.getTextContent();
-                        list.add(givenName);
-                    }
-                    else
+                    Node node = parameters.item(temp);
+                    if (node.getNodeType() == Node.ELEMENT_NODE)
                     {
-                        logger.error("Incorrect number of name tags");
+                        Element element = (Element) node;
+                        
+                        /** grab the first element, which should be the name */
+                        NodeList name = element.getElementsByTagName("name");
+                        
+                        if (name.getLength() > 0)
+                        {
+                            /** first and only node should be the name */
+                            Node n = name.item(0);
+                            String givenName = n.getTextContent();
+                            list.add(givenName);
+                        }
+                        else
+                        {
+                            logger.error("Incorrect number of name tags");
+                        }
                     }
                 }
+                list.trimToSize();
+                logger.info("Successfully generated parameter list.");
             }
-            list.trimToSize();
-            logger.info("Successfully generated parameter list.");
+            return list;
+        }
+        finally
+        {
+            lock.unlock();
         }
-        return list;
     }
     
     /**
@@ -644,50 +811,59 @@ public class DecoderGenerator
      */
     public List<String> generateAttributeList(String object)
     {
-        /** search for the object */
-        ArrayList<String> list;
-        
-        Element objectNode = (Element) searchFOMObject(object);
-        if (objectNode == null)
-        {
-            logger.debug("Failed while searching for object.");
-            list = null;
-        }
-        else
+        ReentrantLock lock = model.getLock();
+        lock.lock();
+        try
         {
-            list = new ArrayList<>();
-            /** interpret the node as an Element, and get attributes from it */
-            NodeList parameters = objectNode.getElementsByTagName("attribute");
+            /** search for the object */
+            ArrayList<String> list;
             
-            /** get the attribute we need */
-            for (int temp = 0; temp < parameters.getLength(); temp++)
+            Element objectNode = (Element) searchFOMObject(object);
+            if (objectNode == null)
             {
-                Node node = parameters.item(temp);
-                if (node.getNodeType() == Node.ELEMENT_NODE)
+                logger.debug("Failed while searching for object.");
+                list = null;
+            }
+            else
+            {
+                list = new ArrayList<>();
+                /** interpret the node as an Element, and get attributes from it */
+                NodeList parameters = objectNode.getElementsByTagName("attribute");
+                
+                /** get the attribute we need */
+                for (int temp = 0; temp < parameters.getLength(); temp++)
                 {
-                    Element element = (Element) node;
-                    
-                    /** grab the first element, which should be the name */
-                    NodeList name = element.getElementsByTagName("name");
-                    
-                    if (name.getLength() > 0)
-                    {
-                        /** first and only node should be the name */
-                        Node n = name.item(0);
-                        String givenName = n.getTextContent();
-                        list.add(givenName);
-                    }
-                    else
+                    Node node = parameters.item(temp);
+                    if (node.getNodeType() == Node.ELEMENT_NODE)
                     {
-                        logger.error("Incorrect number of name tags");
+                        Element element = (Element) node;
+                        
+                        /** grab the first element, which should be the name */
+                        NodeList name = element.getElementsByTagName("name");
+                        
+                        if (name.getLength() > 0)
+                        {
+                            /** first and only node should be the name */
+                            Node n = name.item(0);
+                            String givenName = n.getTextContent();
+                            list.add(givenName);
+                        }
+                        else
+                        {
+                            logger.error("Incorrect number of name tags");
+                        }
                     }
                 }
+                
+                list.trimToSize();
+                logger.info("Successfully generated attribute list.");
             }
-            
-            list.trimToSize();
-            logger.info("Successfully generated attribute list.");
+            return list;
+        }
+        finally
+        {
+            lock.unlock();
         }
-        return list;
     }
     
     /**
@@ -698,10 +874,10 @@ public class DecoderGenerator
      * definitions which can be broken down into BasicDataTypes. Then checks array
      * types ... and so on in this manner.
      *
-     * The individual sub 'get....datatype' methods all recursively call this
-     * method.
-     *
-     * At this time I am not convinced this isn't very stupid.
+     * Where each name is defined is only searched for once, and remembered
+     * whether it was found or not, so that repeated lookups of the same data type
+     * do not search the documents again. New data elements are created on every
+     * call.
      * 
      * @param representation
      *            the datatype to represent
@@ -710,115 +886,131 @@ public class DecoderGenerator
      */
     private DataElement getDataType(String representation)
     {
-        /**
-         * lookup data types in datatypes section search basic data types first
-         */
-        DataElement de = basicDataTypeLookup(representation);
-        if (de != null)
-        {
-            logger.info("Success: " + representation + " found as BasicDataType.");
-        }
+        DataElement de = null;
+        DataTypeResolution resolution = resolveDataType(representation);
         
-        /** search enum datatype */
-        if (de == null)
+        switch (resolution.getCategory())
         {
-            de = getEnumeratedDataType(representation);
-            if (de != null)
-            {
-                logger.info("Success: " + representation + " found as EnumeratedDataType.");
-            }
+            case BASIC:
+                de = basicDataTypeLookup(representation);
+                break;
+            
+            case ENUMERATED:
+            case SIMPLE:
+            case ARRAY:
+                de = getDataType(resolution.getTarget());
+                break;
+            
+            case FIXED_RECORD:
+                de = processFRFields(resolution.getDefinition().getElementsByTagName("field"));
+                break;
+            
+            case VARIANT_RECORD:
+                de = getVariantRecordDataType(representation);
+                break;
+            
+            default:
+                if (logger.isDebugEnabled())
+                {
+                    logger.debug(String.join(" ", "Data type", representation, "is not defined"));
+                }
+                break;
         }
         
-        /** search simple datatype */
-        if (de == null)
-        {
-            de = getSimpleDataType(representation);
-            if (de != null)
-            {
-                logger.info("Success: " + representation + " found as SimpleDataType.");
-            }
-        }
+        return de;
+    }
+    
+    /**
+     * Finds where a data type is defined, searching the documents only the first
+     * time that a name is looked up.
+     * 
+     * @param representation
+     *            the datatype to resolve
+     * @return the resolution, which is {@link DataTypeResolution#UNRESOLVED} if the
+     *         data type is not defined
+     */
+    private DataTypeResolution resolveDataType(String representation)
+    {
+        DataTypeResolution resolution = resolutions.get(representation);
         
-        /** search array datatype */
-        if (de == null)
+        if (resolution == null)
         {
-            de = getArrayDataType(representation);
-            if (de != null)
+            model.resolutionMissed();
+            resolution = searchDataType(representation);
+            
+            DataTypeResolution existing = resolutions.putIfAbsent(representation, resolution);
+            if (existing != null)
             {
-                logger.info("Success: " + representation + " found as ArrayDataType.");
+                resolution = existing;
             }
-        }
-        
-        /** search fixedRecord datatype */
-        if (de == null)
-        {
-            de = getFixedRecordDataType(representation);
-            if (de != null)
+            else if (resolution == DataTypeResolution.UNRESOLVED)
             {
-                logger.info("Success: " + representation + " found as FixedRecordDataType.");
+                logger.error("Final Error: " + representation + " not defined not found.");
             }
-        }
-        
-        /** search variantRecord datatype */
-        if (de == null)
-        {
-            de = getVariantRecordDataType(representation);
-            if (de != null)
+            else
             {
-                logger.info("Success: " + representation + " found as VariantRecordDataType.");
+                if (logger.isDebugEnabled())
+                {
+                    logger.debug("Success: " + representation + " found as " + resolution.getCategory() + ".");
+                }
             }
         }
-        
-        if (de == null)
+        else
         {
-            logger.error("Final Error: " + representation + " not defined not found.");
+            model.resolutionHit();
         }
         
-        return de;
-    }
-    
-    /**
-     * Private method that tries to search all enumerated datatypes in all documents
-     * known to the decoder
-     * 
-     * @param representation
-     *            the datatype to represent
-     * @return a data element that decodes the data
-     */
-    private DataElement getEnumeratedDataType(String representation)
-    {
-        return getDataType(representation, "enumeratedDataTypes", "enumeratedData", "representation");
-    }
-    
-    /**
-     * Private method that tries to search all simple datatypes in all documents
-     * known to the decoder
-     * 
-     * @param representation
-     *            the datatype to represent
-     * @return a data element that decodes the data
-     */
-    private DataElement getSimpleDataType(String representation)
-    {
-        return getDataType(representation, "simpleDataTypes", "simpleData", "representation");
+        return resolution;
     }
     
     /**
-     * Private method that tries to search all array datatypes in all documents
-     * known to the decoder
+     * Searches for the definition of a data type, in the order basic, enumerated,
+     * simple, array, fixed record and variant record.
      * 
      * @param representation
-     *            the datatype to represent
-     * @return a data element that decodes the data
+     *            the datatype to search for
+     * @return the resolution, which is {@link DataTypeResolution#UNRESOLVED} if the
+     *         data type is not defined
      */
-    private DataElement getArrayDataType(String representation)
+    private DataTypeResolution searchDataType(String representation)
     {
-        return getDataType(representation, "arrayDataTypes", "arrayData", "dataType");
+        DataTypeResolution resolution = DataTypeResolution.UNRESOLVED;
+        String target;
+        Element definition;
+        
+        if (BASIC_DATA_TYPES.containsKey(representation))
+        {
+            resolution = new DataTypeResolution(DataTypeResolution.Category.BASIC, null, null);
+        }
+        else if ((target = findDataTypeReference(representation, "enumeratedDataTypes", "enumeratedData",
+                "representation")) != null)
+        {
+            resolution = new DataTypeResolution(DataTypeResolution.Category.ENUMERATED, target, null);
+        }
+        else if ((target = findDataTypeReference(representation, "simpleDataTypes", "simpleData",
+                "representation")) != null)
+        {
+            resolution = new DataTypeResolution(DataTypeResolution.Category.SIMPLE, target, null);
+        }
+        else if ((target = findDataTypeReference(representation, "arrayDataTypes", "arrayData", "dataType")) != null)
+        {
+            resolution = new DataTypeResolution(DataTypeResolution.Category.ARRAY, target, null);
+        }
+        else if ((definition = findFixedRecordDefinition(representation)) != null)
+        {
+            resolution = new DataTypeResolution(DataTypeResolution.Category.FIXED_RECORD, null, definition);
+        }
+        else if (variantRecordPlans.containsKey(representation))
+        {
+            resolution = new DataTypeResolution(DataTypeResolution.Category.VARIANT_RECORD, null, null);
+        }
+        
+        return resolution;
     }
     
     /**
-     * Private method that tries to search all array datatypes in all documents
-     * known to the decoder
+     * Private method that searches all definitions of a kind of datatype in all
+     * documents known to the decoder, for one that refers to another data type
      * 
      * @param representation
      *            the data type to represent
@@ -828,19 +1020,26 @@ public class DecoderGenerator
      *            Second level level tag
      * @param tag3
      *            Third level tag
-     * @return a data element that decodes the data
+     * @return the name of the data type referred to, or null if the data type is
+     *         not found
      */
-    private DataElement getDataType(final String representation, final String tag1, final String tag2,
+    private String findDataTypeReference(final String representation, final String tag1, final String tag2,
             final String tag3)
     {
-        DataElement dataElement = null;
-        NodeList dataNodes = null;
+        String reference = null;
+        
+        DOC_SEARCH_LOOP:
         for (Document d : docs)
         {
+            NodeList dataNodes = null;
+            
             NodeList dt = d.getElementsByTagName("dataTypes");
             if (dt.getLength() < 1)
             {
-                logger.debug(String.join(" ", "No data definitions in file:", d.getDocumentURI()));
+                if (logger.isDebugEnabled())
+                {
+                    logger.debug(String.join(" ", "No data definitions in file:", d.getDocumentURI()));
+                }
             }
             else
             {
@@ -848,7 +1047,10 @@ public class DecoderGenerator
                 NodeList adt = ((Element) TopDt).getElementsByTagName(tag1);
                 if (adt.getLength() < 1)
                 {
-                    logger.debug(String.join(" ", "No", tag1, "definitions in file:", d.getDocumentURI()));
+                    if (logger.isDebugEnabled())
+                    {
+                        logger.debug(String.join(" ", "No", tag1, "definitions in file:", d.getDocumentURI()));
+                    }
                 }
                 else
                 {
@@ -859,13 +1061,13 @@ public class DecoderGenerator
             
             if (dataNodes == null || dataNodes.getLength() < 1)
             {
-                logger.info(String.join(" ", tag1, "definitions not found in document:", d.getDocumentURI()));
+                if (logger.isDebugEnabled())
+                {
+                    logger.debug(String.join(" ", tag1, "definitions not found in document:", d.getDocumentURI()));
+                }
             }
             else
             {
-                logger.info(String.join(" ", tag1, "definitions found in file:", d.getDocumentURI()));
-                
-                SEARCH_LOOP:
                 for (int temp = 0; temp < dataNodes.getLength(); temp++)
                 {
                     Node node = dataNodes.item(temp);
@@ -884,9 +1086,8 @@ public class DecoderGenerator
                             {
                                 // Found the representation
                                 Element repr = (Element) (element.getElementsByTagName(tag3)).item(0);
-                                String reprName = repr.getTextContent();
-                                dataElement = getDataType(reprName);
-                                break SEARCH_LOOP;
+                                reference = repr.getTextContent();
+                                break DOC_SEARCH_LOOP;
                             }
                         }
                         else
@@ -898,11 +1099,14 @@ public class DecoderGenerator
             }
         }
         
-        if (dataElement == null)
+        if (reference == null)
         {
-            logger.debug(String.join(" ", tag1, "with given name not found."));
+            if (logger.isDebugEnabled())
+            {
+                logger.debug(String.join(" ", tag1, "with given name not found."));
+            }
         }
-        return dataElement;
+        return reference;
     }
     
     /**
@@ -911,12 +1115,12 @@ public class DecoderGenerator
      * 
      * @param representation
      *            the datatype to represent
-     * @return a data element that decodes the data
+     * @return the element holding the definition, or null if it is not found
      */
-    private DataElement getFixedRecordDataType(String representation)
+    private Element findFixedRecordDefinition(String representation)
     {
-        // The data element to return
-        DataElement theDataElement = null;
+        // The definition to return
+        Element theDefinition = null;
         
         DOC_SEARCH_LOOP:
         for (Document d : docs)
@@ -926,7 +1130,10 @@ public class DecoderGenerator
             NodeList dt = d.getElementsByTagName("dataTypes");
             if (dt.getLength() < 1)
             {
-                logger.debug("No data definitions in file: " + d.getDocumentURI());
+                if (logger.isDebugEnabled())
+                {
+                    logger.debug("No data definitions in file: " + d.getDocumentURI());
+                }
             }
             else
             {
@@ -934,7 +1141,10 @@ public class DecoderGenerator
                 NodeList frdt = ((Element) TopDt).getElementsByTagName("fixedRecordDataTypes");
                 if (frdt.getLength() < 1)
                 {
-                    logger.debug("No fixed record data definitions in file: " + d.getDocumentURI());
+                    if (logger.isDebugEnabled())
+                    {
+                        logger.debug("No fixed record data definitions in file: " + d.getDocumentURI());
+                    }
                 }
                 else
                 {
@@ -945,12 +1155,13 @@ public class DecoderGenerator
             
             if (frData == null || frData.getLength() < 1)
             {
-                logger.info("Fixed record definitions not found in document: " + d.getDocumentURI());
+                if (logger.isDebugEnabled())
+                {
+                    logger.debug("Fixed record definitions not found in document: " + d.getDocumentURI());
+                }
             }
             else
             {
-                logger.info("Fixed Record data definitions found in file: " + d.getDocumentURI());
-                
                 for (int temp = 0; temp < frData.getLength(); temp++)
                 {
                     Node node = frData.item(temp);
@@ -968,14 +1179,13 @@ public class DecoderGenerator
                             String givenName = n.getTextContent();
                             if (givenName.equalsIgnoreCase(representation))
                             {
-                                NodeList fields = ((Element) node).getElementsByTagName("field");
-                                NodeList encoding = ((Element) node).getElementsByTagName("encoding");
+                                NodeList encoding = element.getElementsByTagName("encoding");
                                 
                                 Element enc = (Element) encoding.item(0);
                                 String encName = enc.getTextContent();
                                 if (encName.equalsIgnoreCase("HLAfixedRecord"))
                                 {
-                                    theDataElement = processFRFields(fields);
+                                    theDefinition = element;
                                 }
                                 else
                                 {
@@ -993,17 +1203,17 @@ public class DecoderGenerator
             }
         }
         
-        if (theDataElement == null)
+        if (theDefinition == null)
         {
             logger.debug("Fixed record data type with given name not found.");
         }
         
-        return theDataElement;
+        return theDefinition;
     }
     
     /**
-     * Private method that tries to search all variant record datatypes in all
-     * documents known to the decoder
+     * Private method that looks up a variant record datatype amongst the plans
+     * compiled when the documents were loaded
      * 
      * @param representation
      *            the datatype to represent
@@ -1014,114 +1224,333 @@ public class DecoderGenerator
         // The data element to return
         DataElement theDataElement = null;
         
-        DOC_SEARCH_LOOP:
-        for (Document d : docs)
+        VariantRecordPlan plan = variantRecordPlans.get(representation);
+        
+        if (plan == null)
         {
-            NodeList vrData = null;
-            NodeList dt = d.getElementsByTagName("dataTypes");
-            if (dt.getLength() < 1)
+            logger.debug("Variant record data type with given name not found.");
+        }
+        else
+        {
+            DataElement discriminant = getDataType(plan.getDiscriminantDataType());
+            
+            if (discriminant == null)
             {
-                logger.debug("No data definitions in file: " + d.getDocumentURI());
+                logger.error(String.join(" ", "Unable to resolve discriminant data type",
+                        plan.getDiscriminantDataType(), "of variant record", representation));
             }
             else
             {
-                Node TopDt = dt.item(0);
-                NodeList vrdt = ((Element) TopDt).getElementsByTagName("variantRecordDataTypes");
-                if (vrdt.getLength() < 1)
-                {
-                    logger.debug("No variant record data definitions in file: " + d.getDocumentURI());
-                }
-                else
-                {
-                    Node TopVrdt = vrdt.item(0);
-                    vrData = ((Element) TopVrdt).getElementsByTagName("variantRecordData");
-                }
+                theDataElement = new VariantRecordDecoder(plan, discriminant, this::getAlternativeDataType);
             }
+        }
+        
+        return theDataElement;
+    }
+    
+    /**
+     * Private method that resolves the data type of a variant record alternative
+     * whilst a value is being decoded, which may be some time after the decoder
+     * was generated.
+     * 
+     * @param representation
+     *            the datatype to represent
+     * @return a data element that decodes the data
+     */
+    private DataElement getAlternativeDataType(String representation)
+    {
+        ReentrantLock lock = model.getLock();
+        lock.lock();
+        try
+        {
+            return getDataType(representation);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Compiles every variant record definition in the loaded documents into a
+     * table of alternatives indexed by discriminant value. Where the same data
+     * type is defined more than once, the first definition found is used.
+     * 
+     * @param documents
+     *            the newly loaded documents
+     * @return the compiled definitions, keyed by the (case insensitive) data type
+     *         name
+     */
+    private Map<String, VariantRecordPlan> indexVariantRecords(List<Document> documents)
+    {
+        Map<String, VariantRecordPlan> plans = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        
+        for (Document d : documents)
+        {
+            NodeList vrData = d.getElementsByTagName("variantRecordData");
             
-            if (vrData == null || vrData.getLength() < 1)
+            for (int temp = 0; temp < vrData.getLength(); temp++)
             {
-                logger.debug("Variant record data definitions not found in document: " + d.getDocumentURI());
+                Node node = vrData.item(temp);
+                if (node.getNodeType() == Node.ELEMENT_NODE)
+                {
+                    Element element = (Element) node;
+                    String name = getChildText(element, "name");
+                    
+                    if (name == null)
+                    {
+                        logger.error("Variant record definition without a name in document " + d.getDocumentURI());
+                    }
+                    else if (!plans.containsKey(name))
+                    {
+                        plans.put(name, compileVariantRecord(documents, name, element));
+                    }
+                }
             }
-            else
+        }
+        
+        if (logger.isDebugEnabled())
+        {
+            logger.debug(String.join(" ", "Compiled", String.valueOf(plans.size()),
+                    "variant record definitions"));
+        }
+        
+        return plans;
+    }
+    
+    /**
+     * Compiles a single variant record definition.
+     * 
+     * @param documents
+     *            the documents in which to look up the discriminant enumerators
+     * @param name
+     *            the name of the variant record data type
+     * @param element
+     *            the variantRecordData element
+     * @return the compiled plan
+     */
+    private VariantRecordPlan compileVariantRecord(final List<Document> documents, final String name,
+            final Element element)
+    {
+        String discriminantType = getChildText(element, "dataType");
+        Element enumeratedData = findEnumeratedData(documents, discriminantType);
+        Map<String, Long> enumerators = getEnumeratorValues(enumeratedData);
+        String representation = enumeratedData == null ? null : getChildText(enumeratedData, "representation");
+        boolean unsignedDiscriminant = representation != null
+                && (representation.startsWith(UNSIGNED_PREFIX) || representation.equals("HLAoctet"));
+        
+        List<Alternative> alternatives = new ArrayList<>();
+        Map<Long, Alternative> discriminantValues = new LinkedHashMap<>();
+        List<Range> ranges = new ArrayList<>();
+        Alternative otherAlternative = null;
+        
+        NodeList children = element.getChildNodes();
+        for (int temp = 0; temp < children.getLength(); temp++)
+        {
+            Node node = children.item(temp);
+            if (node.getNodeType() == Node.ELEMENT_NODE && "alternative".equals(node.getNodeName()))
             {
-                logger.info("Variant Record data definitions found in file: " + d.getDocumentURI());
-                for (int temp = 0; temp < vrData.getLength(); temp++)
+                Element alternativeElement = (Element) node;
+                String dataType = getChildText(alternativeElement, "dataType");
+                if (dataType == null || dataType.equals(NO_DATA))
                 {
-                    Node node = vrData.item(temp);
-                    if (node.getNodeType() == Node.ELEMENT_NODE)
+                    dataType = null;
+                }
+                
+                Alternative alternative = new Alternative(alternatives.size(),
+                        getChildText(alternativeElement, "name"), dataType);
+                alternatives.add(alternative);
+                
+                String enumeratorList = getChildText(alternativeElement, "enumerator");
+                if (enumeratorList == null)
+                {
+                    logger.error(String.join(" ", "Alternative", alternative.getName(), "of variant record", name,
+                            "has no enumerator"));
+                    continue;
+                }
+                
+                for (String enumerator : enumeratorList.split(","))
+                {
+                    enumerator = enumerator.trim();
+                    
+                    Matcher range = ENUMERATOR_RANGE.matcher(enumerator);
+                    if (enumerator.equals(HLA_OTHER))
                     {
-                        Element element = (Element) node;
-                        /** grab the first element, which should be the name */
-                        NodeList name = element.getElementsByTagName("name");
+                        otherAlternative = alternative;
+                    }
+                    else if (range.matches())
+                    {
+                        Long first = getEnumeratorValue(enumerators, range.group(1));
+                        Long last = getEnumeratorValue(enumerators, range.group(2));
                         
-                        if (name.getLength() > 0)
+                        if (first == null || last == null)
                         {
-                            /** first and only node should be the name */
-                            Node n = name.item(0);
-                            String givenName = n.getTextContent();
-                            if (givenName.equalsIgnoreCase(representation))
+                            logger.error(String.join(" ", "Unknown enumerator range", enumerator, "in variant record",
+                                    name));
+                        }
+                        else
+                        {
+                            // The range is held as an interval, however wide, and the first range to
+                            // cover a value keeps it
+                            Range added = new Range(first, last, alternative);
+                            if (ranges.stream().anyMatch(added::overlaps))
                             {
-                                /**
-                                 * Grab the discriminant name and datatype.
-                                 */
-                                NodeList alternatives = ((Element) node).getElementsByTagName("alternative");
-                                
-                                theDataElement = processVRAttributes(alternatives);
-                                
-                                break DOC_SEARCH_LOOP;
+                                logger.error(String.join(" ", "Enumerator range", enumerator, "in variant record",
+                                        name, "overlaps an earlier range and is ignored"));
                             }
+                            else
+                            {
+                                ranges.add(added);
+                            }
+                        }
+                    }
+                    else
+                    {
+                        Long value = getEnumeratorValue(enumerators, enumerator);
+                        
+                        if (value == null)
+                        {
+                            logger.error(String.join(" ", "Unknown enumerator", enumerator, "in variant record", name));
                         }
                         else
                         {
-                            logger.debug("First child should be 'name' tag");
+                            discriminantValues.putIfAbsent(value, alternative);
                         }
                     }
                 }
             }
         }
         
-        if (theDataElement == null)
+        return new VariantRecordPlan(name, discriminantType, unsignedDiscriminant, alternatives, discriminantValues,
+                ranges, otherAlternative);
+    }
+    
+    /**
+     * Finds the definition of an enumerated data type.
+     * 
+     * @param documents
+     *            the documents to search
+     * @param enumeratedType
+     *            the name of the enumerated data type
+     * @return the enumeratedData element, or null if the type is not an
+     *         enumerated data type
+     */
+    private Element findEnumeratedData(final List<Document> documents, final String enumeratedType)
+    {
+        Element enumeratedData = null;
+        
+        DOC_SEARCH_LOOP:
+        for (Document d : documents)
         {
-            logger.debug("Array data type with given name not found.");
+            NodeList enumData = d.getElementsByTagName("enumeratedData");
+            for (int temp = 0; temp < enumData.getLength(); temp++)
+            {
+                Node node = enumData.item(temp);
+                if (node.getNodeType() == Node.ELEMENT_NODE
+                        && enumeratedType != null && enumeratedType.equalsIgnoreCase(getChildText((Element) node, "name")))
+                {
+                    enumeratedData = (Element) node;
+                    break DOC_SEARCH_LOOP;
+                }
+            }
         }
         
-        return theDataElement;
+        return enumeratedData;
     }
     
     /**
-     * Processes a node list of alternatives and packages them into a
-     * HLAvariantRecord discriminated by HLAoctets
+     * Returns the values of the enumerators of an enumerated data type.
      * 
-     * @param alternatives
-     * @return
+     * @param enumeratedData
+     *            the enumeratedData element, or null
+     * @return the map of enumerator name to value, which is empty if there is no
+     *         definition
      */
-    private HLAvariantRecord<HLAoctet> processVRAttributes(NodeList alternatives)
+    private Map<String, Long> getEnumeratorValues(final Element enumeratedData)
     {
-        int length = alternatives.getLength();
-        HLAoctet[] Discriminator = new HLAoctet[length];
-        HLAoctet discriminator = this.encoder.createHLAoctet();
-        HLAvariantRecord<HLAoctet> vr = this.encoder.createHLAvariantRecord(discriminator);
+        Map<String, Long> values = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
         
-        for (int temp = 0; temp < alternatives.getLength(); temp++)
+        if (enumeratedData != null)
         {
-            Node node = alternatives.item(temp);
-            if (node.getNodeType() == Node.ELEMENT_NODE)
+            NodeList enumerators = enumeratedData.getElementsByTagName("enumerator");
+            for (int index = 0; index < enumerators.getLength(); index++)
             {
-                Element element = (Element) node;
-                NodeList repr = element.getElementsByTagName("dataType");
-                String representation = repr.item(0).getTextContent();
-                
-                Discriminator[temp] = this.encoder.createHLAoctet();
-                Discriminator[temp].setValue((byte) temp);
+                Element enumerator = (Element) enumerators.item(index);
+                String enumeratorName = getChildText(enumerator, "name");
+                Long value = parseLong(getChildText(enumerator, "value"));
                 
-                vr.setVariant(Discriminator[temp], getDataType(representation));
+                if (enumeratorName != null && value != null)
+                {
+                    values.put(enumeratorName, value);
+                }
             }
-            else
+        }
+        
+        return values;
+    }
+    
+    /**
+     * Returns the value of an enumerator, which may be given either by name or as
+     * a number.
+     * 
+     * @param enumerators
+     *            the known enumerator values
+     * @param enumerator
+     *            the enumerator
+     * @return the value, or null if it cannot be determined
+     */
+    private static Long getEnumeratorValue(final Map<String, Long> enumerators, final String enumerator)
+    {
+        Long value = enumerators.get(enumerator);
+        return value == null ? parseLong(enumerator) : value;
+    }
+    
+    /**
+     * Parses a number, returning null rather than throwing an exception if it is
+     * not valid.
+     * 
+     * @param text
+     *            the text to parse
+     * @return the number, or null if not valid
+     */
+    private static Long parseLong(final String text)
+    {
+        Long value;
+        try
+        {
+            value = text == null ? null : Long.valueOf(text.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            value = null;
+        }
+        return value;
+    }
+    
+    /**
+     * Returns the text of the first direct child of an element with the given tag.
+     * 
+     * @param parent
+     *            the element to search
+     * @param tag
+     *            the tag of the child
+     * @return the trimmed text of the child, or null if there is no such child
+     */
+    private static String getChildText(final Element parent, final String tag)
+    {
+        String text = null;
+        
+        NodeList children = parent.getChildNodes();
+        for (int temp = 0; temp < children.getLength() && text == null; temp++)
+        {
+            Node node = children.item(temp);
+            if (node.getNodeType() == Node.ELEMENT_NODE && tag.equals(node.getNodeName()))
             {
-                logger.error("Attribute not an element, processing may produce unexpected results.");
+                text = node.getTextContent().trim();
             }
         }
-        return vr;
+        
+        return text;
     }
     
     /**
@@ -1156,42 +1585,22 @@ public class DecoderGenerator
      */
     private DataElement basicDataTypeLookup(String representation)
     {
-        DataElement theDataElement;
+        DataElement theDataElement = null;
+        
+        Function<EncoderFactory, DataElement> factory = BASIC_DATA_TYPES.get(representation);
         
-        switch (representation)
+        if (factory == null)
         {
-            case "HLAfloat32BE":
-                theDataElement = encoder.createHLAfloat32BE();
-                break;
-            
-            case "HLAfloat64BE":
-                theDataElement = encoder.createHLAfloat64BE();
-                break;
-            
-            case "HLAoctet":
-                theDataElement = encoder.createHLAoctet();
-                break;
-            
-            case "HLAASCIIchar":
-                theDataElement = encoder.createHLAASCIIchar();
-                break;
-            
-            case "RTIobjectId":
-                theDataElement = new RTIobjectIdDecoder();
-                break;
-            
-            case "RPRunsignedInteger16BE":
-                theDataElement = encoder.createHLAinteger16BE();
-                break;
-            
-            case "RPRunsignedInteger32BE":
-                theDataElement = encoder.createHLAinteger32BE();
-                break;
-            
-            default:
-                logger.error("Basic Data Error: failed to find representation for " + representation);
-                theDataElement = null;
-                break;
+            // Not an error as the representation is probably a constructed type that will
+            // be found by one of the later searches
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Basic Data: no basic representation for " + representation);
+            }
+        }
+        else
+        {
+            theDataElement = factory.apply(encoder);
         }
         
         return theDataElement;
@@ -15,9 +15,16 @@
  */
 package com.qinetiq.msg134.etc.tc_lib_warfare;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import hla.rti1516e.AttributeHandle;
 import hla.rti1516e.AttributeHandleValueMap;
 import hla.rti1516e.ObjectClassHandle;
 import hla.rti1516e.ObjectInstanceHandle;
+import hla.rti1516e.encoding.DataElement;
+import hla.rti1516e.encoding.DecoderException;
 
 /**
  * Encapsulates the details of a discovered HLA object that has been received
@@ -27,6 +34,37 @@ import hla.rti1516e.ObjectInstanceHandle;
  */
 public class DiscoveredObject
 {
+    /**
+     * An attribute value that has been decoded, with the version of the attribute
+     * from which it was decoded.
+     */
+    private static final class DecodedAttribute
+    {
+        /**
+         * The version of the attribute that was decoded.
+         */
+        private final long version;
+        
+        /**
+         * The decoded value.
+         */
+        private final DataElement value;
+        
+        /**
+         * Constructor
+         * 
+         * @param version
+         *            The version of the attribute that was decoded
+         * @param value
+         *            The decoded value
+         */
+        private DecodedAttribute(final long version, final DataElement value)
+        {
+            this.version = version;
+            this.value = value;
+        }
+    }
+    
     /**
      * The object name, as provided by the HLA RTI.
      */
@@ -43,10 +81,16 @@ public class DiscoveredObject
     private final ObjectInstanceHandle theObject;
     
     /**
-     * The AttributeHandleValueMap, as provided by the HLA RTI. This is typically
-     * populated from a reflectAttributeValues federate ambassador callback.
+     * The attribute values received for the object, merged from each
+     * reflectAttributeValues federate ambassador callback. The snapshot is
+     * replaced rather than changed, so readers need no lock.
+     */
+    private volatile AttributeSnapshot attributes = AttributeSnapshot.EMPTY;
+    
+    /**
+     * The attribute values decoded so far, by attribute handle.
      */
-    private AttributeHandleValueMap theAttributes;
+    private final Map<AttributeHandle, DecodedAttribute> decodedAttributes = new ConcurrentHashMap<>();
     
     /**
      * Creates an instance of this class given the following immutable values
@@ -57,16 +101,13 @@ public class DiscoveredObject
      *            The object instance handle, as provided by the HLA RTI.
      * @param objectName
      *            The object name, as provided by the HLA RTI.
-     * @param theAttributes
-     *            The attribute values provided for this object, which may be null.
      */
     public DiscoveredObject(final ObjectClassHandle objectClass, final ObjectInstanceHandle theObject,
-            final String objectName, AttributeHandleValueMap theAttributes)
+            final String objectName)
     {
         super();
         this.objectClass = objectClass;
         this.theObject = theObject;
-        this.theAttributes = theAttributes;
         this.objectName = objectName;
     }
     
@@ -95,22 +136,77 @@ public class DiscoveredObject
     }
     
     /**
-     * @return The object instance attributes provided.
+     * @return A consistent snapshot of every attribute value received so far
      */
-    public AttributeHandleValueMap getTheAttributes()
+    public AttributeSnapshot getAttributes()
     {
-        return theAttributes;
+        return attributes;
     }
     
     /**
-     * Sets / updates the value of the object instance attributes
+     * Merges an update into the object instance attributes. Attributes that are
+     * not in the update, as is usual for partial updates, keep their previous
+     * values.
      * 
      * @param theAttributes
-     *            The attribute values which which to update this object
+     *            The attribute values with which to update this object
+     * @param time
+     *            The time at which the update was received, in milliseconds since
+     *            the epoch
+     */
+    public synchronized void mergeAttributes(final AttributeHandleValueMap theAttributes, final long time)
+    {
+        attributes = attributes.merge(theAttributes, time);
+    }
+    
+    /**
+     * Returns the decoded value of an attribute. The value is only decoded on the
+     * first read after the attribute has been updated, and later reads return the
+     * same element until the attribute is next updated. The returned element must
+     * not be modified.
+     * 
+     * @param handle
+     *            The attribute handle
+     * @param decoderSupplier
+     *            Supplies a new element with which to decode the attribute, or
+     *            null if the attribute cannot be decoded
+     * @return The decoded value, or null if no value has been received for the
+     *         attribute or no decoder was supplied
+     * @throws DecoderException
+     *             If the value could not be decoded
      */
-    public void setTheAttributes(final AttributeHandleValueMap theAttributes)
+    public DataElement getDecodedAttribute(final AttributeHandle handle, final Supplier<DataElement> decoderSupplier)
+            throws DecoderException
     {
-        this.theAttributes = theAttributes;
+        // The version and value are taken from the same snapshot, so they are
+        // consistent with each other even if an update is merged meanwhile
+        AttributeSnapshot snapshot = attributes;
+        long version = snapshot.getVersion(handle);
+        byte[] encoded = snapshot.get(handle);
+        DataElement result = null;
+        
+        if (encoded != null)
+        {
+            DecodedAttribute decoded = decodedAttributes.get(handle);
+            
+            if (decoded != null && decoded.version == version)
+            {
+                result = decoded.value;
+            }
+            else
+            {
+                DataElement element = decoderSupplier.get();
+                
+                if (element != null)
+                {
+                    element.decode(encoded);
+                    decodedAttributes.put(handle, new DecodedAttribute(version, element));
+                    result = element;
+                }
+            }
+        }
+        
+        return result;
     }
     
     @Override
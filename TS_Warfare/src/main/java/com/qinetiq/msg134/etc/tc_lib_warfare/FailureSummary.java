@@ -0,0 +1,141 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+
+/**
+ * Aggregates repeated parameter failures so that a federate that sends the same
+ * bad parameter in every interaction does not produce an error in the log for
+ * each one. The first failure of each parameter in a period is reported in full
+ * by the caller; later ones are only counted, and the counts are written to the
+ * log as a summary at the end of the period.
+ *
+ * @author QinetiQ
+ */
+public final class FailureSummary
+{
+    /**
+     * The length of a period in milliseconds.
+     */
+    private final long intervalMillis;
+    
+    /**
+     * The clock that determines when a period has elapsed.
+     */
+    private final LongSupplier clock;
+    
+    /**
+     * The number of failures suppressed in the current period, by interaction and
+     * parameter name.
+     */
+    private final Map<String, Long> suppressed = new LinkedHashMap<>();
+    
+    /**
+     * The time at which the current period started.
+     */
+    private long periodStart;
+    
+    /**
+     * Constructor
+     *
+     * @param intervalMillis
+     *            The length of a period in milliseconds
+     */
+    public FailureSummary(final long intervalMillis)
+    {
+        this(intervalMillis, System::currentTimeMillis);
+    }
+    
+    /**
+     * Constructor
+     *
+     * @param intervalMillis
+     *            The length of a period in milliseconds
+     * @param clock
+     *            The clock that determines when a period has elapsed, in
+     *            milliseconds
+     */
+    public FailureSummary(final long intervalMillis, final LongSupplier clock)
+    {
+        this.intervalMillis = intervalMillis;
+        this.clock = clock;
+        this.periodStart = clock.getAsLong();
+    }
+    
+    /**
+     * Counts a failure of a parameter.
+     *
+     * @param interaction
+     *            The name of the interaction class
+     * @param parameter
+     *            The name of the parameter
+     * @return True if this is the first failure of the parameter in the current
+     *         period, in which case the caller should report it in full
+     */
+    public synchronized boolean failed(final String interaction, final String parameter)
+    {
+        String key = String.join(" ", interaction, "parameter", parameter);
+        Long count = suppressed.get(key);
+        
+        suppressed.put(key, count == null ? 0L : count + 1);
+        
+        return count == null;
+    }
+    
+    /**
+     * Writes the summary to the log if the current period has elapsed, and starts
+     * a new period.
+     *
+     * @param logger
+     *            The logger to use
+     */
+    public synchronized void report(final Logger logger)
+    {
+        if (clock.getAsLong() - periodStart >= intervalMillis)
+        {
+            flush(logger);
+        }
+    }
+    
+    /**
+     * Writes the summary of the current period to the log, whether or not it has
+     * elapsed, and starts a new period.
+     *
+     * @param logger
+     *            The logger to use
+     */
+    public synchronized void flush(final Logger logger)
+    {
+        long now = clock.getAsLong();
+        
+        for (Map.Entry<String, Long> e : suppressed.entrySet())
+        {
+            if (e.getValue() > 0)
+            {
+                logger.error(String.join(" ", e.getKey(), "failed a further", String.valueOf(e.getValue()),
+                        "times in the last", String.valueOf((now - periodStart) / 1000), "seconds"));
+            }
+        }
+        
+        suppressed.clear();
+        periodStart = now;
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.metrics.LatencyHistogram;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.EntityTypeStruct;
+
+/**
+ * The times of flight from each WeaponFire to the matching MunitionDetonation,
+ * gathered in a histogram for each munition type and, optionally, for each
+ * shooter. The memory used depends on the number of munition types and
+ * shooters seen, but not on the number of events.
+ *
+ * This class is not thread safe; it is used by the thread running the test.
+ *
+ * @author QinetiQ
+ */
+public class FlightTimeHistograms
+{
+    /**
+     * True if the flight times are also gathered for each shooter.
+     */
+    private final boolean byShooter;
+    
+    /**
+     * The histogram for each munition type, in the order in which they were seen.
+     */
+    private final Map<EntityTypeStruct, LatencyHistogram> byMunitionType = new LinkedHashMap<>();
+    
+    /**
+     * The histograms for each shooter, by munition type.
+     */
+    private final Map<EntityTypeStruct, Map<String, LatencyHistogram>> byMunitionTypeAndShooter = new LinkedHashMap<>();
+    
+    /**
+     * Constructor
+     *
+     * @param byShooter
+     *            True if the flight times should also be gathered for each shooter
+     */
+    public FlightTimeHistograms(final boolean byShooter)
+    {
+        this.byShooter = byShooter;
+    }
+    
+    /**
+     * Records the time of flight of a munition.
+     *
+     * @param munitionType
+     *            The MunitionType of the MunitionDetonation, or null if it was not
+     *            sent
+     * @param shooter
+     *            The IssuingObjectIdentifier of the event
+     * @param flightTimeMillis
+     *            The time between the receipt of the WeaponFire and the
+     *            MunitionDetonation, in milliseconds
+     */
+    public void record(final EntityTypeStruct munitionType, final String shooter, final long flightTimeMillis)
+    {
+        byMunitionType.computeIfAbsent(munitionType, k -> new LatencyHistogram()).record(flightTimeMillis);
+        
+        if (byShooter)
+        {
+            byMunitionTypeAndShooter.computeIfAbsent(munitionType, k -> new TreeMap<>())
+                    .computeIfAbsent(shooter, k -> new LatencyHistogram()).record(flightTimeMillis);
+        }
+    }
+    
+    /**
+     * @param munitionType
+     *            The munition type, or null for munitions whose type was not sent
+     * @return The histogram of the flight times of the munition type, in
+     *         milliseconds, or null if none was recorded
+     */
+    public LatencyHistogram getHistogram(final EntityTypeStruct munitionType)
+    {
+        return byMunitionType.get(munitionType);
+    }
+    
+    /**
+     * Writes the histograms to the log.
+     *
+     * @param logger
+     *            The logger to use
+     */
+    public void report(final Logger logger)
+    {
+        if (byMunitionType.isEmpty())
+        {
+            logger.info("Flight times: no matching WeaponFire / MunitionDetonation pairs");
+        }
+        
+        for (Map.Entry<EntityTypeStruct, LatencyHistogram> e : byMunitionType.entrySet())
+        {
+            String munitionType = e.getKey() == null ? "Unknown munition type" : e.getKey().toString();
+            logger.info(String.join(" ", "Flight times (ms) of", munitionType, e.getValue().toString()));
+            
+            Map<String, LatencyHistogram> shooters = byMunitionTypeAndShooter.get(e.getKey());
+            if (shooters != null)
+            {
+                for (Map.Entry<String, LatencyHistogram> s : shooters.entrySet())
+                {
+                    logger.info(String.join(" ", "  fired by", s.getKey(), s.getValue().toString()));
+                }
+            }
+        }
+    }
+}
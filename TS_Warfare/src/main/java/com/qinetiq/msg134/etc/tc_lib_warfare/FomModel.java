@@ -0,0 +1,320 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare;
+
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * The parsed FOM modules, together with the variant record plans compiled from
+ * them and the data type resolutions found in them, shared by every
+ * {@link DecoderGenerator} in the JVM that loads the same modules. Models are
+ * cached by the canonical locations of the modules, in the order given, and the
+ * SHA-256 hashes of their contents, so that a module that is edited between
+ * tests is loaded afresh.
+ *
+ * The documents are not thread safe, even to read, so they may only be searched
+ * whilst holding the lock of the model. It is a {@link ReentrantLock} rather
+ * than the monitor of the model, so that a virtual thread waiting for it does
+ * not pin its carrier thread.
+ *
+ * @author QinetiQ
+ */
+final class FomModel
+{
+    /**
+     * The greatest number of models cached, beyond which the least recently used
+     * is dropped.
+     */
+    private static final int MAX_CACHED_MODELS = 4;
+    
+    /**
+     * The models loaded, keyed by the locations and hashes of their modules and
+     * least recently used first.
+     */
+    private static final Map<String, FomModel> CACHE = new LinkedHashMap<String, FomModel>(16, 0.75f, true)
+    {
+        private static final long serialVersionUID = 1L;
+        
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, FomModel> eldest)
+        {
+            return size() > MAX_CACHED_MODELS;
+        }
+    };
+    
+    /**
+     * The parsed FOM modules, in the order given.
+     */
+    private final List<Document> documents;
+    
+    /**
+     * The variant record definitions of all documents, keyed by the (case
+     * insensitive) data type name.
+     */
+    private final Map<String, VariantRecordPlan> variantRecordPlans;
+    
+    /**
+     * Where each data type name that has been looked up is defined, including
+     * names that are not defined at all.
+     */
+    private final Map<String, DataTypeResolution> resolutions = new ConcurrentHashMap<>();
+    
+    /**
+     * The number of data type lookups answered from the resolutions.
+     */
+    private final LongAdder resolutionHits = new LongAdder();
+    
+    /**
+     * The number of data type lookups for which the documents were searched.
+     */
+    private final LongAdder resolutionMisses = new LongAdder();
+    
+    /**
+     * Held whilst the documents are searched.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    /**
+     * Constructor
+     *
+     * @param documents
+     *            The parsed FOM modules
+     * @param variantRecordPlans
+     *            The variant record definitions of the documents
+     */
+    private FomModel(final List<Document> documents, final Map<String, VariantRecordPlan> variantRecordPlans)
+    {
+        this.documents = Collections.unmodifiableList(documents);
+        this.variantRecordPlans = Collections.unmodifiableMap(variantRecordPlans);
+    }
+    
+    /**
+     * Returns the model of the given FOM modules, loading it if it is not already
+     * cached. Concurrent callers wait for a model being loaded rather than load it
+     * again.
+     *
+     * @param urls
+     *            The URLs of the FOM modules
+     * @param indexer
+     *            Compiles the variant record definitions of newly parsed documents
+     * @return The model
+     * @throws ParserConfigurationException
+     *             If a module failed to parse
+     * @throws IOException
+     *             If there was an IO exception whilst reading a module
+     * @throws SAXException
+     *             If there was a SAXException whilst trying to parse the XML
+     */
+    static FomModel load(final URL[] urls, final Function<List<Document>, Map<String, VariantRecordPlan>> indexer)
+            throws ParserConfigurationException, SAXException, IOException
+    {
+        List<byte[]> contents = new ArrayList<>();
+        StringBuilder key = new StringBuilder();
+        
+        for (URL url : urls)
+        {
+            byte[] content = read(url);
+            contents.add(content);
+            key.append(canonicalLocation(url)).append('#').append(hash(content)).append('\n');
+        }
+        
+        FomModel model;
+        synchronized (CACHE)
+        {
+            model = CACHE.get(key.toString());
+            if (model == null)
+            {
+                DocumentBuilder dBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+                List<Document> documents = new ArrayList<>();
+                
+                for (int i = 0; i < urls.length; i++)
+                {
+                    documents.add(dBuilder.parse(new ByteArrayInputStream(contents.get(i)), urls[i].toExternalForm()));
+                }
+                
+                model = new FomModel(documents, indexer.apply(documents));
+                CACHE.put(key.toString(), model);
+            }
+        }
+        
+        return model;
+    }
+    
+    /**
+     * Drops every cached model, so that the next to be requested is loaded afresh.
+     */
+    static void clearCache()
+    {
+        synchronized (CACHE)
+        {
+            CACHE.clear();
+        }
+    }
+    
+    /**
+     * @return The parsed FOM modules, in the order given
+     */
+    List<Document> getDocuments()
+    {
+        return documents;
+    }
+    
+    /**
+     * @return The lock to hold whilst searching the documents
+     */
+    ReentrantLock getLock()
+    {
+        return lock;
+    }
+    
+    /**
+     * @return The variant record definitions of all documents, keyed by the (case
+     *         insensitive) data type name
+     */
+    Map<String, VariantRecordPlan> getVariantRecordPlans()
+    {
+        return variantRecordPlans;
+    }
+    
+    /**
+     * @return Where each data type name that has been looked up is defined
+     */
+    Map<String, DataTypeResolution> getResolutions()
+    {
+        return resolutions;
+    }
+    
+    /**
+     * Counts a data type lookup answered from the resolutions.
+     */
+    void resolutionHit()
+    {
+        resolutionHits.increment();
+    }
+    
+    /**
+     * Counts a data type lookup for which the documents were searched.
+     */
+    void resolutionMissed()
+    {
+        resolutionMisses.increment();
+    }
+    
+    /**
+     * @return The number of data type lookups answered from the resolutions
+     */
+    long getResolutionHits()
+    {
+        return resolutionHits.sum();
+    }
+    
+    /**
+     * @return The number of data type lookups for which the documents were
+     *         searched
+     */
+    long getResolutionMisses()
+    {
+        return resolutionMisses.sum();
+    }
+    
+    /**
+     * @param url
+     *            The URL of a FOM module
+     * @return The location of the module, with file locations made canonical
+     * @throws IOException
+     *             If the canonical file location could not be found
+     */
+    private static String canonicalLocation(final URL url) throws IOException
+    {
+        String location;
+        if ("file".equals(url.getProtocol()))
+        {
+            location = new File(url.getFile()).getCanonicalPath();
+        }
+        else
+        {
+            location = url.toExternalForm();
+        }
+        return location;
+    }
+    
+    /**
+     * @param url
+     *            The URL of a FOM module
+     * @return The contents of the module
+     * @throws IOException
+     *             If the module could not be read
+     */
+    private static byte[] read(final URL url) throws IOException
+    {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        
+        try (InputStream in = url.openStream())
+        {
+            int count = in.read(buffer);
+            while (count >= 0)
+            {
+                content.write(buffer, 0, count);
+                count = in.read(buffer);
+            }
+        }
+        
+        return content.toByteArray();
+    }
+    
+    /**
+     * @param content
+     *            The contents of a FOM module
+     * @return The SHA-256 hash of the contents, in hexadecimal
+     */
+    private static String hash(final byte[] content)
+    {
+        try
+        {
+            return String.format("%064x", new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(content)));
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -80,9 +81,26 @@ public class InteractionRecord
     protected final Map<EventIdentifierStruct, Set<String>> optionalParamsNotSent = new HashMap<>();
     
     /**
-     * Interaction time stamps (time received) pertaining to each event.
+     * Interaction time stamps (monotonic order time received, in nanoseconds)
+     * pertaining to each event.
      */
-    protected final Map<EventIdentifierStruct, Long> receivedInteractionTimes = new HashMap<>();
+    protected final Map<EventIdentifierStruct, Long> receivedInteractionTimes = new LinkedHashMap<
+            EventIdentifierStruct, Long>()
+    {
+        private static final long serialVersionUID = 1L;
+        
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<EventIdentifierStruct, Long> eldest)
+        {
+            return eventLimit > 0 && size() > eventLimit;
+        }
+    };
+    
+    /**
+     * The number of events whose time stamps are kept, the oldest being forgotten
+     * first, or zero if all are kept.
+     */
+    private int eventLimit;
     
     /**
      * Crates a new instance of this interaction record with the following
@@ -298,11 +316,28 @@ public class InteractionRecord
      * @return True of a prior matching event exists, otherwise false
      */
     public boolean isPriorEventPresent(final EventIdentifierStruct event, final long time)
+    {
+        return getPriorEventTime(event, time) != null;
+    }
+    
+    /**
+     * Finds the time stamp of the latest prior event, as defined by
+     * {@link #isPriorEventPresent(EventIdentifierStruct, long)}.
+     * 
+     * @param event
+     *            The event for which to find a prior event
+     * @param time
+     *            The time stamp of the event
+     * @return The time stamp of the latest matching prior event, or null if there
+     *         is none
+     */
+    public Long getPriorEventTime(final EventIdentifierStruct event, final long time)
     {
         String issuingId = event.getIssuingObjectIdentifier();
         return receivedInteractionTimes.entrySet().stream()
-                .anyMatch((e) -> e.getKey().getIssuingObjectIdentifier().equals(issuingId)
-                        && e.getKey().getEventCount() < event.getEventCount() && e.getValue() < time);
+                .filter((e) -> e.getKey().getIssuingObjectIdentifier().equals(issuingId)
+                        && e.getKey().getEventCount() < event.getEventCount() && e.getValue() < time)
+                .map(Map.Entry::getValue).max(Long::compare).orElse(null);
     }
     
     /**
@@ -424,6 +459,35 @@ public class InteractionRecord
         receivedInteractionTimes.put(id, interactionTimestamp);
     }
     
+    /**
+     * Limits the number of events whose time stamps are kept, so that a long
+     * running test does not exhaust the memory. Once the limit is reached, the
+     * oldest event is forgotten for each new one.
+     * 
+     * @param eventLimit
+     *            The number of events to keep, or zero to keep all of them
+     */
+    public void setEventLimit(final int eventLimit)
+    {
+        this.eventLimit = eventLimit;
+    }
+    
+    /**
+     * Forgets the outcome of the parameters of an event once it has been
+     * accounted for elsewhere. The time stamp of the event is kept so that it can
+     * still be matched.
+     * 
+     * @param id
+     *            The EventIdentifier of the event
+     */
+    public void forgetEventDetails(final EventIdentifierStruct id)
+    {
+        decoded.remove(id);
+        failedParams.remove(id);
+        paramsNotSent.remove(id);
+        optionalParamsNotSent.remove(id);
+    }
+    
     /**
      * @return A list of event EventIdentifier whose details have been recorded.
      */
@@ -0,0 +1,295 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers when each tracked object instance was discovered, first had its
+ * attributes reflected and was removed, by object name. Unlike the set of
+ * discovered objects, an entry outlives the removal of its object, so checks
+ * against an interaction can be judged by the order in which the callbacks were
+ * received rather than by the state at the time the interaction is processed.
+ * The times are monotonic, in nanoseconds from the receive clock, so that they
+ * are ordered exactly as the interactions time stamped by the same clock. The
+ * store is bounded, forgetting the least recently used object once its
+ * capacity is reached.
+ *
+ * @author QinetiQ
+ */
+public final class ObjectLifecycleStore
+{
+    /**
+     * The time recorded for an event that has not happened, which cannot be
+     * confused with a monotonic time, as these may be negative.
+     */
+    public static final long NOT_RECEIVED = Long.MIN_VALUE;
+    
+    /**
+     * The number of objects remembered unless otherwise configured.
+     */
+    public static final int DEFAULT_CAPACITY = 10000;
+    
+    /**
+     * The lifecycle of a single object instance, as a snapshot taken from the
+     * store.
+     */
+    public static final class Lifecycle
+    {
+        /**
+         * The time at which the object was discovered.
+         */
+        private final long discoveredTime;
+        
+        /**
+         * The time at which the attributes of the object were first reflected.
+         */
+        private final long firstReflectTime;
+        
+        /**
+         * The time at which the object was removed.
+         */
+        private final long removedTime;
+        
+        /**
+         * Constructor
+         *
+         * @param discoveredTime
+         *            The time at which the object was discovered
+         * @param firstReflectTime
+         *            The time at which the attributes were first reflected
+         * @param removedTime
+         *            The time at which the object was removed
+         */
+        private Lifecycle(final long discoveredTime, final long firstReflectTime, final long removedTime)
+        {
+            this.discoveredTime = discoveredTime;
+            this.firstReflectTime = firstReflectTime;
+            this.removedTime = removedTime;
+        }
+        
+        /**
+         * @return The monotonic time at which the object was discovered, in
+         *         nanoseconds, or {@link ObjectLifecycleStore#NOT_RECEIVED}
+         */
+        public long getDiscoveredTime()
+        {
+            return discoveredTime;
+        }
+        
+        /**
+         * @return The monotonic time at which the attributes of the object were
+         *         first reflected, in nanoseconds, or
+         *         {@link ObjectLifecycleStore#NOT_RECEIVED}
+         */
+        public long getFirstReflectTime()
+        {
+            return firstReflectTime;
+        }
+        
+        /**
+         * @return The monotonic time at which the object was removed, in
+         *         nanoseconds, or {@link ObjectLifecycleStore#NOT_RECEIVED}
+         */
+        public long getRemovedTime()
+        {
+            return removedTime;
+        }
+        
+        /**
+         * @return True if the discovery of the object has been received
+         */
+        public boolean isDiscovered()
+        {
+            return discoveredTime != NOT_RECEIVED;
+        }
+        
+        /**
+         * @return True if the removal of the object has been received
+         */
+        public boolean isRemoved()
+        {
+            return removedTime != NOT_RECEIVED;
+        }
+        
+        /**
+         * Judges whether the object existed when something else, such as an
+         * interaction, was received, whatever has been received since. A discovery
+         * or removal time stamped with the same time is taken to have been
+         * received first.
+         *
+         * @param time
+         *            The monotonic time at which the other callback was received,
+         *            in nanoseconds
+         * @return True if the object had been discovered, and not removed, by the
+         *         given time
+         */
+        public boolean isPresentAt(final long time)
+        {
+            return isDiscovered() && discoveredTime <= time && (!isRemoved() || removedTime > time);
+        }
+        
+        /**
+         * Judges whether the object has been removed since something else, such as
+         * an interaction, was received. A removal time stamped with the same time
+         * is taken to have been received afterwards.
+         *
+         * @param time
+         *            The monotonic time at which the other callback was received,
+         *            in nanoseconds
+         * @return True if the removal of the object was received at or after the
+         *         given time
+         */
+        public boolean isRemovedSince(final long time)
+        {
+            return isRemoved() && removedTime >= time;
+        }
+        
+        @Override
+        public String toString()
+        {
+            return String.join(" ", "discovered:", String.valueOf(discoveredTime), "first reflected:",
+                    String.valueOf(firstReflectTime), "removed:", String.valueOf(removedTime));
+        }
+    }
+    
+    /**
+     * The times recorded for each object, by object name, in order of use.
+     */
+    private final LinkedHashMap<String, long[]> lifecycles = new LinkedHashMap<String, long[]>(16, 0.75f, true)
+    {
+        private static final long serialVersionUID = 1L;
+        
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, long[]> eldest)
+        {
+            return size() > capacity;
+        }
+    };
+    
+    /**
+     * The greatest number of objects that are remembered.
+     */
+    private volatile int capacity;
+    
+    /**
+     * Constructor
+     */
+    public ObjectLifecycleStore()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructor
+     *
+     * @param capacity
+     *            The greatest number of objects that are remembered
+     */
+    public ObjectLifecycleStore(final int capacity)
+    {
+        this.capacity = capacity;
+    }
+    
+    /**
+     * Sets the greatest number of objects that are remembered. Objects beyond the
+     * new capacity are forgotten when the next object is recorded.
+     *
+     * @param capacity
+     *            The greatest number of objects that are remembered
+     */
+    public void setCapacity(final int capacity)
+    {
+        this.capacity = capacity;
+    }
+    
+    /**
+     * Records the discovery of an object. An object that is discovered again under
+     * the same name starts a new lifecycle.
+     *
+     * @param objectName
+     *            The name of the object
+     * @param time
+     *            The time at which the discovery was received
+     */
+    public synchronized void discovered(final String objectName, final long time)
+    {
+        lifecycles.put(objectName, new long[] { time, NOT_RECEIVED, NOT_RECEIVED });
+    }
+    
+    /**
+     * Records a reflection of the attributes of an object, of which only the first
+     * is remembered.
+     *
+     * @param objectName
+     *            The name of the object
+     * @param time
+     *            The time at which the reflection was received
+     */
+    public synchronized void reflected(final String objectName, final long time)
+    {
+        long[] times = lifecycles.get(objectName);
+        
+        if (times != null && times[1] == NOT_RECEIVED)
+        {
+            times[1] = time;
+        }
+    }
+    
+    /**
+     * Records the removal of an object.
+     *
+     * @param objectName
+     *            The name of the object
+     * @param time
+     *            The time at which the removal was received
+     */
+    public synchronized void removed(final String objectName, final long time)
+    {
+        long[] times = lifecycles.get(objectName);
+        
+        if (times == null)
+        {
+            lifecycles.put(objectName, new long[] { NOT_RECEIVED, NOT_RECEIVED, time });
+        }
+        else
+        {
+            times[2] = time;
+        }
+    }
+    
+    /**
+     * @param objectName
+     *            The name of the object
+     * @return The lifecycle of the object, or null if it has not been seen or has
+     *         been forgotten
+     */
+    public synchronized Lifecycle get(final String objectName)
+    {
+        long[] times = lifecycles.get(objectName);
+        
+        return times == null ? null : new Lifecycle(times[0], times[1], times[2]);
+    }
+    
+    /**
+     * @return The number of objects remembered
+     */
+    public synchronized int size()
+    {
+        return lifecycles.size();
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare;
+
+import java.util.function.LongSupplier;
+
+/**
+ * The clock with which callbacks are time stamped as they are received. Time
+ * stamps are taken from a monotonic nanosecond clock, and are converted to wall
+ * clock times by way of an anchor taken when the clock is created, so that the
+ * wall clock times neither go backwards nor jump when the system clock is
+ * stepped.
+ *
+ * @author QinetiQ
+ */
+public final class ReceiveClock
+{
+    /**
+     * The number of nanoseconds in a millisecond.
+     */
+    public static final long NANOS_PER_MILLI = 1000000L;
+    
+    /**
+     * The monotonic clock, in nanoseconds.
+     */
+    private final LongSupplier nanoClock;
+    
+    /**
+     * The wall clock time of the anchor, in milliseconds since the epoch.
+     */
+    private final long anchorMillis;
+    
+    /**
+     * The monotonic clock time of the anchor, in nanoseconds.
+     */
+    private final long anchorNanos;
+    
+    /**
+     * Creates a clock anchored to the system clock now.
+     */
+    public ReceiveClock()
+    {
+        this(System::nanoTime, System.currentTimeMillis(), System.nanoTime());
+    }
+    
+    /**
+     * Constructor
+     *
+     * @param nanoClock
+     *            The monotonic clock, in nanoseconds
+     * @param anchorMillis
+     *            The wall clock time of the anchor, in milliseconds since the epoch
+     * @param anchorNanos
+     *            The monotonic clock time of the anchor, in nanoseconds
+     */
+    public ReceiveClock(final LongSupplier nanoClock, final long anchorMillis, final long anchorNanos)
+    {
+        this.nanoClock = nanoClock;
+        this.anchorMillis = anchorMillis;
+        this.anchorNanos = anchorNanos;
+    }
+    
+    /**
+     * Creates a clock driven by a source of wall clock times, such as the receive
+     * times of a capture being replayed. The nanosecond time stamps are then only
+     * as fine as the source.
+     *
+     * @param millisClock
+     *            The source of the times, in milliseconds since the epoch
+     * @return The clock
+     */
+    public static ReceiveClock ofMillis(final LongSupplier millisClock)
+    {
+        return new ReceiveClock(() -> millisClock.getAsLong() * NANOS_PER_MILLI, 0, 0);
+    }
+    
+    /**
+     * @return The current monotonic time, in nanoseconds
+     */
+    public long nanoTime()
+    {
+        return nanoClock.getAsLong();
+    }
+    
+    /**
+     * Converts a monotonic time from this clock to a wall clock time.
+     *
+     * @param nanoTime
+     *            The monotonic time, in nanoseconds
+     * @return The wall clock time, in milliseconds since the epoch
+     */
+    public long toMillis(final long nanoTime)
+    {
+        return anchorMillis + Math.floorDiv(nanoTime - anchorNanos, NANOS_PER_MILLI);
+    }
+    
+    /**
+     * @return The current wall clock time, in milliseconds since the epoch
+     */
+    public long currentTimeMillis()
+    {
+        return toMillis(nanoTime());
+    }
+}
@@ -15,10 +15,13 @@
  */
 package com.qinetiq.msg134.etc.tc_lib_warfare;
 
+import hla.rti1516e.FederateHandle;
 import hla.rti1516e.InteractionClassHandle;
 import hla.rti1516e.LogicalTime;
 import hla.rti1516e.ParameterHandle;
 import hla.rti1516e.ParameterHandleValueMap;
+import hla.rti1516e.time.HLAfloat64Time;
+import hla.rti1516e.time.HLAinteger64Time;
 
 /**
  * Encapsulates the details of an HLA interaction that has been received from
@@ -46,10 +49,38 @@ public class ReceivedInteraction
     private final LogicalTime sentTime;
     
     /**
-     * The time stamp that the interaction was received by this federate.
+     * The logical time stamp as a primitive value, or NaN if there is none or it
+     * is not of one of the standard time representations.
+     */
+    private final double logicalTimeValue;
+    
+    /**
+     * The time stamp that the interaction was received by this federate, in
+     * milliseconds since the epoch.
      */
     private final long receivedTime;
     
+    /**
+     * The monotonic time in nanoseconds at which the interaction was received, from
+     * the same clock as the receive time stamp, used to measure how long the
+     * interaction waited to be processed.
+     */
+    private final long receivedNanoTime;
+    
+    /**
+     * The monotonic time in nanoseconds by which the interaction is ordered
+     * against others when checking that events happened in the right order. This
+     * starts as the time at which it was received, and is made unique when the
+     * interaction is queued.
+     */
+    private volatile long orderTime;
+    
+    /**
+     * The federate that produced the interaction, or null if the RTI did not
+     * report it.
+     */
+    private FederateHandle producingFederate;
+    
     /**
      * Constructs a new instance of this class given the following parameters.
      * 
@@ -60,16 +91,23 @@ public class ReceivedInteraction
      * @param sentTime
      *            The logical time stamp provided with the received interaction.
      * @param receivedTime
-     *            The time stamp that the interaction was received by this federate.
+     *            The time stamp that the interaction was received by this
+     *            federate, in milliseconds since the epoch.
+     * @param receivedMonotonicTime
+     *            The monotonic time at which the interaction was received by this
+     *            federate, in nanoseconds.
      */
     public ReceivedInteraction(final InteractionClassHandle interactionClass, final ParameterHandleValueMap parameters,
-            final LogicalTime<?, ?> sentTime, final long receivedTime)
+            final LogicalTime<?, ?> sentTime, final long receivedTime, final long receivedMonotonicTime)
     {
         super();
         this.interactionClass = interactionClass;
         this.parameters = parameters;
         this.sentTime = sentTime;
+        this.logicalTimeValue = logicalTimeValue(sentTime);
         this.receivedTime = receivedTime;
+        this.receivedNanoTime = receivedMonotonicTime;
+        this.orderTime = receivedMonotonicTime;
     }
     
     /**
@@ -97,13 +135,76 @@ public class ReceivedInteraction
     }
     
     /**
-     * @return The time stamp that the interaction was received by this federate.
+     * @return The logical time stamp as a primitive value, or NaN if there is none
+     *         or it is not of one of the standard time representations.
+     */
+    public double getLogicalTimeValue()
+    {
+        return logicalTimeValue;
+    }
+    
+    /**
+     * @return The time stamp that the interaction was received by this federate,
+     *         in milliseconds since the epoch.
      */
     public long getReceivedTime()
     {
         return receivedTime;
     }
     
+    /**
+     * @return The monotonic time in nanoseconds by which the interaction is
+     *         ordered against others when checking that events happened in the
+     *         right order
+     */
+    public long getOrderTime()
+    {
+        return orderTime;
+    }
+    
+    /**
+     * Sets the time by which the interaction is ordered against others, when it
+     * is queued.
+     * 
+     * @param orderTime
+     *            The monotonic time in nanoseconds by which the interaction is
+     *            ordered
+     */
+    void setOrderTime(final long orderTime)
+    {
+        this.orderTime = orderTime;
+    }
+    
+    /**
+     * @return The federate that produced the interaction, or null if the RTI did
+     *         not report it
+     */
+    public FederateHandle getProducingFederate()
+    {
+        return producingFederate;
+    }
+    
+    /**
+     * Sets the federate that produced the interaction, as reported by the RTI.
+     * 
+     * @param producingFederate
+     *            The federate that produced the interaction, or null
+     */
+    void setProducingFederate(final FederateHandle producingFederate)
+    {
+        this.producingFederate = producingFederate;
+    }
+    
+    /**
+     * @return The monotonic time in nanoseconds at which the interaction was
+     *         received by this federate, from the clock with which it was time
+     *         stamped.
+     */
+    public long getReceivedNanoTime()
+    {
+        return receivedNanoTime;
+    }
+    
     /**
      * Returns the bytes for the given parameter handle
      * 
@@ -116,4 +217,28 @@ public class ReceivedInteraction
         return parameters.get(handle);
     }
     
+    /**
+     * Converts a logical time to a primitive value, where it is one of the standard
+     * time representations.
+     * 
+     * @param time
+     *            The logical time, or null
+     * @return The value of the logical time, or NaN if it has no primitive value
+     */
+    static double logicalTimeValue(final LogicalTime<?, ?> time)
+    {
+        double value = Double.NaN;
+        
+        if (time instanceof HLAinteger64Time)
+        {
+            value = ((HLAinteger64Time) time).getValue();
+        }
+        else if (time instanceof HLAfloat64Time)
+        {
+            value = ((HLAfloat64Time) time).getValue();
+        }
+        
+        return value;
+    }
+    
 }
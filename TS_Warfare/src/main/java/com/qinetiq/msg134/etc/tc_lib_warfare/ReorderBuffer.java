@@ -0,0 +1,330 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds back time stamped elements and releases them in time stamp order,
+ * sorting those that arrive within the hold time of each other. An element is
+ * released once it has been held for the hold time, along with any held with
+ * earlier time stamps, or to make room when the buffer is full. Elements
+ * without a time stamp are released straight away, as are elements whose time
+ * stamp is earlier than that of an element already released, which are counted
+ * as late.
+ * <p>
+ * Release is driven by the hold time alone rather than by the logical time
+ * granted to a time constrained federate, as the test federate neither
+ * constrains nor advances its logical time, so that joining the federation
+ * under test does not hold back its time regulating federates.
+ *
+ * @param <E>
+ *            The type of the elements
+ *
+ * @author QinetiQ
+ */
+public final class ReorderBuffer<E>
+{
+    /**
+     * An element held in the buffer.
+     *
+     * @param <E>
+     *            The type of the element
+     */
+    private static final class Entry<E>
+    {
+        /**
+         * The time stamp of the element.
+         */
+        private final Comparable<Object> time;
+        
+        /**
+         * The order in which the element was added, which orders elements with the
+         * same time stamp.
+         */
+        private final long sequence;
+        
+        /**
+         * The time at which the element was added, in milliseconds.
+         */
+        private final long heldSince;
+        
+        /**
+         * The element.
+         */
+        private final E element;
+        
+        /**
+         * True once the element has been released.
+         */
+        private boolean released;
+        
+        /**
+         * Constructor
+         *
+         * @param time
+         *            The time stamp of the element
+         * @param sequence
+         *            The order in which the element was added
+         * @param heldSince
+         *            The time at which the element was added
+         * @param element
+         *            The element
+         */
+        private Entry(final Comparable<Object> time, final long sequence, final long heldSince, final E element)
+        {
+            this.time = time;
+            this.sequence = sequence;
+            this.heldSince = heldSince;
+            this.element = element;
+        }
+    }
+    
+    /**
+     * The greatest number of elements held.
+     */
+    private final int capacity;
+    
+    /**
+     * The longest time for which an element is held, in milliseconds.
+     */
+    private final long holdMillis;
+    
+    /**
+     * The clock that determines how long an element has been held.
+     */
+    private final LongSupplier clock;
+    
+    /**
+     * Receives the elements as they are released.
+     */
+    private final Consumer<E> release;
+    
+    /**
+     * The elements held, earliest time stamp first.
+     */
+    private final PriorityQueue<Entry<E>> entries = new PriorityQueue<>(
+            Comparator.<Entry<E>, Comparable<Object>> comparing(entry -> entry.time)
+                    .thenComparingLong(entry -> entry.sequence));
+    
+    /**
+     * The elements held, in the order in which they were added, so that those held
+     * for the hold time are found without a search. Released elements are removed
+     * lazily.
+     */
+    private final ArrayDeque<Entry<E>> arrivals = new ArrayDeque<>();
+    
+    /**
+     * The number of elements added.
+     */
+    private long sequence;
+    
+    /**
+     * The time stamp of the latest element released, or null if none has been.
+     */
+    private Comparable<Object> lastReleased;
+    
+    /**
+     * The number of elements released to make room.
+     */
+    private long forced;
+    
+    /**
+     * The number of elements added after a later element had been released.
+     */
+    private long late;
+    
+    /**
+     * Constructor
+     *
+     * @param capacity
+     *            The greatest number of elements held
+     * @param holdMillis
+     *            The longest time for which an element is held, in milliseconds
+     * @param release
+     *            Receives the elements as they are released
+     */
+    public ReorderBuffer(final int capacity, final long holdMillis, final Consumer<E> release)
+    {
+        this(capacity, holdMillis, release, System::currentTimeMillis);
+    }
+    
+    /**
+     * Constructor
+     *
+     * @param capacity
+     *            The greatest number of elements held
+     * @param holdMillis
+     *            The longest time for which an element is held, in milliseconds
+     * @param release
+     *            Receives the elements as they are released
+     * @param clock
+     *            The clock that determines how long an element has been held, in
+     *            milliseconds
+     */
+    public ReorderBuffer(final int capacity, final long holdMillis, final Consumer<E> release,
+            final LongSupplier clock)
+    {
+        this.capacity = capacity;
+        this.holdMillis = holdMillis;
+        this.release = release;
+        this.clock = clock;
+    }
+    
+    /**
+     * Adds an element, releasing it straight away if it need not be held.
+     *
+     * @param time
+     *            The time stamp of the element, which must be comparable with the
+     *            time stamps of the other elements, or null if it has none
+     * @param element
+     *            The element
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void add(final Comparable<?> time, final E element)
+    {
+        Comparable<Object> comparableTime = (Comparable<Object>) time;
+        
+        if (comparableTime == null)
+        {
+            release.accept(element);
+        }
+        else if (lastReleased != null && comparableTime.compareTo(lastReleased) < 0)
+        {
+            late++;
+            release.accept(element);
+        }
+        else
+        {
+            if (entries.size() >= capacity)
+            {
+                forced++;
+                releaseFirst();
+            }
+            Entry<E> entry = new Entry<>(comparableTime, sequence++, clock.getAsLong(), element);
+            entries.add(entry);
+            arrivals.add(entry);
+        }
+        pruneArrivals();
+    }
+    
+    /**
+     * Releases the elements that have been held for the hold time, along with any
+     * with earlier time stamps.
+     */
+    public synchronized void releaseExpired()
+    {
+        long now = clock.getAsLong();
+        Entry<E> oldest = arrivals.peek();
+        
+        while (oldest != null && (oldest.released || now - oldest.heldSince >= holdMillis))
+        {
+            releaseUpTo(oldest.time);
+            arrivals.remove();
+            oldest = arrivals.peek();
+        }
+    }
+    
+    /**
+     * Releases every element held.
+     */
+    public synchronized void flush()
+    {
+        while (!entries.isEmpty())
+        {
+            releaseFirst();
+        }
+        arrivals.clear();
+    }
+    
+    /**
+     * @return The number of elements held
+     */
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+    
+    /**
+     * @return The number of elements released before their time to make room
+     */
+    public synchronized long getForced()
+    {
+        return forced;
+    }
+    
+    /**
+     * @return The number of elements added after a later element had been
+     *         released, and so released out of order
+     */
+    public synchronized long getLate()
+    {
+        return late;
+    }
+    
+    /**
+     * Releases the elements whose time stamps are no later than the given time.
+     *
+     * @param time
+     *            The time
+     */
+    private void releaseUpTo(final Comparable<Object> time)
+    {
+        while (!entries.isEmpty() && entries.peek().time.compareTo(time) <= 0)
+        {
+            releaseFirst();
+        }
+    }
+    
+    /**
+     * Forgets the oldest arrivals that have already been released.
+     */
+    private void pruneArrivals()
+    {
+        while (!arrivals.isEmpty() && arrivals.peek().released)
+        {
+            arrivals.remove();
+        }
+    }
+    
+    /**
+     * Releases the element with the earliest time stamp.
+     */
+    private void releaseFirst()
+    {
+        Entry<E> entry = entries.remove();
+        entry.released = true;
+        release(entry.time, entry.element);
+    }
+    
+    /**
+     * Releases an element.
+     *
+     * @param time
+     *            The time stamp of the element
+     * @param element
+     *            The element
+     */
+    private void release(final Comparable<Object> time, final E element)
+    {
+        lastReleased = time;
+        release.accept(element);
+    }
+}
@@ -0,0 +1,276 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * The running aggregates of a soak test, from which its verdict is reached. Only
+ * counts are kept, so the memory used does not grow with the number of events
+ * processed.
+ *
+ * This class is not thread safe; it is used by the thread running the test.
+ *
+ * @author QinetiQ
+ */
+public class SoakStatistics
+{
+    /**
+     * The clock giving the elapsed time, in milliseconds.
+     */
+    private final LongSupplier clock;
+    
+    /**
+     * The time at which the soak test started.
+     */
+    private final long startTime;
+    
+    /**
+     * The number of events processed, by interaction class name.
+     */
+    private final Map<String, long[]> events = new TreeMap<>();
+    
+    /**
+     * The number of times each parameter was checked and the number of those that
+     * failed, by interaction class and parameter name.
+     */
+    private final Map<String, long[]> parameters = new TreeMap<>();
+    
+    /**
+     * The number of MunitionDetonation events checked for a prior WeaponFire.
+     */
+    private long pairsChecked;
+    
+    /**
+     * The number of MunitionDetonation events with a prior WeaponFire.
+     */
+    private long pairsMatched;
+    
+    /**
+     * The number of munition object instances that were not discovered or removed
+     * as expected.
+     */
+    private long munitionViolations;
+    
+    /**
+     * Constructor
+     */
+    public SoakStatistics()
+    {
+        this(System::currentTimeMillis);
+    }
+    
+    /**
+     * Constructor
+     *
+     * @param clock
+     *            The clock giving the elapsed time, in milliseconds
+     */
+    public SoakStatistics(final LongSupplier clock)
+    {
+        this.clock = clock;
+        this.startTime = clock.getAsLong();
+    }
+    
+    /**
+     * Counts a processed event.
+     *
+     * @param interaction
+     *            The name of the interaction class
+     */
+    public void eventProcessed(final String interaction)
+    {
+        events.computeIfAbsent(interaction, k -> new long[1])[0]++;
+    }
+    
+    /**
+     * Counts the check of a parameter.
+     *
+     * @param interaction
+     *            The name of the interaction class
+     * @param parameter
+     *            The name of the parameter
+     * @param failed
+     *            True if the parameter failed the check
+     */
+    public void parameterChecked(final String interaction, final String parameter, final boolean failed)
+    {
+        long[] counts = parameters.computeIfAbsent(String.join(".", interaction, parameter), k -> new long[2]);
+        counts[0]++;
+        if (failed)
+        {
+            counts[1]++;
+        }
+    }
+    
+    /**
+     * Counts the check of a MunitionDetonation for a prior WeaponFire.
+     *
+     * @param matched
+     *            True if a prior WeaponFire was found
+     */
+    public void pairChecked(final boolean matched)
+    {
+        pairsChecked++;
+        if (matched)
+        {
+            pairsMatched++;
+        }
+    }
+    
+    /**
+     * Counts a munition object instance that was not discovered or removed as
+     * expected.
+     */
+    public void munitionViolation()
+    {
+        munitionViolations++;
+    }
+    
+    /**
+     * @return The total number of events processed
+     */
+    public long getEvents()
+    {
+        long total = 0;
+        for (long[] count : events.values())
+        {
+            total += count[0];
+        }
+        return total;
+    }
+    
+    /**
+     * @return The number of events processed per second since the start
+     */
+    public double getEventsPerSecond()
+    {
+        long elapsed = clock.getAsLong() - startTime;
+        return elapsed <= 0 ? 0 : getEvents() * 1000.0 / elapsed;
+    }
+    
+    /**
+     * @param parameter
+     *            The interaction class and parameter name, separated by a dot
+     * @return The proportion of the checks of the parameter that failed, or zero
+     *         if it was not checked
+     */
+    public double getParameterFailureRate(final String parameter)
+    {
+        long[] counts = parameters.get(parameter);
+        return counts == null ? 0 : (double) counts[1] / counts[0];
+    }
+    
+    /**
+     * @return The proportion of the MunitionDetonation events with a prior
+     *         WeaponFire, or one if none was checked
+     */
+    public double getPairMatchRatio()
+    {
+        return pairsChecked == 0 ? 1 : (double) pairsMatched / pairsChecked;
+    }
+    
+    /**
+     * @return The number of munition object instances that were not discovered or
+     *         removed as expected
+     */
+    public long getMunitionViolations()
+    {
+        return munitionViolations;
+    }
+    
+    /**
+     * Compares the aggregates with the thresholds of the soak test.
+     *
+     * @param minEventsPerSecond
+     *            The lowest acceptable rate of events
+     * @param maxParameterFailureRate
+     *            The highest acceptable failure rate of any parameter
+     * @param minPairMatchRatio
+     *            The lowest acceptable proportion of matched pairs
+     * @param maxMunitionViolations
+     *            The highest acceptable number of munition violations
+     * @return A description of each threshold that was breached, which is empty if
+     *         the soak test passed
+     */
+    public List<String> getBreaches(final double minEventsPerSecond, final double maxParameterFailureRate,
+            final double minPairMatchRatio, final long maxMunitionViolations)
+    {
+        List<String> breaches = new ArrayList<>();
+        
+        double eventsPerSecond = getEventsPerSecond();
+        if (eventsPerSecond < minEventsPerSecond)
+        {
+            breaches.add(String.join(" ", "Event rate", String.format("%.2f", eventsPerSecond),
+                    "per second is below the minimum of", String.valueOf(minEventsPerSecond)));
+        }
+        
+        for (String parameter : parameters.keySet())
+        {
+            double failureRate = getParameterFailureRate(parameter);
+            if (failureRate > maxParameterFailureRate)
+            {
+                breaches.add(String.join(" ", "Failure rate", String.format("%.4f", failureRate), "of", parameter,
+                        "is above the maximum of", String.valueOf(maxParameterFailureRate)));
+            }
+        }
+        
+        double pairMatchRatio = getPairMatchRatio();
+        if (pairMatchRatio < minPairMatchRatio)
+        {
+            breaches.add(String.join(" ", "Pair match ratio", String.format("%.4f", pairMatchRatio),
+                    "is below the minimum of", String.valueOf(minPairMatchRatio)));
+        }
+        
+        if (munitionViolations > maxMunitionViolations)
+        {
+            breaches.add(String.join(" ", String.valueOf(munitionViolations),
+                    "munition object violations exceed the maximum of", String.valueOf(maxMunitionViolations)));
+        }
+        
+        return breaches;
+    }
+    
+    @Override
+    public String toString()
+    {
+        StringJoiner sj = new StringJoiner(System.lineSeparator());
+        
+        sj.add(String.join(" ", "Soak test:", String.valueOf(getEvents()), "events at",
+                String.format("%.2f", getEventsPerSecond()), "per second"));
+        for (Map.Entry<String, long[]> e : events.entrySet())
+        {
+            sj.add(String.join(" ", "  ", e.getKey(), String.valueOf(e.getValue()[0])));
+        }
+        for (Map.Entry<String, long[]> e : parameters.entrySet())
+        {
+            if (e.getValue()[1] > 0)
+            {
+                sj.add(String.join(" ", "  ", e.getKey(), "failed", String.valueOf(e.getValue()[1]), "of",
+                        String.valueOf(e.getValue()[0])));
+            }
+        }
+        sj.add(String.join(" ", "  Pairs matched", String.valueOf(pairsMatched), "of", String.valueOf(pairsChecked)));
+        sj.add(String.join(" ", "  Munition object violations", String.valueOf(munitionViolations)));
+        
+        return sj.toString();
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare;
+
+/**
+ * A federate under test. The interactions received are attributed to a SuT by
+ * the federate that produced them where the RTI reports it, and otherwise by
+ * the prefix of the IssuingObjectIdentifier of their EventIdentifier.
+ *
+ * @author QinetiQ
+ */
+public final class SutFederate
+{
+    /**
+     * The federate name of the SuT.
+     */
+    private final String name;
+    
+    /**
+     * The federate type of the SuT.
+     */
+    private final String type;
+    
+    /**
+     * The prefix of the IssuingObjectIdentifier of the events of the SuT, or null
+     * if its events are only attributed by producing federate.
+     */
+    private final String issuingObjectIdPrefix;
+    
+    /**
+     * Constructor
+     *
+     * @param name
+     *            The federate name of the SuT
+     * @param type
+     *            The federate type of the SuT
+     * @param issuingObjectIdPrefix
+     *            The prefix of the IssuingObjectIdentifier of the events of the
+     *            SuT, or null if its events are only attributed by producing
+     *            federate
+     */
+    public SutFederate(final String name, final String type, final String issuingObjectIdPrefix)
+    {
+        this.name = name;
+        this.type = type;
+        this.issuingObjectIdPrefix = issuingObjectIdPrefix;
+    }
+    
+    /**
+     * @return The federate name of the SuT
+     */
+    public String getName()
+    {
+        return name;
+    }
+    
+    /**
+     * @return The federate type of the SuT
+     */
+    public String getType()
+    {
+        return type;
+    }
+    
+    /**
+     * @return The prefix of the IssuingObjectIdentifier of the events of the SuT,
+     *         or null if its events are only attributed by producing federate
+     */
+    public String getIssuingObjectIdPrefix()
+    {
+        return issuingObjectIdPrefix;
+    }
+    
+    /**
+     * @param issuingObjectIdentifier
+     *            The IssuingObjectIdentifier of an event, or null
+     * @return True if the event is attributed to the SuT by its
+     *         IssuingObjectIdentifier
+     */
+    public boolean isIssuerOf(final String issuingObjectIdentifier)
+    {
+        return issuingObjectIdPrefix != null && issuingObjectIdentifier != null
+                && issuingObjectIdentifier.startsWith(issuingObjectIdPrefix);
+    }
+    
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+}
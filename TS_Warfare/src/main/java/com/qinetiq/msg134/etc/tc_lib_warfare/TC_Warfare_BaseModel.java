@@ -15,6 +15,10 @@
  */
 package com.qinetiq.msg134.etc.tc_lib_warfare;
 
+import com.qinetiq.msg134.etc.tc_lib_warfare.capture.CaptureSink;
+import com.qinetiq.msg134.etc.tc_lib_warfare.jfr.ValidationEvents;
+import com.qinetiq.msg134.etc.tc_lib_warfare.metrics.ValidationMetrics;
+
 import de.fraunhofer.iosb.tc_lib.IVCT_BaseModel;
 import de.fraunhofer.iosb.tc_lib.IVCT_RTIambassador;
 import de.fraunhofer.iosb.tc_lib.IVCT_TcParam;
@@ -35,15 +39,19 @@ import hla.rti1516e.exceptions.SaveInProgress;
 
 import org.slf4j.Logger;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 /**
@@ -86,6 +94,73 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
      */
     private Map<ObjectInstanceHandle, DiscoveredObject> discoveredObjects = new ConcurrentHashMap<>();
     
+    /**
+     * The names of the subscribed interaction classes, used when capturing.
+     */
+    private Map<InteractionClassHandle, String> interactionClassNames = new ConcurrentHashMap<>();
+    
+    /**
+     * The names of the parameters of the subscribed interaction classes, used when
+     * capturing.
+     */
+    private Map<InteractionClassHandle, Map<ParameterHandle, String>> parameterNames = new ConcurrentHashMap<>();
+    
+    /**
+     * The names of the subscribed object classes, used when capturing.
+     */
+    private Map<ObjectClassHandle, String> objectClassNames = new ConcurrentHashMap<>();
+    
+    /**
+     * The names of the subscribed attributes, by object class, used when
+     * capturing.
+     */
+    private Map<ObjectClassHandle, Map<AttributeHandle, String>> subscribedAttributeNames = new ConcurrentHashMap<>();
+    
+    /**
+     * The sink to which received callbacks are captured, or null if they are not
+     * being captured.
+     */
+    private volatile CaptureSink captureSink;
+    
+    /**
+     * True if the tracked interactions are only captured, for validation
+     * elsewhere, rather than queued to be validated here.
+     */
+    private volatile boolean captureOnly;
+    
+    /**
+     * The clock with which callbacks are time stamped as they are received.
+     */
+    private volatile ReceiveClock receiveClock = new ReceiveClock();
+    
+    /**
+     * Decides which attribute update requests are sent when they are batched, or
+     * null if every request is sent to the RTI as it is made.
+     */
+    private volatile AttributeRequestThrottle attributeRequestThrottle;
+    
+    /**
+     * Holds back the interactions with logical times so that they are queued in
+     * logical time order, or null if they are queued in the order received.
+     */
+    private volatile ReorderBuffer<ReceivedInteraction> reorderBuffer;
+    
+    /**
+     * The order time of the latest interaction queued, in nanoseconds.
+     */
+    private final AtomicLong lastOrderTime = new AtomicLong(Long.MIN_VALUE);
+    
+    /**
+     * The metrics gathered on the performance of the validation.
+     */
+    private final ValidationMetrics metrics = new ValidationMetrics();
+    
+    /**
+     * When each tracked object was discovered, first reflected and removed, by
+     * object name.
+     */
+    private final ObjectLifecycleStore objectLifecycles = new ObjectLifecycleStore();
+    
     /**
      * The logger. This is repeated here because there logger in the superclass
      * cannot be referenced herein because is is private. Although this therefore
@@ -108,6 +183,187 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
         this.rtiAmbassador = ivct_rti;
     }
     
+    /**
+     * Sets the sink to which the tracked interactions and object callbacks are
+     * captured from now on.
+     * 
+     * @param captureSink
+     *            The capture sink, or null to stop capturing
+     */
+    public void setCaptureSink(final CaptureSink captureSink)
+    {
+        this.captureSink = captureSink;
+    }
+    
+    /**
+     * Sets whether the tracked interactions are only captured from now on. When
+     * they are, they are passed to the capture sink alone, for validation
+     * elsewhere, and are neither reordered nor queued to be validated here.
+     * 
+     * @param captureOnly
+     *            True if the tracked interactions are only captured
+     */
+    public void setCaptureOnly(final boolean captureOnly)
+    {
+        this.captureOnly = captureOnly;
+    }
+    
+    /**
+     * Batches the attribute update requests from now on. A request for all of the
+     * objects of a class is sent as a single class-level request, and requests
+     * are only sent as allowed by the throttle.
+     * 
+     * @param attributeRequestThrottle
+     *            The throttle for the requests, or null to send every request to
+     *            the RTI as it is made
+     */
+    public void setAttributeRequestThrottle(final AttributeRequestThrottle attributeRequestThrottle)
+    {
+        this.attributeRequestThrottle = attributeRequestThrottle;
+    }
+    
+    /**
+     * Queues the interactions that carry logical times in logical time order from
+     * now on. Each interaction is held for the hold time and then queued after any
+     * held with earlier logical times, and the interactions queued are given
+     * increasing order times so that ordering checks follow logical time. The
+     * federate is not made time constrained, so the order is only corrected
+     * within the hold time.
+     * 
+     * @param capacity
+     *            The greatest number of interactions held
+     * @param holdMillis
+     *            The longest time for which an interaction is held, in
+     *            milliseconds
+     */
+    public void enableLogicalTimeReordering(final int capacity, final long holdMillis)
+    {
+        reorderBuffer = new ReorderBuffer<>(capacity, holdMillis, this::queueInteraction,
+                () -> receiveClock.currentTimeMillis());
+    }
+    
+    /**
+     * Queues the interactions held for reordering whose hold time has passed. This
+     * should be called regularly by the consumer of the interaction queue when
+     * reordering by logical time.
+     */
+    public void releaseDueInteractions()
+    {
+        ReorderBuffer<ReceivedInteraction> buffer = reorderBuffer;
+        if (buffer != null)
+        {
+            buffer.releaseExpired();
+        }
+    }
+    
+    /**
+     * Stops reordering, queueing any interactions still held.
+     */
+    public void flushReorderedInteractions()
+    {
+        ReorderBuffer<ReceivedInteraction> buffer = reorderBuffer;
+        if (buffer != null)
+        {
+            buffer.flush();
+            if (buffer.getForced() > 0 || buffer.getLate() > 0)
+            {
+                logger.warn(String.join(" ", String.valueOf(buffer.getForced()),
+                        "interactions were released early to make room and", String.valueOf(buffer.getLate()),
+                        "arrived too late to be queued in logical time order"));
+            }
+        }
+    }
+    
+    /**
+     * Sets the source of the times at which callbacks are received, which by
+     * default is the system clock. Replaying a capture uses the receive times that
+     * were captured, so that the order in which interactions are received is
+     * judged as it was during the run.
+     * 
+     * @param receiveClock
+     *            The source of the receive times, in milliseconds since the epoch
+     */
+    public void setReceiveClock(final LongSupplier receiveClock)
+    {
+        this.receiveClock = ReceiveClock.ofMillis(receiveClock);
+    }
+    
+    /**
+     * @return The clock with which callbacks are time stamped as they are received
+     */
+    public ReceiveClock getReceiveClock()
+    {
+        return receiveClock;
+    }
+    
+    /**
+     * @return The metrics gathered on the performance of the validation
+     */
+    public ValidationMetrics getMetrics()
+    {
+        return metrics;
+    }
+    
+    /**
+     * @return When each tracked object was discovered, first reflected and removed
+     */
+    public ObjectLifecycleStore getObjectLifecycles()
+    {
+        return objectLifecycles;
+    }
+    
+    /**
+     * Looks up the name of a tracked interaction class without calling the RTI.
+     *
+     * @param interactionClass
+     *            the interaction class handle
+     * @return the name of the interaction class, or null if it is not tracked
+     */
+    public String getInteractionClassName(final InteractionClassHandle interactionClass)
+    {
+        return interactionClassNames.get(interactionClass);
+    }
+    
+    /**
+     * Looks up the name of a parameter of a tracked interaction class, only
+     * calling the RTI the first time that a parameter that was not subscribed by
+     * name is seen.
+     *
+     * @param interactionClass
+     *            the interaction class handle
+     * @param parameter
+     *            the parameter handle
+     * @return the name of the parameter, or the handle as text if the RTI does not
+     *         know it
+     */
+    public String getParameterName(final InteractionClassHandle interactionClass, final ParameterHandle parameter)
+    {
+        Map<ParameterHandle, String> names = parameterNames.get(interactionClass);
+        String name = names == null ? null : names.get(parameter);
+        return name == null ? parameterName(interactionClass, parameter) : name;
+    }
+    
+    /**
+     * Stops capturing and closes the capture sink, if there is one.
+     */
+    public void closeCaptureSink()
+    {
+        CaptureSink sink = captureSink;
+        captureSink = null;
+        
+        if (sink != null)
+        {
+            try
+            {
+                sink.close();
+            }
+            catch (IOException e)
+            {
+                logger.error("Unable to close the capture sink", e);
+            }
+        }
+    }
+    
     /**
      * @return A reference to the queue of received interactions.
      */
@@ -177,7 +433,8 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
     
     /**
      * Request an attribute update from the RTI for all discovered objects of a
-     * particular class
+     * particular class. When requests are batched, a single class-level request is
+     * sent instead of one request per object.
      * 
      * @param objectClass
      *            The object class handle of the discovered objects whose attributes
@@ -187,32 +444,59 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
      */
     public void requestAttributeValueUpdate(final ObjectClassHandle objectClass) throws TcInconclusive
     {
-        List<String> erroneousObjects = new ArrayList<>();
+        AttributeRequestThrottle throttle = attributeRequestThrottle;
         
-        discoveredObjects.values().stream().filter(obj -> obj.getObjectClass().equals(objectClass))
-                .collect(Collectors.toList()).forEach(obj ->
+        if (throttle != null)
+        {
+            if (throttle.tryRequest(objectClass))
+            {
+                try
                 {
-                    try
-                    {
-                        rtiAmbassador.requestAttributeValueUpdate(obj.getTheObject(),
-                                trackedObjectClasses.get(obj.getObjectClass()), null);
-                    }
-                    catch (AttributeNotDefined | ObjectInstanceNotKnown | SaveInProgress | RestoreInProgress
-                            | FederateNotExecutionMember | NotConnected | RTIinternalError e)
-                    {
-                        logger.error(
-                                String.join(" ", "Exception requesting an attribute update for", obj.getObjectName()),
-                                e);
-                        erroneousObjects.add(obj.getObjectName());
-                    }
-                });
-        
-        if (!erroneousObjects.isEmpty())
+                    rtiAmbassador.requestAttributeValueUpdate(objectClass, trackedObjectClasses.get(objectClass), null);
+                }
+                catch (AttributeNotDefined | ObjectClassNotDefined | SaveInProgress | RestoreInProgress
+                        | FederateNotExecutionMember | NotConnected | RTIinternalError e)
+                {
+                    String msg = String.join(" ", "Exception requesting an attribute update for object class",
+                            objectClassNames.get(objectClass));
+                    logger.error(msg, e);
+                    throw new TcInconclusive(msg);
+                }
+            }
+            else if (logger.isDebugEnabled())
+            {
+                logger.debug(String.join(" ", "Attribute update for object class", objectClassNames.get(objectClass),
+                        "not requested as a request is pending or the rate is limited"));
+            }
+        }
+        else
         {
-            erroneousObjects.add(0, "Problems encountered when requesting attribute updates for objects:");
-            String msg = String.join(" ", erroneousObjects);
-            logger.error(msg);
-            throw new TcInconclusive(msg);
+            List<String> erroneousObjects = new ArrayList<>();
+            
+            discoveredObjects.values().stream().filter(obj -> obj.getObjectClass().equals(objectClass))
+                    .collect(Collectors.toList()).forEach(obj ->
+                    {
+                        try
+                        {
+                            rtiAmbassador.requestAttributeValueUpdate(obj.getTheObject(),
+                                    trackedObjectClasses.get(obj.getObjectClass()), null);
+                        }
+                        catch (AttributeNotDefined | ObjectInstanceNotKnown | SaveInProgress | RestoreInProgress
+                                | FederateNotExecutionMember | NotConnected | RTIinternalError e)
+                        {
+                            logger.error(String.join(" ", "Exception requesting an attribute update for",
+                                    obj.getObjectName()), e);
+                            erroneousObjects.add(obj.getObjectName());
+                        }
+                    });
+            
+            if (!erroneousObjects.isEmpty())
+            {
+                erroneousObjects.add(0, "Problems encountered when requesting attribute updates for objects:");
+                String msg = String.join(" ", erroneousObjects);
+                logger.error(msg);
+                throw new TcInconclusive(msg);
+            }
         }
     }
     
@@ -239,12 +523,17 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
             interactionClassHandle = rtiAmbassador.getInteractionClassHandle(interactionName);
             
             Map<String, ParameterHandle> paramMap = new HashMap<>();
+            Map<ParameterHandle, String> names = new ConcurrentHashMap<>();
             for (String paramName : paramNames)
             {
                 ParameterHandle ph = rtiAmbassador.getParameterHandle(interactionClassHandle, paramName);
                 paramMap.put(paramName, ph);
+                names.put(ph, paramName);
             }
             
+            interactionClassNames.put(interactionClassHandle, interactionName);
+            parameterNames.put(interactionClassHandle, names);
+            
             interactionDetails = new InteractionRecord(interactionName, interactionClassHandle, paramMap);
             
         }
@@ -301,10 +590,12 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
                 attributeHandles.clear();
             }
             
+            Map<AttributeHandle, String> names = new ConcurrentHashMap<>();
             for (String attributeName : attributeNames)
             {
                 AttributeHandle attributeHandle = rtiAmbassador.getAttributeHandle(objectHandle, attributeName);
                 munitionAttributeHandleSet.add(attributeHandle);
+                names.put(attributeHandle, attributeName);
                 
                 if (attributeHandles != null)
                 {
@@ -312,6 +603,8 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
                 }
             }
             
+            objectClassNames.put(objectHandle, className);
+            subscribedAttributeNames.put(objectHandle, names);
             addTrackedObjecClass(objectHandle, munitionAttributeHandleSet);
             rtiAmbassador.subscribeObjectClassAttributes(objectHandle, munitionAttributeHandleSet);
         }
@@ -334,17 +627,33 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
      */
     public void requestAttributeValueUpdate(final DiscoveredObject theObject) throws TcInconclusive
     {
-        try
+        AttributeRequestThrottle throttle = attributeRequestThrottle;
+        
+        // When requests are batched, a request is not repeated while one for the
+        // object, or for the whole of its class, is still pending
+        if (throttle != null && (throttle.isPending(theObject.getObjectClass())
+                || !throttle.tryRequest(theObject.getTheObject())))
         {
-            rtiAmbassador.requestAttributeValueUpdate(theObject.getTheObject(),
-                    trackedObjectClasses.get(theObject.getObjectClass()), null);
+            if (logger.isDebugEnabled())
+            {
+                logger.debug(String.join(" ", "Attribute update for", theObject.getObjectName(),
+                        "not requested as a request is pending or the rate is limited"));
+            }
         }
-        catch (AttributeNotDefined | ObjectInstanceNotKnown | SaveInProgress | RestoreInProgress
-                | FederateNotExecutionMember | NotConnected | RTIinternalError e)
+        else
         {
-            String msg = String.join(" ", "Exception requesting attribute update for", theObject.getObjectName());
-            logger.error(msg, e);
-            throw new TcInconclusive(msg);
+            try
+            {
+                rtiAmbassador.requestAttributeValueUpdate(theObject.getTheObject(),
+                        trackedObjectClasses.get(theObject.getObjectClass()), null);
+            }
+            catch (AttributeNotDefined | ObjectInstanceNotKnown | SaveInProgress | RestoreInProgress
+                    | FederateNotExecutionMember | NotConnected | RTIinternalError e)
+            {
+                String msg = String.join(" ", "Exception requesting attribute update for", theObject.getObjectName());
+                logger.error(msg, e);
+                throw new TcInconclusive(msg);
+            }
         }
     }
     
@@ -353,7 +662,7 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
             final ParameterHandleValueMap theParameters, final byte[] userSuppliedTag, final OrderType sentOrdering,
             final TransportationTypeHandle theTransport, final SupplementalReceiveInfo receiveInfo)
     {
-        this.doReceiveInteraction(interactionClass, theParameters, null);
+        this.doReceiveInteraction(interactionClass, theParameters, null, receiveInfo);
     }
     
     @Override
@@ -363,7 +672,7 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
             final LogicalTime theTime, final OrderType receivedOrdering, final SupplementalReceiveInfo receiveInfo)
             throws FederateInternalError
     {
-        this.doReceiveInteraction(interactionClass, theParameters, theTime);
+        this.doReceiveInteraction(interactionClass, theParameters, theTime, receiveInfo);
     }
     
     @Override
@@ -373,7 +682,7 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
             final LogicalTime theTime, final OrderType receivedOrdering, final MessageRetractionHandle retractionHandle,
             final SupplementalReceiveInfo receiveInfo) throws FederateInternalError
     {
-        this.doReceiveInteraction(interactionClass, theParameters, theTime);
+        this.doReceiveInteraction(interactionClass, theParameters, theTime, receiveInfo);
     }
     
     @Override
@@ -382,10 +691,18 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
     {
         if (trackedObjectClasses.containsKey(theObjectClass))
         {
-            logger.debug(String.join(" ", "Discovered object", objectName, "Instance handle:", theObject.toString(),
-                    "Class handle:", theObjectClass.toString()));
-            discoveredObjects.computeIfAbsent(theObject,
-                    k -> new DiscoveredObject(theObjectClass, theObject, objectName, null));
+            if (logger.isDebugEnabled())
+            {
+                logger.debug(String.join(" ", "Discovered object", objectName, "Instance handle:",
+                        theObject.toString(), "Class handle:", theObjectClass.toString()));
+            }
+            discoveredObjects.computeIfAbsent(theObject, k ->
+            {
+                metrics.objectDiscovered();
+                objectLifecycles.discovered(objectName, receiveClock.nanoTime());
+                captureDiscovery(theObjectClass, objectName);
+                return new DiscoveredObject(theObjectClass, theObject, objectName);
+            });
         }
         else
         {
@@ -421,7 +738,7 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
     public void removeObjectInstance(ObjectInstanceHandle theObject, byte[] userSuppliedTag, OrderType sentOrdering,
             SupplementalRemoveInfo removeInfo) throws FederateInternalError
     {
-        discoveredObjects.remove(theObject);
+        doRemoveObjectInstance(theObject, null);
     }
     
     @Override
@@ -430,7 +747,7 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
             LogicalTime theTime, OrderType receivedOrdering, SupplementalRemoveInfo removeInfo)
             throws FederateInternalError
     {
-        discoveredObjects.remove(theObject);
+        doRemoveObjectInstance(theObject, theTime);
     }
     
     @Override
@@ -439,7 +756,7 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
             LogicalTime theTime, OrderType receivedOrdering, MessageRetractionHandle retractionHandle,
             SupplementalRemoveInfo removeInfo) throws FederateInternalError
     {
-        discoveredObjects.remove(theObject);
+        doRemoveObjectInstance(theObject, theTime);
     }
     
     @Override
@@ -456,7 +773,7 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
             LogicalTime theTime, OrderType receivedOrdering, SupplementalReflectInfo reflectInfo)
             throws FederateInternalError
     {
-        doReflectAttributeValues(theObject, theAttributes);
+        doReflectAttributeValues(theObject, theAttributes, theTime);
     }
     
     @Override
@@ -466,7 +783,7 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
             LogicalTime theTime, OrderType receivedOrdering, MessageRetractionHandle retractionHandle,
             SupplementalReflectInfo reflectInfo) throws FederateInternalError
     {
-        doReflectAttributeValues(theObject, theAttributes);
+        doReflectAttributeValues(theObject, theAttributes, theTime);
     }
     
     @Override
@@ -474,7 +791,7 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
             byte[] userSuppliedTag, OrderType sentOrdering, TransportationTypeHandle theTransport,
             SupplementalReflectInfo reflectInfo)
     {
-        doReflectAttributeValues(theObject, theAttributes);
+        doReflectAttributeValues(theObject, theAttributes, null);
     }
     
     /**
@@ -485,23 +802,105 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
      * 
      * @param interactionClass
      * @param theParameters
+     * @param theTime
+     * @param receiveInfo
+     *            The supplemental information, which may give the producing
+     *            federate, or null
      * @throws RTIinternalError
      * @throws NotConnected
      * @throws FederateNotExecutionMember
      * @throws InvalidInteractionClassHandle
      */
     private void doReceiveInteraction(final InteractionClassHandle interactionClass,
-            final ParameterHandleValueMap theParameters, final LogicalTime<?, ?> theTime)
+            final ParameterHandleValueMap theParameters, final LogicalTime<?, ?> theTime,
+            final SupplementalReceiveInfo receiveInfo)
     {
         if (trackedInteractions.contains(interactionClass))
         {
-            logger.debug(String.join(" ", "Received interaction", interactionClass.toString(), "with",
-                    String.valueOf(theParameters.size()), "parameters. Queueing"));
-            receivedInteractionQueue
-                    .add(new ReceivedInteraction(interactionClass, theParameters, theTime, System.currentTimeMillis()));
+            if (logger.isDebugEnabled())
+            {
+                logger.debug(String.join(" ", "Received interaction", interactionClass.toString(), "with",
+                        String.valueOf(theParameters.size()), "parameters. Queueing"));
+            }
+            ReceiveClock clock = receiveClock;
+            long receiveNanoTime = clock.nanoTime();
+            long receiveTime = clock.toMillis(receiveNanoTime);
+            if (!captureOnly)
+            {
+                metrics.interactionQueued(interactionClassNames.get(interactionClass));
+                ReceivedInteraction received = new ReceivedInteraction(interactionClass, theParameters, theTime,
+                        receiveTime, receiveNanoTime);
+                if (receiveInfo != null && receiveInfo.hasProducingFederate())
+                {
+                    received.setProducingFederate(receiveInfo.getProducingFederate());
+                }
+                ReorderBuffer<ReceivedInteraction> buffer = reorderBuffer;
+                if (buffer == null)
+                {
+                    queueInteraction(received);
+                }
+                else
+                {
+                    buffer.add(orderingTime(theTime, received.getLogicalTimeValue()), received);
+                }
+            }
+            ValidationEvents.interactionReceived(interactionClassNames.get(interactionClass), theParameters);
+            
+            CaptureSink sink = captureSink;
+            if (sink != null)
+            {
+                Map<ParameterHandle, String> names = parameterNames.get(interactionClass);
+                Map<String, byte[]> parameters = new LinkedHashMap<>();
+                for (Map.Entry<ParameterHandle, byte[]> e : theParameters.entrySet())
+                {
+                    String name = names == null ? null : names.get(e.getKey());
+                    parameters.put(name == null ? parameterName(interactionClass, e.getKey()) : name, e.getValue());
+                }
+                
+                try
+                {
+                    sink.interactionReceived(interactionClassNames.get(interactionClass), parameters,
+                            encodeTime(theTime), receiveTime);
+                }
+                catch (IOException e)
+                {
+                    captureFailed(sink, e);
+                }
+            }
         }
     }
     
+    /**
+     * Queues an interaction, giving it an order time later than that of the
+     * interaction queued before it, so that no two interactions are judged to have
+     * been received at the same time.
+     * 
+     * @param received
+     *            The interaction
+     */
+    private void queueInteraction(final ReceivedInteraction received)
+    {
+        long orderTime = received.getOrderTime();
+        received.setOrderTime(lastOrderTime.updateAndGet(last -> Math.max(last + 1, orderTime)));
+        receivedInteractionQueue.add(received);
+    }
+    
+    /**
+     * Gives the time by which the reorder buffer orders interactions. The
+     * primitive value of a logical time is compared far more cheaply than the
+     * logical time itself, so it is used where the time has one.
+     * 
+     * @param theTime
+     *            The logical time, or null
+     * @param value
+     *            The primitive value of the logical time, or NaN if it has none
+     * @return The time by which to order, or null if there is none
+     */
+    private static Comparable<?> orderingTime(final LogicalTime<?, ?> theTime, final double value)
+    {
+        return theTime == null || Double.isNaN(value) ? theTime : Double.valueOf(value);
+    }
+    
     /**
      * Updates the attributes of the tracked object with the new values
      * 
@@ -509,9 +908,11 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
      *            the object instance handle
      * @param theAttributes
      *            the map of attribute handle / value
+     * @param theTime
+     *            the logical time of the update, or null
      */
     private void doReflectAttributeValues(final ObjectInstanceHandle theObject,
-            final AttributeHandleValueMap theAttributes)
+            final AttributeHandleValueMap theAttributes, final LogicalTime<?, ?> theTime)
     {
         DiscoveredObject object = discoveredObjects.get(theObject);
         
@@ -521,11 +922,174 @@ public class TC_Warfare_BaseModel extends IVCT_BaseModel
         }
         else
         {
-            logger.debug(String.join(" ", "Updating attribute values for", object.getObjectName(), "(",
-                    String.valueOf(theAttributes.size()), "attributes)"));
-            object.setTheAttributes(theAttributes);
+            if (logger.isDebugEnabled())
+            {
+                logger.debug(String.join(" ", "Updating attribute values for", object.getObjectName(), "(",
+                        String.valueOf(theAttributes.size()), "attributes)"));
+            }
+            ReceiveClock clock = receiveClock;
+            long receiveNanoTime = clock.nanoTime();
+            long receiveTime = clock.toMillis(receiveNanoTime);
+            object.mergeAttributes(theAttributes, receiveTime);
+            objectLifecycles.reflected(object.getObjectName(), receiveNanoTime);
+            
+            AttributeRequestThrottle throttle = attributeRequestThrottle;
+            if (throttle != null)
+            {
+                throttle.satisfied(theObject);
+            }
+            ValidationEvents.attributesReflected(objectClassNames.get(object.getObjectClass()), object.getObjectName(),
+                    theAttributes);
+            
+            CaptureSink sink = captureSink;
+            if (sink != null)
+            {
+                Map<AttributeHandle, String> names = subscribedAttributeNames.get(object.getObjectClass());
+                Map<String, byte[]> attributes = new LinkedHashMap<>();
+                for (Map.Entry<AttributeHandle, byte[]> e : theAttributes.entrySet())
+                {
+                    String name = names == null ? null : names.get(e.getKey());
+                    attributes.put(name == null ? e.getKey().toString() : name, e.getValue());
+                }
+                
+                try
+                {
+                    sink.attributesReflected(object.getObjectName(), attributes, encodeTime(theTime), receiveTime);
+                }
+                catch (IOException e)
+                {
+                    captureFailed(sink, e);
+                }
+            }
+        }
+        
+    }
+    
+    /**
+     * Removes the tracked object.
+     * 
+     * @param theObject
+     *            the object instance handle
+     * @param theTime
+     *            the logical time of the removal, or null
+     */
+    private void doRemoveObjectInstance(final ObjectInstanceHandle theObject, final LogicalTime<?, ?> theTime)
+    {
+        DiscoveredObject object = discoveredObjects.remove(theObject);
+        
+        if (object != null)
+        {
+            metrics.objectRemoved();
+            objectLifecycles.removed(object.getObjectName(), receiveClock.nanoTime());
+            
+            AttributeRequestThrottle throttle = attributeRequestThrottle;
+            if (throttle != null)
+            {
+                throttle.satisfied(theObject);
+            }
         }
         
+        CaptureSink sink = captureSink;
+        if (object != null && sink != null)
+        {
+            try
+            {
+                sink.objectRemoved(object.getObjectName(), encodeTime(theTime), receiveClock.currentTimeMillis());
+            }
+            catch (IOException e)
+            {
+                captureFailed(sink, e);
+            }
+        }
+    }
+    
+    /**
+     * Captures the discovery of a tracked object, if callbacks are being captured.
+     * 
+     * @param theObjectClass
+     *            the object class handle
+     * @param objectName
+     *            the name of the object instance
+     */
+    private void captureDiscovery(final ObjectClassHandle theObjectClass, final String objectName)
+    {
+        CaptureSink sink = captureSink;
+        if (sink != null)
+        {
+            try
+            {
+                sink.objectDiscovered(objectClassNames.get(theObjectClass), objectName,
+                        receiveClock.currentTimeMillis());
+            }
+            catch (IOException e)
+            {
+                captureFailed(sink, e);
+            }
+        }
+    }
+    
+    /**
+     * Looks up the name of a parameter that was not named when the interaction
+     * class was subscribed, remembering it for the next time.
+     * 
+     * @param interactionClass
+     *            the interaction class handle
+     * @param parameter
+     *            the parameter handle
+     * @return the name of the parameter, or the handle as text if the RTI does not
+     *         know it
+     */
+    private String parameterName(final InteractionClassHandle interactionClass, final ParameterHandle parameter)
+    {
+        return parameterNames.computeIfAbsent(interactionClass, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(parameter, k ->
+                {
+                    String name;
+                    try
+                    {
+                        name = rtiAmbassador.getParameterName(interactionClass, parameter);
+                    }
+                    catch (Exception e)
+                    {
+                        name = parameter.toString();
+                    }
+                    return name;
+                });
+    }
+    
+    /**
+     * Stops capturing after the capture sink has failed, so that the test is not
+     * disrupted by an error on every callback.
+     * 
+     * @param sink
+     *            the capture sink that failed
+     * @param e
+     *            the failure
+     */
+    private void captureFailed(final CaptureSink sink, final IOException e)
+    {
+        if (captureSink == sink)
+        {
+            logger.error("Capturing failed and has been stopped", e);
+            closeCaptureSink();
+        }
+    }
+    
+    /**
+     * @param theTime
+     *            a logical time, or null
+     * @return the encoded logical time, or null if there is none
+     */
+    private static byte[] encodeTime(final LogicalTime<?, ?> theTime)
+    {
+        byte[] encoded = null;
+        if (theTime != null)
+        {
+            encoded = new byte[theTime.encodedLength()];
+            theTime.encode(encoded, 0);
+        }
+        return encoded;
     }
     
 }
+
@@ -15,11 +15,13 @@
  */
 package com.qinetiq.msg134.etc.tc_lib_warfare;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.Map.Entry;
@@ -100,6 +102,73 @@ public class TC_Warfare_Config
      */
     protected Map<String, Class<? extends Decoder<?>>> paramDecoders = new HashMap<>();
     
+    /**
+     * Further interaction classes, such as those of the RPR Logistics FOM module,
+     * whose parameters are validated against the FOM alongside the WeaponFire and
+     * MunitionDetonation interactions
+     */
+    protected List<String> conformanceInteractions = new ArrayList<>();
+    
+    /**
+     * Specifies whether the times of flight from WeaponFire to MunitionDetonation
+     * are reported for each shooter as well as for each munition type
+     */
+    protected boolean flightTimeByShooter = false;
+    
+    /**
+     * The number of munition object instances whose discovery and removal times
+     * are remembered for the munition instance tests
+     */
+    protected int munitionLifecycleRetention = ObjectLifecycleStore.DEFAULT_CAPACITY;
+    
+    /**
+     * The time in seconds after a MunitionDetonation interaction within which the
+     * munition object instance must be removed, or a negative value if it need
+     * only be removed by the end of the test
+     */
+    protected double munitionRemovalTimeout = 5.0;
+    
+    /**
+     * Specifies whether every interaction is validated until the test times out or
+     * is stopped, rather than only until the expected interactions have been
+     * received
+     */
+    protected boolean soakTest = false;
+    
+    /**
+     * Specifies whether the thresholds for the verdict of a soak test were given
+     * in the configuration
+     */
+    protected boolean soakThresholdsSpecified = false;
+    
+    /**
+     * The lowest rate of events per second for a soak test to pass
+     */
+    protected double minEventsPerSecond = 0;
+    
+    /**
+     * The highest failure rate of any parameter for a soak test to pass
+     */
+    protected double maxParameterFailureRate = 0;
+    
+    /**
+     * The lowest proportion of MunitionDetonation interactions with a prior
+     * matching WeaponFire for a soak test to pass
+     */
+    protected double minPairMatchRatio = 1;
+    
+    /**
+     * The highest number of munition object instances not discovered or removed as
+     * expected for a soak test to pass
+     */
+    protected long maxMunitionViolations = 0;
+    
+    /**
+     * The number of events of each interaction class kept during a soak test for
+     * matching pairs
+     */
+    protected int soakEventRetention = 100000;
+    
     /**
      * Create a new instance of this class based on the following parameters.
      * 
@@ -145,6 +214,39 @@ public class TC_Warfare_Config
         testForMatchingPair = (Boolean) jsonObject.get("testForMatchingPair");
         testFOMs = (Boolean) jsonObject.get("testFOMs");
         
+        // Optional breakdown of the times of flight by shooter
+        Boolean flightTimeByShooterValue = (Boolean) jsonObject.get("flightTimeByShooter");
+        flightTimeByShooter = flightTimeByShooterValue != null && flightTimeByShooterValue;
+        
+        // Optional bound on the munition lifecycles remembered
+        munitionLifecycleRetention = getNumber(jsonObject, "munitionLifecycleRetention", munitionLifecycleRetention)
+                .intValue();
+        
+        // Optional grace period for the removal of the munition object instance
+        munitionRemovalTimeout = getNumber(jsonObject, "munitionRemovalTimeout", munitionRemovalTimeout)
+                .doubleValue();
+        
+        // Optional soak test mode and the thresholds for its verdict
+        Boolean soakTestValue = (Boolean) jsonObject.get("soakTest");
+        soakTest = soakTestValue != null && soakTestValue;
+        
+        JSONObject soakThresholdsJSONObject = (JSONObject) jsonObject.get("soakThresholds");
+        
+        if (soakThresholdsJSONObject != null)
+        {
+            soakThresholdsSpecified = true;
+            minEventsPerSecond = getNumber(soakThresholdsJSONObject, "minEventsPerSecond", minEventsPerSecond)
+                    .doubleValue();
+            maxParameterFailureRate = getNumber(soakThresholdsJSONObject, "maxParameterFailureRate",
+                    maxParameterFailureRate).doubleValue();
+            minPairMatchRatio = getNumber(soakThresholdsJSONObject, "minPairMatchRatio", minPairMatchRatio)
+                    .doubleValue();
+            maxMunitionViolations = getNumber(soakThresholdsJSONObject, "maxMunitionViolations",
+                    maxMunitionViolations).longValue();
+            soakEventRetention = getNumber(soakThresholdsJSONObject, "eventRetention", soakEventRetention)
+                    .intValue();
+        }
+        
         JSONArray optionalParamsJSONArray = (JSONArray) jsonObject.get("optionalParams");
         
         if (optionalParamsJSONArray == null || optionalParamsJSONArray.isEmpty())
@@ -173,6 +275,16 @@ public class TC_Warfare_Config
             }
         }
         
+        JSONArray conformanceInteractionsJSONArray = (JSONArray) jsonObject.get("conformanceInteractions");
+        
+        if (conformanceInteractionsJSONArray != null)
+        {
+            for (Object obj : conformanceInteractionsJSONArray)
+            {
+                conformanceInteractions.add((String) obj);
+            }
+        }
+        
         JSONObject paramDecodersJSONObject = (JSONObject) jsonObject.get("paramDecoders");
         
         if (paramDecodersJSONObject == null || paramDecodersJSONObject.isEmpty())
@@ -217,6 +329,23 @@ public class TC_Warfare_Config
         
     }
     
+    /**
+     * Reads an optional number from a JSON object.
+     * 
+     * @param jsonObject
+     *            The JSON object
+     * @param key
+     *            The key of the number
+     * @param defaultValue
+     *            The value to use if the number is not present
+     * @return The number
+     */
+    private static Number getNumber(final JSONObject jsonObject, final String key, final Number defaultValue)
+    {
+        Number value = (Number) jsonObject.get(key);
+        return value == null ? defaultValue : value;
+    }
+    
     /**
      * @return True if the FOMs should be tested
      */
@@ -302,4 +431,102 @@ public class TC_Warfare_Config
     {
         return Collections.unmodifiableMap(paramDecoders);
     }
+    
+    /**
+     * @return The further interaction classes whose parameters are validated
+     *         against the FOM as an unmodifiable list, which may be empty
+     */
+    public List<String> getConformanceInteractions()
+    {
+        return Collections.unmodifiableList(conformanceInteractions);
+    }
+    
+    /**
+     * @return True if the times of flight should be reported for each shooter as
+     *         well as for each munition type
+     */
+    public boolean isFlightTimeByShooter()
+    {
+        return flightTimeByShooter;
+    }
+    
+    /**
+     * @return The number of munition object instances whose discovery and removal
+     *         times are remembered
+     */
+    public int getMunitionLifecycleRetention()
+    {
+        return munitionLifecycleRetention;
+    }
+    
+    /**
+     * @return The time in seconds after a MunitionDetonation interaction within
+     *         which the munition object instance must be removed, or a negative
+     *         value if it need only be removed by the end of the test
+     */
+    public double getMunitionRemovalTimeout()
+    {
+        return munitionRemovalTimeout;
+    }
+    
+    /**
+     * @return True if every interaction should be validated until the test times
+     *         out or is stopped
+     */
+    public boolean isSoakTest()
+    {
+        return soakTest;
+    }
+    
+    /**
+     * @return True if the thresholds for the verdict of a soak test were given in
+     *         the configuration
+     */
+    public boolean isSoakThresholdsSpecified()
+    {
+        return soakThresholdsSpecified;
+    }
+    
+    /**
+     * @return The lowest rate of events per second for a soak test to pass
+     */
+    public double getMinEventsPerSecond()
+    {
+        return minEventsPerSecond;
+    }
+    
+    /**
+     * @return The highest failure rate of any parameter for a soak test to pass
+     */
+    public double getMaxParameterFailureRate()
+    {
+        return maxParameterFailureRate;
+    }
+    
+    /**
+     * @return The lowest proportion of MunitionDetonation interactions with a prior
+     *         matching WeaponFire for a soak test to pass
+     */
+    public double getMinPairMatchRatio()
+    {
+        return minPairMatchRatio;
+    }
+    
+    /**
+     * @return The highest number of munition object instances not discovered or
+     *         removed as expected for a soak test to pass
+     */
+    public long getMaxMunitionViolations()
+    {
+        return maxMunitionViolations;
+    }
+    
+    /**
+     * @return The number of events of each interaction class kept during a soak
+     *         test for matching pairs
+     */
+    public int getSoakEventRetention()
+    {
+        return soakEventRetention;
+    }
 }
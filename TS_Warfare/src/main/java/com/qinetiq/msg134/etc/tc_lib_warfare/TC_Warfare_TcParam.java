@@ -18,7 +18,10 @@ package com.qinetiq.msg134.etc.tc_lib_warfare;
 import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -69,6 +72,12 @@ public class TC_Warfare_TcParam implements IVCT_TcParam
      */
     protected String sutFederateType;
     
+    /**
+     * The SuT federates validated together in the test, the first of which is
+     * that given by sutFederateName and sutFederateType unless a list is given
+     */
+    protected List<SutFederate> sutFederates = new ArrayList<>();
+    
     /**
      * The time in seconds for the SuT federate to join the federation
      */
@@ -94,6 +103,123 @@ public class TC_Warfare_TcParam implements IVCT_TcParam
      */
     protected URL[] urls;
     
+    /**
+     * The file to which received callbacks are captured, or null if they are not
+     * captured
+     */
+    protected String captureFile;
+    
+    /**
+     * The interval in seconds at which the validation metrics are written to the
+     * log, or zero if they are not written
+     */
+    protected double metricsInterval;
+    
+    /**
+     * The file to which the verdict on each processed event is written, or null
+     * if the verdicts are only written to the log
+     */
+    protected String verdictLogFile;
+    
+    /**
+     * True if the per-message logging is reduced to keep its cost down when
+     * interactions are received at a high rate
+     */
+    protected boolean lowOverheadLogging;
+    
+    /**
+     * The interval in seconds at which repeated parameter failures are summarised
+     * in the log when low overhead logging is used
+     */
+    protected double failureSummaryInterval;
+    
+    /**
+     * True if attribute update requests are sent as class-level requests where
+     * possible, and are deduplicated and rate limited
+     */
+    protected boolean batchedAttributeRequests;
+    
+    /**
+     * The interval in seconds within which a pending attribute update request is
+     * not repeated when the requests are batched
+     */
+    protected double attributeRequestInterval;
+    
+    /**
+     * The greatest number of attribute update requests sent in each interval when
+     * the requests are batched
+     */
+    protected int maxAttributeRequestsPerInterval;
+    
+    /**
+     * True if the received interactions that carry logical times are validated in
+     * logical time order
+     */
+    protected boolean logicalTimeReordering;
+    
+    /**
+     * The greatest number of interactions held for reordering by logical time
+     */
+    protected int reorderCapacity;
+    
+    /**
+     * The time in seconds for which an interaction is held for reordering by
+     * logical time, being the window within which the order is corrected
+     */
+    protected double reorderHoldTime;
+    
+    /**
+     * True if the SuTs are validated, and waited for, on virtual threads where
+     * the Java runtime provides them
+     */
+    protected boolean virtualThreads;
+    
+    /**
+     * The greatest number of interactions queued for each SuT, beyond which
+     * further interactions of the SuT are dropped
+     */
+    protected int shardQueueCapacity;
+    
+    /**
+     * True if the received interactions are only captured and published to a
+     * JMS queue, for validation workers on other nodes to validate
+     */
+    protected boolean distributedValidation;
+    
+    /**
+     * The URL of the JMS broker used for distributed validation
+     */
+    protected String brokerUrl;
+    
+    /**
+     * The name of the queue to which the batches of captured interactions are
+     * published for distributed validation
+     */
+    protected String batchQueue;
+    
+    /**
+     * The name of the queue to which the validation workers send their results
+     */
+    protected String resultQueue;
+    
+    /**
+     * The greatest number of interactions in a batch published for distributed
+     * validation
+     */
+    protected int batchSize;
+    
+    /**
+     * The number of partitions into which the interactions are divided, by
+     * IssuingObjectIdentifier, for distributed validation
+     */
+    protected int partitions;
+    
+    /**
+     * The longest time in seconds to wait, after the test, for the validation
+     * workers to send the results of the interactions published
+     */
+    protected double resultTimeout;
+    
     /**
      * Create a new instance of this class based on the following parameters.
      * 
@@ -125,12 +251,87 @@ public class TC_Warfare_TcParam implements IVCT_TcParam
         tcFederateName = (String) jsonObject.get("tcFederateName");
         sutFederateName = (String) jsonObject.get("sutFederateName");
         sutFederateType = (String) jsonObject.get("sutFederateType");
+        
+        // Optional list of SuT federates validated together, each of which may give the
+        // prefix of the IssuingObjectIdentifier of its events
+        JSONArray sutFederatesJSONArray = (JSONArray) jsonObject.get("sutFederates");
+        if (sutFederatesJSONArray == null || sutFederatesJSONArray.isEmpty())
+        {
+            sutFederates.add(new SutFederate(sutFederateName, sutFederateType, null));
+        }
+        else
+        {
+            for (Object sutFederateJSON : sutFederatesJSONArray)
+            {
+                JSONObject sut = (JSONObject) sutFederateJSON;
+                sutFederates.add(new SutFederate((String) sut.get("name"), (String) sut.get("type"),
+                        (String) sut.get("issuingObjectIdPrefix")));
+            }
+            sutFederateName = sutFederates.get(0).getName();
+            sutFederateType = sutFederates.get(0).getType();
+        }
         sutFederateJoinTimeout = (Double) jsonObject.get("sutFederateJoinTimeout");
         sutFederateResignTimeout = (Double) jsonObject.get("sutFederateResignTimeout");
         
         testTimeout = (Double) jsonObject.get("testTimeout");
         sleepTime = (Double) jsonObject.get("sleepTime");
         
+        // Optional capture of the received callbacks
+        captureFile = (String) jsonObject.get("captureFile");
+        
+        // Optional periodic report of the validation metrics
+        Double metricsIntervalValue = (Double) jsonObject.get("metricsInterval");
+        metricsInterval = metricsIntervalValue == null ? 0 : metricsIntervalValue;
+        
+        // Optional structured log of the verdict on each event
+        verdictLogFile = (String) jsonObject.get("verdictLogFile");
+        
+        // Optional reduction of the per-message logging
+        Boolean lowOverheadLoggingValue = (Boolean) jsonObject.get("lowOverheadLogging");
+        lowOverheadLogging = lowOverheadLoggingValue != null && lowOverheadLoggingValue;
+        Double failureSummaryIntervalValue = (Double) jsonObject.get("failureSummaryInterval");
+        failureSummaryInterval = failureSummaryIntervalValue == null ? 10 : failureSummaryIntervalValue;
+        
+        // Optional batching of the attribute update requests
+        Boolean batchedAttributeRequestsValue = (Boolean) jsonObject.get("batchedAttributeRequests");
+        batchedAttributeRequests = batchedAttributeRequestsValue != null && batchedAttributeRequestsValue;
+        Number attributeRequestIntervalValue = (Number) jsonObject.get("attributeRequestInterval");
+        attributeRequestInterval = attributeRequestIntervalValue == null ? 1
+                : attributeRequestIntervalValue.doubleValue();
+        Number maxAttributeRequestsPerIntervalValue = (Number) jsonObject.get("maxAttributeRequestsPerInterval");
+        maxAttributeRequestsPerInterval = maxAttributeRequestsPerIntervalValue == null ? 100
+                : maxAttributeRequestsPerIntervalValue.intValue();
+        
+        // Optional reordering of the received interactions by logical time
+        Boolean logicalTimeReorderingValue = (Boolean) jsonObject.get("logicalTimeReordering");
+        logicalTimeReordering = logicalTimeReorderingValue != null && logicalTimeReorderingValue;
+        Number reorderCapacityValue = (Number) jsonObject.get("reorderCapacity");
+        reorderCapacity = reorderCapacityValue == null ? 10000 : reorderCapacityValue.intValue();
+        Number reorderHoldTimeValue = (Number) jsonObject.get("reorderHoldTime");
+        reorderHoldTime = reorderHoldTimeValue == null ? 1 : reorderHoldTimeValue.doubleValue();
+        
+        // Optional use of virtual threads for the validation of several SuTs
+        Boolean virtualThreadsValue = (Boolean) jsonObject.get("virtualThreads");
+        virtualThreads = virtualThreadsValue != null && virtualThreadsValue;
+        Number shardQueueCapacityValue = (Number) jsonObject.get("shardQueueCapacity");
+        shardQueueCapacity = shardQueueCapacityValue == null ? 10000 : shardQueueCapacityValue.intValue();
+        
+        // Optional validation of the interactions by workers on other nodes
+        Boolean distributedValidationValue = (Boolean) jsonObject.get("distributedValidation");
+        distributedValidation = distributedValidationValue != null && distributedValidationValue;
+        String brokerUrlValue = (String) jsonObject.get("brokerUrl");
+        brokerUrl = brokerUrlValue == null ? "tcp://localhost:61616" : brokerUrlValue;
+        String batchQueueValue = (String) jsonObject.get("batchQueue");
+        batchQueue = batchQueueValue == null ? "TS_Warfare.Batches" : batchQueueValue;
+        String resultQueueValue = (String) jsonObject.get("resultQueue");
+        resultQueue = resultQueueValue == null ? "TS_Warfare.Results" : resultQueueValue;
+        Number batchSizeValue = (Number) jsonObject.get("batchSize");
+        batchSize = batchSizeValue == null ? 256 : batchSizeValue.intValue();
+        Number partitionsValue = (Number) jsonObject.get("partitions");
+        partitions = partitionsValue == null ? 16 : partitionsValue.intValue();
+        Number resultTimeoutValue = (Number) jsonObject.get("resultTimeout");
+        resultTimeout = resultTimeoutValue == null ? 10 : resultTimeoutValue.doubleValue();
+        
         // FOMS
         JSONArray fomsJSONArray = (JSONArray) jsonObject.get("urls");
         
@@ -244,6 +445,11 @@ public class TC_Warfare_TcParam implements IVCT_TcParam
         return sutFederateName;
     }
     
+    public List<SutFederate> getSutFederates()
+    {
+        return Collections.unmodifiableList(sutFederates);
+    }
+    
     public double getSutFederateJoinTimeout()
     {
         return sutFederateJoinTimeout;
@@ -264,4 +470,104 @@ public class TC_Warfare_TcParam implements IVCT_TcParam
         return testTimeout;
     }
     
+    public String getCaptureFile()
+    {
+        return captureFile;
+    }
+    
+    public double getMetricsInterval()
+    {
+        return metricsInterval;
+    }
+    
+    public String getVerdictLogFile()
+    {
+        return verdictLogFile;
+    }
+    
+    public boolean isLowOverheadLogging()
+    {
+        return lowOverheadLogging;
+    }
+    
+    public double getFailureSummaryInterval()
+    {
+        return failureSummaryInterval;
+    }
+    
+    public boolean isBatchedAttributeRequests()
+    {
+        return batchedAttributeRequests;
+    }
+    
+    public double getAttributeRequestInterval()
+    {
+        return attributeRequestInterval;
+    }
+    
+    public int getMaxAttributeRequestsPerInterval()
+    {
+        return maxAttributeRequestsPerInterval;
+    }
+    
+    public boolean isLogicalTimeReordering()
+    {
+        return logicalTimeReordering;
+    }
+    
+    public int getReorderCapacity()
+    {
+        return reorderCapacity;
+    }
+    
+    public double getReorderHoldTime()
+    {
+        return reorderHoldTime;
+    }
+    
+    public boolean isVirtualThreads()
+    {
+        return virtualThreads;
+    }
+    
+    public int getShardQueueCapacity()
+    {
+        return shardQueueCapacity;
+    }
+    
+    public boolean isDistributedValidation()
+    {
+        return distributedValidation;
+    }
+    
+    public String getBrokerUrl()
+    {
+        return brokerUrl;
+    }
+    
+    public String getBatchQueue()
+    {
+        return batchQueue;
+    }
+    
+    public String getResultQueue()
+    {
+        return resultQueue;
+    }
+    
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+    
+    public int getPartitions()
+    {
+        return partitions;
+    }
+    
+    public double getResultTimeout()
+    {
+        return resultTimeout;
+    }
+    
 }
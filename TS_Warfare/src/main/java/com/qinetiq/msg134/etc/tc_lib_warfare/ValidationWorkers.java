@@ -0,0 +1,217 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates the workers on which the SuTs are validated in parallel, and runs
+ * tasks on them. Where the Java runtime provides virtual threads, and they are
+ * asked for, each task is given a virtual thread of its own, so that tasks that
+ * mostly wait cost next to nothing and no pool need be sized. Otherwise the
+ * tasks share a fixed pool of daemon platform threads. Either way the threads
+ * are named after the workers and numbered in the order in which they are
+ * created.
+ *
+ * A virtual thread is pinned to its carrier whilst it waits to enter a monitor,
+ * so the locks that the tasks hold for long, whilst searching the FOM modules or
+ * running a custom decoder, are
+ * {@link java.util.concurrent.locks.ReentrantLock}s. The monitors that they
+ * share otherwise guard only brief updates of memory.
+ *
+ * Virtual threads are found by reflection, so that the test case still runs on
+ * the Java 8 runtime for which it is built.
+ *
+ * @author QinetiQ
+ */
+public final class ValidationWorkers
+{
+    /**
+     * Thread.ofVirtual(), or null if the runtime has no virtual threads.
+     */
+    private static final Method OF_VIRTUAL;
+    
+    /**
+     * Thread.Builder.name(String, long), or null if the runtime has no virtual
+     * threads.
+     */
+    private static final Method BUILDER_NAME;
+    
+    /**
+     * Thread.Builder.factory(), or null if the runtime has no virtual threads.
+     */
+    private static final Method BUILDER_FACTORY;
+    
+    /**
+     * Executors.newThreadPerTaskExecutor(ThreadFactory), or null if the runtime
+     * has no virtual threads.
+     */
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+    
+    static
+    {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        Method newThreadPerTaskExecutor = null;
+        
+        try
+        {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            builderName = builder.getMethod("name", String.class, long.class);
+            builderFactory = builder.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            // Virtual threads were added in Java 21
+            ofVirtual = null;
+        }
+        
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+    
+    /**
+     * Not instantiated.
+     */
+    private ValidationWorkers()
+    {
+    }
+    
+    /**
+     * @return True if the Java runtime provides virtual threads
+     */
+    public static boolean isVirtualThreadSupported()
+    {
+        return OF_VIRTUAL != null;
+    }
+    
+    /**
+     * Creates the workers on which tasks are run, which must be shut down once
+     * they are finished with.
+     *
+     * @param name
+     *            The name given to the threads of the workers, each followed by
+     *            a dash and its index
+     * @param poolSize
+     *            The number of platform threads used if virtual threads are not
+     *            used
+     * @param virtualThreads
+     *            True if each task is to be run on a virtual thread of its own
+     *            where the Java runtime provides them
+     * @return The workers
+     */
+    public static ExecutorService newExecutor(final String name, final int poolSize, final boolean virtualThreads)
+    {
+        ExecutorService executor = null;
+        
+        if (virtualThreads && isVirtualThreadSupported())
+        {
+            try
+            {
+                Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), name + "-", 0L);
+                executor = (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null,
+                        BUILDER_FACTORY.invoke(builder));
+            }
+            catch (ReflectiveOperationException e)
+            {
+                // For example, virtual threads are a preview feature that is not enabled
+                executor = null;
+            }
+        }
+        
+        if (executor == null)
+        {
+            AtomicLong index = new AtomicLong();
+            executor = Executors.newFixedThreadPool(poolSize, runnable ->
+            {
+                Thread thread = new Thread(runnable, name + "-" + index.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        
+        return executor;
+    }
+    
+    /**
+     * Runs tasks on the workers and waits for them all to finish. No task outlives
+     * the call: once a task fails, or the caller is interrupted, the tasks still
+     * running are interrupted and those not yet started are cancelled.
+     *
+     * @param <T>
+     *            The type of the results of the tasks
+     * @param executor
+     *            The workers
+     * @param tasks
+     *            The tasks
+     * @return The results of the tasks, in the order of the tasks
+     * @throws InterruptedException
+     *             If the caller is interrupted whilst waiting
+     * @throws ExecutionException
+     *             If a task fails, giving the first failure
+     */
+    public static <T> List<T> invokeAll(final ExecutorService executor, final List<? extends Callable<T>> tasks)
+            throws InterruptedException, ExecutionException
+    {
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        List<T> results = new ArrayList<>(tasks.size());
+        
+        try
+        {
+            for (Callable<T> task : tasks)
+            {
+                futures.add(completion.submit(task));
+            }
+            
+            // Wait in the order of completion, so that the first failure is seen at once
+            for (int count = 0; count < futures.size(); count++)
+            {
+                completion.take().get();
+            }
+            
+            for (Future<T> future : futures)
+            {
+                results.add(future.get());
+            }
+        }
+        finally
+        {
+            for (Future<T> future : futures)
+            {
+                future.cancel(true);
+            }
+        }
+        
+        return results;
+    }
+}
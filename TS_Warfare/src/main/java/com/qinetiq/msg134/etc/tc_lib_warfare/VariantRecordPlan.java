@@ -0,0 +1,382 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The precompiled form of a variant record data type definition. The
+ * alternatives of the record are arranged in a table indexed by discriminant
+ * value so that, when decoding, only the alternative selected by the
+ * discriminant needs to be resolved and instantiated. Ranges of enumerators
+ * are held as intervals rather than being expanded into a value each, and are
+ * only consulted for values that are not listed individually.
+ *
+ * Instances of this class are immutable and may be shared between decoders.
+ *
+ * @author QinetiQ
+ */
+public final class VariantRecordPlan
+{
+    /**
+     * Discriminant values from zero up to this limit are held in a directly
+     * indexed table; any others are held in a map.
+     */
+    private static final int MAX_DENSE_DISCRIMINANT = 255;
+    
+    /**
+     * A single alternative of a variant record.
+     */
+    public static final class Alternative
+    {
+        /**
+         * The position of the alternative within the variant record definition.
+         */
+        private final int index;
+        
+        /**
+         * The name of the alternative.
+         */
+        private final String name;
+        
+        /**
+         * The data type of the alternative, or null if the alternative carries no
+         * data.
+         */
+        private final String dataType;
+        
+        /**
+         * Creates a new alternative.
+         *
+         * @param index
+         *            The position of the alternative within the variant record
+         *            definition.
+         * @param name
+         *            The name of the alternative.
+         * @param dataType
+         *            The data type of the alternative, or null if the alternative
+         *            carries no data.
+         */
+        public Alternative(final int index, final String name, final String dataType)
+        {
+            this.index = index;
+            this.name = name;
+            this.dataType = dataType;
+        }
+        
+        /**
+         * @return The position of the alternative within the variant record
+         *         definition.
+         */
+        public int getIndex()
+        {
+            return index;
+        }
+        
+        /**
+         * @return The name of the alternative.
+         */
+        public String getName()
+        {
+            return name;
+        }
+        
+        /**
+         * @return The data type of the alternative, or null if the alternative
+         *         carries no data.
+         */
+        public String getDataType()
+        {
+            return dataType;
+        }
+    }
+    
+    /**
+     * A range of discriminant values that selects an alternative.
+     */
+    public static final class Range
+    {
+        /**
+         * The first value of the range.
+         */
+        private final long first;
+        
+        /**
+         * The last value of the range, inclusive.
+         */
+        private final long last;
+        
+        /**
+         * The alternative selected by the values of the range.
+         */
+        private final Alternative alternative;
+        
+        /**
+         * Creates a new range.
+         *
+         * @param first
+         *            The first value of the range.
+         * @param last
+         *            The last value of the range, inclusive.
+         * @param alternative
+         *            The alternative selected by the values of the range.
+         */
+        public Range(final long first, final long last, final Alternative alternative)
+        {
+            this.first = first;
+            this.last = last;
+            this.alternative = alternative;
+        }
+        
+        /**
+         * @return The first value of the range.
+         */
+        public long getFirst()
+        {
+            return first;
+        }
+        
+        /**
+         * @return The last value of the range, inclusive.
+         */
+        public long getLast()
+        {
+            return last;
+        }
+        
+        /**
+         * @return The alternative selected by the values of the range.
+         */
+        public Alternative getAlternative()
+        {
+            return alternative;
+        }
+        
+        /**
+         * @param other
+         *            Another range
+         * @return True if the ranges have any value in common
+         */
+        public boolean overlaps(final Range other)
+        {
+            return first <= other.last && other.first <= last;
+        }
+    }
+    
+    /**
+     * The name of the variant record data type.
+     */
+    private final String name;
+    
+    /**
+     * The name of the data type of the discriminant.
+     */
+    private final String discriminantDataType;
+    
+    /**
+     * True if the discriminant is represented as an unsigned integer, so that its
+     * value is not sign extended.
+     */
+    private final boolean unsignedDiscriminant;
+    
+    /**
+     * All alternatives, in the order in which they were defined.
+     */
+    private final List<Alternative> alternatives;
+    
+    /**
+     * The jump table for small, non-negative discriminant values.
+     */
+    private final Alternative[] denseTable;
+    
+    /**
+     * The alternatives for discriminant values that do not fit in the dense table.
+     */
+    private final Map<Long, Alternative> sparseTable;
+    
+    /**
+     * The ranges of discriminant values, keyed by their first value. The ranges
+     * do not overlap.
+     */
+    private final NavigableMap<Long, Range> ranges;
+    
+    /**
+     * The alternative declared for HLAother, or null if there is none.
+     */
+    private final Alternative otherAlternative;
+    
+    /**
+     * The octet boundary of the record, established on first use as it requires
+     * every alternative to be resolved. A value of zero means not yet known.
+     */
+    private volatile int octetBoundary;
+    
+    /**
+     * Creates a new plan.
+     *
+     * @param name
+     *            The name of the variant record data type.
+     * @param discriminantDataType
+     *            The name of the data type of the discriminant.
+     * @param unsignedDiscriminant
+     *            True if the discriminant is represented as an unsigned integer.
+     * @param alternatives
+     *            All alternatives, in the order in which they were defined.
+     * @param discriminantValues
+     *            The alternative to use for each discriminant value.
+     * @param ranges
+     *            The ranges of discriminant values, which must not overlap.
+     * @param otherAlternative
+     *            The alternative declared for HLAother, or null if there is none.
+     */
+    public VariantRecordPlan(final String name, final String discriminantDataType,
+            final boolean unsignedDiscriminant, final List<Alternative> alternatives,
+            final Map<Long, Alternative> discriminantValues, final List<Range> ranges,
+            final Alternative otherAlternative)
+    {
+        this.name = name;
+        this.discriminantDataType = discriminantDataType;
+        this.unsignedDiscriminant = unsignedDiscriminant;
+        this.alternatives = Collections.unmodifiableList(new ArrayList<>(alternatives));
+        this.otherAlternative = otherAlternative;
+        
+        long maxDense = -1;
+        for (Long value : discriminantValues.keySet())
+        {
+            if (value >= 0 && value <= MAX_DENSE_DISCRIMINANT)
+            {
+                maxDense = Math.max(maxDense, value);
+            }
+        }
+        
+        denseTable = new Alternative[(int) (maxDense + 1)];
+        Map<Long, Alternative> sparse = new HashMap<>();
+        
+        for (Map.Entry<Long, Alternative> e : discriminantValues.entrySet())
+        {
+            long value = e.getKey();
+            if (value >= 0 && value <= maxDense)
+            {
+                denseTable[(int) value] = e.getValue();
+            }
+            else
+            {
+                sparse.put(value, e.getValue());
+            }
+        }
+        
+        sparseTable = sparse.isEmpty() ? Collections.<Long, Alternative> emptyMap() : sparse;
+        
+        this.ranges = new TreeMap<>();
+        for (Range range : ranges)
+        {
+            this.ranges.put(range.getFirst(), range);
+        }
+    }
+    
+    /**
+     * Finds the alternative for the given discriminant value.
+     *
+     * @param discriminant
+     *            The decoded value of the discriminant.
+     * @return The alternative selected by the discriminant, the HLAother
+     *         alternative if the value is not listed explicitly or in a range, or
+     *         null if the value is not valid for this record.
+     */
+    public Alternative lookup(final long discriminant)
+    {
+        Alternative alternative = null;
+        
+        if (discriminant >= 0 && discriminant < denseTable.length)
+        {
+            alternative = denseTable[(int) discriminant];
+        }
+        else if (!sparseTable.isEmpty())
+        {
+            alternative = sparseTable.get(discriminant);
+        }
+        
+        if (alternative == null && !ranges.isEmpty())
+        {
+            Map.Entry<Long, Range> range = ranges.floorEntry(discriminant);
+            if (range != null && discriminant <= range.getValue().getLast())
+            {
+                alternative = range.getValue().getAlternative();
+            }
+        }
+        
+        return alternative == null ? otherAlternative : alternative;
+    }
+    
+    /**
+     * @return The name of the variant record data type.
+     */
+    public String getName()
+    {
+        return name;
+    }
+    
+    /**
+     * @return The name of the data type of the discriminant.
+     */
+    public String getDiscriminantDataType()
+    {
+        return discriminantDataType;
+    }
+    
+    /**
+     * @return True if the discriminant is represented as an unsigned integer, so
+     *         that its value is not sign extended.
+     */
+    public boolean isUnsignedDiscriminant()
+    {
+        return unsignedDiscriminant;
+    }
+    
+    /**
+     * @return All alternatives, in the order in which they were defined.
+     */
+    public List<Alternative> getAlternatives()
+    {
+        return alternatives;
+    }
+    
+    /**
+     * @return The octet boundary of the record, or zero if it has not yet been
+     *         established.
+     */
+    public int getOctetBoundary()
+    {
+        return octetBoundary;
+    }
+    
+    /**
+     * Records the octet boundary of the record once it has been established.
+     *
+     * @param octetBoundary
+     *            The octet boundary.
+     */
+    public void setOctetBoundary(final int octetBoundary)
+    {
+        this.octetBoundary = octetBoundary;
+    }
+}
@@ -0,0 +1,538 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.capture;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads back a file written in the {@link CaptureFormat}. The file is mapped
+ * into memory rather than read through a stream, so records are located by
+ * their lengths and only the records returned are decoded. Files larger than a
+ * single mapping can address are mapped a window at a time.
+ *
+ * Decoding may optionally be spread over a number of threads. Records are then
+ * decoded in batches ahead of the caller, and are still returned in the order
+ * in which they were captured.
+ *
+ * A reader is not thread safe, and is intended to be used by a single thread.
+ *
+ * @author QinetiQ
+ */
+public class CaptureFileReader implements Closeable
+{
+    /**
+     * The largest part of the file that is mapped at once.
+     */
+    private static final long MAX_WINDOW = Integer.MAX_VALUE;
+    
+    /**
+     * The number of records decoded together when decoding in parallel.
+     */
+    private static final int BATCH_SIZE = 1024;
+    
+    /**
+     * The channel to the capture file.
+     */
+    private final FileChannel channel;
+    
+    /**
+     * The size of the capture file when it was opened.
+     */
+    private final long size;
+    
+    /**
+     * The names read so far, keyed by identifier. The map is concurrent as names
+     * are added by the caller whilst records are being decoded in parallel.
+     */
+    private final Map<Integer, String> names = new ConcurrentHashMap<>();
+    
+    /**
+     * The threads decoding records in parallel, or null if records are decoded
+     * by the caller.
+     */
+    private final ExecutorService decoders;
+    
+    /**
+     * The number of batches to decode ahead of the caller.
+     */
+    private final int batchesAhead;
+    
+    /**
+     * The batches being decoded in parallel, in the order in which they appear
+     * in the file.
+     */
+    private final Deque<Future<List<CaptureRecord>>> pendingBatches = new ArrayDeque<>();
+    
+    /**
+     * The remaining records of the batch most recently decoded in parallel.
+     */
+    private Iterator<CaptureRecord> currentBatch = Collections.emptyIterator();
+    
+    /**
+     * The mapped part of the file.
+     */
+    private MappedByteBuffer window;
+    
+    /**
+     * The offset within the file at which the mapped part starts.
+     */
+    private long windowStart;
+    
+    /**
+     * The offset within the file of the next record to be read.
+     */
+    private long position = CaptureFormat.FILE_HEADER_LENGTH;
+    
+    /**
+     * Opens a capture file, to be decoded by the caller.
+     *
+     * @param path
+     *            The path of the capture file
+     * @throws IOException
+     *             If the file could not be opened or is not a capture file
+     */
+    public CaptureFileReader(final Path path) throws IOException
+    {
+        this(path, 1);
+    }
+    
+    /**
+     * Opens a capture file.
+     *
+     * @param path
+     *            The path of the capture file
+     * @param decodeThreads
+     *            The number of threads over which to decode records. With one
+     *            thread or fewer, records are decoded by the caller.
+     * @throws IOException
+     *             If the file could not be opened or is not a capture file
+     */
+    public CaptureFileReader(final Path path, final int decodeThreads) throws IOException
+    {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        
+        try
+        {
+            size = channel.size();
+            
+            if (size < CaptureFormat.FILE_HEADER_LENGTH || !map(0, CaptureFormat.FILE_HEADER_LENGTH)
+                    || window.getInt(0) != CaptureFormat.MAGIC)
+            {
+                throw new IOException(String.join(" ", path.toString(), "is not a capture file"));
+            }
+            
+            short version = window.getShort(Integer.BYTES);
+            if (version != CaptureFormat.VERSION)
+            {
+                throw new IOException(String.join(" ", path.toString(), "has unsupported capture format version",
+                        String.valueOf(version)));
+            }
+        }
+        catch (IOException e)
+        {
+            channel.close();
+            throw e;
+        }
+        
+        if (decodeThreads > 1)
+        {
+            batchesAhead = 2 * decodeThreads;
+            decoders = Executors.newFixedThreadPool(decodeThreads, runnable ->
+            {
+                Thread thread = new Thread(runnable, "CaptureFileReader");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        else
+        {
+            batchesAhead = 0;
+            decoders = null;
+        }
+    }
+    
+    /**
+     * Reads the next record.
+     *
+     * @return The next record, or null if there are no more. A record cut short
+     *         by the end of the file is treated as the end.
+     * @throws IOException
+     *             If the file could not be read or is corrupt
+     */
+    public CaptureRecord next() throws IOException
+    {
+        CaptureRecord record;
+        
+        if (decoders == null)
+        {
+            ByteBuffer body = nextBody();
+            record = body == null ? null : decode(body);
+        }
+        else
+        {
+            while (!currentBatch.hasNext() && scheduleBatches())
+            {
+                currentBatch = awaitBatch(pendingBatches.remove()).iterator();
+            }
+            record = currentBatch.hasNext() ? currentBatch.next() : null;
+        }
+        
+        return record;
+    }
+    
+    /**
+     * Reads all of the remaining records, passing each on to a sink.
+     *
+     * @param sink
+     *            The sink to which to pass the records
+     * @return The number of records passed on
+     * @throws IOException
+     *             If the file could not be read or the sink failed
+     */
+    public long replay(final CaptureSink sink) throws IOException
+    {
+        long count = 0;
+        
+        for (CaptureRecord record = next(); record != null; record = next())
+        {
+            record.replay(sink);
+            count++;
+        }
+        
+        return count;
+    }
+    
+    @Override
+    public void close() throws IOException
+    {
+        if (decoders != null)
+        {
+            decoders.shutdownNow();
+        }
+        channel.close();
+    }
+    
+    /**
+     * Makes sure that batches are being decoded ahead of the caller, so that
+     * there is at least one batch for each decoding thread.
+     *
+     * @return True if there is a batch to wait for, otherwise false
+     * @throws IOException
+     *             If the file could not be read
+     */
+    private boolean scheduleBatches() throws IOException
+    {
+        boolean more = true;
+        
+        while (more && pendingBatches.size() < batchesAhead)
+        {
+            List<ByteBuffer> bodies = new ArrayList<>(BATCH_SIZE);
+            ByteBuffer body = nextBody();
+            while (body != null)
+            {
+                bodies.add(body);
+                body = bodies.size() < BATCH_SIZE ? nextBody() : null;
+            }
+            
+            more = bodies.size() == BATCH_SIZE;
+            if (!bodies.isEmpty())
+            {
+                pendingBatches.add(decoders.submit(() ->
+                {
+                    List<CaptureRecord> records = new ArrayList<>(bodies.size());
+                    for (ByteBuffer batchBody : bodies)
+                    {
+                        records.add(decode(batchBody));
+                    }
+                    return records;
+                }));
+            }
+        }
+        
+        return !pendingBatches.isEmpty();
+    }
+    
+    /**
+     * Waits for a batch to be decoded.
+     *
+     * @param batch
+     *            The batch
+     * @return The decoded records
+     * @throws IOException
+     *             If the batch could not be decoded
+     */
+    private static List<CaptureRecord> awaitBatch(final Future<List<CaptureRecord>> batch) throws IOException
+    {
+        List<CaptureRecord> records;
+        
+        try
+        {
+            records = batch.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted whilst decoding capture records");
+        }
+        catch (ExecutionException e)
+        {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause()
+                    : new IOException("Unable to decode capture records", e.getCause());
+        }
+        
+        return records;
+    }
+    
+    /**
+     * Locates the next record other than a name, reading any names that come
+     * before it.
+     *
+     * @return A buffer holding the record, positioned after its header, or null
+     *         if there are no more records
+     * @throws IOException
+     *             If the file could not be read
+     */
+    private ByteBuffer nextBody() throws IOException
+    {
+        ByteBuffer body = null;
+        
+        while (body == null && map(position, CaptureFormat.RECORD_HEADER_LENGTH))
+        {
+            int offset = (int) (position - windowStart);
+            int length = window.getInt(offset);
+            
+            if (length < CaptureFormat.RECORD_HEADER_LENGTH || !map(position, length))
+            {
+                // Cut short by the end of the file, so there are no more records
+                position = size;
+            }
+            else
+            {
+                offset = (int) (position - windowStart);
+                ByteBuffer record = window.duplicate();
+                record.limit(offset + length).position(offset + Integer.BYTES);
+                record = record.slice();
+                position += length;
+                
+                byte type = record.get();
+                if (type == CaptureFormat.NAME)
+                {
+                    int id = record.getInt();
+                    byte[] name = new byte[record.remaining()];
+                    record.get(name);
+                    names.put(id, new String(name, StandardCharsets.UTF_8));
+                }
+                else if (type >= CaptureFormat.INTERACTION && type <= CaptureFormat.REMOVE)
+                {
+                    body = record;
+                }
+                else
+                {
+                    // A type of record not known to this reader, which is skipped
+                }
+            }
+        }
+        
+        return body;
+    }
+    
+    /**
+     * Makes sure that part of the file is mapped, mapping a new window if needed.
+     *
+     * @param offset
+     *            The offset within the file of the part
+     * @param length
+     *            The length of the part
+     * @return True if the part is mapped, or false if it lies beyond the end of
+     *         the file
+     * @throws IOException
+     *             If the part could not be mapped
+     */
+    private boolean map(final long offset, final int length) throws IOException
+    {
+        boolean mapped = offset + length <= size;
+        
+        if (mapped && (window == null || offset < windowStart || offset + length > windowStart + window.capacity()))
+        {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(MAX_WINDOW, size - offset));
+            windowStart = offset;
+        }
+        
+        return mapped;
+    }
+    
+    /**
+     * Decodes a record other than a name.
+     *
+     * @param body
+     *            The record, positioned after its type
+     * @return The decoded record
+     * @throws IOException
+     *             If the record is corrupt or refers to a name that has not been
+     *             read
+     */
+    private CaptureRecord decode(final ByteBuffer body) throws IOException
+    {
+        CaptureRecord record;
+        
+        try
+        {
+            record = decodeBody(body);
+        }
+        catch (BufferUnderflowException | NegativeArraySizeException e)
+        {
+            throw new IOException("Capture record is corrupt", e);
+        }
+        
+        return record;
+    }
+    
+    /**
+     * Decodes the fields of a record other than a name.
+     *
+     * @param body
+     *            The record, positioned after its type
+     * @return The decoded record
+     * @throws IOException
+     *             If the record refers to a name that has not been read
+     */
+    private CaptureRecord decodeBody(final ByteBuffer body) throws IOException
+    {
+        byte type = body.get(0);
+        long receiveTime = body.getLong();
+        CaptureRecord record;
+        
+        switch (type)
+        {
+            case CaptureFormat.INTERACTION:
+            {
+                byte[] logicalTime = getTime(body);
+                String className = name(body.getInt());
+                record = new CaptureRecord(type, receiveTime, logicalTime, className, null, getValues(body));
+                break;
+            }
+            case CaptureFormat.DISCOVER:
+            {
+                String className = name(body.getInt());
+                record = new CaptureRecord(type, receiveTime, null, className, name(body.getInt()), null);
+                break;
+            }
+            case CaptureFormat.REFLECT:
+            {
+                byte[] logicalTime = getTime(body);
+                String objectName = name(body.getInt());
+                record = new CaptureRecord(type, receiveTime, logicalTime, null, objectName, getValues(body));
+                break;
+            }
+            default:
+            {
+                byte[] logicalTime = getTime(body);
+                record = new CaptureRecord(type, receiveTime, logicalTime, null, name(body.getInt()), null);
+                break;
+            }
+        }
+        
+        return record;
+    }
+    
+    /**
+     * @param id
+     *            The identifier of a name
+     * @return The name
+     * @throws IOException
+     *             If no name has been read with that identifier
+     */
+    private String name(final int id) throws IOException
+    {
+        String name = names.get(id);
+        
+        if (name == null)
+        {
+            throw new IOException(String.join(" ", "Capture record refers to unknown name", String.valueOf(id)));
+        }
+        
+        return name;
+    }
+    
+    /**
+     * Reads a logical time.
+     *
+     * @param body
+     *            The record
+     * @return The encoded logical time, or null if there was none
+     */
+    private static byte[] getTime(final ByteBuffer body)
+    {
+        int length = body.getInt();
+        byte[] logicalTime = null;
+        
+        if (length > 0)
+        {
+            logicalTime = new byte[length];
+            body.get(logicalTime);
+        }
+        
+        return logicalTime;
+    }
+    
+    /**
+     * Reads a set of values.
+     *
+     * @param body
+     *            The record
+     * @return The encoded values, keyed by name, in the order in which they were
+     *         captured
+     * @throws IOException
+     *             If a value refers to a name that has not been read
+     */
+    private Map<String, byte[]> getValues(final ByteBuffer body) throws IOException
+    {
+        int count = body.getInt();
+        Map<String, byte[]> values = new LinkedHashMap<>();
+        
+        for (int i = 0; i < count; i++)
+        {
+            String valueName = name(body.getInt());
+            byte[] value = new byte[body.getInt()];
+            body.get(value);
+            values.put(valueName, value);
+        }
+        
+        return values;
+    }
+}
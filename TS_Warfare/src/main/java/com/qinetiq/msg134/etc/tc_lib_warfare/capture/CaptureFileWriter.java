@@ -0,0 +1,351 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.capture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes captured callbacks to a file in the {@link CaptureFormat}. Records are
+ * gathered in a direct buffer and written to the file channel in batches: when
+ * the buffer is full, when a second has passed since the last write, and when
+ * the writer is flushed or closed.
+ *
+ * The methods of this class are synchronized, so a single writer may be shared
+ * by the threads on which callbacks are delivered.
+ *
+ * @author QinetiQ
+ */
+public class CaptureFileWriter implements CaptureSink
+{
+    /**
+     * The size of the buffer used when none is given.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    
+    /**
+     * The longest time for which captured records are held in the buffer, in
+     * milliseconds.
+     */
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+    
+    /**
+     * The channel to the capture file.
+     */
+    private final FileChannel channel;
+    
+    /**
+     * The buffer in which records are gathered before being written.
+     */
+    private final ByteBuffer buffer;
+    
+    /**
+     * The identifiers assigned to the names written so far.
+     */
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    
+    /**
+     * The time at which the buffer was last written, in milliseconds since the
+     * epoch.
+     */
+    private long lastFlush = System.currentTimeMillis();
+    
+    /**
+     * Creates a new capture file, replacing any existing file.
+     *
+     * @param path
+     *            The path of the capture file
+     * @throws IOException
+     *             If the file could not be created
+     */
+    public CaptureFileWriter(final Path path) throws IOException
+    {
+        this(path, DEFAULT_BUFFER_SIZE);
+    }
+    
+    /**
+     * Creates a new capture file, replacing any existing file.
+     *
+     * @param path
+     *            The path of the capture file
+     * @param bufferSize
+     *            The size of the buffer in which records are gathered
+     * @throws IOException
+     *             If the file could not be created
+     */
+    public CaptureFileWriter(final Path path, final int bufferSize) throws IOException
+    {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, CaptureFormat.FILE_HEADER_LENGTH));
+        buffer.putInt(CaptureFormat.MAGIC).putShort(CaptureFormat.VERSION).putShort((short) 0);
+    }
+    
+    @Override
+    public synchronized void interactionReceived(final String interactionClass, final Map<String, byte[]> parameters,
+            final byte[] logicalTime, final long receiveTime) throws IOException
+    {
+        int classId = nameId(interactionClass);
+        int length = Long.BYTES + timeLength(logicalTime) + Integer.BYTES + valuesLength(parameters);
+        
+        ByteBuffer record = begin(CaptureFormat.INTERACTION, length);
+        record.putLong(receiveTime);
+        putTime(record, logicalTime);
+        record.putInt(classId);
+        putValues(record, parameters);
+        end(record);
+    }
+    
+    @Override
+    public synchronized void objectDiscovered(final String objectClass, final String objectName,
+            final long receiveTime) throws IOException
+    {
+        int classId = nameId(objectClass);
+        int objectId = nameId(objectName);
+        
+        ByteBuffer record = begin(CaptureFormat.DISCOVER, Long.BYTES + 2 * Integer.BYTES);
+        record.putLong(receiveTime).putInt(classId).putInt(objectId);
+        end(record);
+    }
+    
+    @Override
+    public synchronized void attributesReflected(final String objectName, final Map<String, byte[]> attributes,
+            final byte[] logicalTime, final long receiveTime) throws IOException
+    {
+        int objectId = nameId(objectName);
+        int length = Long.BYTES + timeLength(logicalTime) + Integer.BYTES + valuesLength(attributes);
+        
+        ByteBuffer record = begin(CaptureFormat.REFLECT, length);
+        record.putLong(receiveTime);
+        putTime(record, logicalTime);
+        record.putInt(objectId);
+        putValues(record, attributes);
+        end(record);
+    }
+    
+    @Override
+    public synchronized void objectRemoved(final String objectName, final byte[] logicalTime,
+            final long receiveTime) throws IOException
+    {
+        int objectId = nameId(objectName);
+        
+        ByteBuffer record = begin(CaptureFormat.REMOVE, Long.BYTES + timeLength(logicalTime) + Integer.BYTES);
+        record.putLong(receiveTime);
+        putTime(record, logicalTime);
+        record.putInt(objectId);
+        end(record);
+    }
+    
+    @Override
+    public synchronized void flush() throws IOException
+    {
+        drain();
+    }
+    
+    @Override
+    public synchronized void close() throws IOException
+    {
+        try
+        {
+            drain();
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+    
+    /**
+     * Returns the identifier of a name, writing a record to assign it one if it
+     * has not been written before.
+     *
+     * @param name
+     *            The name
+     * @return The identifier of the name
+     * @throws IOException
+     *             If the record could not be written
+     */
+    private int nameId(final String name) throws IOException
+    {
+        Integer id = nameIds.get(name);
+        
+        if (id == null)
+        {
+            id = nameIds.size();
+            nameIds.put(name, id);
+            
+            byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer record = begin(CaptureFormat.NAME, Integer.BYTES + encoded.length);
+            record.putInt(id).put(encoded);
+            end(record);
+        }
+        
+        return id;
+    }
+    
+    /**
+     * Calculates the length of a set of values, assigning identifiers to any of
+     * their names that have not been written before.
+     *
+     * @param values
+     *            The encoded values, keyed by name
+     * @return The number of octets needed to write the values
+     * @throws IOException
+     *             If a record assigning an identifier could not be written
+     */
+    private int valuesLength(final Map<String, byte[]> values) throws IOException
+    {
+        int length = Integer.BYTES;
+        for (Map.Entry<String, byte[]> e : values.entrySet())
+        {
+            nameId(e.getKey());
+            length += 2 * Integer.BYTES + e.getValue().length;
+        }
+        return length;
+    }
+    
+    /**
+     * Writes a set of values, whose names must already have identifiers.
+     *
+     * @param record
+     *            The buffer holding the record
+     * @param values
+     *            The encoded values, keyed by name
+     */
+    private void putValues(final ByteBuffer record, final Map<String, byte[]> values)
+    {
+        record.putInt(values.size());
+        for (Map.Entry<String, byte[]> e : values.entrySet())
+        {
+            record.putInt(nameIds.get(e.getKey())).putInt(e.getValue().length).put(e.getValue());
+        }
+    }
+    
+    /**
+     * @param logicalTime
+     *            The encoded logical time, or null
+     * @return The number of octets needed to write the logical time
+     */
+    private static int timeLength(final byte[] logicalTime)
+    {
+        return Integer.BYTES + (logicalTime == null ? 0 : logicalTime.length);
+    }
+    
+    /**
+     * Writes a logical time.
+     *
+     * @param record
+     *            The buffer holding the record
+     * @param logicalTime
+     *            The encoded logical time, or null
+     */
+    private static void putTime(final ByteBuffer record, final byte[] logicalTime)
+    {
+        if (logicalTime == null)
+        {
+            record.putInt(0);
+        }
+        else
+        {
+            record.putInt(logicalTime.length).put(logicalTime);
+        }
+    }
+    
+    /**
+     * Starts a record, making room for it in the buffer. A record too large for
+     * the buffer is gathered in a buffer of its own.
+     *
+     * @param type
+     *            The type of the record
+     * @param bodyLength
+     *            The length of the record, excluding its header
+     * @return The buffer in which to write the rest of the record
+     * @throws IOException
+     *             If the buffer could not be written to make room
+     */
+    private ByteBuffer begin(final byte type, final int bodyLength) throws IOException
+    {
+        int length = CaptureFormat.RECORD_HEADER_LENGTH + bodyLength;
+        
+        if (buffer.remaining() < length)
+        {
+            drain();
+        }
+        
+        ByteBuffer record = length <= buffer.capacity() ? buffer : ByteBuffer.allocate(length);
+        record.putInt(length).put(type);
+        return record;
+    }
+    
+    /**
+     * Completes a record started by {@link #begin(byte, int)}, writing the buffer
+     * out if it has been held for long enough.
+     *
+     * @param record
+     *            The buffer holding the record
+     * @throws IOException
+     *             If the record could not be written
+     */
+    private void end(final ByteBuffer record) throws IOException
+    {
+        if (record != buffer)
+        {
+            record.flip();
+            write(record);
+        }
+        
+        if (System.currentTimeMillis() - lastFlush >= FLUSH_INTERVAL_MILLIS)
+        {
+            drain();
+        }
+    }
+    
+    /**
+     * Writes out the contents of the buffer.
+     *
+     * @throws IOException
+     *             If the buffer could not be written
+     */
+    private void drain() throws IOException
+    {
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+        lastFlush = System.currentTimeMillis();
+    }
+    
+    /**
+     * Writes all of the remaining contents of a buffer to the file.
+     *
+     * @param source
+     *            The buffer to write
+     * @throws IOException
+     *             If the buffer could not be written
+     */
+    private void write(final ByteBuffer source) throws IOException
+    {
+        while (source.hasRemaining())
+        {
+            channel.write(source);
+        }
+    }
+}
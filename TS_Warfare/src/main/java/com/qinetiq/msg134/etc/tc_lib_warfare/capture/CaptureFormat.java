@@ -0,0 +1,103 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.capture;
+
+/**
+ * The layout of a capture file, as written by {@link CaptureFileWriter}.
+ *
+ * All values are big-endian. The file starts with an eight octet header: the
+ * {@link #MAGIC} number, the {@link #VERSION} as a 16-bit integer and two
+ * reserved octets. A sequence of records follows, each starting with its total
+ * length as a 32-bit integer, including the length itself, and its type as a
+ * single octet, so that a reader can skip any record without decoding it. A
+ * record that is cut short by the end of the file was being written when the
+ * capture stopped, and is ignored.
+ *
+ * Names are written once, in a {@link #NAME} record that assigns them an
+ * identifier, and are referred to by that identifier in the records that
+ * follow. The other records hold a receive time in milliseconds since the epoch
+ * and, where the callback had one, the encoded logical time, written as its
+ * length followed by its octets, with a length of zero meaning none. Values are
+ * written as a count followed, for each value, by the identifier of its name,
+ * its length and its octets.
+ *
+ * <ul>
+ * <li>{@link #NAME}: identifier, UTF-8 name filling the rest of the record</li>
+ * <li>{@link #INTERACTION}: receive time, logical time, interaction class name,
+ * parameter values</li>
+ * <li>{@link #DISCOVER}: receive time, object class name, object instance
+ * name</li>
+ * <li>{@link #REFLECT}: receive time, logical time, object instance name,
+ * attribute values</li>
+ * <li>{@link #REMOVE}: receive time, logical time, object instance name</li>
+ * </ul>
+ *
+ * @author QinetiQ
+ */
+public final class CaptureFormat
+{
+    /**
+     * The first four octets of a capture file, "TSWC".
+     */
+    public static final int MAGIC = 0x54535743;
+    
+    /**
+     * The version of the format described here.
+     */
+    public static final short VERSION = 1;
+    
+    /**
+     * The length of the file header.
+     */
+    public static final int FILE_HEADER_LENGTH = 8;
+    
+    /**
+     * The length of the header of each record: its length and type.
+     */
+    public static final int RECORD_HEADER_LENGTH = 5;
+    
+    /**
+     * Record type assigning an identifier to a name.
+     */
+    public static final byte NAME = 1;
+    
+    /**
+     * Record type for a received interaction.
+     */
+    public static final byte INTERACTION = 2;
+    
+    /**
+     * Record type for a discovered object instance.
+     */
+    public static final byte DISCOVER = 3;
+    
+    /**
+     * Record type for reflected attribute values.
+     */
+    public static final byte REFLECT = 4;
+    
+    /**
+     * Record type for a removed object instance.
+     */
+    public static final byte REMOVE = 5;
+    
+    /**
+     * Not instantiated.
+     */
+    private CaptureFormat()
+    {
+    }
+}
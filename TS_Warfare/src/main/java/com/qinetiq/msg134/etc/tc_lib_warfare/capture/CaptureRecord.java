@@ -0,0 +1,168 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.capture;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A single callback read back from a capture file by a
+ * {@link CaptureFileReader}. The values and logical time are copies, so a
+ * record remains valid after the reader has moved on or been closed.
+ *
+ * @author QinetiQ
+ */
+public final class CaptureRecord
+{
+    /**
+     * The type of the record, one of the record types of {@link CaptureFormat}.
+     */
+    private final byte type;
+    
+    /**
+     * The time the callback was received, in milliseconds since the epoch.
+     */
+    private final long receiveTime;
+    
+    /**
+     * The encoded logical time, or null if the callback had none.
+     */
+    private final byte[] logicalTime;
+    
+    /**
+     * The name of the interaction or object class, or null if the record does not
+     * hold one.
+     */
+    private final String className;
+    
+    /**
+     * The name of the object instance, or null if the record does not hold one.
+     */
+    private final String objectName;
+    
+    /**
+     * The encoded parameter or attribute values, keyed by name.
+     */
+    private final Map<String, byte[]> values;
+    
+    /**
+     * Constructor
+     *
+     * @param type
+     *            The type of the record
+     * @param receiveTime
+     *            The time the callback was received
+     * @param logicalTime
+     *            The encoded logical time, or null
+     * @param className
+     *            The name of the interaction or object class, or null
+     * @param objectName
+     *            The name of the object instance, or null
+     * @param values
+     *            The encoded values, keyed by name, or null if there are none
+     */
+    CaptureRecord(final byte type, final long receiveTime, final byte[] logicalTime, final String className,
+            final String objectName, final Map<String, byte[]> values)
+    {
+        this.type = type;
+        this.receiveTime = receiveTime;
+        this.logicalTime = logicalTime;
+        this.className = className;
+        this.objectName = objectName;
+        this.values = values == null ? Collections.<String, byte[]> emptyMap() : values;
+    }
+    
+    /**
+     * Passes the record on to a sink, as the callback that was captured.
+     *
+     * @param sink
+     *            The sink to which to pass the record
+     * @throws IOException
+     *             If the sink could not accept the record
+     */
+    public void replay(final CaptureSink sink) throws IOException
+    {
+        switch (type)
+        {
+            case CaptureFormat.INTERACTION:
+                sink.interactionReceived(className, values, logicalTime, receiveTime);
+                break;
+            case CaptureFormat.DISCOVER:
+                sink.objectDiscovered(className, objectName, receiveTime);
+                break;
+            case CaptureFormat.REFLECT:
+                sink.attributesReflected(objectName, values, logicalTime, receiveTime);
+                break;
+            case CaptureFormat.REMOVE:
+                sink.objectRemoved(objectName, logicalTime, receiveTime);
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * @return The type of the record, one of the record types of
+     *         {@link CaptureFormat}
+     */
+    public byte getType()
+    {
+        return type;
+    }
+    
+    /**
+     * @return The time the callback was received, in milliseconds since the epoch
+     */
+    public long getReceiveTime()
+    {
+        return receiveTime;
+    }
+    
+    /**
+     * @return The encoded logical time, or null if the callback had none
+     */
+    public byte[] getLogicalTime()
+    {
+        return logicalTime;
+    }
+    
+    /**
+     * @return The name of the interaction class of an interaction, or of the
+     *         object class of a discovered object, otherwise null
+     */
+    public String getClassName()
+    {
+        return className;
+    }
+    
+    /**
+     * @return The name of the object instance, or null for an interaction
+     */
+    public String getObjectName()
+    {
+        return objectName;
+    }
+    
+    /**
+     * @return The encoded parameter or attribute values, keyed by name, which is
+     *         empty for records that hold none
+     */
+    public Map<String, byte[]> getValues()
+    {
+        return values;
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.capture;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Receives the callbacks captured by the
+ * {@link com.qinetiq.msg134.etc.tc_lib_warfare.TC_Warfare_BaseModel}, so that
+ * a run can be examined or replayed afterwards. Classes, parameters, attributes
+ * and object instances are identified by name, as handles are only meaningful
+ * within a single federation execution.
+ *
+ * @author QinetiQ
+ */
+public interface CaptureSink extends Closeable
+{
+    /**
+     * Captures a received interaction.
+     *
+     * @param interactionClass
+     *            The name of the interaction class
+     * @param parameters
+     *            The encoded parameter values, keyed by parameter name
+     * @param logicalTime
+     *            The encoded logical time, or null if the interaction was
+     *            received without one
+     * @param receiveTime
+     *            The time the interaction was received, in milliseconds since the
+     *            epoch
+     * @throws IOException
+     *             If the interaction could not be captured
+     */
+    void interactionReceived(String interactionClass, Map<String, byte[]> parameters, byte[] logicalTime,
+            long receiveTime) throws IOException;
+    
+    /**
+     * Captures the discovery of an object instance.
+     *
+     * @param objectClass
+     *            The name of the object class
+     * @param objectName
+     *            The name of the object instance
+     * @param receiveTime
+     *            The time the object was discovered, in milliseconds since the
+     *            epoch
+     * @throws IOException
+     *             If the discovery could not be captured
+     */
+    void objectDiscovered(String objectClass, String objectName, long receiveTime) throws IOException;
+    
+    /**
+     * Captures reflected attribute values.
+     *
+     * @param objectName
+     *            The name of the object instance
+     * @param attributes
+     *            The encoded attribute values, keyed by attribute name
+     * @param logicalTime
+     *            The encoded logical time, or null if the values were reflected
+     *            without one
+     * @param receiveTime
+     *            The time the values were reflected, in milliseconds since the
+     *            epoch
+     * @throws IOException
+     *             If the values could not be captured
+     */
+    void attributesReflected(String objectName, Map<String, byte[]> attributes, byte[] logicalTime,
+            long receiveTime) throws IOException;
+    
+    /**
+     * Captures the removal of an object instance.
+     *
+     * @param objectName
+     *            The name of the object instance
+     * @param logicalTime
+     *            The encoded logical time, or null if the object was removed
+     *            without one
+     * @param receiveTime
+     *            The time the object was removed, in milliseconds since the epoch
+     * @throws IOException
+     *             If the removal could not be captured
+     */
+    void objectRemoved(String objectName, byte[] logicalTime, long receiveTime) throws IOException;
+    
+    /**
+     * Writes out anything that has been captured but is still buffered.
+     *
+     * @throws IOException
+     *             If the captured data could not be written
+     */
+    void flush() throws IOException;
+}
@@ -0,0 +1,5 @@
+/**
+ * Contains the capture of received callbacks to file, for record and replay.
+ * @author QinetiQ
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.capture;
\ No newline at end of file
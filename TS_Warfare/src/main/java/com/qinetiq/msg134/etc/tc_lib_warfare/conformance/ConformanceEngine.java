@@ -0,0 +1,267 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.conformance;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.DecoderGenerator;
+import com.qinetiq.msg134.etc.tc_lib_warfare.InteractionRecord;
+
+import hla.rti1516e.InteractionClassHandle;
+import hla.rti1516e.ParameterHandle;
+
+/**
+ * Validates the parameters of any set of interaction classes against the FOM,
+ * driven by a table of compiled {@link InteractionPlan}s, one for each class. A
+ * received interaction is dispatched to its plan by the index of its class
+ * handle in an array, rather than by testing it against each class in turn, so
+ * the cost of dispatch does not grow with the number of classes validated.
+ *
+ * Where there is no RTI to give the handles, as for the distributed validation
+ * workers, the engine is compiled by name instead, and the plan of an
+ * interaction is looked up by the name of its class.
+ *
+ * The engine is not changed once compiled, so it may be shared between
+ * threads. The decoders, which hold the values decoded, are kept by the
+ * {@link ConformanceValidator}s created from it, one for each thread.
+ *
+ * @author QinetiQ
+ */
+public final class ConformanceEngine
+{
+    /**
+     * The plans, by index.
+     */
+    private final List<InteractionPlan> plans;
+    
+    /**
+     * The index of the plan of each interaction class, by class handle.
+     */
+    private final HandleIndex<InteractionClassHandle> classIndex;
+    
+    /**
+     * The plan of each interaction class, by class name.
+     */
+    private final Map<String, InteractionPlan> plansByName = new HashMap<>();
+    
+    /**
+     * Constructor
+     *
+     * @param plans
+     *            The plans, each at its own index, which either all have a class
+     *            handle or, if compiled by name, none have
+     */
+    private ConformanceEngine(final List<InteractionPlan> plans)
+    {
+        List<InteractionClassHandle> handles = new ArrayList<>(plans.size());
+        for (InteractionPlan plan : plans)
+        {
+            if (plan.getInteractionClassHandle() != null)
+            {
+                handles.add(plan.getInteractionClassHandle());
+            }
+            plansByName.putIfAbsent(plan.getInteractionName(), plan);
+        }
+        
+        this.plans = Collections.unmodifiableList(new ArrayList<>(plans));
+        this.classIndex = new HandleIndex<>(handles);
+    }
+    
+    /**
+     * Compiles the plans of the subscribed interaction classes. The parameters of
+     * each plan are those of the record, in the order that the FOM defines them.
+     *
+     * @param records
+     *            The records of the subscribed interaction classes, whose
+     *            positions give the indices of their plans
+     * @param decoderGenerator
+     *            Gives the parameters that the FOM defines for each class
+     * @param optional
+     *            Tests whether a parameter, given the names of the interaction
+     *            class and the parameter, is optional
+     * @param validWhenEmpty
+     *            Tests whether a parameter, given the names of the interaction
+     *            class and the parameter, is valid when empty
+     * @return The engine
+     */
+    public static ConformanceEngine compile(final List<InteractionRecord> records,
+            final DecoderGenerator decoderGenerator, final BiPredicate<String, String> optional,
+            final BiPredicate<String, String> validWhenEmpty)
+    {
+        List<InteractionPlan> plans = new ArrayList<>(records.size());
+        
+        for (InteractionRecord record : records)
+        {
+            String interactionName = record.getInteractionName();
+            List<String> defined = decoderGenerator.generateParameterList(interactionName);
+            
+            List<String> names = new ArrayList<>();
+            List<ParameterHandle> handles = new ArrayList<>();
+            for (String name : defined == null ? Collections.<String> emptyList() : defined)
+            {
+                ParameterHandle handle = record.getParameterHandle(name);
+                if (handle != null && !names.contains(name))
+                {
+                    names.add(name);
+                    handles.add(handle);
+                }
+            }
+            
+            plans.add(plan(plans.size(), interactionName, record.getInteractionClassHandle(), names, handles,
+                    optional, validWhenEmpty));
+        }
+        
+        return new ConformanceEngine(plans);
+    }
+    
+    /**
+     * Compiles the plans of interaction classes by name, without the handles that
+     * an RTI would give. The parameters of each plan are those that the FOM
+     * defines for the class, in the order defined, so a class that the FOM does
+     * not define has none.
+     *
+     * @param interactionNames
+     *            The names of the interaction classes, whose positions give the
+     *            indices of their plans
+     * @param decoderGenerator
+     *            Gives the parameters that the FOM defines for each class
+     * @param optional
+     *            Tests whether a parameter, given the names of the interaction
+     *            class and the parameter, is optional
+     * @param validWhenEmpty
+     *            Tests whether a parameter, given the names of the interaction
+     *            class and the parameter, is valid when empty
+     * @return The engine
+     */
+    public static ConformanceEngine compileByName(final Collection<String> interactionNames,
+            final DecoderGenerator decoderGenerator, final BiPredicate<String, String> optional,
+            final BiPredicate<String, String> validWhenEmpty)
+    {
+        List<InteractionPlan> plans = new ArrayList<>(interactionNames.size());
+        
+        for (String interactionName : interactionNames)
+        {
+            List<String> defined = decoderGenerator.generateParameterList(interactionName);
+            
+            List<String> names = new ArrayList<>();
+            for (String name : defined == null ? Collections.<String> emptyList() : defined)
+            {
+                if (!names.contains(name))
+                {
+                    names.add(name);
+                }
+            }
+            
+            plans.add(plan(plans.size(), interactionName, null, names, null, optional, validWhenEmpty));
+        }
+        
+        return new ConformanceEngine(plans);
+    }
+    
+    /**
+     * Creates the plan of an interaction class.
+     *
+     * @param index
+     *            The index of the plan
+     * @param interactionName
+     *            The name of the interaction class
+     * @param interactionClassHandle
+     *            The handle of the interaction class, or null if compiled by name
+     * @param names
+     *            The names of the parameters, in the order defined by the FOM
+     * @param handles
+     *            The handles of the parameters, or null if compiled by name
+     * @param optional
+     *            Tests whether a parameter is optional
+     * @param validWhenEmpty
+     *            Tests whether a parameter is valid when empty
+     * @return The plan
+     */
+    private static InteractionPlan plan(final int index, final String interactionName,
+            final InteractionClassHandle interactionClassHandle, final List<String> names,
+            final List<ParameterHandle> handles, final BiPredicate<String, String> optional,
+            final BiPredicate<String, String> validWhenEmpty)
+    {
+        boolean[] optionalParameters = new boolean[names.size()];
+        boolean[] emptyParameters = new boolean[names.size()];
+        for (int p = 0; p < names.size(); p++)
+        {
+            optionalParameters[p] = optional.test(interactionName, names.get(p));
+            emptyParameters[p] = validWhenEmpty.test(interactionName, names.get(p));
+        }
+        
+        return new InteractionPlan(index, interactionName, interactionClassHandle, names, handles,
+                optionalParameters, emptyParameters);
+    }
+    
+    /**
+     * @param interactionClassHandle
+     *            The handle of an interaction class
+     * @return The plan of the class, or null if the class is not validated
+     */
+    public InteractionPlan getPlan(final InteractionClassHandle interactionClassHandle)
+    {
+        int index = classIndex.indexOf(interactionClassHandle);
+        return index < 0 ? null : plans.get(index);
+    }
+    
+    /**
+     * @param interactionName
+     *            The name of an interaction class
+     * @return The plan of the class, or null if the class is not validated
+     */
+    public InteractionPlan getPlan(final String interactionName)
+    {
+        return plansByName.get(interactionName);
+    }
+    
+    /**
+     * @param index
+     *            The index of a plan
+     * @return The plan
+     */
+    public InteractionPlan getPlan(final int index)
+    {
+        return plans.get(index);
+    }
+    
+    /**
+     * @return The plans, by index
+     */
+    public List<InteractionPlan> getPlans()
+    {
+        return plans;
+    }
+    
+    /**
+     * Creates a validator with decoders of its own for every parameter of every
+     * plan, generated once rather than for each interaction validated.
+     *
+     * @param decoderGenerator
+     *            Generates the decoders from the FOM
+     * @return The validator, which is to be used by one thread at a time
+     */
+    public ConformanceValidator newValidator(final DecoderGenerator decoderGenerator)
+    {
+        return new ConformanceValidator(this, decoderGenerator);
+    }
+}
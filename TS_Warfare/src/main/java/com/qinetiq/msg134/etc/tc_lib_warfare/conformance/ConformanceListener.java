@@ -0,0 +1,73 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.conformance;
+
+import hla.rti1516e.encoding.DataElement;
+import hla.rti1516e.encoding.DecoderException;
+
+/**
+ * Told the outcome of each parameter checked by a {@link ConformanceValidator},
+ * so that the test case using the engine can record the outcomes as it needs.
+ *
+ * @author QinetiQ
+ */
+public interface ConformanceListener
+{
+    /**
+     * Decodes a parameter in full, in place of the decoder generated from the
+     * FOM, where the test case has a decoder of its own for it. By default no
+     * parameter is decoded in full.
+     *
+     * @param plan
+     *            The plan of the interaction class
+     * @param parameter
+     *            The index of the parameter
+     * @param encoded
+     *            The encoded value
+     * @return True if the parameter was decoded, false if it is to be decoded by
+     *         the decoder generated from the FOM
+     * @throws DecoderException
+     *             If the value failed to decode
+     */
+    default boolean decodeFully(final InteractionPlan plan, final int parameter, final byte[] encoded)
+            throws DecoderException
+    {
+        return false;
+    }
+    
+    /**
+     * Called with the outcome of checking a parameter.
+     *
+     * @param plan
+     *            The plan of the interaction class
+     * @param parameter
+     *            The index of the parameter
+     * @param decoder
+     *            The decoder generated from the FOM, or null if there is none
+     * @param encoded
+     *            The encoded value, or null if the parameter was not sent
+     * @param outcome
+     *            The outcome, one of the outcomes of
+     *            {@link com.qinetiq.msg134.etc.tc_lib_warfare.jfr.ValidationEvents}
+     * @param reason
+     *            The reason the parameter failed to decode, or null
+     * @param decodeStart
+     *            The {@link System#nanoTime()} at which the decode started, or zero
+     *            if the parameter was not decoded
+     */
+    void parameterChecked(InteractionPlan plan, int parameter, DataElement decoder, byte[] encoded, String outcome,
+            String reason, long decodeStart);
+}
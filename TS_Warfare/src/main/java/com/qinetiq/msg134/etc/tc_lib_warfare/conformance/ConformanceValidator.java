@@ -0,0 +1,254 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.conformance;
+
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.DecoderGenerator;
+import com.qinetiq.msg134.etc.tc_lib_warfare.jfr.ValidationEvents;
+
+import hla.rti1516e.InteractionClassHandle;
+import hla.rti1516e.ParameterHandleValueMap;
+import hla.rti1516e.encoding.DataElement;
+import hla.rti1516e.encoding.DecoderException;
+
+/**
+ * Checks the parameters of received interactions against the plans of a
+ * {@link ConformanceEngine}: that every parameter that is not optional was
+ * sent, and that every parameter sent decodes as the FOM defines it.
+ *
+ * A validator keeps a decoder for each parameter of each plan, so it must only
+ * be used by one thread at a time. The decoders are reused for every
+ * interaction validated, so a value that is to be kept must be copied with
+ * {@link #copyValue(InteractionPlan, int, byte[])}.
+ *
+ * @author QinetiQ
+ */
+public final class ConformanceValidator
+{
+    /**
+     * The engine whose plans are validated.
+     */
+    private final ConformanceEngine engine;
+    
+    /**
+     * The decoder of each parameter, or null if none could be generated, by plan
+     * and parameter index.
+     */
+    private final DataElement[][] decoders;
+    
+    /**
+     * Generates the decoders from the FOM.
+     */
+    private final DecoderGenerator decoderGenerator;
+    
+    /**
+     * Constructor
+     *
+     * @param engine
+     *            The engine whose plans are validated
+     * @param decoderGenerator
+     *            Generates the decoders from the FOM
+     */
+    ConformanceValidator(final ConformanceEngine engine, final DecoderGenerator decoderGenerator)
+    {
+        this.engine = engine;
+        this.decoderGenerator = decoderGenerator;
+        this.decoders = new DataElement[engine.getPlans().size()][];
+        
+        for (InteractionPlan plan : engine.getPlans())
+        {
+            DataElement[] planDecoders = new DataElement[plan.getParameterCount()];
+            for (int p = 0; p < planDecoders.length; p++)
+            {
+                planDecoders[p] = decoderGenerator.generateParameterDecoder(plan.getInteractionName(),
+                        plan.getParameterName(p));
+            }
+            decoders[plan.getIndex()] = planDecoders;
+        }
+    }
+    
+    /**
+     * @param interactionClassHandle
+     *            The handle of an interaction class
+     * @return The plan of the class, or null if the class is not validated
+     */
+    public InteractionPlan getPlan(final InteractionClassHandle interactionClassHandle)
+    {
+        return engine.getPlan(interactionClassHandle);
+    }
+    
+    /**
+     * @param interactionName
+     *            The name of an interaction class
+     * @return The plan of the class, or null if the class is not validated
+     */
+    public InteractionPlan getPlan(final String interactionName)
+    {
+        return engine.getPlan(interactionName);
+    }
+    
+    /**
+     * Decodes a parameter value into a decoder of its own, which unlike the
+     * decoder passed to the listener is not changed by the interactions
+     * validated later.
+     *
+     * @param plan
+     *            The plan of the interaction class
+     * @param parameter
+     *            The index of the parameter
+     * @param encoded
+     *            The encoded value
+     * @return The new decoder holding the value, left as generated where the
+     *         value does not decode, or null if no decoder can be generated
+     */
+    public DataElement copyValue(final InteractionPlan plan, final int parameter, final byte[] encoded)
+    {
+        DataElement copy = decoderGenerator.generateParameterDecoder(plan.getInteractionName(),
+                plan.getParameterName(parameter));
+        
+        if (copy != null && encoded != null && encoded.length > 0)
+        {
+            try
+            {
+                copy.decode(encoded);
+            }
+            catch (DecoderException e)
+            {
+                // A value decoded in full by a decoder of the test case may not decode as
+                // the FOM defines it, so the copy is left as generated
+            }
+        }
+        
+        return copy;
+    }
+    
+    /**
+     * Checks each parameter of the plan of an interaction, in the order the FOM
+     * defines them, telling the listener the outcome of each.
+     *
+     * @param plan
+     *            The plan of the interaction class
+     * @param parameters
+     *            The parameters of the interaction
+     * @param listener
+     *            Told the outcome of each parameter
+     * @return The number of parameters that failed or were not sent without
+     *         being optional
+     */
+    public int validate(final InteractionPlan plan, final ParameterHandleValueMap parameters,
+            final ConformanceListener listener)
+    {
+        return check(plan, p -> parameters.get(plan.getParameterHandle(p)), listener);
+    }
+    
+    /**
+     * Checks each parameter of the plan of an interaction whose parameters are
+     * given by name, as they are where there is no RTI to give the handles, in
+     * the same way as {@link #validate(InteractionPlan, ParameterHandleValueMap,
+     * ConformanceListener)}. A parameter that the FOM does not define for the
+     * class is not checked.
+     *
+     * @param plan
+     *            The plan of the interaction class
+     * @param parameters
+     *            The encoded parameter values of the interaction, by name
+     * @param listener
+     *            Told the outcome of each parameter
+     * @return The number of parameters that failed or were not sent without
+     *         being optional
+     */
+    public int validateByName(final InteractionPlan plan, final Map<String, byte[]> parameters,
+            final ConformanceListener listener)
+    {
+        return check(plan, p -> parameters.get(plan.getParameterName(p)), listener);
+    }
+    
+    /**
+     * Checks each parameter of the plan of an interaction.
+     *
+     * @param plan
+     *            The plan of the interaction class
+     * @param values
+     *            Gives the encoded value of a parameter, by parameter index, or
+     *            null if it was not sent
+     * @param listener
+     *            Told the outcome of each parameter
+     * @return The number of parameters that failed or were not sent without
+     *         being optional
+     */
+    private int check(final InteractionPlan plan, final IntFunction<byte[]> values,
+            final ConformanceListener listener)
+    {
+        DataElement[] planDecoders = decoders[plan.getIndex()];
+        int failures = 0;
+        
+        for (int p = 0; p < planDecoders.length; p++)
+        {
+            byte[] encoded = values.apply(p);
+            DataElement decoder = planDecoders[p];
+            String outcome;
+            String reason = null;
+            long decodeStart = 0;
+            
+            if (encoded == null)
+            {
+                outcome = plan.isOptional(p) ? ValidationEvents.OPTIONAL_NOT_SENT : ValidationEvents.NOT_SENT;
+            }
+            else if (decoder == null)
+            {
+                outcome = ValidationEvents.NO_DECODER;
+            }
+            else
+            {
+                decodeStart = System.nanoTime();
+                try
+                {
+                    if (!listener.decodeFully(plan, p, encoded))
+                    {
+                        decoder.decode(encoded);
+                    }
+                    outcome = ValidationEvents.DECODED;
+                }
+                catch (DecoderException e)
+                {
+                    // An empty value that fails to decode is accepted where the parameter may be
+                    // empty
+                    if (encoded.length == 0 && plan.isValidWhenEmpty(p))
+                    {
+                        outcome = ValidationEvents.EMPTY;
+                    }
+                    else
+                    {
+                        outcome = ValidationEvents.FAILED;
+                        reason = e.getMessage();
+                    }
+                }
+            }
+            
+            if (outcome.equals(ValidationEvents.NOT_SENT) || outcome.equals(ValidationEvents.NO_DECODER)
+                    || outcome.equals(ValidationEvents.FAILED))
+            {
+                failures++;
+            }
+            
+            listener.parameterChecked(plan, p, decoder, encoded, outcome, reason, decodeStart);
+        }
+        
+        return failures;
+    }
+}
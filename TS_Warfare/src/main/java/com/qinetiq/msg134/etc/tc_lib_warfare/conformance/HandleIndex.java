@@ -0,0 +1,131 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.conformance;
+
+import java.util.List;
+
+/**
+ * Gives each of a fixed set of HLA handles a dense index, from zero, so that
+ * whatever is kept for a handle can be held in an array. The handles are held
+ * in an open addressed table at least twice the size of the set, so a handle
+ * is usually found by its hash code and a single comparison, however many
+ * handles there are.
+ *
+ * An index is not changed once created, so it may be shared between threads.
+ *
+ * @param <H>
+ *            The type of handle
+ * @author QinetiQ
+ */
+public final class HandleIndex<H>
+{
+    /**
+     * The handles, at the slot given by their hash code, or null.
+     */
+    private final Object[] handles;
+    
+    /**
+     * The index of the handle in each slot.
+     */
+    private final int[] indices;
+    
+    /**
+     * The number of handles.
+     */
+    private final int size;
+    
+    /**
+     * Constructor
+     *
+     * @param handles
+     *            The handles, whose indices are their positions in the list
+     * @throws IllegalArgumentException
+     *             If a handle is null or given more than once
+     */
+    public HandleIndex(final List<? extends H> handles)
+    {
+        int capacity = Integer.highestOneBit(Math.max(1, handles.size()) * 2 - 1) << 1;
+        this.handles = new Object[capacity];
+        this.indices = new int[capacity];
+        this.size = handles.size();
+        
+        for (int i = 0; i < handles.size(); i++)
+        {
+            H handle = handles.get(i);
+            if (handle == null)
+            {
+                throw new IllegalArgumentException("A handle may not be null");
+            }
+            
+            int slot = slot(handle);
+            while (this.handles[slot] != null)
+            {
+                if (this.handles[slot].equals(handle))
+                {
+                    throw new IllegalArgumentException(String.join(" ", "Handle", handle.toString(),
+                            "is given more than once"));
+                }
+                slot = (slot + 1) & (capacity - 1);
+            }
+            this.handles[slot] = handle;
+            this.indices[slot] = i;
+        }
+    }
+    
+    /**
+     * @param handle
+     *            A handle, which may be null
+     * @return The index of the handle, or -1 if it is not one of the handles
+     */
+    public int indexOf(final Object handle)
+    {
+        int index = -1;
+        
+        if (handle != null)
+        {
+            int slot = slot(handle);
+            while (index < 0 && handles[slot] != null)
+            {
+                if (handles[slot].equals(handle))
+                {
+                    index = indices[slot];
+                }
+                slot = (slot + 1) & (handles.length - 1);
+            }
+        }
+        
+        return index;
+    }
+    
+    /**
+     * @return The number of handles
+     */
+    public int size()
+    {
+        return size;
+    }
+    
+    /**
+     * @param handle
+     *            A handle
+     * @return The slot at which to start looking for the handle
+     */
+    private int slot(final Object handle)
+    {
+        int hash = handle.hashCode();
+        return (hash ^ (hash >>> 16)) & (handles.length - 1);
+    }
+}
@@ -0,0 +1,211 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.conformance;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import hla.rti1516e.InteractionClassHandle;
+import hla.rti1516e.ParameterHandle;
+
+/**
+ * The compiled validation plan of an interaction class: the parameters that the
+ * FOM defines for it, in the order defined, with their handles and whether each
+ * is optional or may be empty. The plan is worked out once, when the class is
+ * subscribed, so that validating an interaction needs no look up by name. A
+ * plan compiled by name, where there is no RTI to give the handles, has none.
+ *
+ * A plan is not changed once created, so it may be shared between threads.
+ *
+ * @author QinetiQ
+ */
+public final class InteractionPlan
+{
+    /**
+     * The index of the plan in the {@link ConformanceEngine}.
+     */
+    private final int index;
+    
+    /**
+     * The name of the interaction class.
+     */
+    private final String interactionName;
+    
+    /**
+     * The handle of the interaction class, or null if the plan was compiled by
+     * name.
+     */
+    private final InteractionClassHandle interactionClassHandle;
+    
+    /**
+     * The names of the parameters, in the order defined by the FOM.
+     */
+    private final String[] parameterNames;
+    
+    /**
+     * The handles of the parameters, by parameter index, which are null if the
+     * plan was compiled by name.
+     */
+    private final ParameterHandle[] parameterHandles;
+    
+    /**
+     * Whether each parameter is optional, by parameter index.
+     */
+    private final boolean[] optional;
+    
+    /**
+     * Whether each parameter is valid when empty, by parameter index.
+     */
+    private final boolean[] validWhenEmpty;
+    
+    /**
+     * The index of each parameter, by handle.
+     */
+    private final HandleIndex<ParameterHandle> parameterIndex;
+    
+    /**
+     * Constructor
+     *
+     * @param index
+     *            The index of the plan in the engine
+     * @param interactionName
+     *            The name of the interaction class
+     * @param interactionClassHandle
+     *            The handle of the interaction class, or null if the plan is
+     *            compiled by name
+     * @param parameterNames
+     *            The names of the parameters, in the order defined by the FOM
+     * @param parameterHandles
+     *            The handles of the parameters, in the same order, or null if the
+     *            plan is compiled by name
+     * @param optional
+     *            Whether each parameter is optional
+     * @param validWhenEmpty
+     *            Whether each parameter is valid when empty
+     */
+    InteractionPlan(final int index, final String interactionName,
+            final InteractionClassHandle interactionClassHandle, final List<String> parameterNames,
+            final List<ParameterHandle> parameterHandles, final boolean[] optional, final boolean[] validWhenEmpty)
+    {
+        this.index = index;
+        this.interactionName = interactionName;
+        this.interactionClassHandle = interactionClassHandle;
+        this.parameterNames = parameterNames.toArray(new String[parameterNames.size()]);
+        this.parameterHandles = parameterHandles == null ? new ParameterHandle[parameterNames.size()]
+                : parameterHandles.toArray(new ParameterHandle[parameterHandles.size()]);
+        this.optional = Arrays.copyOf(optional, optional.length);
+        this.validWhenEmpty = Arrays.copyOf(validWhenEmpty, validWhenEmpty.length);
+        this.parameterIndex = new HandleIndex<>(
+                parameterHandles == null ? Collections.<ParameterHandle> emptyList() : parameterHandles);
+    }
+    
+    /**
+     * @return The index of the plan in the engine
+     */
+    public int getIndex()
+    {
+        return index;
+    }
+    
+    /**
+     * @return The name of the interaction class
+     */
+    public String getInteractionName()
+    {
+        return interactionName;
+    }
+    
+    /**
+     * @return The handle of the interaction class, or null if the plan was
+     *         compiled by name
+     */
+    public InteractionClassHandle getInteractionClassHandle()
+    {
+        return interactionClassHandle;
+    }
+    
+    /**
+     * @return The number of parameters
+     */
+    public int getParameterCount()
+    {
+        return parameterNames.length;
+    }
+    
+    /**
+     * @param parameter
+     *            The index of a parameter
+     * @return The name of the parameter
+     */
+    public String getParameterName(final int parameter)
+    {
+        return parameterNames[parameter];
+    }
+    
+    /**
+     * @param parameter
+     *            The index of a parameter
+     * @return The handle of the parameter, or null if the plan was compiled by
+     *         name
+     */
+    public ParameterHandle getParameterHandle(final int parameter)
+    {
+        return parameterHandles[parameter];
+    }
+    
+    /**
+     * @param parameter
+     *            The index of a parameter
+     * @return True if the parameter is optional
+     */
+    public boolean isOptional(final int parameter)
+    {
+        return optional[parameter];
+    }
+    
+    /**
+     * @param parameter
+     *            The index of a parameter
+     * @return True if the parameter is valid when empty
+     */
+    public boolean isValidWhenEmpty(final int parameter)
+    {
+        return validWhenEmpty[parameter];
+    }
+    
+    /**
+     * @param parameterHandle
+     *            The handle of a parameter
+     * @return The index of the parameter, or -1 if the FOM does not define it for
+     *         the class or the plan was compiled by name
+     */
+    public int indexOf(final ParameterHandle parameterHandle)
+    {
+        return parameterIndex.indexOf(parameterHandle);
+    }
+    
+    /**
+     * @param parameterName
+     *            The name of a parameter
+     * @return The index of the parameter, or -1 if the FOM does not define it for
+     *         the class
+     */
+    public int indexOf(final String parameterName)
+    {
+        return Arrays.asList(parameterNames).indexOf(parameterName);
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Contains the table-driven validation of the parameters of any interaction
+ * class against the FOM.
+ * @author QinetiQ
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.conformance;
\ No newline at end of file
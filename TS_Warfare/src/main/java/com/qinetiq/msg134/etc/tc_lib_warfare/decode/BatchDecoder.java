@@ -0,0 +1,47 @@
+/**
+ * Copyright 2017, UK (QinetiQ)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.decode;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import hla.rti1516e.encoding.DecoderException;
+
+/**
+ * Interface to be implemented by decoder classes that decode many values of the
+ * same type at once, producing a single object that holds the fields of all of
+ * the values in primitive arrays rather than one object per value.
+ * 
+ * @author QinetiQ
+ * @param <T>
+ *            The type of object created by this decoder
+ */
+public interface BatchDecoder<T>
+{
+    /**
+     * Decode each of the buffers provided, from its current position, into the
+     * corresponding entry of the result. The positions of the buffers are not
+     * changed.
+     * 
+     * @param codes
+     *            The binary data from which to create the object, one buffer per
+     *            value.
+     * @return The decoded object.
+     * @throws DecoderException
+     *             If any of the buffers could not be decoded.
+     */
+    T decodeAll(List<ByteBuffer> codes) throws DecoderException;
+}
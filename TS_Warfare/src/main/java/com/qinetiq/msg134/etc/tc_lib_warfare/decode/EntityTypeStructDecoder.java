@@ -23,6 +23,7 @@ import hla.rti1516e.RtiFactoryFactory;
 import hla.rti1516e.encoding.DecoderException;
 import hla.rti1516e.encoding.EncoderFactory;
 import hla.rti1516e.encoding.HLAfixedRecord;
+import hla.rti1516e.encoding.HLAinteger16BE;
 import hla.rti1516e.encoding.HLAoctet;
 import hla.rti1516e.exceptions.RTIinternalError;
 
@@ -47,6 +48,31 @@ public class EntityTypeStructDecoder implements Decoder<EntityTypeStruct>
      */
     private final HLAoctet munitionDomain;
     
+    /**
+     * The CountryCode field
+     */
+    private final HLAinteger16BE countryCode;
+    
+    /**
+     * The Category field
+     */
+    private final HLAoctet category;
+    
+    /**
+     * The Subcategory field
+     */
+    private final HLAoctet subcategory;
+    
+    /**
+     * The Specific field
+     */
+    private final HLAoctet specific;
+    
+    /**
+     * The Extra field
+     */
+    private final HLAoctet extra;
+    
     /**
      * Default constructor.
      * @throws RTIinternalError If an RTI error occurred
@@ -57,8 +83,18 @@ public class EntityTypeStructDecoder implements Decoder<EntityTypeStruct>
         decoder = factory.createHLAfixedRecord();
         entityKind = factory.createHLAoctet();
         munitionDomain = factory.createHLAoctet();
+        countryCode = factory.createHLAinteger16BE();
+        category = factory.createHLAoctet();
+        subcategory = factory.createHLAoctet();
+        specific = factory.createHLAoctet();
+        extra = factory.createHLAoctet();
         decoder.add(entityKind);
         decoder.add(munitionDomain);
+        decoder.add(countryCode);
+        decoder.add(category);
+        decoder.add(subcategory);
+        decoder.add(specific);
+        decoder.add(extra);
     }
     
     /**
@@ -82,7 +118,9 @@ public class EntityTypeStructDecoder implements Decoder<EntityTypeStruct>
                     String.join(" ", "Error occurded trying to decode EntityKind and/or MunitionDomain"));
         }
         
-        return new EntityTypeStruct(entitykind, munitiondomain);
+        return new EntityTypeStruct(entitykind, munitiondomain, countryCode.getValue() & 0xFFFF,
+                category.getValue() & 0xFF, subcategory.getValue() & 0xFF, specific.getValue() & 0xFF,
+                extra.getValue() & 0xFF);
     }
     
 }
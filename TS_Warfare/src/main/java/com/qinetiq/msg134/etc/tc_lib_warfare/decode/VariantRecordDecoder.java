@@ -0,0 +1,316 @@
+/**
+ * Copyright 2017, UK (QinetiQ)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.decode;
+
+import java.util.function.Function;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.VariantRecordPlan;
+import com.qinetiq.msg134.etc.tc_lib_warfare.VariantRecordPlan.Alternative;
+
+import hla.rti1516e.encoding.ByteWrapper;
+import hla.rti1516e.encoding.DataElement;
+import hla.rti1516e.encoding.DecoderException;
+import hla.rti1516e.encoding.EncoderException;
+import hla.rti1516e.encoding.HLAinteger16BE;
+import hla.rti1516e.encoding.HLAinteger16LE;
+import hla.rti1516e.encoding.HLAinteger32BE;
+import hla.rti1516e.encoding.HLAinteger32LE;
+import hla.rti1516e.encoding.HLAinteger64BE;
+import hla.rti1516e.encoding.HLAinteger64LE;
+import hla.rti1516e.encoding.HLAoctet;
+
+/**
+ * Decoder for variant record types, driven by a precompiled
+ * {@link VariantRecordPlan}. Only the alternative selected by the discriminant
+ * is resolved and instantiated, and it is reused for later values that select
+ * the same alternative.
+ *
+ * @author QinetiQ
+ */
+public class VariantRecordDecoder implements DataElement
+{
+    /**
+     * The plan describing the variant record.
+     */
+    private final VariantRecordPlan plan;
+    
+    /**
+     * The discriminant element.
+     */
+    private final DataElement discriminant;
+    
+    /**
+     * Resolves the data type name of an alternative to a new data element.
+     */
+    private final Function<String, DataElement> resolver;
+    
+    /**
+     * The alternative elements created so far, indexed by alternative.
+     */
+    private final DataElement[] alternativeElements;
+    
+    /**
+     * The alternative selected by the most recently decoded discriminant.
+     */
+    private Alternative selected;
+    
+    /**
+     * Creates a new decoder.
+     *
+     * @param plan
+     *            The plan describing the variant record.
+     * @param discriminant
+     *            The element with which to decode the discriminant.
+     * @param resolver
+     *            Resolves the data type name of an alternative to a new data
+     *            element, returning null if it cannot be resolved.
+     */
+    public VariantRecordDecoder(final VariantRecordPlan plan, final DataElement discriminant,
+            final Function<String, DataElement> resolver)
+    {
+        this.plan = plan;
+        this.discriminant = discriminant;
+        this.resolver = resolver;
+        this.alternativeElements = new DataElement[plan.getAlternatives().size()];
+    }
+    
+    /**
+     * @return The discriminant element.
+     */
+    public DataElement getDiscriminant()
+    {
+        return discriminant;
+    }
+    
+    /**
+     * @return The name of the alternative selected by the last decode, or null if
+     *         nothing has been decoded.
+     */
+    public String getSelectedAlternative()
+    {
+        return selected == null ? null : selected.getName();
+    }
+    
+    /**
+     * @return The value of the alternative selected by the last decode, or null if
+     *         nothing has been decoded or the alternative carries no data.
+     */
+    public DataElement getValue()
+    {
+        return selected == null ? null : alternativeElements[selected.getIndex()];
+    }
+    
+    @Override
+    public int getOctetBoundary()
+    {
+        int boundary = plan.getOctetBoundary();
+        
+        if (boundary == 0)
+        {
+            // As per the HLA encoding rules, the boundary is the largest of those of the
+            // discriminant and all of the alternatives. This is only worked out once per
+            // plan.
+            boundary = Math.max(1, discriminant.getOctetBoundary());
+            for (Alternative alternative : plan.getAlternatives())
+            {
+                DataElement element = alternativeElement(alternative);
+                if (element != null)
+                {
+                    boundary = Math.max(boundary, element.getOctetBoundary());
+                }
+            }
+            plan.setOctetBoundary(boundary);
+        }
+        
+        return boundary;
+    }
+    
+    @Override
+    public int getEncodedLength()
+    {
+        int length = discriminant.getEncodedLength();
+        DataElement value = getValue();
+        
+        if (value != null)
+        {
+            length += padding(length, value.getOctetBoundary()) + value.getEncodedLength();
+        }
+        
+        return length;
+    }
+    
+    @Override
+    public void encode(final ByteWrapper byteWrapper) throws EncoderException
+    {
+        if (selected == null)
+        {
+            throw new EncoderException(String.join(" ", "Variant record", plan.getName(), "has no value to encode"));
+        }
+        
+        byteWrapper.align(getOctetBoundary());
+        discriminant.encode(byteWrapper);
+        
+        DataElement value = getValue();
+        if (value != null)
+        {
+            byteWrapper.align(value.getOctetBoundary());
+            value.encode(byteWrapper);
+        }
+    }
+    
+    @Override
+    public byte[] toByteArray() throws EncoderException
+    {
+        ByteWrapper byteWrapper = new ByteWrapper(getEncodedLength());
+        encode(byteWrapper);
+        return byteWrapper.array();
+    }
+    
+    @Override
+    public void decode(final ByteWrapper byteWrapper) throws DecoderException
+    {
+        byteWrapper.align(getOctetBoundary());
+        discriminant.decode(byteWrapper);
+        
+        long discriminantValue = discriminantValue();
+        Alternative alternative = plan.lookup(discriminantValue);
+        
+        if (alternative == null)
+        {
+            selected = null;
+            throw new DecoderException(String.join(" ", "Discriminant value", String.valueOf(discriminantValue),
+                    "is not defined for variant record", plan.getName()));
+        }
+        
+        selected = alternative;
+        
+        if (alternative.getDataType() != null)
+        {
+            DataElement value = alternativeElement(alternative);
+            
+            if (value == null)
+            {
+                throw new DecoderException(String.join(" ", "Unable to resolve data type", alternative.getDataType(),
+                        "of alternative", alternative.getName(), "of variant record", plan.getName()));
+            }
+            
+            byteWrapper.align(value.getOctetBoundary());
+            value.decode(byteWrapper);
+        }
+    }
+    
+    @Override
+    public void decode(final byte[] bytes) throws DecoderException
+    {
+        decode(new ByteWrapper(bytes));
+    }
+    
+    @Override
+    public String toString()
+    {
+        return String.join("", "VariantRecordDecoder<", plan.getName(), ":",
+                selected == null ? "" : selected.getName(), ">");
+    }
+    
+    /**
+     * Returns the element for the given alternative, creating it if this is the
+     * first time that the alternative has been used by this decoder.
+     *
+     * @param alternative
+     *            The alternative
+     * @return The element, or null if the alternative carries no data or its data
+     *         type cannot be resolved.
+     */
+    private DataElement alternativeElement(final Alternative alternative)
+    {
+        DataElement element = alternativeElements[alternative.getIndex()];
+        
+        if (element == null && alternative.getDataType() != null)
+        {
+            element = resolver.apply(alternative.getDataType());
+            alternativeElements[alternative.getIndex()] = element;
+        }
+        
+        return element;
+    }
+    
+    /**
+     * @return The decoded discriminant as a number. Octets and the integers of an
+     *         unsigned representation are zero extended, and other integers are
+     *         sign extended, so that the value matches that of the enumerator.
+     * @throws DecoderException
+     *             If the discriminant is not of an integer type
+     */
+    private long discriminantValue() throws DecoderException
+    {
+        long value;
+        final boolean unsigned = plan.isUnsignedDiscriminant();
+        
+        if (discriminant instanceof HLAoctet)
+        {
+            value = ((HLAoctet) discriminant).getValue() & 0xFF;
+        }
+        else if (discriminant instanceof HLAinteger16BE)
+        {
+            value = ((HLAinteger16BE) discriminant).getValue();
+            value = unsigned ? value & 0xFFFF : value;
+        }
+        else if (discriminant instanceof HLAinteger16LE)
+        {
+            value = ((HLAinteger16LE) discriminant).getValue();
+            value = unsigned ? value & 0xFFFF : value;
+        }
+        else if (discriminant instanceof HLAinteger32BE)
+        {
+            value = ((HLAinteger32BE) discriminant).getValue();
+            value = unsigned ? value & 0xFFFFFFFFL : value;
+        }
+        else if (discriminant instanceof HLAinteger32LE)
+        {
+            value = ((HLAinteger32LE) discriminant).getValue();
+            value = unsigned ? value & 0xFFFFFFFFL : value;
+        }
+        else if (discriminant instanceof HLAinteger64BE)
+        {
+            value = ((HLAinteger64BE) discriminant).getValue();
+        }
+        else if (discriminant instanceof HLAinteger64LE)
+        {
+            value = ((HLAinteger64LE) discriminant).getValue();
+        }
+        else
+        {
+            throw new DecoderException(
+                    String.join(" ", "Discriminant of variant record", plan.getName(), "is not an integer type"));
+        }
+        
+        return value;
+    }
+    
+    /**
+     * Calculates the padding needed to bring an offset onto a boundary.
+     *
+     * @param offset
+     *            The current offset
+     * @param boundary
+     *            The required boundary
+     * @return The number of padding octets
+     */
+    private static int padding(final int offset, final int boundary)
+    {
+        return boundary > 1 ? (boundary - offset % boundary) % boundary : 0;
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2017, UK (QinetiQ)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.decode;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.VelocityVectorColumns;
+
+import hla.rti1516e.encoding.DecoderException;
+
+/**
+ * Batch decoder for the VelocityVectorStruct parameter type. The fixed record is
+ * three HLAfloat32BE fields with no padding, so the fields are read directly from
+ * the buffers rather than through HLA data elements.
+ * 
+ * @author QinetiQ
+ */
+public class VelocityVectorStructBatchDecoder implements BatchDecoder<VelocityVectorColumns>
+{
+    /**
+     * The encoded length of a VelocityVectorStruct in octets.
+     */
+    public static final int ENCODED_LENGTH = 3 * Float.BYTES;
+    
+    /**
+     * Decode the provided data to produce a VelocityVectorColumns object.
+     */
+    @Override
+    public VelocityVectorColumns decodeAll(final List<ByteBuffer> codes) throws DecoderException
+    {
+        final int size = codes.size();
+        final float[] xVelocity = new float[size];
+        final float[] yVelocity = new float[size];
+        final float[] zVelocity = new float[size];
+        
+        for (int i = 0; i < size; i++)
+        {
+            final ByteBuffer code = codes.get(i);
+            final int position = code.position();
+            
+            if (code.remaining() < ENCODED_LENGTH)
+            {
+                throw new DecoderException(String.join(" ", "VelocityVectorStruct", String.valueOf(i), "has",
+                        String.valueOf(code.remaining()), "octets, expected", String.valueOf(ENCODED_LENGTH)));
+            }
+            
+            xVelocity[i] = getFloat32BE(code, position);
+            yVelocity[i] = getFloat32BE(code, position + Float.BYTES);
+            zVelocity[i] = getFloat32BE(code, position + 2 * Float.BYTES);
+        }
+        
+        return new VelocityVectorColumns(xVelocity, yVelocity, zVelocity);
+    }
+    
+    /**
+     * Reads a big endian 32-bit float whatever the byte order of the buffer.
+     * 
+     * @param code
+     *            The buffer to read from
+     * @param index
+     *            The absolute index of the first octet
+     * @return The value
+     */
+    static float getFloat32BE(final ByteBuffer code, final int index)
+    {
+        int bits = code.getInt(index);
+        if (code.order() != ByteOrder.BIG_ENDIAN)
+        {
+            bits = Integer.reverseBytes(bits);
+        }
+        return Float.intBitsToFloat(bits);
+    }
+}
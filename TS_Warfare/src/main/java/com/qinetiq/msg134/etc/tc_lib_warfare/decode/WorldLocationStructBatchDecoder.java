@@ -0,0 +1,88 @@
+/**
+ * Copyright 2017, UK (QinetiQ)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.decode;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.WorldLocationColumns;
+
+import hla.rti1516e.encoding.DecoderException;
+
+/**
+ * Batch decoder for the WorldLocationStruct parameter type. The fixed record is
+ * three HLAfloat64BE fields with no padding, so the fields are read directly from
+ * the buffers rather than through HLA data elements.
+ * 
+ * @author QinetiQ
+ */
+public class WorldLocationStructBatchDecoder implements BatchDecoder<WorldLocationColumns>
+{
+    /**
+     * The encoded length of a WorldLocationStruct in octets.
+     */
+    public static final int ENCODED_LENGTH = 3 * Double.BYTES;
+    
+    /**
+     * Decode the provided data to produce a WorldLocationColumns object.
+     */
+    @Override
+    public WorldLocationColumns decodeAll(final List<ByteBuffer> codes) throws DecoderException
+    {
+        final int size = codes.size();
+        final double[] x = new double[size];
+        final double[] y = new double[size];
+        final double[] z = new double[size];
+        
+        for (int i = 0; i < size; i++)
+        {
+            final ByteBuffer code = codes.get(i);
+            final int position = code.position();
+            
+            if (code.remaining() < ENCODED_LENGTH)
+            {
+                throw new DecoderException(String.join(" ", "WorldLocationStruct", String.valueOf(i), "has",
+                        String.valueOf(code.remaining()), "octets, expected", String.valueOf(ENCODED_LENGTH)));
+            }
+            
+            x[i] = getFloat64BE(code, position);
+            y[i] = getFloat64BE(code, position + Double.BYTES);
+            z[i] = getFloat64BE(code, position + 2 * Double.BYTES);
+        }
+        
+        return new WorldLocationColumns(x, y, z);
+    }
+    
+    /**
+     * Reads a big endian 64-bit float whatever the byte order of the buffer.
+     * 
+     * @param code
+     *            The buffer to read from
+     * @param index
+     *            The absolute index of the first octet
+     * @return The value
+     */
+    static double getFloat64BE(final ByteBuffer code, final int index)
+    {
+        long bits = code.getLong(index);
+        if (code.order() != ByteOrder.BIG_ENDIAN)
+        {
+            bits = Long.reverseBytes(bits);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+}
@@ -0,0 +1,332 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.distributed;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A batch of captured interactions, published by the {@link JmsCaptureSink} for
+ * a {@link ValidationWorker} to validate.
+ *
+ * A batch carries, besides its interactions, the parameters that are valid
+ * when sent empty, as configured for the test case, so that a worker judges an
+ * empty value as the test case itself would.
+ *
+ * A batch is encoded as its {@link #FORMAT_VERSION}, the parameters that are
+ * valid when empty, a table of the names used in the batch and the
+ * interactions, each given by its receive time, the identifier of its class
+ * name and its parameter values. Names are written once, as in the capture file
+ * format, and are referred to by their position in the table.
+ *
+ * @author QinetiQ
+ */
+public final class InteractionBatch
+{
+    /**
+     * The version of the encoding described here.
+     */
+    public static final int FORMAT_VERSION = 2;
+    
+    /**
+     * A single interaction of a batch.
+     */
+    public static final class Interaction
+    {
+        /**
+         * The name of the interaction class.
+         */
+        private final String interactionClass;
+        
+        /**
+         * The encoded parameter values, keyed by parameter name.
+         */
+        private final Map<String, byte[]> parameters;
+        
+        /**
+         * The time the interaction was received, in milliseconds since the epoch.
+         */
+        private final long receiveTime;
+        
+        /**
+         * Constructor
+         *
+         * @param interactionClass
+         *            The name of the interaction class
+         * @param parameters
+         *            The encoded parameter values, keyed by parameter name
+         * @param receiveTime
+         *            The time the interaction was received
+         */
+        private Interaction(final String interactionClass, final Map<String, byte[]> parameters,
+                final long receiveTime)
+        {
+            this.interactionClass = interactionClass;
+            this.parameters = Collections.unmodifiableMap(parameters);
+            this.receiveTime = receiveTime;
+        }
+        
+        /**
+         * @return The name of the interaction class
+         */
+        public String getInteractionClass()
+        {
+            return interactionClass;
+        }
+        
+        /**
+         * @return The encoded parameter values, keyed by parameter name
+         */
+        public Map<String, byte[]> getParameters()
+        {
+            return parameters;
+        }
+        
+        /**
+         * @return The time the interaction was received, in milliseconds since the
+         *         epoch
+         */
+        public long getReceiveTime()
+        {
+            return receiveTime;
+        }
+    }
+    
+    /**
+     * The interactions of the batch, in the order received.
+     */
+    private final List<Interaction> interactions = new ArrayList<>();
+    
+    /**
+     * The parameters that are valid when sent empty, each given either by its
+     * name alone or as the name of its interaction class and its own name
+     * separated by a full stop.
+     */
+    private final Set<String> validWhenEmpty;
+    
+    /**
+     * Creates a batch in which no parameter is valid when empty.
+     */
+    public InteractionBatch()
+    {
+        this(Collections.<String> emptySet());
+    }
+    
+    /**
+     * Constructor
+     *
+     * @param validWhenEmpty
+     *            The parameters that are valid when sent empty, each given either
+     *            by its name alone or as the name of its interaction class and
+     *            its own name separated by a full stop. The set is not copied, so
+     *            it may be shared by the batches of a sink but must not be
+     *            changed.
+     */
+    public InteractionBatch(final Set<String> validWhenEmpty)
+    {
+        this.validWhenEmpty = validWhenEmpty;
+    }
+    
+    /**
+     * Adds an interaction to the batch.
+     *
+     * @param interactionClass
+     *            The name of the interaction class
+     * @param parameters
+     *            The encoded parameter values, keyed by parameter name
+     * @param receiveTime
+     *            The time the interaction was received, in milliseconds since the
+     *            epoch
+     */
+    public void add(final String interactionClass, final Map<String, byte[]> parameters, final long receiveTime)
+    {
+        interactions.add(new Interaction(interactionClass, new LinkedHashMap<>(parameters), receiveTime));
+    }
+    
+    /**
+     * @return The interactions of the batch, in the order received
+     */
+    public List<Interaction> getInteractions()
+    {
+        return Collections.unmodifiableList(interactions);
+    }
+    
+    /**
+     * @return The parameters that are valid when sent empty
+     */
+    public Set<String> getValidWhenEmpty()
+    {
+        return Collections.unmodifiableSet(validWhenEmpty);
+    }
+    
+    /**
+     * @param interactionClass
+     *            The name of an interaction class
+     * @param parameter
+     *            The name of a parameter of the class
+     * @return True if the parameter is valid when sent empty
+     */
+    public boolean isValidWhenEmpty(final String interactionClass, final String parameter)
+    {
+        return validWhenEmpty.contains(parameter)
+                || validWhenEmpty.contains(String.join("", interactionClass, ".", parameter));
+    }
+    
+    /**
+     * @return The number of interactions in the batch
+     */
+    public int size()
+    {
+        return interactions.size();
+    }
+    
+    /**
+     * @return The encoded batch
+     * @throws IOException
+     *             If the batch could not be encoded
+     */
+    public byte[] encode() throws IOException
+    {
+        Map<String, Integer> nameIds = new LinkedHashMap<>();
+        for (Interaction interaction : interactions)
+        {
+            nameIds.putIfAbsent(interaction.interactionClass, nameIds.size());
+            for (String name : interaction.parameters.keySet())
+            {
+                nameIds.putIfAbsent(name, nameIds.size());
+            }
+        }
+        
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes))
+        {
+            out.writeInt(FORMAT_VERSION);
+            
+            out.writeInt(validWhenEmpty.size());
+            for (String parameter : validWhenEmpty)
+            {
+                out.writeUTF(parameter);
+            }
+            
+            out.writeInt(nameIds.size());
+            for (String name : nameIds.keySet())
+            {
+                out.writeUTF(name);
+            }
+            
+            out.writeInt(interactions.size());
+            for (Interaction interaction : interactions)
+            {
+                out.writeLong(interaction.receiveTime);
+                out.writeInt(nameIds.get(interaction.interactionClass));
+                out.writeInt(interaction.parameters.size());
+                for (Map.Entry<String, byte[]> e : interaction.parameters.entrySet())
+                {
+                    out.writeInt(nameIds.get(e.getKey()));
+                    out.writeInt(e.getValue().length);
+                    out.write(e.getValue());
+                }
+            }
+        }
+        
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * Decodes a batch encoded by {@link #encode()}.
+     *
+     * @param encoded
+     *            The encoded batch
+     * @return The batch
+     * @throws IOException
+     *             If the batch is not of a version that is understood, or is cut
+     *             short
+     */
+    public static InteractionBatch decode(final byte[] encoded) throws IOException
+    {
+        InteractionBatch batch;
+        
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded)))
+        {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION)
+            {
+                throw new IOException("Unsupported interaction batch version " + version);
+            }
+            
+            Set<String> validWhenEmpty = new LinkedHashSet<>();
+            int emptyCount = in.readInt();
+            for (int i = 0; i < emptyCount; i++)
+            {
+                validWhenEmpty.add(in.readUTF());
+            }
+            batch = new InteractionBatch(validWhenEmpty);
+            
+            String[] names = new String[in.readInt()];
+            for (int i = 0; i < names.length; i++)
+            {
+                names[i] = in.readUTF();
+            }
+            
+            int count = in.readInt();
+            for (int i = 0; i < count; i++)
+            {
+                long receiveTime = in.readLong();
+                String interactionClass = name(names, in.readInt());
+                int parameterCount = in.readInt();
+                Map<String, byte[]> parameters = new LinkedHashMap<>();
+                for (int p = 0; p < parameterCount; p++)
+                {
+                    String parameter = name(names, in.readInt());
+                    byte[] value = new byte[in.readInt()];
+                    in.readFully(value);
+                    parameters.put(parameter, value);
+                }
+                batch.interactions.add(new Interaction(interactionClass, parameters, receiveTime));
+            }
+        }
+        
+        return batch;
+    }
+    
+    /**
+     * @param names
+     *            The names of the batch
+     * @param id
+     *            The identifier of a name
+     * @return The name
+     * @throws IOException
+     *             If the identifier is not that of a name of the batch
+     */
+    private static String name(final String[] names, final int id) throws IOException
+    {
+        if (id < 0 || id >= names.length)
+        {
+            throw new IOException("Unknown name identifier " + id + " in interaction batch");
+        }
+        return names[id];
+    }
+}
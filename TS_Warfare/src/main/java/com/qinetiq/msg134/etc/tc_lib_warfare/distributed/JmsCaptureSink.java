@@ -0,0 +1,252 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.distributed;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import javax.jms.BytesMessage;
+import javax.jms.Connection;
+import javax.jms.DeliveryMode;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.capture.CaptureSink;
+
+/**
+ * Publishes the captured interactions to a JMS queue in batches, for
+ * {@link ValidationWorker}s on other nodes to validate. The interactions are
+ * partitioned, normally by the IssuingObjectIdentifier of their
+ * EventIdentifier, and the batches of each partition are published as a JMS
+ * message group, so that the broker hands every batch of a partition to the
+ * same worker, in the order published.
+ *
+ * A batch is published when it is full, when a second has passed since the
+ * batches were last published, and when the sink is flushed or closed. Object
+ * callbacks are not published, as the workers only validate interactions.
+ *
+ * The methods of this class are synchronized, so a single sink may be shared by
+ * the threads on which callbacks are delivered.
+ *
+ * @author QinetiQ
+ */
+public class JmsCaptureSink implements CaptureSink
+{
+    /**
+     * The JMS property that names the message group of a batch.
+     */
+    public static final String GROUP_PROPERTY = "JMSXGroupID";
+    
+    /**
+     * The longest time for which captured interactions are held in a batch, in
+     * milliseconds.
+     */
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+    
+    /**
+     * The session on which the batches are published.
+     */
+    private final Session session;
+    
+    /**
+     * Publishes the batches to the queue.
+     */
+    private final MessageProducer producer;
+    
+    /**
+     * The greatest number of interactions in a batch.
+     */
+    private final int batchSize;
+    
+    /**
+     * Gives the key by which an interaction is partitioned from its parameter
+     * values, or null if it has none.
+     */
+    private final Function<Map<String, byte[]>, String> partitionKey;
+    
+    /**
+     * The parameters that are valid when sent empty, sent with every batch.
+     */
+    private final Set<String> validWhenEmpty;
+    
+    /**
+     * The batch being gathered for each partition.
+     */
+    private final InteractionBatch[] batches;
+    
+    /**
+     * The number of interactions captured.
+     */
+    private long captured;
+    
+    /**
+     * The time at which the batches were last published, in milliseconds since
+     * the epoch.
+     */
+    private long lastFlush = System.currentTimeMillis();
+    
+    /**
+     * Constructor
+     *
+     * @param connection
+     *            The connection to the broker, which remains owned by the caller
+     * @param queueName
+     *            The name of the queue to which the batches are published
+     * @param batchSize
+     *            The greatest number of interactions in a batch
+     * @param partitions
+     *            The number of partitions into which the interactions are divided
+     * @param partitionKey
+     *            Gives the key by which an interaction is partitioned from its
+     *            parameter values, or null if it has none
+     * @param validWhenEmpty
+     *            The parameters that are valid when sent empty, each given either
+     *            by its name alone or as the name of its interaction class and
+     *            its own name separated by a full stop
+     * @throws JMSException
+     *             If the session could not be created
+     */
+    public JmsCaptureSink(final Connection connection, final String queueName, final int batchSize,
+            final int partitions, final Function<Map<String, byte[]>, String> partitionKey,
+            final Set<String> validWhenEmpty) throws JMSException
+    {
+        this.session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        this.producer = session.createProducer(session.createQueue(queueName));
+        this.producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+        this.batchSize = Math.max(1, batchSize);
+        this.partitionKey = partitionKey;
+        this.validWhenEmpty = Collections.unmodifiableSet(new LinkedHashSet<>(validWhenEmpty));
+        this.batches = new InteractionBatch[Math.max(1, partitions)];
+        
+        for (int i = 0; i < batches.length; i++)
+        {
+            batches[i] = new InteractionBatch(this.validWhenEmpty);
+        }
+    }
+    
+    @Override
+    public synchronized void interactionReceived(final String interactionClass, final Map<String, byte[]> parameters,
+            final byte[] logicalTime, final long receiveTime) throws IOException
+    {
+        String key = partitionKey.apply(parameters);
+        int partition = key == null ? 0 : Math.floorMod(key.hashCode(), batches.length);
+        
+        batches[partition].add(interactionClass, parameters, receiveTime);
+        captured++;
+        
+        if (batches[partition].size() >= batchSize)
+        {
+            publish(partition);
+        }
+        
+        if (System.currentTimeMillis() - lastFlush >= FLUSH_INTERVAL_MILLIS)
+        {
+            flush();
+        }
+    }
+    
+    @Override
+    public void objectDiscovered(final String objectClass, final String objectName, final long receiveTime)
+    {
+        // The workers only validate interactions
+    }
+    
+    @Override
+    public void attributesReflected(final String objectName, final Map<String, byte[]> attributes,
+            final byte[] logicalTime, final long receiveTime)
+    {
+        // The workers only validate interactions
+    }
+    
+    @Override
+    public void objectRemoved(final String objectName, final byte[] logicalTime, final long receiveTime)
+    {
+        // The workers only validate interactions
+    }
+    
+    @Override
+    public synchronized void flush() throws IOException
+    {
+        for (int partition = 0; partition < batches.length; partition++)
+        {
+            if (batches[partition].size() > 0)
+            {
+                publish(partition);
+            }
+        }
+        lastFlush = System.currentTimeMillis();
+    }
+    
+    @Override
+    public synchronized void close() throws IOException
+    {
+        try
+        {
+            flush();
+        }
+        finally
+        {
+            try
+            {
+                session.close();
+            }
+            catch (JMSException e)
+            {
+                throw new IOException("Unable to close the JMS session", e);
+            }
+        }
+    }
+    
+    /**
+     * @return The number of interactions captured, including those in batches
+     *         not yet published
+     */
+    public synchronized long getInteractionsCaptured()
+    {
+        return captured;
+    }
+    
+    /**
+     * Publishes the batch of a partition and starts a new one.
+     *
+     * @param partition
+     *            The partition
+     * @throws IOException
+     *             If the batch could not be published
+     */
+    private void publish(final int partition) throws IOException
+    {
+        InteractionBatch batch = batches[partition];
+        batches[partition] = new InteractionBatch(validWhenEmpty);
+        
+        try
+        {
+            BytesMessage message = session.createBytesMessage();
+            message.setStringProperty(GROUP_PROPERTY, "partition-" + partition);
+            message.writeBytes(batch.encode());
+            producer.send(message);
+        }
+        catch (JMSException e)
+        {
+            throw new IOException("Unable to publish a batch of interactions", e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.distributed;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import javax.jms.BytesMessage;
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+
+import org.slf4j.Logger;
+
+/**
+ * Adds up the tallies sent back by the {@link ValidationWorker}s, so that the
+ * test case can judge the interactions it has published without validating
+ * them itself.
+ *
+ * @author QinetiQ
+ */
+public class ResultAggregator implements MessageListener, Closeable
+{
+    /**
+     * The logger to use.
+     */
+    private final Logger logger;
+    
+    /**
+     * The session on which the tallies are received.
+     */
+    private final Session session;
+    
+    /**
+     * The sum of the tallies received.
+     */
+    private final ValidationTally total = new ValidationTally();
+    
+    /**
+     * Constructor
+     *
+     * @param connection
+     *            The connection to the broker, which remains owned by the caller
+     * @param resultQueue
+     *            The name of the queue from which the tallies are taken
+     * @param logger
+     *            The logger to use
+     * @throws JMSException
+     *             If the session could not be created
+     */
+    public ResultAggregator(final Connection connection, final String resultQueue, final Logger logger)
+            throws JMSException
+    {
+        this.logger = logger;
+        this.session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        session.createConsumer(session.createQueue(resultQueue)).setMessageListener(this);
+    }
+    
+    @Override
+    public void onMessage(final Message message)
+    {
+        try
+        {
+            if (message instanceof BytesMessage)
+            {
+                BytesMessage bytesMessage = (BytesMessage) message;
+                byte[] body = new byte[(int) bytesMessage.getBodyLength()];
+                bytesMessage.readBytes(body);
+                add(ValidationTally.decode(body));
+            }
+            else
+            {
+                logger.warn("Ignoring a message that is not a validation tally");
+            }
+        }
+        catch (JMSException | IOException e)
+        {
+            logger.error("Unable to read a validation tally", e);
+        }
+    }
+    
+    /**
+     * Adds a tally to the total.
+     *
+     * @param tally
+     *            The tally
+     */
+    public synchronized void add(final ValidationTally tally)
+    {
+        total.add(tally);
+    }
+    
+    /**
+     * @return The number of interactions validated so far
+     */
+    public synchronized long getInteractionsValidated()
+    {
+        return total.getInteractions();
+    }
+    
+    /**
+     * @return A copy of the sum of the tallies received so far
+     */
+    public synchronized ValidationTally getTotal()
+    {
+        ValidationTally copy = new ValidationTally();
+        copy.add(total);
+        return copy;
+    }
+    
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            session.close();
+        }
+        catch (JMSException e)
+        {
+            throw new IOException("Unable to close the JMS session", e);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.distributed;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.jfr.ValidationEvents;
+
+/**
+ * The outcomes of validating interactions, counted by interaction class and
+ * parameter. A {@link ValidationWorker} sends the tally of each batch it
+ * validates, and the {@link ResultAggregator} adds them up, so only the counts
+ * travel back rather than a result per interaction.
+ *
+ * The methods of this class are not synchronized.
+ *
+ * @author QinetiQ
+ */
+public final class ValidationTally
+{
+    /**
+     * The outcome of validating a parameter of an interaction.
+     */
+    public enum Outcome
+    {
+        /**
+         * The parameter was sent and decoded.
+         */
+        VALID,
+        
+        /**
+         * The parameter was sent but could not be decoded.
+         */
+        FAILED,
+        
+        /**
+         * The parameter was not sent.
+         */
+        NOT_SENT;
+        
+        /**
+         * @param outcome
+         *            The outcome of checking a parameter, one of the outcomes of
+         *            {@link ValidationEvents}
+         * @return The outcome counted for it, whereby a parameter for which there
+         *         is no decoder counts as failed
+         */
+        public static Outcome of(final String outcome)
+        {
+            Outcome tallied;
+            
+            if (outcome.equals(ValidationEvents.DECODED) || outcome.equals(ValidationEvents.EMPTY))
+            {
+                tallied = VALID;
+            }
+            else if (outcome.equals(ValidationEvents.FAILED) || outcome.equals(ValidationEvents.NO_DECODER))
+            {
+                tallied = FAILED;
+            }
+            else
+            {
+                tallied = NOT_SENT;
+            }
+            
+            return tallied;
+        }
+    }
+    
+    /**
+     * The version of the encoding of a tally.
+     */
+    public static final int FORMAT_VERSION = 1;
+    
+    /**
+     * The number of interactions validated, by interaction class.
+     */
+    private final Map<String, Long> interactions = new TreeMap<>();
+    
+    /**
+     * The number of each outcome, indexed by its ordinal, by parameter name and
+     * interaction class.
+     */
+    private final Map<String, Map<String, long[]>> outcomes = new TreeMap<>();
+    
+    /**
+     * Counts an interaction as validated.
+     *
+     * @param interactionClass
+     *            The name of the interaction class
+     */
+    public void interactionValidated(final String interactionClass)
+    {
+        interactions.merge(interactionClass, 1L, Long::sum);
+    }
+    
+    /**
+     * Counts the outcome of validating a parameter.
+     *
+     * @param interactionClass
+     *            The name of the interaction class
+     * @param parameter
+     *            The name of the parameter
+     * @param outcome
+     *            The outcome
+     */
+    public void parameterValidated(final String interactionClass, final String parameter, final Outcome outcome)
+    {
+        counts(interactionClass, parameter)[outcome.ordinal()]++;
+    }
+    
+    /**
+     * Adds the counts of another tally to this one.
+     *
+     * @param other
+     *            The other tally
+     */
+    public void add(final ValidationTally other)
+    {
+        other.interactions.forEach((interactionClass, count) -> interactions.merge(interactionClass, count,
+                Long::sum));
+        other.outcomes.forEach((interactionClass, parameters) -> parameters.forEach((parameter, counts) ->
+        {
+            long[] total = counts(interactionClass, parameter);
+            for (int i = 0; i < total.length; i++)
+            {
+                total[i] += counts[i];
+            }
+        }));
+    }
+    
+    /**
+     * @return The total number of interactions validated
+     */
+    public long getInteractions()
+    {
+        return interactions.values().stream().mapToLong(Long::longValue).sum();
+    }
+    
+    /**
+     * @param interactionClass
+     *            The name of an interaction class
+     * @return The number of interactions of the class validated
+     */
+    public long getInteractions(final String interactionClass)
+    {
+        return interactions.getOrDefault(interactionClass, 0L);
+    }
+    
+    /**
+     * @return The names of the interaction classes of which parameters have been
+     *         validated
+     */
+    public Set<String> getInteractionClasses()
+    {
+        return Collections.unmodifiableSet(outcomes.keySet());
+    }
+    
+    /**
+     * @param interactionClass
+     *            The name of an interaction class
+     * @return The names of the parameters of the class that have been validated
+     */
+    public Set<String> getParameters(final String interactionClass)
+    {
+        Map<String, long[]> parameters = outcomes.get(interactionClass);
+        return parameters == null ? Collections.<String> emptySet() : Collections.unmodifiableSet(parameters.keySet());
+    }
+    
+    /**
+     * @param interactionClass
+     *            The name of an interaction class
+     * @param parameter
+     *            The name of a parameter
+     * @param outcome
+     *            An outcome
+     * @return The number of times the parameter had the outcome
+     */
+    public long getCount(final String interactionClass, final String parameter, final Outcome outcome)
+    {
+        Map<String, long[]> parameters = outcomes.get(interactionClass);
+        long[] counts = parameters == null ? null : parameters.get(parameter);
+        return counts == null ? 0 : counts[outcome.ordinal()];
+    }
+    
+    /**
+     * @return The encoded tally
+     * @throws IOException
+     *             If the tally could not be encoded
+     */
+    public byte[] encode() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes))
+        {
+            out.writeInt(FORMAT_VERSION);
+            
+            out.writeInt(interactions.size());
+            for (Map.Entry<String, Long> e : interactions.entrySet())
+            {
+                out.writeUTF(e.getKey());
+                out.writeLong(e.getValue());
+            }
+            
+            out.writeInt(outcomes.size());
+            for (Map.Entry<String, Map<String, long[]>> e : outcomes.entrySet())
+            {
+                out.writeUTF(e.getKey());
+                out.writeInt(e.getValue().size());
+                for (Map.Entry<String, long[]> p : e.getValue().entrySet())
+                {
+                    out.writeUTF(p.getKey());
+                    for (long count : p.getValue())
+                    {
+                        out.writeLong(count);
+                    }
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * Decodes a tally encoded by {@link #encode()}.
+     *
+     * @param encoded
+     *            The encoded tally
+     * @return The tally
+     * @throws IOException
+     *             If the tally is not of a version that is understood, or is cut
+     *             short
+     */
+    public static ValidationTally decode(final byte[] encoded) throws IOException
+    {
+        ValidationTally tally = new ValidationTally();
+        
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded)))
+        {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION)
+            {
+                throw new IOException("Unsupported validation tally version " + version);
+            }
+            
+            int classCount = in.readInt();
+            for (int i = 0; i < classCount; i++)
+            {
+                tally.interactions.put(in.readUTF(), in.readLong());
+            }
+            
+            classCount = in.readInt();
+            for (int i = 0; i < classCount; i++)
+            {
+                String interactionClass = in.readUTF();
+                int parameterCount = in.readInt();
+                for (int p = 0; p < parameterCount; p++)
+                {
+                    long[] counts = tally.counts(interactionClass, in.readUTF());
+                    for (int o = 0; o < counts.length; o++)
+                    {
+                        counts[o] = in.readLong();
+                    }
+                }
+            }
+        }
+        
+        return tally;
+    }
+    
+    /**
+     * @param interactionClass
+     *            The name of an interaction class
+     * @param parameter
+     *            The name of a parameter
+     * @return The counts of the outcomes of the parameter, created if need be
+     */
+    private long[] counts(final String interactionClass, final String parameter)
+    {
+        return outcomes.computeIfAbsent(interactionClass, name -> new TreeMap<>()).computeIfAbsent(parameter,
+                name -> new long[Outcome.values().length]);
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.distributed;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.jms.BytesMessage;
+import javax.jms.Connection;
+import javax.jms.DeliveryMode;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+
+import org.slf4j.Logger;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.DecoderGenerator;
+import com.qinetiq.msg134.etc.tc_lib_warfare.conformance.ConformanceEngine;
+import com.qinetiq.msg134.etc.tc_lib_warfare.conformance.ConformanceValidator;
+import com.qinetiq.msg134.etc.tc_lib_warfare.conformance.InteractionPlan;
+import com.qinetiq.msg134.etc.tc_lib_warfare.distributed.ValidationTally.Outcome;
+import com.qinetiq.msg134.etc.tc_lib_warfare.jfr.ValidationEvents;
+
+/**
+ * Validates the batches of interactions published by a {@link JmsCaptureSink},
+ * and sends the tally of each batch back to the {@link ResultAggregator}. The
+ * interactions are validated by a {@link ConformanceValidator}, compiled by
+ * name from the FOM, just as the test case validates them itself: every
+ * parameter that the FOM defines for an interaction is checked to have been
+ * sent, and decoded as the FOM defines it, while a parameter that the FOM does
+ * not define is not checked. An empty value that does not decode is valid
+ * where the batch names the parameter as valid when empty. Whether a parameter
+ * that was not sent is optional is judged by the test case from the tally.
+ *
+ * A worker keeps no state between batches other than its validator, which is
+ * compiled again when a batch has an interaction class not seen before or
+ * names other parameters as valid when empty, so any number of workers, in any
+ * number of JVMs, may take batches from the same queue. Each worker has a JMS
+ * session of its own, on whose thread the batches are validated one at a time.
+ *
+ * @author QinetiQ
+ */
+public class ValidationWorker implements MessageListener, Closeable
+{
+    /**
+     * Generates the decoders and parameter lists from the FOM.
+     */
+    private final DecoderGenerator decoderGenerator;
+    
+    /**
+     * The logger to use.
+     */
+    private final Logger logger;
+    
+    /**
+     * The session on which batches are received and tallies sent.
+     */
+    private final Session session;
+    
+    /**
+     * Sends the tallies to the result queue.
+     */
+    private final MessageProducer results;
+    
+    /**
+     * The interaction classes of the batches validated so far, which the
+     * validator has plans for.
+     */
+    private final Set<String> interactionClasses = new LinkedHashSet<>();
+    
+    /**
+     * The parameters valid when empty for which the validator was compiled.
+     */
+    private Set<String> validWhenEmpty = new HashSet<>();
+    
+    /**
+     * Validates the interactions, or null until the first batch.
+     */
+    private ConformanceValidator validator;
+    
+    /**
+     * Constructor
+     *
+     * @param connection
+     *            The connection to the broker, which remains owned by the caller
+     * @param batchQueue
+     *            The name of the queue from which the batches are taken
+     * @param resultQueue
+     *            The name of the queue to which the tallies are sent
+     * @param decoderGenerator
+     *            Generates the decoders and parameter lists from the FOM
+     * @param logger
+     *            The logger to use
+     * @throws JMSException
+     *             If the session could not be created
+     */
+    public ValidationWorker(final Connection connection, final String batchQueue, final String resultQueue,
+            final DecoderGenerator decoderGenerator, final Logger logger) throws JMSException
+    {
+        this.decoderGenerator = decoderGenerator;
+        this.logger = logger;
+        this.session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        this.results = session.createProducer(session.createQueue(resultQueue));
+        this.results.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+        session.createConsumer(session.createQueue(batchQueue)).setMessageListener(this);
+    }
+    
+    @Override
+    public void onMessage(final Message message)
+    {
+        try
+        {
+            if (message instanceof BytesMessage)
+            {
+                BytesMessage bytesMessage = (BytesMessage) message;
+                byte[] body = new byte[(int) bytesMessage.getBodyLength()];
+                bytesMessage.readBytes(body);
+                
+                ValidationTally tally = validate(InteractionBatch.decode(body));
+                
+                BytesMessage reply = session.createBytesMessage();
+                reply.writeBytes(tally.encode());
+                results.send(reply);
+            }
+            else
+            {
+                logger.warn("Ignoring a message that is not a batch of interactions");
+            }
+        }
+        catch (JMSException | IOException e)
+        {
+            logger.error("Unable to validate a batch of interactions", e);
+        }
+    }
+    
+    /**
+     * Validates a batch of interactions.
+     *
+     * @param batch
+     *            The batch
+     * @return The tally of the outcomes
+     */
+    public ValidationTally validate(final InteractionBatch batch)
+    {
+        prepareValidator(batch);
+        
+        ValidationTally tally = new ValidationTally();
+        
+        for (InteractionBatch.Interaction interaction : batch.getInteractions())
+        {
+            final String interactionClass = interaction.getInteractionClass();
+            InteractionPlan plan = validator.getPlan(interactionClass);
+            
+            validator.validateByName(plan, interaction.getParameters(),
+                    (validated, parameter, decoder, encoded, outcome, reason, decodeStart) ->
+                    {
+                        final String name = validated.getParameterName(parameter);
+                        
+                        if (logger.isDebugEnabled())
+                        {
+                            if (outcome.equals(ValidationEvents.NO_DECODER))
+                            {
+                                logger.debug(String.join(" ", "Cannot find decoder for", interactionClass, "param",
+                                        name));
+                            }
+                            else if (outcome.equals(ValidationEvents.FAILED))
+                            {
+                                logger.debug(String.join(" ", "Failed to decode", interactionClass, "param", name,
+                                        "Reason:", reason));
+                            }
+                        }
+                        
+                        tally.parameterValidated(interactionClass, name, Outcome.of(outcome));
+                    });
+            
+            tally.interactionValidated(interactionClass);
+        }
+        
+        return tally;
+    }
+    
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            session.close();
+        }
+        catch (JMSException e)
+        {
+            throw new IOException("Unable to close the JMS session", e);
+        }
+    }
+    
+    /**
+     * Compiles the validator again if the batch has an interaction class not seen
+     * before, or names other parameters as valid when empty, so that every
+     * interaction of the batch has a plan.
+     *
+     * @param batch
+     *            The batch about to be validated
+     */
+    private void prepareValidator(final InteractionBatch batch)
+    {
+        boolean changed = validator == null || !validWhenEmpty.equals(batch.getValidWhenEmpty());
+        
+        for (InteractionBatch.Interaction interaction : batch.getInteractions())
+        {
+            changed |= interactionClasses.add(interaction.getInteractionClass());
+        }
+        
+        if (changed)
+        {
+            validWhenEmpty = new HashSet<>(batch.getValidWhenEmpty());
+            validator = ConformanceEngine.compileByName(interactionClasses, decoderGenerator,
+                    (interactionClass, parameter) -> false, batch::isValidWhenEmpty).newValidator(decoderGenerator);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Contains the distribution of the validation of captured interactions to
+ * workers on other nodes, over a JMS broker.
+ * @author QinetiQ
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.distributed;
\ No newline at end of file
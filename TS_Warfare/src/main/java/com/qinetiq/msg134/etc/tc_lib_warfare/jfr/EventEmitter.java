@@ -0,0 +1,59 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.jfr;
+
+/**
+ * Creates and commits the flight recorder events on behalf of
+ * {@link ValidationEvents}. It is implemented in the jfr source set, which is
+ * compiled against the flight recorder API, and loaded by reflection so that
+ * the rest of the test case neither needs the API to build nor to run.
+ *
+ * @author QinetiQ
+ */
+interface EventEmitter
+{
+    /**
+     * Starts following the state of the recordings, reporting to
+     * {@link ValidationEvents} whether any is running.
+     */
+    void followRecordings();
+    
+    /**
+     * @see ValidationEvents#interactionReceived(String, java.util.Map)
+     */
+    void interactionReceived(String interactionClass, int parameterCount, int byteLength);
+    
+    /**
+     * @see ValidationEvents#parameterDecoded(String, String, String, Object, byte[], String, long)
+     */
+    void parameterDecoded(String interactionClass, String issuingObjectIdentifier, String parameter,
+            String dataType, int byteLength, String outcome, long decodeTime);
+    
+    /**
+     * @see ValidationEvents#decoderLookup(String, String, String, boolean, long)
+     */
+    void decoderLookup(String className, String member, String dataType, boolean found, long lookupTime);
+    
+    /**
+     * @see ValidationEvents#attributesReflected(String, String, java.util.Map)
+     */
+    void attributesReflected(String objectClass, String objectName, int attributeCount, int byteLength);
+    
+    /**
+     * @see ValidationEvents#pairMatch(String, boolean, long)
+     */
+    void pairMatch(String issuingObjectIdentifier, boolean matched, long flightTime);
+}
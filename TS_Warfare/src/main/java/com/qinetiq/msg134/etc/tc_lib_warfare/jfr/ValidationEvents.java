@@ -0,0 +1,281 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.jfr;
+
+import java.util.Map;
+
+/**
+ * Emits JDK Flight Recorder events at the hot points of the validation
+ * pipeline, so that its behaviour can be examined in Java Mission Control
+ * alongside garbage collection and the activity of the RTI threads.
+ *
+ * The events are created by an {@link EventEmitter} that is compiled separately,
+ * in the jfr source set, against the flight recorder API. It is only loaded, by
+ * reflection, once the API has been found to be present, so the test case
+ * builds and runs without the API, in which case no events are emitted. Whilst
+ * no recording is running, each method returns after reading a single flag, and
+ * no event is created and no value is measured.
+ *
+ * @author QinetiQ
+ */
+public final class ValidationEvents
+{
+    /**
+     * The outcome of a parameter that decoded successfully.
+     */
+    public static final String DECODED = "Decoded";
+    
+    /**
+     * The outcome of a parameter that was empty, which was accepted.
+     */
+    public static final String EMPTY = "Empty";
+    
+    /**
+     * The outcome of a parameter that failed to decode.
+     */
+    public static final String FAILED = "Failed";
+    
+    /**
+     * The outcome of a parameter for which no decoder could be found.
+     */
+    public static final String NO_DECODER = "No decoder";
+    
+    /**
+     * The outcome of a mandatory parameter that was not sent, for which no event is
+     * emitted.
+     */
+    public static final String NOT_SENT = "Not sent";
+    
+    /**
+     * The outcome of an optional parameter that was not sent, for which no event
+     * is emitted.
+     */
+    public static final String OPTIONAL_NOT_SENT = "Optional not sent";
+    
+    /**
+     * The name of the class, in the jfr source set, that emits the events.
+     */
+    private static final String EMITTER_CLASS = "com.qinetiq.msg134.etc.tc_lib_warfare.jfr.FlightRecorderSupport";
+    
+    /**
+     * True if any flight recording is running.
+     */
+    private static volatile boolean recording;
+    
+    /**
+     * Emits the events, or null if the flight recorder is not available.
+     */
+    private static final EventEmitter EMITTER = loadEmitter();
+    
+    /**
+     * Not instantiated.
+     */
+    private ValidationEvents()
+    {
+    }
+    
+    /**
+     * Loads the event emitter and has it follow the state of the recordings.
+     *
+     * @return The event emitter, or null if the flight recorder API or the jfr
+     *         classes are not present, or the flight recorder is not supported by
+     *         this JVM
+     */
+    private static EventEmitter loadEmitter()
+    {
+        EventEmitter emitter;
+        try
+        {
+            Class.forName("jdk.jfr.FlightRecorder");
+            emitter = Class.forName(EMITTER_CLASS).asSubclass(EventEmitter.class).getDeclaredConstructor()
+                    .newInstance();
+            emitter.followRecordings();
+        }
+        catch (ReflectiveOperationException | LinkageError | RuntimeException e)
+        {
+            emitter = null;
+        }
+        return emitter;
+    }
+    
+    /**
+     * @return True if any flight recording is running, in which case events are
+     *         emitted
+     */
+    public static boolean isRecording()
+    {
+        return recording;
+    }
+    
+    /**
+     * Marks the start of a step whose duration is recorded in an event.
+     *
+     * @return The value of {@link System#nanoTime()}, or zero if no recording is
+     *         running
+     */
+    public static long start()
+    {
+        return recording ? System.nanoTime() : 0;
+    }
+    
+    /**
+     * Emits an event for a tracked interaction received from the RTI.
+     *
+     * @param interactionClass
+     *            The name of the interaction class
+     * @param parameters
+     *            The encoded parameters
+     */
+    public static void interactionReceived(final String interactionClass, final Map<?, byte[]> parameters)
+    {
+        if (recording)
+        {
+            EMITTER.interactionReceived(interactionClass, parameters.size(), byteLength(parameters));
+        }
+    }
+    
+    /**
+     * Emits an event for the decoding of a parameter.
+     *
+     * @param interactionClass
+     *            The name of the interaction class
+     * @param issuingObjectIdentifier
+     *            The IssuingObjectIdentifier of the interaction
+     * @param parameter
+     *            The name of the parameter
+     * @param decoder
+     *            The data element with which the parameter was decoded, or null
+     *            if there was none
+     * @param encoded
+     *            The encoded parameter
+     * @param outcome
+     *            The outcome of the decoding
+     * @param startTime
+     *            The value returned by {@link #start()} when decoding started
+     */
+    public static void parameterDecoded(final String interactionClass, final String issuingObjectIdentifier,
+            final String parameter, final Object decoder, final byte[] encoded, final String outcome,
+            final long startTime)
+    {
+        if (recording)
+        {
+            EMITTER.parameterDecoded(interactionClass, issuingObjectIdentifier, parameter,
+                    decoder == null ? null : decoder.getClass().getSimpleName(), encoded.length, outcome,
+                    elapsed(startTime));
+        }
+    }
+    
+    /**
+     * Emits an event for the generation of a decoder from the FOM.
+     *
+     * @param className
+     *            The name of the interaction or object class
+     * @param member
+     *            The name of the parameter or attribute
+     * @param dataType
+     *            The name of the data type of the parameter or attribute, or null
+     *            if it was not found
+     * @param found
+     *            True if a decoder was generated
+     * @param startTime
+     *            The value returned by {@link #start()} when the lookup started
+     */
+    public static void decoderLookup(final String className, final String member, final String dataType,
+            final boolean found, final long startTime)
+    {
+        if (recording)
+        {
+            EMITTER.decoderLookup(className, member, dataType, found, elapsed(startTime));
+        }
+    }
+    
+    /**
+     * Emits an event for attribute values reflected by the RTI.
+     *
+     * @param objectClass
+     *            The name of the object class
+     * @param objectName
+     *            The name of the object instance
+     * @param attributes
+     *            The encoded attributes
+     */
+    public static void attributesReflected(final String objectClass, final String objectName,
+            final Map<?, byte[]> attributes)
+    {
+        if (recording)
+        {
+            EMITTER.attributesReflected(objectClass, objectName, attributes.size(),
+                    byteLength(attributes));
+        }
+    }
+    
+    /**
+     * Emits an event for the search for the WeaponFire that preceded a
+     * MunitionDetonation.
+     *
+     * @param issuingObjectIdentifier
+     *            The IssuingObjectIdentifier of the MunitionDetonation
+     * @param matched
+     *            True if a matching WeaponFire was found
+     * @param flightTimeMillis
+     *            The time between the receipt of the two interactions in
+     *            milliseconds, if they were matched
+     */
+    public static void pairMatch(final String issuingObjectIdentifier, final boolean matched,
+            final long flightTimeMillis)
+    {
+        if (recording)
+        {
+            EMITTER.pairMatch(issuingObjectIdentifier, matched, flightTimeMillis);
+        }
+    }
+    
+    /**
+     * Records whether any flight recording is running.
+     *
+     * @param running
+     *            True if a recording is running
+     */
+    static void setRecording(final boolean running)
+    {
+        recording = running;
+    }
+    
+    /**
+     * @param startTime
+     *            The value returned by {@link #start()}
+     * @return The time since the start, or zero if the start was not measured
+     */
+    private static long elapsed(final long startTime)
+    {
+        return startTime == 0 ? 0 : System.nanoTime() - startTime;
+    }
+    
+    /**
+     * @param values
+     *            Encoded values
+     * @return The total length of the values
+     */
+    private static int byteLength(final Map<?, byte[]> values)
+    {
+        int length = 0;
+        for (byte[] value : values.values())
+        {
+            length += value == null ? 0 : value.length;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * Contains the JDK Flight Recorder events emitted at the hot points of the
+ * validation pipeline. The events, and the class that emits them, are in the
+ * jfr source set, so that only they depend on the flight recorder API.
+ * @author QinetiQ
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.jfr;
\ No newline at end of file
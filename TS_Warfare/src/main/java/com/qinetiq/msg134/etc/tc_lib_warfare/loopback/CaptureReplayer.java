@@ -0,0 +1,239 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.loopback;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.capture.CaptureSink;
+
+import hla.rti1516e.ObjectInstanceHandle;
+import hla.rti1516e.exceptions.FederateInternalError;
+
+/**
+ * Replays captured callbacks into a {@link LoopbackFederation}, so that they
+ * are received again by the federate ambassador connected to it. Captured
+ * objects are registered, updated and deleted under their captured names, and
+ * captured interactions are sent, each as soon as it is passed on rather than
+ * at the pace at which it was captured. Captured objects whose names are
+ * already in use, such as the MOM object of the federate ambassador itself, are
+ * left to the federation rather than replayed.
+ *
+ * The receive time of the callback being replayed is made available through
+ * {@link #getReplayTime()}, so that the federate ambassador can be given the
+ * captured times rather than those of the replay.
+ *
+ * @author QinetiQ
+ */
+public class CaptureReplayer implements CaptureSink
+{
+    /**
+     * The federation into which callbacks are replayed.
+     */
+    private final LoopbackFederation federation;
+    
+    /**
+     * The object classes whose objects are not replayed.
+     */
+    private final Set<String> ignoredObjectClasses = new HashSet<>();
+    
+    /**
+     * The names of the captured objects that are not being replayed.
+     */
+    private final Set<String> ignoredObjects = new HashSet<>();
+    
+    /**
+     * The objects registered in the federation, keyed by captured name.
+     */
+    private final Map<String, ObjectInstanceHandle> objects = new HashMap<>();
+    
+    /**
+     * The receive time of the callback being replayed, in milliseconds since the
+     * epoch.
+     */
+    private volatile long replayTime;
+    
+    /**
+     * The number of interactions replayed.
+     */
+    private long interactionsReplayed;
+    
+    /**
+     * The number of interactions replayed that the federate ambassador had not
+     * subscribed to.
+     */
+    private long interactionsDropped;
+    
+    /**
+     * Constructor
+     *
+     * @param federation
+     *            The federation into which to replay callbacks
+     */
+    public CaptureReplayer(final LoopbackFederation federation)
+    {
+        this.federation = federation;
+    }
+    
+    /**
+     * Stops objects of a class from being replayed, for example because the
+     * federation already simulates them.
+     *
+     * @param className
+     *            The name of the object class, as captured
+     */
+    public void ignoreObjectClass(final String className)
+    {
+        ignoredObjectClasses.add(className);
+    }
+    
+    /**
+     * @return The receive time of the callback being replayed, or of the last
+     *         callback replayed, in milliseconds since the epoch
+     */
+    public long getReplayTime()
+    {
+        return replayTime;
+    }
+    
+    /**
+     * @return The number of interactions replayed
+     */
+    public long getInteractionsReplayed()
+    {
+        return interactionsReplayed;
+    }
+    
+    /**
+     * @return The number of interactions replayed that were not delivered
+     *         because the federate ambassador had not subscribed to them
+     */
+    public long getInteractionsDropped()
+    {
+        return interactionsDropped;
+    }
+    
+    @Override
+    public void interactionReceived(final String interactionClass, final Map<String, byte[]> parameters,
+            final byte[] logicalTime, final long receiveTime) throws IOException
+    {
+        replayTime = receiveTime;
+        
+        try
+        {
+            if (!federation.sendInteraction(interactionClass, parameters))
+            {
+                interactionsDropped++;
+            }
+            interactionsReplayed++;
+        }
+        catch (FederateInternalError e)
+        {
+            throw new IOException(String.join(" ", "Unable to replay interaction", interactionClass), e);
+        }
+    }
+    
+    @Override
+    public void objectDiscovered(final String objectClass, final String objectName, final long receiveTime)
+            throws IOException
+    {
+        replayTime = receiveTime;
+        
+        if (ignoredObjectClasses.contains(objectClass))
+        {
+            ignoredObjects.add(objectName);
+        }
+        else
+        {
+            try
+            {
+                objects.put(objectName, federation.registerObjectInstance(objectClass, objectName));
+            }
+            catch (IllegalArgumentException e)
+            {
+                // The name is already in use by an object that the federation simulates
+                ignoredObjects.add(objectName);
+            }
+            catch (FederateInternalError e)
+            {
+                throw new IOException(String.join(" ", "Unable to replay discovery of", objectName), e);
+            }
+        }
+    }
+    
+    @Override
+    public void attributesReflected(final String objectName, final Map<String, byte[]> attributes,
+            final byte[] logicalTime, final long receiveTime) throws IOException
+    {
+        replayTime = receiveTime;
+        ObjectInstanceHandle handle = objects.get(objectName);
+        
+        if (handle != null)
+        {
+            try
+            {
+                federation.updateAttributeValues(handle, attributes);
+            }
+            catch (FederateInternalError e)
+            {
+                throw new IOException(String.join(" ", "Unable to replay reflection of", objectName), e);
+            }
+        }
+        else if (!ignoredObjects.contains(objectName))
+        {
+            throw new IOException(String.join(" ", "Attributes of", objectName, "captured before its discovery"));
+        }
+    }
+    
+    @Override
+    public void objectRemoved(final String objectName, final byte[] logicalTime, final long receiveTime)
+            throws IOException
+    {
+        replayTime = receiveTime;
+        ObjectInstanceHandle handle = objects.remove(objectName);
+        
+        if (handle != null)
+        {
+            try
+            {
+                federation.deleteObjectInstance(handle);
+            }
+            catch (FederateInternalError e)
+            {
+                throw new IOException(String.join(" ", "Unable to replay removal of", objectName), e);
+            }
+        }
+        else
+        {
+            ignoredObjects.remove(objectName);
+        }
+    }
+    
+    @Override
+    public void flush()
+    {
+        // Callbacks are replayed as soon as they are passed on
+    }
+    
+    @Override
+    public void close()
+    {
+        // The federation is not owned by the replayer
+    }
+}
@@ -0,0 +1,817 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.loopback;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.decode.RTIobjectIdDecoder;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.DetonationResultCode;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.EntityTypeStruct.EntityKind;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.EntityTypeStruct.MunitionDomain;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.FuseType;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.WarheadType;
+
+import hla.rti1516e.InteractionClassHandle;
+import hla.rti1516e.ObjectInstanceHandle;
+import hla.rti1516e.ParameterHandle;
+import hla.rti1516e.ParameterHandleValueMap;
+import hla.rti1516e.encoding.EncoderException;
+import hla.rti1516e.encoding.EncoderFactory;
+import hla.rti1516e.encoding.HLAfixedRecord;
+import hla.rti1516e.encoding.HLAfloat32BE;
+import hla.rti1516e.encoding.HLAfloat64BE;
+import hla.rti1516e.encoding.HLAinteger16BE;
+import hla.rti1516e.encoding.HLAoctet;
+import hla.rti1516e.exceptions.FederateInternalError;
+
+/**
+ * A synthetic SuT that fires munitions into a {@link LoopbackFederation}. Each
+ * engagement registers a Munition object, sends a WeaponFire interaction and,
+ * after the configured flight time, deletes the object and sends the matching
+ * MunitionDetonation interaction. Every parameter is encoded as defined by the
+ * RPR FOM.
+ *
+ * Engagements are started in bursts, paced so that the average rate is held
+ * even when the generator falls behind. A configurable proportion of the
+ * interactions have a fault injected, either by leaving out a parameter or by
+ * truncating its encoding, so that failures are exercised as well as the normal
+ * path. The EventIdentifier parameter is never corrupted, so that the two
+ * interactions of an engagement can still be paired.
+ *
+ * @author QinetiQ
+ */
+public class LoadGenerator implements Runnable
+{
+    /**
+     * The interaction sent when a munition is fired.
+     */
+    public static final String WEAPON_FIRE = "WeaponFire";
+    
+    /**
+     * The interaction sent when a munition detonates.
+     */
+    public static final String MUNITION_DETONATION = "MunitionDetonation";
+    
+    /**
+     * The object class of the munitions.
+     */
+    public static final String MUNITION_OBJECT_CLASS = "BaseEntity.PhysicalEntity.Munition";
+    
+    /**
+     * The parameter used to pair the two interactions of an engagement, which is
+     * never corrupted.
+     */
+    private static final String EVENT_IDENTIFIER = "EventIdentifier";
+    
+    /**
+     * The number of distinct targets fired at.
+     */
+    private static final int TARGET_COUNT = 16;
+    
+    /**
+     * The state of an engagement between its WeaponFire and MunitionDetonation.
+     */
+    private static final class Engagement
+    {
+        /**
+         * The event count of the engagement's EventIdentifier.
+         */
+        private final short eventCount;
+        
+        /**
+         * The name of the munition object.
+         */
+        private final String munitionName;
+        
+        /**
+         * The name of the target.
+         */
+        private final String targetName;
+        
+        /**
+         * The handle of the munition object, or null if it was not registered.
+         */
+        private final ObjectInstanceHandle munition;
+        
+        /**
+         * The value of System.nanoTime at which the munition detonates.
+         */
+        private final long detonationTime;
+        
+        /**
+         * The Domain of the MunitionType.
+         */
+        private final byte domain;
+        
+        /**
+         * The value of the FuseType parameter.
+         */
+        private final short fuseType;
+        
+        /**
+         * The value of the WarheadType parameter.
+         */
+        private final short warheadType;
+        
+        /**
+         * The value of the QuantityFired parameter.
+         */
+        private final short quantityFired;
+        
+        /**
+         * The value of the RateOfFire parameter.
+         */
+        private final short rateOfFire;
+        
+        /**
+         * Constructor
+         *
+         * @param eventCount
+         *            The event count of the engagement's EventIdentifier
+         * @param munitionName
+         *            The name of the munition object
+         * @param targetName
+         *            The name of the target
+         * @param munition
+         *            The handle of the munition object, or null
+         * @param detonationTime
+         *            The value of System.nanoTime at which the munition detonates
+         * @param random
+         *            The source of the remaining values
+         */
+        Engagement(final short eventCount, final String munitionName, final String targetName,
+                final ObjectInstanceHandle munition, final long detonationTime, final Random random)
+        {
+            this.eventCount = eventCount;
+            this.munitionName = munitionName;
+            this.targetName = targetName;
+            this.munition = munition;
+            this.detonationTime = detonationTime;
+            this.domain = (byte) (1 + random.nextInt(MunitionDomain.values().length - 1));
+            this.fuseType = FuseType.values()[random.nextInt(FuseType.values().length)].val();
+            this.warheadType = WarheadType.values()[random.nextInt(WarheadType.values().length)].val();
+            this.quantityFired = (short) (1 + random.nextInt(4));
+            this.rateOfFire = (short) random.nextInt(600);
+        }
+    }
+    
+    /**
+     * The federation into which the munitions are fired.
+     */
+    private final LoopbackFederation federation;
+    
+    /**
+     * The name of the firing entity, which also names the munitions and issues the
+     * event identifiers.
+     */
+    private final String shooterName;
+    
+    /**
+     * The logger to use.
+     */
+    private final Logger logger;
+    
+    /**
+     * The engagements in flight, in order of detonation.
+     */
+    private final Queue<Engagement> inFlight = new ArrayDeque<>();
+    
+    /**
+     * The encoder factory of the federation.
+     */
+    private final EncoderFactory encoderFactory;
+    
+    /**
+     * Encodes the object identifiers.
+     */
+    private final RTIobjectIdDecoder objectId = new RTIobjectIdDecoder();
+    
+    /**
+     * The EventCount field of the EventIdentifier.
+     */
+    private final HLAinteger16BE eventCount;
+    
+    /**
+     * Encodes the EventIdentifier.
+     */
+    private final HLAfixedRecord eventIdentifier;
+    
+    /**
+     * The X, Y and Z fields of a WorldLocationStruct.
+     */
+    private final HLAfloat64BE[] worldLocation = new HLAfloat64BE[3];
+    
+    /**
+     * Encodes the world locations.
+     */
+    private final HLAfixedRecord worldLocationRecord;
+    
+    /**
+     * The X, Y and Z fields of a VelocityVectorStruct or RelativePositionStruct.
+     */
+    private final HLAfloat32BE[] vector = new HLAfloat32BE[3];
+    
+    /**
+     * Encodes the velocities and relative positions.
+     */
+    private final HLAfixedRecord vectorRecord;
+    
+    /**
+     * The Domain field of the EntityTypeStruct.
+     */
+    private final HLAoctet domain;
+    
+    /**
+     * Encodes the MunitionType parameter and EntityType attribute.
+     */
+    private final HLAfixedRecord entityType;
+    
+    /**
+     * The handle of the WeaponFire interaction class.
+     */
+    private final InteractionClassHandle weaponFireClass;
+    
+    /**
+     * The handle of the MunitionDetonation interaction class.
+     */
+    private final InteractionClassHandle munitionDetonationClass;
+    
+    /**
+     * The WeaponFire parameter handles resolved so far, keyed by name.
+     */
+    private final Map<String, ParameterHandle> weaponFireParameters = new HashMap<>();
+    
+    /**
+     * The MunitionDetonation parameter handles resolved so far, keyed by name.
+     */
+    private final Map<String, ParameterHandle> munitionDetonationParameters = new HashMap<>();
+    
+    /**
+     * The number of engagements started per second, or zero or less to start
+     * them as quickly as possible.
+     */
+    private double rate = 100;
+    
+    /**
+     * The number of engagements started together.
+     */
+    private int burstSize = 1;
+    
+    /**
+     * The proportion of interactions, between zero and one, into which a fault is
+     * injected.
+     */
+    private double errorRatio;
+    
+    /**
+     * The number of engagements to run, or less than zero to run until stopped.
+     */
+    private long engagementLimit = -1;
+    
+    /**
+     * The time between a WeaponFire and its MunitionDetonation, in nanoseconds.
+     */
+    private long flightTime;
+    
+    /**
+     * Whether a Munition object is registered for each engagement.
+     */
+    private boolean munitionLifecycle = true;
+    
+    /**
+     * The source of the values sent and of the faults injected.
+     */
+    private Random random = new Random(0);
+    
+    /**
+     * Set when the generator is asked to stop.
+     */
+    private volatile boolean stopped;
+    
+    /**
+     * The number of engagements started.
+     */
+    private final AtomicLong engagementsStarted = new AtomicLong();
+    
+    /**
+     * The number of interactions delivered to the federate ambassador.
+     */
+    private final AtomicLong interactionsDelivered = new AtomicLong();
+    
+    /**
+     * The number of interactions sent that no federate ambassador had subscribed
+     * to.
+     */
+    private final AtomicLong interactionsDropped = new AtomicLong();
+    
+    /**
+     * The number of interactions into which a fault was injected.
+     */
+    private final AtomicLong errorsInjected = new AtomicLong();
+    
+    /**
+     * Constructor
+     *
+     * @param federation
+     *            The federation into which the munitions are fired
+     * @param shooterName
+     *            The name of the firing entity
+     * @param logger
+     *            The logger to use
+     */
+    public LoadGenerator(final LoopbackFederation federation, final String shooterName, final Logger logger)
+    {
+        this.federation = federation;
+        this.shooterName = shooterName;
+        this.logger = logger;
+        this.encoderFactory = federation.getEncoderFactory();
+        
+        eventCount = encoderFactory.createHLAinteger16BE();
+        eventIdentifier = encoderFactory.createHLAfixedRecord();
+        eventIdentifier.add(eventCount);
+        eventIdentifier.add(objectId);
+        
+        worldLocationRecord = encoderFactory.createHLAfixedRecord();
+        for (int i = 0; i < worldLocation.length; i++)
+        {
+            worldLocation[i] = encoderFactory.createHLAfloat64BE();
+            worldLocationRecord.add(worldLocation[i]);
+        }
+        
+        vectorRecord = encoderFactory.createHLAfixedRecord();
+        for (int i = 0; i < vector.length; i++)
+        {
+            vector[i] = encoderFactory.createHLAfloat32BE();
+            vectorRecord.add(vector[i]);
+        }
+        
+        // EntityTypeStruct: EntityKind, Domain, CountryCode, Category, Subcategory,
+        // Specific, Extra
+        domain = encoderFactory.createHLAoctet();
+        entityType = encoderFactory.createHLAfixedRecord();
+        entityType.add(encoderFactory.createHLAoctet((byte) EntityKind.MUNITION.ordinal()));
+        entityType.add(domain);
+        entityType.add(encoderFactory.createHLAinteger16BE((short) 225));
+        entityType.add(encoderFactory.createHLAoctet((byte) 2));
+        entityType.add(encoderFactory.createHLAoctet((byte) 1));
+        entityType.add(encoderFactory.createHLAoctet((byte) 0));
+        entityType.add(encoderFactory.createHLAoctet((byte) 0));
+        
+        weaponFireClass = federation.getInteractionClassHandle(WEAPON_FIRE);
+        munitionDetonationClass = federation.getInteractionClassHandle(MUNITION_DETONATION);
+    }
+    
+    /**
+     * @param rate
+     *            The number of engagements started per second, or zero or less
+     *            to start them as quickly as possible
+     */
+    public void setRate(final double rate)
+    {
+        this.rate = rate;
+    }
+    
+    /**
+     * @param burstSize
+     *            The number of engagements started together, at least one
+     */
+    public void setBurstSize(final int burstSize)
+    {
+        this.burstSize = Math.max(1, burstSize);
+    }
+    
+    /**
+     * @param errorRatio
+     *            The proportion of interactions, between zero and one, into which
+     *            a fault is injected
+     */
+    public void setErrorRatio(final double errorRatio)
+    {
+        this.errorRatio = errorRatio;
+    }
+    
+    /**
+     * @param engagementLimit
+     *            The number of engagements to run, or less than zero to run until
+     *            stopped
+     */
+    public void setEngagementLimit(final long engagementLimit)
+    {
+        this.engagementLimit = engagementLimit;
+    }
+    
+    /**
+     * @param flightTime
+     *            The time between a WeaponFire and its MunitionDetonation
+     * @param unit
+     *            The unit of the flight time
+     */
+    public void setFlightTime(final long flightTime, final TimeUnit unit)
+    {
+        this.flightTime = unit.toNanos(flightTime);
+    }
+    
+    /**
+     * @param munitionLifecycle
+     *            Whether a Munition object is registered for each engagement
+     */
+    public void setMunitionLifecycle(final boolean munitionLifecycle)
+    {
+        this.munitionLifecycle = munitionLifecycle;
+    }
+    
+    /**
+     * @param seed
+     *            The seed of the values sent and of the faults injected
+     */
+    public void setSeed(final long seed)
+    {
+        this.random = new Random(seed);
+    }
+    
+    /**
+     * Asks the generator to stop. Munitions in flight do not detonate.
+     */
+    public void stop()
+    {
+        stopped = true;
+    }
+    
+    /**
+     * @return The number of engagements started
+     */
+    public long getEngagementsStarted()
+    {
+        return engagementsStarted.get();
+    }
+    
+    /**
+     * @return The number of interactions delivered to the federate ambassador
+     */
+    public long getInteractionsDelivered()
+    {
+        return interactionsDelivered.get();
+    }
+    
+    /**
+     * @return The number of interactions sent before the federate ambassador had
+     *         subscribed to them
+     */
+    public long getInteractionsDropped()
+    {
+        return interactionsDropped.get();
+    }
+    
+    /**
+     * @return The number of interactions into which a fault was injected
+     */
+    public long getErrorsInjected()
+    {
+        return errorsInjected.get();
+    }
+    
+    /**
+     * Runs engagements until the limit is reached or the generator is stopped,
+     * then waits for the munitions in flight to detonate.
+     */
+    @Override
+    public void run()
+    {
+        final long interval = rate > 0 ? (long) (burstSize * TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+        long nextBurst = System.nanoTime();
+        long started = 0;
+        
+        try
+        {
+            while (!stopped && (engagementLimit < 0 || started < engagementLimit))
+            {
+                long now = System.nanoTime();
+                detonateDue(now);
+                
+                if (now - nextBurst >= 0)
+                {
+                    // Bursts are scheduled from when the previous one was due rather than when
+                    // it was sent, so that a late burst does not lower the average rate
+                    for (int i = 0; i < burstSize && (engagementLimit < 0 || started < engagementLimit); i++)
+                    {
+                        fire(now);
+                        started++;
+                    }
+                    nextBurst += interval;
+                }
+                else
+                {
+                    parkUntil(now, nextBurst);
+                }
+            }
+            
+            while (!stopped && !inFlight.isEmpty())
+            {
+                long now = System.nanoTime();
+                detonateDue(now);
+                if (!inFlight.isEmpty())
+                {
+                    parkUntil(now, inFlight.peek().detonationTime);
+                }
+            }
+        }
+        catch (EncoderException | FederateInternalError e)
+        {
+            logger.error(String.join(" ", "Load generator", shooterName, "stopped after", String.valueOf(started),
+                    "engagements"), e);
+        }
+    }
+    
+    /**
+     * Starts an engagement: registers the munition and sends the WeaponFire.
+     *
+     * @param now
+     *            The current value of System.nanoTime
+     * @throws EncoderException
+     *             If a parameter could not be encoded
+     * @throws FederateInternalError
+     *             If the federate ambassador failed to handle a callback
+     */
+    private void fire(final long now) throws EncoderException, FederateInternalError
+    {
+        long sequence = engagementsStarted.incrementAndGet();
+        String munitionName = String.join(".", shooterName, "Munition", String.valueOf(sequence));
+        String targetName = String.join(".", "Target", String.valueOf(random.nextInt(TARGET_COUNT)));
+        
+        ObjectInstanceHandle munition = null;
+        if (munitionLifecycle)
+        {
+            munition = federation.registerObjectInstance(MUNITION_OBJECT_CLASS, munitionName);
+        }
+        
+        Engagement engagement = new Engagement((short) sequence, munitionName, targetName, munition,
+                now + flightTime, random);
+        
+        if (munition != null)
+        {
+            domain.setValue(engagement.domain);
+            Map<String, byte[]> attributes = new HashMap<>();
+            attributes.put("EntityType", entityType.toByteArray());
+            federation.updateAttributeValues(munition, attributes);
+        }
+        
+        ParameterHandleValueMap parameters = federation.createParameterMap(14);
+        put(parameters, weaponFireClass, weaponFireParameters, engagement);
+        put(parameters, weaponFireClass, weaponFireParameters, "FireControlSolutionRange",
+                encoderFactory.createHLAfloat32BE(1000 + random.nextFloat() * 4000).toByteArray());
+        put(parameters, weaponFireClass, weaponFireParameters, "FireMissionIndex",
+                encoderFactory.createHLAinteger32BE((int) sequence).toByteArray());
+        put(parameters, weaponFireClass, weaponFireParameters, "FiringLocation", worldLocation());
+        put(parameters, weaponFireClass, weaponFireParameters, "InitialVelocityVector", velocity(300));
+        send(weaponFireClass, weaponFireParameters, parameters);
+        
+        inFlight.add(engagement);
+    }
+    
+    /**
+     * Ends the engagements whose munitions are due to detonate: deletes each
+     * munition and sends its MunitionDetonation. The munition is deleted first so
+     * that it has gone by the time the detonation is validated, however quickly
+     * that happens.
+     *
+     * @param now
+     *            The current value of System.nanoTime
+     * @throws EncoderException
+     *             If a parameter could not be encoded
+     * @throws FederateInternalError
+     *             If the federate ambassador failed to handle a callback
+     */
+    private void detonateDue(final long now) throws EncoderException, FederateInternalError
+    {
+        while (!inFlight.isEmpty() && now - inFlight.peek().detonationTime >= 0)
+        {
+            Engagement engagement = inFlight.remove();
+            
+            if (engagement.munition != null)
+            {
+                federation.deleteObjectInstance(engagement.munition);
+            }
+            
+            ParameterHandleValueMap parameters = federation.createParameterMap(14);
+            put(parameters, munitionDetonationClass, munitionDetonationParameters, engagement);
+            put(parameters, munitionDetonationClass, munitionDetonationParameters, "ArticulatedPartData",
+                    new byte[0]);
+            put(parameters, munitionDetonationClass, munitionDetonationParameters, "DetonationLocation",
+                    worldLocation());
+            put(parameters, munitionDetonationClass, munitionDetonationParameters, "DetonationResultCode",
+                    encoderFactory.createHLAoctet(DetonationResultCode.values()[random
+                            .nextInt(DetonationResultCode.values().length)].val()).toByteArray());
+            put(parameters, munitionDetonationClass, munitionDetonationParameters, "FinalVelocityVector",
+                    velocity(250));
+            put(parameters, munitionDetonationClass, munitionDetonationParameters, "RelativeDetonationLocation",
+                    velocity(5));
+            send(munitionDetonationClass, munitionDetonationParameters, parameters);
+        }
+    }
+    
+    /**
+     * Adds the parameters that are common to both interactions of an engagement.
+     *
+     * @param parameters
+     *            The parameters of the interaction
+     * @param interactionClass
+     *            The interaction class
+     * @param handles
+     *            The parameter handles of the class resolved so far
+     * @param engagement
+     *            The engagement
+     * @throws EncoderException
+     *             If a parameter could not be encoded
+     */
+    private void put(final ParameterHandleValueMap parameters, final InteractionClassHandle interactionClass,
+            final Map<String, ParameterHandle> handles, final Engagement engagement)
+            throws EncoderException
+    {
+        eventCount.setValue(engagement.eventCount);
+        objectId.setValue(shooterName);
+        put(parameters, interactionClass, handles, EVENT_IDENTIFIER, eventIdentifier.toByteArray());
+        put(parameters, interactionClass, handles, "FiringObjectIdentifier", objectId.toByteArray());
+        objectId.setValue(engagement.munitionName);
+        put(parameters, interactionClass, handles, "MunitionObjectIdentifier", objectId.toByteArray());
+        objectId.setValue(engagement.targetName);
+        put(parameters, interactionClass, handles, "TargetObjectIdentifier", objectId.toByteArray());
+        
+        domain.setValue(engagement.domain);
+        put(parameters, interactionClass, handles, "MunitionType", entityType.toByteArray());
+        put(parameters, interactionClass, handles, "FuseType",
+                encoderFactory.createHLAinteger16BE(engagement.fuseType).toByteArray());
+        put(parameters, interactionClass, handles, "WarheadType",
+                encoderFactory.createHLAinteger16BE(engagement.warheadType).toByteArray());
+        put(parameters, interactionClass, handles, "QuantityFired",
+                encoderFactory.createHLAinteger16BE(engagement.quantityFired).toByteArray());
+        put(parameters, interactionClass, handles, "RateOfFire",
+                encoderFactory.createHLAinteger16BE(engagement.rateOfFire).toByteArray());
+    }
+    
+    /**
+     * Adds a parameter to an interaction.
+     *
+     * @param parameters
+     *            The parameters of the interaction
+     * @param interactionClass
+     *            The interaction class
+     * @param handles
+     *            The parameter handles of the class resolved so far
+     * @param name
+     *            The name of the parameter
+     * @param value
+     *            The encoded value of the parameter
+     */
+    private void put(final ParameterHandleValueMap parameters, final InteractionClassHandle interactionClass,
+            final Map<String, ParameterHandle> handles, final String name, final byte[] value)
+    {
+        parameters.put(handles.computeIfAbsent(name, k -> federation.getParameterHandle(interactionClass, k)),
+                value);
+    }
+    
+    /**
+     * Sends an interaction, injecting a fault into it if it has been selected to
+     * have one.
+     *
+     * @param interactionClass
+     *            The interaction class
+     * @param handles
+     *            The parameter handles of the class
+     * @param parameters
+     *            The parameters of the interaction
+     * @throws FederateInternalError
+     *             If the federate ambassador failed to handle the interaction
+     */
+    private void send(final InteractionClassHandle interactionClass, final Map<String, ParameterHandle> handles,
+            final ParameterHandleValueMap parameters) throws FederateInternalError
+    {
+        if (errorRatio > 0 && random.nextDouble() < errorRatio)
+        {
+            injectError(handles, parameters);
+        }
+        
+        if (federation.sendInteraction(interactionClass, parameters))
+        {
+            interactionsDelivered.incrementAndGet();
+        }
+        else
+        {
+            interactionsDropped.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Leaves out or truncates one parameter of an interaction, other than the
+     * EventIdentifier.
+     *
+     * @param handles
+     *            The parameter handles of the class
+     * @param parameters
+     *            The parameters of the interaction
+     */
+    private void injectError(final Map<String, ParameterHandle> handles, final ParameterHandleValueMap parameters)
+    {
+        List<ParameterHandle> candidates = new ArrayList<>();
+        for (Map.Entry<String, ParameterHandle> e : handles.entrySet())
+        {
+            byte[] value = parameters.get(e.getValue());
+            if (!EVENT_IDENTIFIER.equals(e.getKey()) && value != null && value.length > 0)
+            {
+                candidates.add(e.getValue());
+            }
+        }
+        
+        if (!candidates.isEmpty())
+        {
+            ParameterHandle victim = candidates.get(random.nextInt(candidates.size()));
+            if (random.nextBoolean())
+            {
+                parameters.remove(victim);
+            }
+            else
+            {
+                byte[] value = parameters.get(victim);
+                byte[] truncated = new byte[value.length / 2];
+                System.arraycopy(value, 0, truncated, 0, truncated.length);
+                parameters.put(victim, truncated);
+            }
+            errorsInjected.incrementAndGet();
+        }
+    }
+    
+    /**
+     * @return The encoding of a random world location near the origin
+     * @throws EncoderException
+     *             If the location could not be encoded
+     */
+    private byte[] worldLocation() throws EncoderException
+    {
+        for (HLAfloat64BE coordinate : worldLocation)
+        {
+            coordinate.setValue((random.nextDouble() - 0.5) * 20000);
+        }
+        return worldLocationRecord.toByteArray();
+    }
+    
+    /**
+     * @param magnitude
+     *            The largest value of each component
+     * @return The encoding of a random vector
+     * @throws EncoderException
+     *             If the vector could not be encoded
+     */
+    private byte[] velocity(final float magnitude) throws EncoderException
+    {
+        for (HLAfloat32BE component : vector)
+        {
+            component.setValue((random.nextFloat() * 2 - 1) * magnitude);
+        }
+        return vectorRecord.toByteArray();
+    }
+    
+    /**
+     * Waits until the given time or the next detonation, whichever is sooner.
+     *
+     * @param now
+     *            The current value of System.nanoTime
+     * @param until
+     *            The value of System.nanoTime to wait until
+     */
+    private void parkUntil(final long now, final long until)
+    {
+        long wake = until;
+        if (!inFlight.isEmpty() && inFlight.peek().detonationTime - wake < 0)
+        {
+            wake = inFlight.peek().detonationTime;
+        }
+        
+        if (wake - now > 0)
+        {
+            LockSupport.parkNanos(wake - now);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.loopback;
+
+import java.util.HashSet;
+
+import hla.rti1516e.AttributeHandle;
+import hla.rti1516e.AttributeHandleSet;
+
+/**
+ * An attribute handle set backed by a hash set, as created by the attribute
+ * handle set factory of the {@link LoopbackFederation}.
+ *
+ * @author QinetiQ
+ */
+final class LoopbackAttributeHandleSet extends HashSet<AttributeHandle> implements AttributeHandleSet
+{
+    private static final long serialVersionUID = 1L;
+    
+    @Override
+    public LoopbackAttributeHandleSet clone()
+    {
+        return (LoopbackAttributeHandleSet) super.clone();
+    }
+}
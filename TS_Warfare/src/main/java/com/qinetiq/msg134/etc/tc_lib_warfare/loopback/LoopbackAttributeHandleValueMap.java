@@ -0,0 +1,58 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.loopback;
+
+import java.util.HashMap;
+
+import hla.rti1516e.AttributeHandle;
+import hla.rti1516e.AttributeHandleValueMap;
+import hla.rti1516e.encoding.ByteWrapper;
+
+/**
+ * An attribute value map backed by a hash map, as handed to the federate
+ * ambassador by the {@link LoopbackFederation}.
+ *
+ * @author QinetiQ
+ */
+final class LoopbackAttributeHandleValueMap extends HashMap<AttributeHandle, byte[]>
+        implements AttributeHandleValueMap
+{
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Constructor
+     *
+     * @param capacity
+     *            The expected number of attributes
+     */
+    LoopbackAttributeHandleValueMap(final int capacity)
+    {
+        super(Math.max(16, capacity * 2));
+    }
+    
+    @Override
+    public ByteWrapper getValueReference(final AttributeHandle key)
+    {
+        byte[] value = get(key);
+        return value == null ? null : new ByteWrapper(value);
+    }
+    
+    @Override
+    public ByteWrapper getValueReference(final AttributeHandle key, final ByteWrapper byteWrapper)
+    {
+        return getValueReference(key);
+    }
+}
@@ -0,0 +1,1114 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.loopback;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+
+import de.fraunhofer.iosb.tc_lib.IVCT_RTIambassador;
+import hla.rti1516e.AttributeHandle;
+import hla.rti1516e.AttributeHandleSetFactory;
+import hla.rti1516e.AttributeHandleValueMap;
+import hla.rti1516e.AttributeHandleValueMapFactory;
+import hla.rti1516e.FederateAmbassador;
+import hla.rti1516e.FederateHandle;
+import hla.rti1516e.InteractionClassHandle;
+import hla.rti1516e.ObjectClassHandle;
+import hla.rti1516e.ObjectInstanceHandle;
+import hla.rti1516e.OrderType;
+import hla.rti1516e.ParameterHandle;
+import hla.rti1516e.ParameterHandleValueMap;
+import hla.rti1516e.ParameterHandleValueMapFactory;
+import hla.rti1516e.RTIambassador;
+import hla.rti1516e.encoding.EncoderException;
+import hla.rti1516e.encoding.EncoderFactory;
+import hla.rti1516e.encoding.HLAunicodeString;
+import hla.rti1516e.encoding.HLAvariableArray;
+import hla.rti1516e.exceptions.FederateInternalError;
+import hla.rti1516e.exceptions.NameNotFound;
+import hla.rti1516e.exceptions.ObjectInstanceNotKnown;
+
+/**
+ * An in-process stand-in for an RTI, connecting a single federate ambassador
+ * (normally a {@link com.qinetiq.msg134.etc.tc_lib_warfare.TC_Warfare_BaseModel})
+ * to simulated federates in the same JVM, so that a test case can be exercised
+ * without a real RTI or SuT.
+ *
+ * No FOM is loaded: class, parameter and attribute handles are allocated the
+ * first time that their names are used. Callbacks are delivered synchronously
+ * on the thread that sends the interaction or updates the object, one at a time,
+ * as an RTI using the immediate callback model would do. The management object
+ * model is limited to an HLAmanager.HLAfederate object for each joined
+ * federate, carrying its name, type and FOM module designators.
+ *
+ * Services that have no effect without a real RTI, such as publication and the
+ * creation of the federation execution, are accepted and ignored. Any other
+ * service that the federation does not provide throws an
+ * {@link UnsupportedOperationException} naming it, rather than quietly
+ * returning nothing.
+ *
+ * @author QinetiQ
+ */
+public class LoopbackFederation
+{
+    /**
+     * The MOM object class describing a joined federate.
+     */
+    public static final String HLA_FEDERATE_OBJECT = "HLAmanager.HLAfederate";
+    
+    /**
+     * The MOM attribute holding the federate name.
+     */
+    public static final String HLA_FEDERATE_NAME = "HLAfederateName";
+    
+    /**
+     * The MOM attribute holding the federate type.
+     */
+    public static final String HLA_FEDERATE_TYPE = "HLAfederateType";
+    
+    /**
+     * The MOM attribute holding the FOM modules loaded by the federate.
+     */
+    public static final String HLA_FEDERATE_FOMS = "HLAFOMmoduleDesignatorList";
+    
+    /**
+     * Prefix that may be given to object class names.
+     */
+    private static final String OBJECT_ROOT = "HLAobjectRoot.";
+    
+    /**
+     * Prefix that may be given to interaction class names.
+     */
+    private static final String INTERACTION_ROOT = "HLAinteractionRoot.";
+    
+    /**
+     * The user supplied tag given with every callback.
+     */
+    private static final byte[] NO_TAG = new byte[0];
+    
+    /**
+     * An object instance registered with the federation.
+     */
+    private static final class Instance
+    {
+        /**
+         * The handle of the instance.
+         */
+        private final LoopbackHandle handle;
+        
+        /**
+         * The class of the instance.
+         */
+        private final LoopbackHandle objectClass;
+        
+        /**
+         * The name of the instance.
+         */
+        private final String name;
+        
+        /**
+         * The latest value of each attribute that has been updated.
+         */
+        private final Map<AttributeHandle, byte[]> values = new HashMap<>();
+        
+        /**
+         * Whether the instance has been discovered by the federate ambassador.
+         */
+        private boolean discovered;
+        
+        /**
+         * Constructor
+         *
+         * @param handle
+         *            The handle of the instance
+         * @param objectClass
+         *            The class of the instance
+         * @param name
+         *            The name of the instance
+         */
+        Instance(final LoopbackHandle handle, final LoopbackHandle objectClass, final String name)
+        {
+            this.handle = handle;
+            this.objectClass = objectClass;
+            this.name = name;
+        }
+    }
+    
+    /**
+     * The encoder factory used to encode the management object model attributes.
+     */
+    private final EncoderFactory encoderFactory;
+    
+    /**
+     * The handles allocated so far, keyed by a name qualified with the kind of
+     * handle.
+     */
+    private final Map<String, LoopbackHandle> handles = new HashMap<>();
+    
+    /**
+     * The unqualified names of the handles allocated so far.
+     */
+    private final Map<LoopbackHandle, String> names = new HashMap<>();
+    
+    /**
+     * The handles of the joined federates, keyed by federate name.
+     */
+    private final Map<String, LoopbackHandle> federates = new HashMap<>();
+    
+    /**
+     * The MOM object instance of each joined federate, keyed by federate name.
+     */
+    private final Map<String, Instance> federateObjects = new HashMap<>();
+    
+    /**
+     * The registered object instances, in order of registration.
+     */
+    private final Map<LoopbackHandle, Instance> instances = new LinkedHashMap<>();
+    
+    /**
+     * The registered object instances, keyed by name.
+     */
+    private final Map<String, Instance> instancesByName = new HashMap<>();
+    
+    /**
+     * The interaction classes subscribed to by the federate ambassador.
+     */
+    private final Set<InteractionClassHandle> subscribedInteractions = new HashSet<>();
+    
+    /**
+     * The attributes subscribed to by the federate ambassador, by object class.
+     */
+    private final Map<ObjectClassHandle, Set<AttributeHandle>> subscribedAttributes = new HashMap<>();
+    
+    /**
+     * Serialises the delivery of callbacks.
+     */
+    private final Object callbackLock = new Object();
+    
+    /**
+     * The federate ambassador to which callbacks are delivered, once connected.
+     */
+    private volatile FederateAmbassador federateAmbassador;
+    
+    /**
+     * The name under which the federate ambassador joined, once joined.
+     */
+    private String localFederateName;
+    
+    /**
+     * The value of the next handle to be allocated.
+     */
+    private int nextHandle = 1;
+    
+    /**
+     * Constructor
+     *
+     * @param encoderFactory
+     *            The encoder factory used to encode the management object model
+     *            attributes
+     */
+    public LoopbackFederation(final EncoderFactory encoderFactory)
+    {
+        this.encoderFactory = encoderFactory;
+    }
+    
+    /**
+     * Creates an RTI ambassador connected to this federation. The federate
+     * ambassador given to its connect service receives all callbacks.
+     *
+     * @return An RTI ambassador connected to this federation
+     */
+    public RTIambassador createRtiAmbassador()
+    {
+        return (RTIambassador) Proxy.newProxyInstance(RTIambassador.class.getClassLoader(),
+                new Class<?>[] { RTIambassador.class }, (proxy, method, args) -> invoke(proxy, method, args));
+    }
+    
+    /**
+     * Creates an IVCT RTI ambassador connected to this federation, for a test case
+     * to use in place of one created by the IVCT RTI factory.
+     *
+     * @param logger
+     *            The logger to use
+     * @return An IVCT RTI ambassador connected to this federation
+     */
+    public IVCT_RTIambassador createIvctRtiAmbassador(final Logger logger)
+    {
+        return new IVCT_RTIambassador(createRtiAmbassador(), encoderFactory, logger);
+    }
+    
+    /**
+     * @return The encoder factory of the federation
+     */
+    public EncoderFactory getEncoderFactory()
+    {
+        return encoderFactory;
+    }
+    
+    /**
+     * Joins a simulated federate to the federation, registering the MOM object
+     * that describes it.
+     *
+     * @param federateName
+     *            The name of the federate
+     * @param federateType
+     *            The type of the federate
+     * @param fomModules
+     *            The designators of the FOM modules that the federate loaded
+     * @return The handle of the federate
+     * @throws EncoderException
+     *             If the MOM attributes could not be encoded
+     * @throws FederateInternalError
+     *             If the federate ambassador failed to handle a callback
+     */
+    public FederateHandle joinFederate(final String federateName, final String federateType,
+            final Collection<String> fomModules) throws EncoderException, FederateInternalError
+    {
+        FederateHandle federate = joinFederate(federateName);
+        
+        HLAvariableArray<HLAunicodeString> foms = encoderFactory
+                .createHLAvariableArray(i -> encoderFactory.createHLAunicodeString());
+        for (String fom : fomModules)
+        {
+            foms.addElement(encoderFactory.createHLAunicodeString(fom));
+        }
+        
+        Map<String, byte[]> attributes = new HashMap<>();
+        attributes.put(HLA_FEDERATE_NAME, encoderFactory.createHLAunicodeString(federateName).toByteArray());
+        attributes.put(HLA_FEDERATE_TYPE, encoderFactory.createHLAunicodeString(federateType).toByteArray());
+        attributes.put(HLA_FEDERATE_FOMS, foms.toByteArray());
+        
+        ObjectInstanceHandle federateObject = registerObjectInstance(HLA_FEDERATE_OBJECT,
+                String.join(".", HLA_FEDERATE_OBJECT, federateName));
+        synchronized (this)
+        {
+            federateObjects.put(federateName, instances.get(federateObject));
+        }
+        updateAttributeValues(federateObject, attributes);
+        
+        return federate;
+    }
+    
+    /**
+     * Joins a simulated federate to the federation without registering a MOM
+     * object, for a federate whose MOM object is registered separately, such as
+     * one replayed from a capture.
+     *
+     * @param federateName
+     *            The name of the federate
+     * @return The handle of the federate
+     */
+    public synchronized FederateHandle joinFederate(final String federateName)
+    {
+        LoopbackHandle federate = federates.get(federateName);
+        
+        if (federate == null)
+        {
+            federate = allocateHandle();
+            federates.put(federateName, federate);
+        }
+        
+        return federate;
+    }
+    
+    /**
+     * Resigns a federate from the federation, deleting the MOM object that
+     * describes it.
+     *
+     * @param federateName
+     *            The name of the federate
+     * @throws FederateInternalError
+     *             If the federate ambassador failed to handle a callback
+     */
+    public void resignFederate(final String federateName) throws FederateInternalError
+    {
+        Instance federateObject;
+        synchronized (this)
+        {
+            federates.remove(federateName);
+            federateObject = federateObjects.remove(federateName);
+        }
+        
+        if (federateObject != null)
+        {
+            deleteObjectInstance(federateObject.handle);
+        }
+    }
+    
+    /**
+     * @param interactionName
+     *            The name of an interaction class
+     * @return The handle of the interaction class
+     */
+    public InteractionClassHandle getInteractionClassHandle(final String interactionName)
+    {
+        return handle("interaction", stripRoot(interactionName, INTERACTION_ROOT));
+    }
+    
+    /**
+     * @param interactionClass
+     *            The handle of an interaction class
+     * @param parameterName
+     *            The name of a parameter of the class
+     * @return The handle of the parameter
+     */
+    public ParameterHandle getParameterHandle(final InteractionClassHandle interactionClass,
+            final String parameterName)
+    {
+        return handle(String.join(":", "parameter", interactionClass.toString()), parameterName);
+    }
+    
+    /**
+     * @param className
+     *            The name of an object class
+     * @return The handle of the object class
+     */
+    public ObjectClassHandle getObjectClassHandle(final String className)
+    {
+        return handle("object", stripRoot(className, OBJECT_ROOT));
+    }
+    
+    /**
+     * @param objectClass
+     *            The handle of an object class
+     * @param attributeName
+     *            The name of an attribute of the class
+     * @return The handle of the attribute
+     */
+    public AttributeHandle getAttributeHandle(final ObjectClassHandle objectClass, final String attributeName)
+    {
+        return handle(String.join(":", "attribute", objectClass.toString()), attributeName);
+    }
+    
+    /**
+     * Creates an empty parameter map to be filled in and sent with
+     * {@link #sendInteraction(InteractionClassHandle, ParameterHandleValueMap)}.
+     *
+     * @param capacity
+     *            The expected number of parameters
+     * @return An empty parameter map
+     */
+    public ParameterHandleValueMap createParameterMap(final int capacity)
+    {
+        return new LoopbackParameterHandleValueMap(capacity);
+    }
+    
+    /**
+     * Sends an interaction, which is received by the federate ambassador if it has
+     * subscribed to the interaction class.
+     *
+     * @param interactionClass
+     *            The class of the interaction
+     * @param parameters
+     *            The parameters of the interaction, which must not be modified
+     *            afterwards
+     * @return True if the interaction was delivered, otherwise false
+     * @throws FederateInternalError
+     *             If the federate ambassador failed to handle the interaction
+     */
+    public boolean sendInteraction(final InteractionClassHandle interactionClass,
+            final ParameterHandleValueMap parameters) throws FederateInternalError
+    {
+        FederateAmbassador ambassador = federateAmbassador;
+        boolean delivered;
+        synchronized (this)
+        {
+            delivered = ambassador != null && subscribedInteractions.contains(interactionClass);
+        }
+        
+        if (delivered)
+        {
+            synchronized (callbackLock)
+            {
+                ambassador.receiveInteraction(interactionClass, parameters, NO_TAG, OrderType.RECEIVE, null,
+                        null);
+            }
+        }
+        
+        return delivered;
+    }
+    
+    /**
+     * Sends an interaction, which is received by the federate ambassador if it has
+     * subscribed to the interaction class.
+     *
+     * @param interactionName
+     *            The name of the class of the interaction
+     * @param parameters
+     *            The encoded parameters of the interaction, keyed by name
+     * @return True if the interaction was delivered, otherwise false
+     * @throws FederateInternalError
+     *             If the federate ambassador failed to handle the interaction
+     */
+    public boolean sendInteraction(final String interactionName, final Map<String, byte[]> parameters)
+            throws FederateInternalError
+    {
+        InteractionClassHandle interactionClass = getInteractionClassHandle(interactionName);
+        ParameterHandleValueMap parameterMap = createParameterMap(parameters.size());
+        
+        for (Map.Entry<String, byte[]> e : parameters.entrySet())
+        {
+            parameterMap.put(getParameterHandle(interactionClass, e.getKey()), e.getValue());
+        }
+        
+        return sendInteraction(interactionClass, parameterMap);
+    }
+    
+    /**
+     * Registers an object instance, which is discovered by the federate ambassador
+     * if it has subscribed to the object class.
+     *
+     * @param className
+     *            The name of the class of the object
+     * @param objectName
+     *            The name of the object, which must be unique
+     * @return The handle of the object instance
+     * @throws FederateInternalError
+     *             If the federate ambassador failed to handle the discovery
+     */
+    public ObjectInstanceHandle registerObjectInstance(final String className, final String objectName)
+            throws FederateInternalError
+    {
+        LoopbackHandle objectClass = handle("object", stripRoot(className, OBJECT_ROOT));
+        Instance instance;
+        
+        synchronized (this)
+        {
+            if (instancesByName.containsKey(objectName))
+            {
+                throw new IllegalArgumentException(
+                        String.join(" ", "Object instance name", objectName, "is already in use"));
+            }
+            
+            instance = new Instance(allocateHandle(), objectClass, objectName);
+            instances.put(instance.handle, instance);
+            instancesByName.put(objectName, instance);
+        }
+        
+        discover(instance);
+        
+        return instance.handle;
+    }
+    
+    /**
+     * Updates attributes of an object instance, which are reflected to the
+     * federate ambassador for those attributes that it has subscribed to.
+     *
+     * @param objectInstance
+     *            The handle of the object instance
+     * @param attributes
+     *            The encoded attributes, keyed by name
+     * @throws FederateInternalError
+     *             If the federate ambassador failed to handle the reflection
+     */
+    public void updateAttributeValues(final ObjectInstanceHandle objectInstance,
+            final Map<String, byte[]> attributes) throws FederateInternalError
+    {
+        Instance instance;
+        synchronized (this)
+        {
+            instance = instances.get(objectInstance);
+            if (instance == null)
+            {
+                throw new IllegalArgumentException(
+                        String.join(" ", "Object instance", objectInstance.toString(), "is not registered"));
+            }
+            
+            for (Map.Entry<String, byte[]> e : attributes.entrySet())
+            {
+                instance.values.put(getAttributeHandle(instance.objectClass, e.getKey()), e.getValue());
+            }
+        }
+        
+        reflect(instance, attributes.keySet());
+    }
+    
+    /**
+     * Deletes an object instance, which is removed by the federate ambassador if
+     * it had discovered it.
+     *
+     * @param objectInstance
+     *            The handle of the object instance
+     * @throws FederateInternalError
+     *             If the federate ambassador failed to handle the removal
+     */
+    public void deleteObjectInstance(final ObjectInstanceHandle objectInstance) throws FederateInternalError
+    {
+        FederateAmbassador ambassador = federateAmbassador;
+        Instance instance;
+        boolean discovered;
+        synchronized (this)
+        {
+            instance = instances.remove(objectInstance);
+            discovered = ambassador != null && instance != null && instance.discovered;
+            if (instance != null)
+            {
+                instancesByName.remove(instance.name);
+            }
+        }
+        
+        if (discovered)
+        {
+            synchronized (callbackLock)
+            {
+                ambassador.removeObjectInstance(objectInstance, NO_TAG, OrderType.RECEIVE, null);
+            }
+        }
+    }
+    
+    /**
+     * Handles a call made on an RTI ambassador created by this federation.
+     *
+     * @param proxy
+     *            The RTI ambassador
+     * @param method
+     *            The RTI ambassador method
+     * @param args
+     *            The arguments of the call
+     * @return The result of the call
+     * @throws UnsupportedOperationException
+     *             If the federation does not provide the service
+     * @throws Exception
+     *             If the call fails
+     */
+    private Object invoke(final Object proxy, final Method method, final Object[] args) throws Exception
+    {
+        Object result = null;
+        
+        switch (method.getName())
+        {
+            case "connect":
+                federateAmbassador = (FederateAmbassador) args[0];
+                break;
+            
+            case "disconnect":
+                federateAmbassador = null;
+                break;
+            
+            case "joinFederationExecution":
+                result = joinLocalFederate(args);
+                break;
+            
+            case "resignFederationExecution":
+                resignLocalFederate();
+                break;
+            
+            case "getFederateHandle":
+                result = findFederate((String) args[0]);
+                break;
+            
+            case "getFederateName":
+                result = federateName(args[0]);
+                break;
+            
+            case "getInteractionClassHandle":
+                result = getInteractionClassHandle((String) args[0]);
+                break;
+            
+            case "getParameterHandle":
+                result = getParameterHandle((InteractionClassHandle) args[0], (String) args[1]);
+                break;
+            
+            case "getObjectClassHandle":
+                result = getObjectClassHandle((String) args[0]);
+                break;
+            
+            case "getAttributeHandle":
+                result = getAttributeHandle((ObjectClassHandle) args[0], (String) args[1]);
+                break;
+            
+            case "getInteractionClassName":
+            case "getObjectClassName":
+                result = name(args[0]);
+                break;
+            
+            case "getParameterName":
+            case "getAttributeName":
+                result = name(args[1]);
+                break;
+            
+            case "getObjectInstanceHandle":
+                result = findInstance((String) args[0]).handle;
+                break;
+            
+            case "getObjectInstanceName":
+                result = findInstance((ObjectInstanceHandle) args[0]).name;
+                break;
+            
+            case "getKnownObjectClassHandle":
+                result = findInstance((ObjectInstanceHandle) args[0]).objectClass;
+                break;
+            
+            case "getAttributeHandleSetFactory":
+                result = (AttributeHandleSetFactory) LoopbackAttributeHandleSet::new;
+                break;
+            
+            case "getParameterHandleValueMapFactory":
+                result = (ParameterHandleValueMapFactory) LoopbackParameterHandleValueMap::new;
+                break;
+            
+            case "getAttributeHandleValueMapFactory":
+                result = (AttributeHandleValueMapFactory) LoopbackAttributeHandleValueMap::new;
+                break;
+            
+            case "getEncoderFactory":
+                result = encoderFactory;
+                break;
+            
+            case "subscribeInteractionClass":
+                subscribeInteractionClass((InteractionClassHandle) args[0], true);
+                break;
+            
+            case "unsubscribeInteractionClass":
+                subscribeInteractionClass((InteractionClassHandle) args[0], false);
+                break;
+            
+            case "subscribeObjectClassAttributes":
+                subscribeObjectClassAttributes((ObjectClassHandle) args[0], (Set<?>) args[1]);
+                break;
+            
+            case "unsubscribeObjectClass":
+                synchronized (this)
+                {
+                    subscribedAttributes.remove(args[0]);
+                }
+                break;
+            
+            case "requestAttributeValueUpdate":
+                requestAttributeValueUpdate(args[0], (Set<?>) args[1]);
+                break;
+            
+            // Services that have no effect in the loopback
+            case "createFederationExecution":
+            case "destroyFederationExecution":
+            case "publishInteractionClass":
+            case "unpublishInteractionClass":
+            case "publishObjectClassAttributes":
+            case "unpublishObjectClass":
+            case "unpublishObjectClassAttributes":
+            case "setAutomaticResignDirective":
+            case "enableCallbacks":
+            case "disableCallbacks":
+            case "evokeCallback":
+            case "evokeMultipleCallbacks":
+            case "enableAsynchronousDelivery":
+            case "disableAsynchronousDelivery":
+                result = defaultValue(method.getReturnType());
+                break;
+            
+            // The methods of Object
+            case "equals":
+                result = Boolean.valueOf(proxy == args[0]);
+                break;
+            
+            case "hashCode":
+                result = Integer.valueOf(System.identityHashCode(proxy));
+                break;
+            
+            case "toString":
+                result = String.join("", "LoopbackRTIambassador@", Integer.toHexString(System.identityHashCode(proxy)));
+                break;
+            
+            default:
+                throw new UnsupportedOperationException(String.join(" ", "The loopback federation does not provide",
+                        method.getName()));
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Joins the federate ambassador to the federation.
+     *
+     * @param args
+     *            The arguments of the join call
+     * @return The handle of the federate
+     * @throws EncoderException
+     *             If the MOM attributes could not be encoded
+     * @throws FederateInternalError
+     *             If the federate ambassador failed to handle a callback
+     */
+    private FederateHandle joinLocalFederate(final Object[] args) throws EncoderException, FederateInternalError
+    {
+        // The federate name is optional; when it is given, the federate type follows it
+        boolean named = args.length == 4 || args.length == 3 && args[2] instanceof String;
+        String federateType = (String) args[named ? 1 : 0];
+        
+        synchronized (this)
+        {
+            localFederateName = named ? (String) args[0]
+                    : String.join("", "Federate", String.valueOf(federates.size() + 1));
+        }
+        
+        return joinFederate(localFederateName, federateType, new ArrayList<String>());
+    }
+    
+    /**
+     * Resigns the federate ambassador from the federation.
+     *
+     * @throws FederateInternalError
+     *             If the federate ambassador failed to handle a callback
+     */
+    private void resignLocalFederate() throws FederateInternalError
+    {
+        String federateName;
+        synchronized (this)
+        {
+            federateName = localFederateName;
+            localFederateName = null;
+        }
+        
+        if (federateName != null)
+        {
+            resignFederate(federateName);
+        }
+    }
+    
+    /**
+     * @param federateName
+     *            The name of a federate
+     * @return The handle of the federate
+     * @throws NameNotFound
+     *             If no federate of that name has joined
+     */
+    private synchronized FederateHandle findFederate(final String federateName) throws NameNotFound
+    {
+        FederateHandle federate = federates.get(federateName);
+        if (federate == null)
+        {
+            throw new NameNotFound(federateName);
+        }
+        return federate;
+    }
+    
+    /**
+     * @param federate
+     *            The handle of a federate
+     * @return The name of the federate, or null if it has not joined
+     */
+    private synchronized String federateName(final Object federate)
+    {
+        String federateName = null;
+        for (Map.Entry<String, LoopbackHandle> e : federates.entrySet())
+        {
+            if (e.getValue().equals(federate))
+            {
+                federateName = e.getKey();
+            }
+        }
+        return federateName;
+    }
+    
+    /**
+     * @param objectName
+     *            The name of an object instance
+     * @return The object instance
+     * @throws ObjectInstanceNotKnown
+     *             If there is no object instance of that name
+     */
+    private synchronized Instance findInstance(final String objectName) throws ObjectInstanceNotKnown
+    {
+        Instance instance = instancesByName.get(objectName);
+        if (instance == null)
+        {
+            throw new ObjectInstanceNotKnown(objectName);
+        }
+        return instance;
+    }
+    
+    /**
+     * @param objectInstance
+     *            The handle of an object instance
+     * @return The object instance
+     * @throws ObjectInstanceNotKnown
+     *             If there is no object instance with that handle
+     */
+    private synchronized Instance findInstance(final ObjectInstanceHandle objectInstance)
+            throws ObjectInstanceNotKnown
+    {
+        Instance instance = instances.get(objectInstance);
+        if (instance == null)
+        {
+            throw new ObjectInstanceNotKnown(String.valueOf(objectInstance));
+        }
+        return instance;
+    }
+    
+    /**
+     * Subscribes the federate ambassador to, or unsubscribes it from, an
+     * interaction class.
+     *
+     * @param interactionClass
+     *            The interaction class
+     * @param subscribe
+     *            True to subscribe, false to unsubscribe
+     */
+    private synchronized void subscribeInteractionClass(final InteractionClassHandle interactionClass,
+            final boolean subscribe)
+    {
+        if (subscribe)
+        {
+            subscribedInteractions.add(interactionClass);
+        }
+        else
+        {
+            subscribedInteractions.remove(interactionClass);
+        }
+    }
+    
+    /**
+     * Subscribes the federate ambassador to attributes of an object class, and
+     * delivers the instances of the class that have already been registered.
+     *
+     * @param objectClass
+     *            The object class
+     * @param attributes
+     *            The attributes
+     * @throws FederateInternalError
+     *             If the federate ambassador failed to handle a callback
+     */
+    private void subscribeObjectClassAttributes(final ObjectClassHandle objectClass, final Set<?> attributes)
+            throws FederateInternalError
+    {
+        List<Instance> existing = new ArrayList<>();
+        synchronized (this)
+        {
+            Set<AttributeHandle> subscribed = subscribedAttributes.computeIfAbsent(objectClass,
+                    k -> new HashSet<>());
+            for (Object attribute : attributes)
+            {
+                subscribed.add((AttributeHandle) attribute);
+            }
+            
+            for (Instance instance : instances.values())
+            {
+                if (instance.objectClass.equals(objectClass))
+                {
+                    existing.add(instance);
+                }
+            }
+        }
+        
+        for (Instance instance : existing)
+        {
+            discover(instance);
+        }
+    }
+    
+    /**
+     * Reflects the latest values of attributes of an object instance, or of every
+     * instance of an object class, to the federate ambassador.
+     *
+     * @param target
+     *            The handle of the object instance or the object class
+     * @param attributes
+     *            The attributes requested
+     * @throws FederateInternalError
+     *             If the federate ambassador failed to handle a callback
+     */
+    private void requestAttributeValueUpdate(final Object target, final Set<?> attributes)
+            throws FederateInternalError
+    {
+        List<Instance> requested = new ArrayList<>();
+        Set<String> attributeNames = new HashSet<>();
+        synchronized (this)
+        {
+            for (Instance instance : instances.values())
+            {
+                if (instance.handle.equals(target) || instance.objectClass.equals(target))
+                {
+                    requested.add(instance);
+                }
+            }
+            
+            for (Object attribute : attributes)
+            {
+                attributeNames.add(names.get(attribute));
+            }
+        }
+        
+        for (Instance instance : requested)
+        {
+            reflect(instance, attributeNames);
+        }
+    }
+    
+    /**
+     * Delivers an object instance to the federate ambassador if it has not yet
+     * discovered it and has subscribed to its class.
+     *
+     * @param instance
+     *            The object instance
+     * @throws FederateInternalError
+     *             If the federate ambassador failed to handle the discovery
+     */
+    private void discover(final Instance instance) throws FederateInternalError
+    {
+        FederateAmbassador ambassador = federateAmbassador;
+        boolean deliver;
+        synchronized (this)
+        {
+            deliver = ambassador != null && !instance.discovered
+                    && subscribedAttributes.containsKey(instance.objectClass)
+                    && instances.containsKey(instance.handle);
+            instance.discovered |= deliver;
+        }
+        
+        if (deliver)
+        {
+            synchronized (callbackLock)
+            {
+                ambassador.discoverObjectInstance(instance.handle, instance.objectClass, instance.name);
+            }
+        }
+    }
+    
+    /**
+     * Reflects the latest values of attributes of an object instance to the
+     * federate ambassador, for those attributes that it has subscribed to.
+     *
+     * @param instance
+     *            The object instance
+     * @param attributeNames
+     *            The names of the attributes to reflect
+     * @throws FederateInternalError
+     *             If the federate ambassador failed to handle the reflection
+     */
+    private void reflect(final Instance instance, final Collection<String> attributeNames)
+            throws FederateInternalError
+    {
+        FederateAmbassador ambassador = federateAmbassador;
+        AttributeHandleValueMap reflected = new LoopbackAttributeHandleValueMap(attributeNames.size());
+        synchronized (this)
+        {
+            Set<AttributeHandle> subscribed = subscribedAttributes.get(instance.objectClass);
+            if (ambassador != null && instance.discovered && subscribed != null)
+            {
+                for (String attributeName : attributeNames)
+                {
+                    AttributeHandle attribute = getAttributeHandle(instance.objectClass, attributeName);
+                    byte[] value = instance.values.get(attribute);
+                    if (value != null && subscribed.contains(attribute))
+                    {
+                        reflected.put(attribute, value);
+                    }
+                }
+            }
+        }
+        
+        if (!reflected.isEmpty())
+        {
+            synchronized (callbackLock)
+            {
+                ambassador.reflectAttributeValues(instance.handle, reflected, NO_TAG, OrderType.RECEIVE,
+                        null, null);
+            }
+        }
+    }
+    
+    /**
+     * Returns the handle for a name, allocating a new one the first time the name
+     * is seen.
+     *
+     * @param kind
+     *            The kind of handle, qualified by the class for parameters and
+     *            attributes
+     * @param name
+     *            The name
+     * @return The handle
+     */
+    private synchronized LoopbackHandle handle(final String kind, final String name)
+    {
+        String key = String.join(":", kind, name);
+        LoopbackHandle handle = handles.get(key);
+        if (handle == null)
+        {
+            handle = allocateHandle();
+            handles.put(key, handle);
+            names.put(handle, name);
+        }
+        return handle;
+    }
+    
+    /**
+     * @param handle
+     *            A class, parameter or attribute handle
+     * @return The name for which the handle was allocated, or null if there is
+     *         none
+     */
+    private synchronized String name(final Object handle)
+    {
+        return names.get(handle);
+    }
+    
+    /**
+     * @return A new handle, unique within the federation
+     */
+    private synchronized LoopbackHandle allocateHandle()
+    {
+        return new LoopbackHandle(nextHandle++);
+    }
+    
+    /**
+     * @param name
+     *            A class name
+     * @param root
+     *            The root prefix that the name may be given with
+     * @return The name without the root prefix
+     */
+    private static String stripRoot(final String name, final String root)
+    {
+        return name.startsWith(root) ? name.substring(root.length()) : name;
+    }
+    
+    /**
+     * @param type
+     *            The return type of an RTI ambassador method
+     * @return The value returned by the services that have no effect in the
+     *         loopback
+     */
+    private static Object defaultValue(final Class<?> type)
+    {
+        Object value = null;
+        if (type == boolean.class)
+        {
+            value = Boolean.FALSE;
+        }
+        else if (type == int.class)
+        {
+            value = Integer.valueOf(0);
+        }
+        else if (type == long.class)
+        {
+            value = Long.valueOf(0);
+        }
+        else if (type == double.class)
+        {
+            value = Double.valueOf(0);
+        }
+        return value;
+    }
+}
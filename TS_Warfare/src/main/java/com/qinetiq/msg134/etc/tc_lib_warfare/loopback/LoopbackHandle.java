@@ -0,0 +1,84 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.loopback;
+
+import java.nio.ByteBuffer;
+
+import hla.rti1516e.AttributeHandle;
+import hla.rti1516e.FederateHandle;
+import hla.rti1516e.InteractionClassHandle;
+import hla.rti1516e.ObjectClassHandle;
+import hla.rti1516e.ObjectInstanceHandle;
+import hla.rti1516e.ParameterHandle;
+
+/**
+ * The handle type used by the {@link LoopbackFederation}. A single type serves
+ * for every kind of handle; handles are told apart by their value, which is
+ * unique within a federation.
+ *
+ * @author QinetiQ
+ */
+final class LoopbackHandle implements InteractionClassHandle, ParameterHandle, ObjectClassHandle,
+        AttributeHandle, ObjectInstanceHandle, FederateHandle
+{
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * The value of the handle.
+     */
+    private final int value;
+    
+    /**
+     * Constructor
+     *
+     * @param value
+     *            The value of the handle
+     */
+    LoopbackHandle(final int value)
+    {
+        this.value = value;
+    }
+    
+    @Override
+    public int encodedLength()
+    {
+        return Integer.BYTES;
+    }
+    
+    @Override
+    public void encode(final byte[] buffer, final int offset)
+    {
+        ByteBuffer.wrap(buffer, offset, Integer.BYTES).putInt(value);
+    }
+    
+    @Override
+    public boolean equals(final Object other)
+    {
+        return other instanceof LoopbackHandle && ((LoopbackHandle) other).value == value;
+    }
+    
+    @Override
+    public int hashCode()
+    {
+        return value;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return String.join("", "LoopbackHandle<", String.valueOf(value), ">");
+    }
+}
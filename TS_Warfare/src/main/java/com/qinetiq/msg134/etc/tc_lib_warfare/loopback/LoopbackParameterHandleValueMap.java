@@ -0,0 +1,58 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.loopback;
+
+import java.util.HashMap;
+
+import hla.rti1516e.ParameterHandle;
+import hla.rti1516e.ParameterHandleValueMap;
+import hla.rti1516e.encoding.ByteWrapper;
+
+/**
+ * A parameter value map backed by a hash map, as handed to the federate
+ * ambassador by the {@link LoopbackFederation}.
+ *
+ * @author QinetiQ
+ */
+final class LoopbackParameterHandleValueMap extends HashMap<ParameterHandle, byte[]>
+        implements ParameterHandleValueMap
+{
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Constructor
+     *
+     * @param capacity
+     *            The expected number of parameters
+     */
+    LoopbackParameterHandleValueMap(final int capacity)
+    {
+        super(Math.max(16, capacity * 2));
+    }
+    
+    @Override
+    public ByteWrapper getValueReference(final ParameterHandle key)
+    {
+        byte[] value = get(key);
+        return value == null ? null : new ByteWrapper(value);
+    }
+    
+    @Override
+    public ByteWrapper getValueReference(final ParameterHandle key, final ByteWrapper byteWrapper)
+    {
+        return getValueReference(key);
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Contains an in-process stand-in for an RTI and a synthetic SuT, for running
+ * the test cases without a federation.
+ * @author QinetiQ
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.loopback;
\ No newline at end of file
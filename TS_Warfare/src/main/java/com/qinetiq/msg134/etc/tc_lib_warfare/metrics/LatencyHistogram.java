@@ -0,0 +1,228 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.metrics;
+
+/**
+ * A histogram of values, such as latencies, held in a fixed number of
+ * logarithmic buckets in the manner of an HDR histogram. Values below 32 are
+ * counted exactly; above that, each power of two is split into 16 buckets, so
+ * that a value is reported to within 1/16 of itself whatever its magnitude. The
+ * memory used is fixed, however many values are recorded.
+ *
+ * This class is not thread safe.
+ *
+ * @author QinetiQ
+ */
+public class LatencyHistogram
+{
+    /**
+     * The number of bits of a value that are kept.
+     */
+    private static final int PRECISION_BITS = 5;
+    
+    /**
+     * The number of values counted exactly.
+     */
+    private static final int SUB_BUCKETS = 1 << PRECISION_BITS;
+    
+    /**
+     * The number of buckets into which each power of two is split.
+     */
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    
+    /**
+     * The number of buckets needed for all non-negative long values.
+     */
+    private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - PRECISION_BITS) * HALF_SUB_BUCKETS;
+    
+    /**
+     * The number of values recorded in each bucket.
+     */
+    private final long[] counts = new long[BUCKETS];
+    
+    /**
+     * The number of values recorded.
+     */
+    private long count;
+    
+    /**
+     * The sum of the values recorded.
+     */
+    private long total;
+    
+    /**
+     * The lowest value recorded.
+     */
+    private long min = Long.MAX_VALUE;
+    
+    /**
+     * The highest value recorded.
+     */
+    private long max;
+    
+    /**
+     * Records a value. Negative values are recorded as zero.
+     *
+     * @param value
+     *            The value
+     */
+    public void record(final long value)
+    {
+        long v = Math.max(0, value);
+        
+        counts[bucketIndex(v)]++;
+        count++;
+        total += v;
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+    }
+    
+    /**
+     * @return The number of values recorded
+     */
+    public long getCount()
+    {
+        return count;
+    }
+    
+    /**
+     * @return The lowest value recorded, or zero if none has been
+     */
+    public long getMin()
+    {
+        return count == 0 ? 0 : min;
+    }
+    
+    /**
+     * @return The highest value recorded, or zero if none has been
+     */
+    public long getMax()
+    {
+        return max;
+    }
+    
+    /**
+     * @return The mean of the values recorded, or zero if none has been
+     */
+    public double getMean()
+    {
+        return count == 0 ? 0 : (double) total / count;
+    }
+    
+    /**
+     * Finds the value below which a given percentage of the values recorded fall.
+     *
+     * @param percentile
+     *            The percentage, from 0 to 100
+     * @return The highest value that falls into the same bucket as the value at
+     *         the percentile, limited to the highest value recorded, or zero if no
+     *         value has been recorded
+     */
+    public long getValueAtPercentile(final double percentile)
+    {
+        long value = 0;
+        
+        if (count > 0)
+        {
+            long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * count));
+            long seen = 0;
+            int index = 0;
+            
+            while (seen + counts[index] < rank)
+            {
+                seen += counts[index];
+                index++;
+            }
+            
+            value = Math.min(max, highestEquivalentValue(index));
+        }
+        
+        return value;
+    }
+    
+    /**
+     * Adds the values recorded in another histogram to this one.
+     *
+     * @param other
+     *            The other histogram
+     */
+    public void add(final LatencyHistogram other)
+    {
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        total += other.total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+    
+    @Override
+    public String toString()
+    {
+        return String.join(" ", "count", String.valueOf(count), "min", String.valueOf(getMin()), "mean",
+                String.format("%.1f", getMean()), "p50", String.valueOf(getValueAtPercentile(50)), "p90",
+                String.valueOf(getValueAtPercentile(90)), "p99", String.valueOf(getValueAtPercentile(99)), "max",
+                String.valueOf(max));
+    }
+    
+    /**
+     * @param value
+     *            A non-negative value
+     * @return The index of the bucket in which the value is counted
+     */
+    private static int bucketIndex(final long value)
+    {
+        int index;
+        
+        if (value < SUB_BUCKETS)
+        {
+            index = (int) value;
+        }
+        else
+        {
+            int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - PRECISION_BITS;
+            int subBucket = (int) (value >>> shift);
+            index = SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + subBucket - HALF_SUB_BUCKETS;
+        }
+        
+        return index;
+    }
+    
+    /**
+     * @param index
+     *            The index of a bucket
+     * @return The highest value counted in the bucket
+     */
+    private static long highestEquivalentValue(final int index)
+    {
+        long value;
+        
+        if (index < SUB_BUCKETS)
+        {
+            value = index;
+        }
+        else
+        {
+            int shift = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+            long subBucket = (index - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+            value = (subBucket << shift) + (1L << shift) - 1;
+        }
+        
+        return value;
+    }
+}
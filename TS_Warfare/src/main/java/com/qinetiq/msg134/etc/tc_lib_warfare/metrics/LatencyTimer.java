@@ -0,0 +1,96 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the count, total and maximum of a series of durations. Durations
+ * may be recorded from any number of threads at once without contention.
+ *
+ * @author QinetiQ
+ */
+public class LatencyTimer
+{
+    /**
+     * The number of durations recorded.
+     */
+    private final LongAdder count = new LongAdder();
+    
+    /**
+     * The sum of the durations recorded, in nanoseconds.
+     */
+    private final LongAdder totalNanos = new LongAdder();
+    
+    /**
+     * The longest duration recorded, in nanoseconds.
+     */
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    
+    /**
+     * Records a duration.
+     *
+     * @param nanos
+     *            The duration, in nanoseconds
+     */
+    public void record(final long nanos)
+    {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+    
+    /**
+     * @return The number of durations recorded
+     */
+    public long getCount()
+    {
+        return count.sum();
+    }
+    
+    /**
+     * @param unit
+     *            The unit in which to return the mean
+     * @return The mean of the durations recorded, or zero if there are none
+     */
+    public double getMean(final TimeUnit unit)
+    {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) totalNanos.sum() / n / unit.toNanos(1);
+    }
+    
+    /**
+     * @param unit
+     *            The unit in which to return the maximum
+     * @return The longest duration recorded, or zero if there are none
+     */
+    public double getMax(final TimeUnit unit)
+    {
+        return (double) maxNanos.get() / unit.toNanos(1);
+    }
+    
+    /**
+     * Discards the durations recorded so far.
+     */
+    public void reset()
+    {
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+}
@@ -0,0 +1,443 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+
+/**
+ * The metrics gathered on the performance of the validation pipeline, from the
+ * receipt of interactions through their decoding to the matching of
+ * WeaponFire and MunitionDetonation pairs. The metrics can be exposed over JMX
+ * and written to a log at a fixed interval.
+ *
+ * All of the methods of this class may be called from any thread. Counters
+ * are held in {@link LongAdder}s, so that recording a metric on the callback
+ * thread does not contend with the test thread.
+ *
+ * @author QinetiQ
+ */
+public class ValidationMetrics implements ValidationMetricsMXBean
+{
+    /**
+     * The domain of the names under which metrics are registered with JMX.
+     */
+    public static final String JMX_DOMAIN = "com.qinetiq.msg134.warfare";
+    
+    /**
+     * The number of interactions received, by interaction class.
+     */
+    private final Map<String, LongAdder> interactionsReceived = new ConcurrentHashMap<>();
+    
+    /**
+     * The number of received interactions waiting to be processed.
+     */
+    private final AtomicLong queueDepth = new AtomicLong();
+    
+    /**
+     * The largest number of received interactions waiting at once.
+     */
+    private final LongAccumulator queueHighWaterMark = new LongAccumulator(Math::max, 0);
+    
+    /**
+     * The number of object instances discovered and not yet removed.
+     */
+    private final LongAdder discoveredObjects = new LongAdder();
+    
+    /**
+     * The time between interactions being received and their decoding starting.
+     */
+    private final LatencyTimer receiveToDecode = new LatencyTimer();
+    
+    /**
+     * The time taken to decode each parameter, keyed by interaction and parameter
+     * name.
+     */
+    private final Map<String, LatencyTimer> parameterDecode = new ConcurrentHashMap<>();
+    
+    /**
+     * The number of values of each parameter that failed to decode, keyed by
+     * interaction and parameter name.
+     */
+    private final Map<String, LongAdder> decodeFailures = new ConcurrentHashMap<>();
+    
+    /**
+     * The time between the receipt of a WeaponFire and of its matching
+     * MunitionDetonation.
+     */
+    private final LatencyTimer pairMatch = new LatencyTimer();
+    
+    /**
+     * The name under which the metrics are registered with JMX, or null if they
+     * are not registered.
+     */
+    private ObjectName registeredName;
+    
+    /**
+     * Writes the metrics to the log at a fixed interval, or null if they are not
+     * being written.
+     */
+    private ScheduledExecutorService reporter;
+    
+    /**
+     * Records the receipt of an interaction, which is queued to be processed.
+     *
+     * @param interactionClass
+     *            The name of the interaction class
+     */
+    public void interactionQueued(final String interactionClass)
+    {
+        interactionsReceived.computeIfAbsent(String.valueOf(interactionClass), k -> new LongAdder()).increment();
+        queueHighWaterMark.accumulate(queueDepth.incrementAndGet());
+    }
+    
+    /**
+     * Records that a received interaction has been taken from the queue to be
+     * processed.
+     */
+    public void interactionDequeued()
+    {
+        queueDepth.decrementAndGet();
+    }
+    
+    /**
+     * Records the discovery of an object instance.
+     */
+    public void objectDiscovered()
+    {
+        discoveredObjects.increment();
+    }
+    
+    /**
+     * Records the removal of a discovered object instance.
+     */
+    public void objectRemoved()
+    {
+        discoveredObjects.decrement();
+    }
+    
+    /**
+     * Records the start of the decoding of an interaction.
+     *
+     * @param receivedNanoTime
+     *            The monotonic time in nanoseconds at which the interaction was
+     *            received
+     * @param startNanoTime
+     *            The monotonic time in nanoseconds at which the decoding started,
+     *            from the same clock as the receive time
+     */
+    public void decodeStarted(final long receivedNanoTime, final long startNanoTime)
+    {
+        receiveToDecode.record(startNanoTime - receivedNanoTime);
+    }
+    
+    /**
+     * Records the time taken to decode a parameter.
+     *
+     * @param interactionName
+     *            The name of the interaction
+     * @param paramName
+     *            The name of the parameter
+     * @param nanos
+     *            The time taken, in nanoseconds
+     */
+    public void parameterDecoded(final String interactionName, final String paramName, final long nanos)
+    {
+        parameterDecode.computeIfAbsent(String.join(".", interactionName, paramName), k -> new LatencyTimer())
+                .record(nanos);
+    }
+    
+    /**
+     * Records a parameter that failed to decode.
+     *
+     * @param interactionName
+     *            The name of the interaction
+     * @param paramName
+     *            The name of the parameter
+     */
+    public void parameterFailed(final String interactionName, final String paramName)
+    {
+        decodeFailures.computeIfAbsent(String.join(".", interactionName, paramName), k -> new LongAdder())
+                .increment();
+    }
+    
+    /**
+     * Records a MunitionDetonation matched with a prior WeaponFire.
+     *
+     * @param millis
+     *            The time between the receipt of the two interactions, in
+     *            milliseconds
+     */
+    public void pairMatched(final long millis)
+    {
+        pairMatch.record(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+    
+    @Override
+    public Map<String, Long> getInteractionsReceived()
+    {
+        return snapshot(interactionsReceived, LongAdder::sum);
+    }
+    
+    @Override
+    public long getQueueDepth()
+    {
+        return queueDepth.get();
+    }
+    
+    @Override
+    public long getQueueHighWaterMark()
+    {
+        return queueHighWaterMark.get();
+    }
+    
+    @Override
+    public long getDiscoveredObjects()
+    {
+        return discoveredObjects.sum();
+    }
+    
+    @Override
+    public long getInteractionsDecoded()
+    {
+        return receiveToDecode.getCount();
+    }
+    
+    @Override
+    public double getReceiveToDecodeMeanMillis()
+    {
+        return receiveToDecode.getMean(TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public double getReceiveToDecodeMaxMillis()
+    {
+        return receiveToDecode.getMax(TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public Map<String, Double> getParameterDecodeMeanMicros()
+    {
+        return snapshot(parameterDecode, timer -> timer.getMean(TimeUnit.MICROSECONDS));
+    }
+    
+    @Override
+    public Map<String, Double> getParameterDecodeMaxMicros()
+    {
+        return snapshot(parameterDecode, timer -> timer.getMax(TimeUnit.MICROSECONDS));
+    }
+    
+    @Override
+    public Map<String, Long> getDecodeFailures()
+    {
+        return snapshot(decodeFailures, LongAdder::sum);
+    }
+    
+    @Override
+    public long getPairsMatched()
+    {
+        return pairMatch.getCount();
+    }
+    
+    @Override
+    public double getPairMatchMeanMillis()
+    {
+        return pairMatch.getMean(TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public double getPairMatchMaxMillis()
+    {
+        return pairMatch.getMax(TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public void reset()
+    {
+        interactionsReceived.clear();
+        queueHighWaterMark.reset();
+        queueHighWaterMark.accumulate(queueDepth.get());
+        receiveToDecode.reset();
+        parameterDecode.clear();
+        decodeFailures.clear();
+        pairMatch.reset();
+    }
+    
+    /**
+     * Registers the metrics with the platform MBean server, replacing any metrics
+     * already registered under the same name.
+     *
+     * @param name
+     *            The name under which to register the metrics, normally that of
+     *            the test federate
+     * @throws JMException
+     *             If the metrics could not be registered
+     */
+    public synchronized void register(final String name) throws JMException
+    {
+        unregister();
+        
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName(JMX_DOMAIN, "name", ObjectName.quote(name));
+        
+        if (server.isRegistered(objectName))
+        {
+            server.unregisterMBean(objectName);
+        }
+        
+        server.registerMBean(this, objectName);
+        registeredName = objectName;
+    }
+    
+    /**
+     * Starts writing the metrics to a log at a fixed interval, on a thread of its
+     * own.
+     *
+     * @param interval
+     *            The interval at which to write the metrics
+     * @param unit
+     *            The unit of the interval
+     * @param logger
+     *            The logger to which to write the metrics
+     */
+    public synchronized void startReporting(final long interval, final TimeUnit unit, final Logger logger)
+    {
+        stopReporting();
+        
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "ValidationMetrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> logger.info(toString()), interval, interval, unit);
+    }
+    
+    /**
+     * Stops writing the metrics to the log and unregisters them from JMX.
+     */
+    public synchronized void close()
+    {
+        stopReporting();
+        unregister();
+    }
+    
+    @Override
+    public String toString()
+    {
+        StringJoiner report = new StringJoiner(System.lineSeparator());
+        report.add("Validation metrics:");
+        report.add(String.join(" ", "  Interactions received:", getInteractionsReceived().toString()));
+        report.add(String.join(" ", "  Queue depth:", String.valueOf(getQueueDepth()), "high water mark:",
+                String.valueOf(getQueueHighWaterMark())));
+        report.add(String.join(" ", "  Discovered objects:", String.valueOf(getDiscoveredObjects())));
+        report.add(String.join(" ", "  Receive to decode (ms): count", String.valueOf(getInteractionsDecoded()),
+                "mean", format(getReceiveToDecodeMeanMillis()), "max", format(getReceiveToDecodeMaxMillis())));
+        
+        for (Map.Entry<String, LatencyTimer> e : new TreeMap<>(parameterDecode).entrySet())
+        {
+            report.add(String.join(" ", "  Decode", e.getKey(), "(us): count", String.valueOf(e.getValue().getCount()),
+                    "mean", format(e.getValue().getMean(TimeUnit.MICROSECONDS)), "max",
+                    format(e.getValue().getMax(TimeUnit.MICROSECONDS))));
+        }
+        
+        report.add(String.join(" ", "  Decode failures:", getDecodeFailures().toString()));
+        report.add(String.join(" ", "  Pair match (ms): count", String.valueOf(getPairsMatched()), "mean",
+                format(getPairMatchMeanMillis()), "max", format(getPairMatchMaxMillis())));
+        
+        return report.toString();
+    }
+    
+    /**
+     * Stops writing the metrics to the log, if they are being written.
+     */
+    private void stopReporting()
+    {
+        if (reporter != null)
+        {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+    
+    /**
+     * Unregisters the metrics from JMX, if they are registered.
+     */
+    private void unregister()
+    {
+        if (registeredName != null)
+        {
+            try
+            {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+            }
+            catch (JMException e)
+            {
+                // Already unregistered
+            }
+            registeredName = null;
+        }
+    }
+    
+    /**
+     * Takes a sorted copy of a map of metrics.
+     *
+     * @param metrics
+     *            The metrics
+     * @param value
+     *            Extracts the value to report from each metric
+     * @param <M>
+     *            The type of the metrics
+     * @param <V>
+     *            The type of the values reported
+     * @return The values of the metrics, sorted by name
+     */
+    private static <M, V> Map<String, V> snapshot(final Map<String, M> metrics, final Function<M, V> value)
+    {
+        Map<String, V> values = new TreeMap<>();
+        for (Map.Entry<String, M> e : metrics.entrySet())
+        {
+            values.put(e.getKey(), value.apply(e.getValue()));
+        }
+        return values;
+    }
+    
+    /**
+     * @param value
+     *            A value to report
+     * @return The value with three decimal places
+     */
+    private static String format(final double value)
+    {
+        return String.format("%.3f", value);
+    }
+}
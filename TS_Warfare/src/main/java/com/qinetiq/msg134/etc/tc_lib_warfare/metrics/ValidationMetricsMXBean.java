@@ -0,0 +1,108 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.metrics;
+
+import java.util.Map;
+
+/**
+ * The management interface through which the {@link ValidationMetrics} are
+ * exposed over JMX. Latencies are given in milliseconds, other than the decode
+ * times of individual parameters, which are given in microseconds.
+ *
+ * @author QinetiQ
+ */
+public interface ValidationMetricsMXBean
+{
+    /**
+     * @return The number of interactions received, by interaction class
+     */
+    Map<String, Long> getInteractionsReceived();
+    
+    /**
+     * @return The number of received interactions waiting to be processed
+     */
+    long getQueueDepth();
+    
+    /**
+     * @return The largest number of received interactions that have been waiting
+     *         to be processed at once
+     */
+    long getQueueHighWaterMark();
+    
+    /**
+     * @return The number of object instances discovered and not yet removed
+     */
+    long getDiscoveredObjects();
+    
+    /**
+     * @return The number of interactions decoded
+     */
+    long getInteractionsDecoded();
+    
+    /**
+     * @return The mean time between an interaction being received and its
+     *         decoding starting
+     */
+    double getReceiveToDecodeMeanMillis();
+    
+    /**
+     * @return The longest time between an interaction being received and its
+     *         decoding starting
+     */
+    double getReceiveToDecodeMaxMillis();
+    
+    /**
+     * @return The mean time taken to decode each parameter, keyed by interaction
+     *         and parameter name
+     */
+    Map<String, Double> getParameterDecodeMeanMicros();
+    
+    /**
+     * @return The longest time taken to decode each parameter, keyed by
+     *         interaction and parameter name
+     */
+    Map<String, Double> getParameterDecodeMaxMicros();
+    
+    /**
+     * @return The number of values of each parameter that failed to decode, keyed
+     *         by interaction and parameter name
+     */
+    Map<String, Long> getDecodeFailures();
+    
+    /**
+     * @return The number of MunitionDetonation interactions matched with a prior
+     *         WeaponFire
+     */
+    long getPairsMatched();
+    
+    /**
+     * @return The mean time between the receipt of a WeaponFire and of its
+     *         matching MunitionDetonation
+     */
+    double getPairMatchMeanMillis();
+    
+    /**
+     * @return The longest time between the receipt of a WeaponFire and of its
+     *         matching MunitionDetonation
+     */
+    double getPairMatchMaxMillis();
+    
+    /**
+     * Discards the metrics gathered so far, other than the queue depth and the
+     * number of discovered objects, which describe the current state.
+     */
+    void reset();
+}
@@ -0,0 +1,5 @@
+/**
+ * Contains the metrics gathered on the performance of the validation pipeline.
+ * @author QinetiQ
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.metrics;
\ No newline at end of file
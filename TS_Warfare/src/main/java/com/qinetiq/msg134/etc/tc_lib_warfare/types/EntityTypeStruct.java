@@ -16,7 +16,7 @@
 package com.qinetiq.msg134.etc.tc_lib_warfare.types;
 
 /**
- * Encapsulation of the relevant the fields from the EntityTypeStruct
+ * Encapsulation of the fields from the EntityTypeStruct
  * fixed record type as defined in the RPR- Base FOM.
  * @author QinetiQ
  */
@@ -77,15 +77,62 @@ public class EntityTypeStruct
 	private final MunitionDomain domain;
 	
 	/**
-	 * Constructs an immutable instance of this class.
+	 * The Country Code, as an unsigned value.
+	 */
+	private final int countryCode;
+	
+	/**
+	 * The Category, as an unsigned value.
+	 */
+	private final int category;
+	
+	/**
+	 * The Subcategory, as an unsigned value.
+	 */
+	private final int subcategory;
+	
+	/**
+	 * The Specific, as an unsigned value.
+	 */
+	private final int specific;
+	
+	/**
+	 * The Extra, as an unsigned value.
+	 */
+	private final int extra;
+	
+	/**
+	 * Constructs an immutable instance of this class, whose remaining fields
+	 * are zero.
 	 * @param entityKind The Entity Kind value
 	 * @param domain The Munition Domain value
 	 */
 	public EntityTypeStruct(final EntityKind entityKind, final MunitionDomain domain) 
+	{
+		this(entityKind, domain, 0, 0, 0, 0, 0);
+	}
+	
+	/**
+	 * Constructs an immutable instance of this class.
+	 * @param entityKind The Entity Kind value
+	 * @param domain The Munition Domain value
+	 * @param countryCode The Country Code value
+	 * @param category The Category value
+	 * @param subcategory The Subcategory value
+	 * @param specific The Specific value
+	 * @param extra The Extra value
+	 */
+	public EntityTypeStruct(final EntityKind entityKind, final MunitionDomain domain, final int countryCode,
+			final int category, final int subcategory, final int specific, final int extra) 
 	{
 		super();
 		this.entityKind = entityKind;
 		this.domain = domain;
+		this.countryCode = countryCode;
+		this.category = category;
+		this.subcategory = subcategory;
+		this.specific = specific;
+		this.extra = extra;
 	}
 	
 	/**
@@ -104,9 +151,92 @@ public class EntityTypeStruct
 		return domain;
 	}
 	
+	/**
+	 * @return The countryCode
+	 */
+	public int getCountryCode() 
+	{
+		return countryCode;
+	}
+	
+	/**
+	 * @return The category
+	 */
+	public int getCategory() 
+	{
+		return category;
+	}
+	
+	/**
+	 * @return The subcategory
+	 */
+	public int getSubcategory() 
+	{
+		return subcategory;
+	}
+	
+	/**
+	 * @return The specific
+	 */
+	public int getSpecific() 
+	{
+		return specific;
+	}
+	
+	/**
+	 * @return The extra
+	 */
+	public int getExtra() 
+	{
+		return extra;
+	}
+	
 	@Override
 	public String toString() {
-		return String.join(" ", "EntityTypeStruct[","EntityKind=",entityKind.name(),"MunitionDomain=",domain.name(),"]");
+		return String.join(" ", "EntityTypeStruct[","EntityKind=",entityKind.name(),"MunitionDomain=",domain.name(),
+				"CountryCode=",String.valueOf(countryCode),"Category=",String.valueOf(category),
+				"Subcategory=",String.valueOf(subcategory),"Specific=",String.valueOf(specific),
+				"Extra=",String.valueOf(extra),"]");
+	}
+	
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((domain == null) ? 0 : domain.hashCode());
+		result = prime * result + ((entityKind == null) ? 0 : entityKind.hashCode());
+		result = prime * result + countryCode;
+		result = prime * result + category;
+		result = prime * result + subcategory;
+		result = prime * result + specific;
+		result = prime * result + extra;
+		return result;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		EntityTypeStruct other = (EntityTypeStruct) obj;
+		if (domain != other.domain)
+			return false;
+		if (entityKind != other.entityKind)
+			return false;
+		if (countryCode != other.countryCode)
+			return false;
+		if (category != other.category)
+			return false;
+		if (subcategory != other.subcategory)
+			return false;
+		if (specific != other.specific)
+			return false;
+		if (extra != other.extra)
+			return false;
+		return true;
 	}
 	
 
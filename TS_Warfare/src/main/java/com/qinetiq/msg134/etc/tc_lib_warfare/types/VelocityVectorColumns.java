@@ -0,0 +1,113 @@
+/**
+ * Copyright 2017, UK (QinetiQ)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.types;
+
+/**
+ * The fields of a number of VelocityVectorStruct values, held as one array per
+ * field so that statistics over many velocities can run over primitive arrays.
+ * Entry i of each array belongs to the i'th velocity.
+ * 
+ * The arrays are not copied, so should not be modified once the object has been
+ * constructed.
+ * 
+ * @author QinetiQ
+ */
+public class VelocityVectorColumns
+{
+    /**
+     * Velocity components along the X axis
+     */
+    private final float[] xVelocity;
+    
+    /**
+     * Velocity components along the Y axis
+     */
+    private final float[] yVelocity;
+    
+    /**
+     * Velocity components along the Z axis
+     */
+    private final float[] zVelocity;
+    
+    /**
+     * Constructs an instance of this class.
+     * 
+     * @param xVelocity
+     *            Velocity components along the X axis
+     * @param yVelocity
+     *            Velocity components along the Y axis
+     * @param zVelocity
+     *            Velocity components along the Z axis
+     */
+    public VelocityVectorColumns(final float[] xVelocity, final float[] yVelocity, final float[] zVelocity)
+    {
+        if (xVelocity.length != yVelocity.length || xVelocity.length != zVelocity.length)
+        {
+            throw new IllegalArgumentException("Columns must all be the same length");
+        }
+        this.xVelocity = xVelocity;
+        this.yVelocity = yVelocity;
+        this.zVelocity = zVelocity;
+    }
+    
+    /**
+     * @return The number of velocities.
+     */
+    public int size()
+    {
+        return xVelocity.length;
+    }
+    
+    /**
+     * @return Velocity components along the X axis
+     */
+    public float[] getXVelocity()
+    {
+        return xVelocity;
+    }
+    
+    /**
+     * @return Velocity components along the Y axis
+     */
+    public float[] getYVelocity()
+    {
+        return yVelocity;
+    }
+    
+    /**
+     * @return Velocity components along the Z axis
+     */
+    public float[] getZVelocity()
+    {
+        return zVelocity;
+    }
+    
+    /**
+     * @param index
+     *            The index of the velocity.
+     * @return The velocity at the given index.
+     */
+    public VelocityVectorStruct get(final int index)
+    {
+        return new VelocityVectorStruct(xVelocity[index], yVelocity[index], zVelocity[index]);
+    }
+    
+    @Override
+    public String toString()
+    {
+        return String.join(" ", "VelocityVectorColumns[", "size=", String.valueOf(size()), "]");
+    }
+}
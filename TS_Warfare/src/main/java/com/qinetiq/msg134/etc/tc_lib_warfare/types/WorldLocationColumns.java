@@ -0,0 +1,113 @@
+/**
+ * Copyright 2017, UK (QinetiQ)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.types;
+
+/**
+ * The fields of a number of WorldLocationStruct values, held as one array per
+ * field so that statistics over many locations can run over primitive arrays.
+ * Entry i of each array belongs to the i'th location.
+ * 
+ * The arrays are not copied, so should not be modified once the object has been
+ * constructed.
+ * 
+ * @author QinetiQ
+ */
+public class WorldLocationColumns
+{
+    /**
+     * Distances from the origin along the X axis in metres.
+     */
+    private final double[] x;
+    
+    /**
+     * Distances from the origin along the Y axis in metres.
+     */
+    private final double[] y;
+    
+    /**
+     * Distances from the origin along the Z axis in metres.
+     */
+    private final double[] z;
+    
+    /**
+     * Constructs an instance of this class.
+     * 
+     * @param x
+     *            Distances from the origin along the X axis in metres.
+     * @param y
+     *            Distances from the origin along the Y axis in metres.
+     * @param z
+     *            Distances from the origin along the Z axis in metres.
+     */
+    public WorldLocationColumns(final double[] x, final double[] y, final double[] z)
+    {
+        if (x.length != y.length || x.length != z.length)
+        {
+            throw new IllegalArgumentException("Columns must all be the same length");
+        }
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+    
+    /**
+     * @return The number of locations.
+     */
+    public int size()
+    {
+        return x.length;
+    }
+    
+    /**
+     * @return Distances from the origin along the X axis in metres.
+     */
+    public double[] getX()
+    {
+        return x;
+    }
+    
+    /**
+     * @return Distances from the origin along the Y axis in metres.
+     */
+    public double[] getY()
+    {
+        return y;
+    }
+    
+    /**
+     * @return Distances from the origin along the Z axis in metres.
+     */
+    public double[] getZ()
+    {
+        return z;
+    }
+    
+    /**
+     * @param index
+     *            The index of the location.
+     * @return The location at the given index.
+     */
+    public WorldLocationStruct get(final int index)
+    {
+        return new WorldLocationStruct(x[index], y[index], z[index]);
+    }
+    
+    @Override
+    public String toString()
+    {
+        return String.join(" ", "WorldLocationColumns[", "size=", String.valueOf(size()), "]");
+    }
+}
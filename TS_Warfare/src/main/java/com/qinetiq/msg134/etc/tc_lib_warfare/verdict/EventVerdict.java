@@ -0,0 +1,200 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.verdict;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.json.simple.JSONObject;
+
+/**
+ * The verdict reached on a single WeaponFire or MunitionDetonation event: the
+ * outcome for each of its parameters, the result of the munition object check
+ * and whether it was paired with a prior event.
+ *
+ * A verdict is filled in by the thread that processes the event and must not be
+ * changed once it has been passed to a {@link VerdictLogWriter}.
+ *
+ * @author QinetiQ
+ */
+public class EventVerdict
+{
+    /**
+     * The name of the interaction class.
+     */
+    private final String interaction;
+    
+    /**
+     * The IssuingObjectIdentifier of the EventIdentifier.
+     */
+    private final String issuingObjectIdentifier;
+    
+    /**
+     * The EventCount of the EventIdentifier.
+     */
+    private final short eventCount;
+    
+    /**
+     * The time at which the interaction was received, in milliseconds since the
+     * epoch.
+     */
+    private final long receiveTime;
+    
+    /**
+     * The outcome for each parameter, in the order in which they were processed.
+     */
+    private final Map<String, String> parameterOutcomes = new LinkedHashMap<>();
+    
+    /**
+     * The result of the munition object check, or null if it was not made.
+     */
+    private String munitionCheck;
+    
+    /**
+     * Whether the event was paired with a prior event, or null if pairs are not
+     * tested for this event.
+     */
+    private String pairStatus;
+    
+    /**
+     * The name of the SuT federate that sent the event, or null if only one SuT
+     * is validated.
+     */
+    private String sut;
+    
+    /**
+     * Constructor
+     *
+     * @param interaction
+     *            The name of the interaction class
+     * @param issuingObjectIdentifier
+     *            The IssuingObjectIdentifier of the EventIdentifier
+     * @param eventCount
+     *            The EventCount of the EventIdentifier
+     * @param receiveTime
+     *            The time at which the interaction was received, in milliseconds
+     *            since the epoch
+     */
+    public EventVerdict(final String interaction, final String issuingObjectIdentifier, final short eventCount,
+            final long receiveTime)
+    {
+        this.interaction = interaction;
+        this.issuingObjectIdentifier = issuingObjectIdentifier;
+        this.eventCount = eventCount;
+        this.receiveTime = receiveTime;
+    }
+    
+    /**
+     * Records the outcome for a parameter.
+     *
+     * @param parameter
+     *            The name of the parameter
+     * @param outcome
+     *            The outcome
+     */
+    public void setParameterOutcome(final String parameter, final String outcome)
+    {
+        parameterOutcomes.put(parameter, outcome);
+    }
+    
+    /**
+     * @param munitionCheck
+     *            The result of the munition object check
+     */
+    public void setMunitionCheck(final String munitionCheck)
+    {
+        this.munitionCheck = munitionCheck;
+    }
+    
+    /**
+     * @param pairStatus
+     *            Whether the event was paired with a prior event
+     */
+    public void setPairStatus(final String pairStatus)
+    {
+        this.pairStatus = pairStatus;
+    }
+    
+    /**
+     * @param sut
+     *            The name of the SuT federate that sent the event
+     */
+    public void setSut(final String sut)
+    {
+        this.sut = sut;
+    }
+    
+    /**
+     * @return The name of the interaction class
+     */
+    public String getInteraction()
+    {
+        return interaction;
+    }
+    
+    /**
+     * @return The outcome for each parameter, in the order in which they were
+     *         processed
+     */
+    public Map<String, String> getParameterOutcomes()
+    {
+        return parameterOutcomes;
+    }
+    
+    /**
+     * @return The result of the munition object check, or null if it was not made
+     */
+    public String getMunitionCheck()
+    {
+        return munitionCheck;
+    }
+    
+    /**
+     * @return Whether the event was paired with a prior event, or null if pairs
+     *         are not tested for this event
+     */
+    public String getPairStatus()
+    {
+        return pairStatus;
+    }
+    
+    /**
+     * @return The verdict as a single line of JSON, omitting the checks that were
+     *         not made
+     */
+    public String toJson()
+    {
+        Map<String, Object> json = new LinkedHashMap<>();
+        if (sut != null)
+        {
+            json.put("sut", sut);
+        }
+        json.put("interaction", interaction);
+        json.put("issuingObjectIdentifier", issuingObjectIdentifier);
+        json.put("eventCount", eventCount);
+        json.put("receiveTime", receiveTime);
+        json.put("parameters", parameterOutcomes);
+        if (munitionCheck != null)
+        {
+            json.put("munitionCheck", munitionCheck);
+        }
+        if (pairStatus != null)
+        {
+            json.put("pairStatus", pairStatus);
+        }
+        return JSONObject.toJSONString(json);
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.verdict;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes the verdict on each processed event to a file as a line of JSON, so
+ * that the results can be read incrementally without parsing the text log.
+ *
+ * Verdicts are handed over through a bounded queue and written in batches by a
+ * background thread, so that the thread processing the events never waits for
+ * the disk. If the queue is full the verdict is dropped and counted instead.
+ *
+ * @author QinetiQ
+ */
+public class VerdictLogWriter implements Closeable
+{
+    /**
+     * The number of verdicts that may be waiting to be written when none is given.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+    
+    /**
+     * The longest time for which written verdicts are held in the buffer, in
+     * milliseconds.
+     */
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+    
+    /**
+     * The verdicts waiting to be written.
+     */
+    private final BlockingQueue<EventVerdict> queue;
+    
+    /**
+     * The writer to the verdict log file.
+     */
+    private final BufferedWriter writer;
+    
+    /**
+     * The thread that writes the verdicts.
+     */
+    private final Thread thread;
+    
+    /**
+     * The number of verdicts written.
+     */
+    private final AtomicLong written = new AtomicLong();
+    
+    /**
+     * The number of verdicts dropped because the queue was full.
+     */
+    private final AtomicLong dropped = new AtomicLong();
+    
+    /**
+     * Set when the writer is closed.
+     */
+    private volatile boolean closed;
+    
+    /**
+     * The failure that stopped the verdicts being written, if any.
+     */
+    private volatile IOException failure;
+    
+    /**
+     * Creates a new verdict log file, replacing any existing file.
+     *
+     * @param path
+     *            The path of the verdict log file
+     * @throws IOException
+     *             If the file could not be created
+     */
+    public VerdictLogWriter(final Path path) throws IOException
+    {
+        this(path, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Creates a new verdict log file, replacing any existing file.
+     *
+     * @param path
+     *            The path of the verdict log file
+     * @param capacity
+     *            The number of verdicts that may be waiting to be written
+     * @throws IOException
+     *             If the file could not be created
+     */
+    public VerdictLogWriter(final Path path, final int capacity) throws IOException
+    {
+        queue = new ArrayBlockingQueue<>(capacity);
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        thread = new Thread(this::run, "VerdictLogWriter");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Hands a verdict over to be written. This never blocks.
+     *
+     * @param verdict
+     *            The verdict, which must not be changed afterwards
+     * @return True if the verdict will be written, false if it was dropped
+     *         because the queue was full or the writer has been closed
+     */
+    public boolean write(final EventVerdict verdict)
+    {
+        boolean accepted = !closed && failure == null && queue.offer(verdict);
+        
+        if (!accepted)
+        {
+            dropped.incrementAndGet();
+        }
+        
+        return accepted;
+    }
+    
+    /**
+     * @return The number of verdicts written to the file so far
+     */
+    public long getWritten()
+    {
+        return written.get();
+    }
+    
+    /**
+     * @return The number of verdicts dropped because the queue was full or the
+     *         writer had failed
+     */
+    public long getDropped()
+    {
+        return dropped.get();
+    }
+    
+    /**
+     * Writes the verdicts still waiting and closes the file.
+     *
+     * @throws IOException
+     *             If the verdicts could not be written
+     */
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        
+        try
+        {
+            thread.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        
+        writer.close();
+        
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+    
+    /**
+     * Writes the verdicts in batches until the writer is closed and the queue has
+     * been emptied.
+     */
+    private void run()
+    {
+        List<EventVerdict> batch = new ArrayList<>();
+        long lastFlush = System.currentTimeMillis();
+        
+        try
+        {
+            while (!closed || !queue.isEmpty())
+            {
+                EventVerdict first = queue.poll(FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null)
+                {
+                    batch.add(first);
+                    queue.drainTo(batch);
+                    for (EventVerdict verdict : batch)
+                    {
+                        writer.write(verdict.toJson());
+                        writer.newLine();
+                    }
+                    written.addAndGet(batch.size());
+                    batch.clear();
+                }
+                
+                // Keep the file up to date for readers following it
+                if (System.currentTimeMillis() - lastFlush >= FLUSH_INTERVAL_MILLIS)
+                {
+                    writer.flush();
+                    lastFlush = System.currentTimeMillis();
+                }
+            }
+            writer.flush();
+        }
+        catch (IOException e)
+        {
+            failure = e;
+            dropped.addAndGet(batch.size() + queue.size());
+            queue.clear();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
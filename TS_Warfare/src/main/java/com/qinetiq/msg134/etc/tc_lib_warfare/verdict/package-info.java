@@ -0,0 +1,5 @@
+/**
+ * Contains the structured log of the verdict reached on each processed event.
+ * @author QinetiQ
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare.verdict;
\ No newline at end of file
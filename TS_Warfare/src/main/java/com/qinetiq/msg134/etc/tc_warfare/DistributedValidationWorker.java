@@ -0,0 +1,138 @@
+/**
+ * Copyright 2017, UK (QinetiQ)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_warfare;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.DecoderGenerator;
+import com.qinetiq.msg134.etc.tc_lib_warfare.TC_Warfare_TcParam;
+import com.qinetiq.msg134.etc.tc_lib_warfare.distributed.ValidationWorker;
+
+import hla.rti1516e.RtiFactoryFactory;
+import hla.rti1516e.encoding.EncoderFactory;
+
+/**
+ * Runs {@link ValidationWorker}s that validate the interactions published by
+ * {@link TC_0001_Warfare} when its validation is distributed. The workers take
+ * the broker, the queues and the FOM modules from the same JSON configuration
+ * file as the test case, and run until the JVM is stopped.
+ *
+ * @author QinetiQ
+ */
+public final class DistributedValidationWorker
+{
+    /**
+     * Not instantiated.
+     */
+    private DistributedValidationWorker()
+    {
+    }
+    
+    /**
+     * Entry point to run the validation workers.
+     * 
+     * @param args
+     *            The full path of the JSON configuration file, then optionally
+     *            the number of workers, which is by default the number of
+     *            processors.
+     */
+    public static void main(final String[] args)
+    {
+        Logger logger = LoggerFactory.getLogger(DistributedValidationWorker.class);
+        
+        if (args.length >= 1)
+        {
+            File file = new File(args[0]);
+            try (Scanner scanner = new Scanner(file))
+            {
+                scanner.useDelimiter("\\Z");
+                TC_Warfare_TcParam tcParam = new TC_Warfare_TcParam(scanner.next(), logger);
+                int workerCount = args.length > 1 ? Integer.parseInt(args[1])
+                        : Runtime.getRuntime().availableProcessors();
+                
+                EncoderFactory encoderFactory = RtiFactoryFactory.getRtiFactory().getEncoderFactory();
+                Connection connection = new ActiveMQConnectionFactory(tcParam.getBrokerUrl()).createConnection();
+                
+                // Each worker validates on the thread of its own session, so each has its own
+                // decoder generator. The parsed FOM modules are shared between them.
+                List<ValidationWorker> workers = new ArrayList<>();
+                for (int i = 0; i < workerCount; i++)
+                {
+                    workers.add(new ValidationWorker(connection, tcParam.getBatchQueue(), tcParam.getResultQueue(),
+                            new DecoderGenerator(tcParam.getUrls(), encoderFactory, logger), logger));
+                }
+                
+                CountDownLatch stopped = new CountDownLatch(1);
+                Runtime.getRuntime().addShutdownHook(new Thread(() ->
+                {
+                    stop(connection, workers, logger);
+                    stopped.countDown();
+                }, "DistributedValidationWorkerShutdown"));
+                
+                connection.start();
+                logger.info(String.join(" ", "Started", String.valueOf(workerCount), "validation workers on",
+                        tcParam.getBatchQueue(), "at", tcParam.getBrokerUrl()));
+                stopped.await();
+            }
+            catch (Exception e)
+            {
+                e.printStackTrace();
+            }
+        }
+        else
+        {
+            System.err.append("DistributedValidationWorker. Expecting JSON filename");
+        }
+    }
+    
+    /**
+     * Stops the workers and closes the connection to the broker.
+     * 
+     * @param connection
+     *            The connection to the broker
+     * @param workers
+     *            The workers
+     * @param logger
+     *            The logger to use
+     */
+    private static void stop(final Connection connection, final List<ValidationWorker> workers, final Logger logger)
+    {
+        try
+        {
+            for (ValidationWorker worker : workers)
+            {
+                worker.close();
+            }
+            connection.close();
+        }
+        catch (IOException | JMSException e)
+        {
+            logger.warn("Unable to close the connection to the JMS broker", e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2017, UK (QinetiQ)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_warfare;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.TC_Warfare_TcParam;
+import com.qinetiq.msg134.etc.tc_lib_warfare.loopback.LoadGenerator;
+import com.qinetiq.msg134.etc.tc_lib_warfare.loopback.LoopbackFederation;
+
+import de.fraunhofer.iosb.tc_lib.IVCT_RTIambassador;
+import hla.rti1516e.RtiFactoryFactory;
+import hla.rti1516e.exceptions.FederateInternalError;
+
+/**
+ * Runs {@link TC_0001_Warfare} against a {@link LoopbackFederation} in which a
+ * {@link LoadGenerator} plays the part of the SuT, so that the test case can be
+ * loaded without a real RTI or SuT and its throughput and latency measured on a
+ * single machine.
+ *
+ * @author QinetiQ
+ */
+public final class LoopbackLoadTest
+{
+    /**
+     * The number of engagements run when none is given.
+     */
+    private static final long DEFAULT_ENGAGEMENTS = 1000;
+    
+    /**
+     * Not instantiated.
+     */
+    private LoopbackLoadTest()
+    {
+    }
+    
+    /**
+     * Entry point to run the test case against the synthetic SuT.
+     * 
+     * @param args
+     *            The full path of the JSON configuration file, then optionally
+     *            the number of engagements per second, the burst size, the
+     *            proportion of interactions into which a fault is injected, the
+     *            number of engagements and the munition flight time in
+     *            milliseconds.
+     */
+    public static void main(final String[] args)
+    {
+        Logger logger = LoggerFactory.getLogger(LoopbackLoadTest.class);
+        
+        if (args.length >= 1)
+        {
+            File file = new File(args[0]);
+            try (Scanner scanner = new Scanner(file))
+            {
+                scanner.useDelimiter("\\Z");
+                String paramJson = scanner.next();
+                TC_Warfare_TcParam tcParam = new TC_Warfare_TcParam(paramJson, logger);
+                
+                LoopbackFederation federation = new LoopbackFederation(
+                        RtiFactoryFactory.getRtiFactory().getEncoderFactory());
+                String sutFederateName = tcParam.getSutFederateName();
+                
+                LoadGenerator generator = new LoadGenerator(federation, sutFederateName, logger);
+                generator.setRate(args.length > 1 ? Double.parseDouble(args[1]) : 100);
+                generator.setBurstSize(args.length > 2 ? Integer.parseInt(args[2]) : 1);
+                generator.setErrorRatio(args.length > 3 ? Double.parseDouble(args[3]) : 0);
+                generator.setEngagementLimit(args.length > 4 ? Long.parseLong(args[4]) : DEFAULT_ENGAGEMENTS);
+                generator.setFlightTime(args.length > 5 ? Long.parseLong(args[5]) : 0, TimeUnit.MILLISECONDS);
+                
+                // The SuT joins having loaded the same FOM modules as the test case, and
+                // resigns once it has run all of its engagements
+                List<String> fomModules = new ArrayList<>();
+                for (URL url : tcParam.getUrls())
+                {
+                    fomModules.add(url.getPath());
+                }
+                federation.joinFederate(sutFederateName, tcParam.getSutFederateType(), fomModules);
+                
+                Thread sut = new Thread(() ->
+                {
+                    generator.run();
+                    try
+                    {
+                        federation.resignFederate(sutFederateName);
+                    }
+                    catch (FederateInternalError e)
+                    {
+                        logger.error(String.join(" ", "SuT", sutFederateName, "failed to resign"), e);
+                    }
+                }, sutFederateName);
+                sut.setDaemon(true);
+                
+                TC_0001_Warfare warfareTC = new TC_0001_Warfare()
+                {
+                    @Override
+                    protected IVCT_RTIambassador createRtiAmbassador(final Logger tcLogger)
+                    {
+                        return federation.createIvctRtiAmbassador(tcLogger);
+                    }
+                };
+                
+                long startTime = System.nanoTime();
+                sut.start();
+                warfareTC.execute(paramJson, logger);
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+                generator.stop();
+                
+                logger.info(String.join(" ", "Loopback load test finished after", String.valueOf(elapsedMillis),
+                        "ms. Engagements:", String.valueOf(generator.getEngagementsStarted()),
+                        "Interactions delivered:", String.valueOf(generator.getInteractionsDelivered()),
+                        "Interactions sent before subscription:", String.valueOf(generator.getInteractionsDropped()),
+                        "Faults injected:", String.valueOf(generator.getErrorsInjected())));
+            }
+            catch (Exception e)
+            {
+                e.printStackTrace();
+            }
+        }
+        else
+        {
+            System.err.append("LoopbackLoadTest. Expecting JSON filename");
+        }
+    }
+}
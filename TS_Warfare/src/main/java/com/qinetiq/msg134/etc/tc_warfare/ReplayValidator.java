@@ -0,0 +1,345 @@
+/**
+ * Copyright 2017, UK (QinetiQ)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_warfare;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.SutFederate;
+import com.qinetiq.msg134.etc.tc_lib_warfare.TC_Warfare_BaseModel;
+import com.qinetiq.msg134.etc.tc_lib_warfare.TC_Warfare_Config;
+import com.qinetiq.msg134.etc.tc_lib_warfare.TC_Warfare_TcParam;
+import com.qinetiq.msg134.etc.tc_lib_warfare.capture.CaptureFileReader;
+import com.qinetiq.msg134.etc.tc_lib_warfare.capture.CaptureFormat;
+import com.qinetiq.msg134.etc.tc_lib_warfare.capture.CaptureRecord;
+import com.qinetiq.msg134.etc.tc_lib_warfare.loopback.CaptureReplayer;
+import com.qinetiq.msg134.etc.tc_lib_warfare.loopback.LoopbackFederation;
+
+import de.fraunhofer.iosb.tc_lib.IVCT_BaseModel;
+import de.fraunhofer.iosb.tc_lib.IVCT_RTIambassador;
+import de.fraunhofer.iosb.tc_lib.TcInconclusive;
+import hla.rti1516e.RtiFactoryFactory;
+import hla.rti1516e.exceptions.FederateInternalError;
+
+/**
+ * Re-runs {@link TC_0001_Warfare} offline against a capture of an earlier run,
+ * so that the run can be checked again against a changed configuration, such as
+ * a different TC_0001_Warfare_Config.json ahead on the classpath. The captured
+ * callbacks are replayed through a {@link LoopbackFederation}, so they pass
+ * through the same decoding and verdicts as they did when received from the
+ * RTI, but as fast as they can be processed rather than at the pace at which
+ * they were captured.
+ *
+ * The test case is paced by the capture instead of the clock: each time it
+ * would wait for further callbacks, the capture is replayed up to and including
+ * the next interaction. Interactions are stamped with their captured receive
+ * times. Every SuT federate configured is joined for the whole of the capture
+ * and resigns at its end, which also ends the test if it is still waiting for
+ * interactions. As the capture does not record the federate that produced each
+ * interaction, the interactions of several SuTs are attributed by the
+ * IssuingObjectIdentifier prefix of each SuT.
+ *
+ * The replay is always run as a soak test, so that the whole of the capture is
+ * validated rather than only up to the first matching pair of interactions.
+ * Unless the configuration gives soak test thresholds, the defaults allow no
+ * failures, so the verdict is as strict as that of a run that is not a soak
+ * test.
+ *
+ * @author QinetiQ
+ */
+public final class ReplayValidator
+{
+    /**
+     * The configuration of the test case, read as configured but always running a
+     * soak test.
+     */
+    private static final class ReplayConfig extends TC_Warfare_Config
+    {
+        /**
+         * Constructor
+         *
+         * @param jsonFile
+         *            The JSON file from which to read the configuration
+         * @param logger
+         *            The logger to use
+         * @throws TcInconclusive
+         *             If the configuration could not be read
+         */
+        ReplayConfig(final String jsonFile, final Logger logger) throws TcInconclusive
+        {
+            super(jsonFile, logger);
+            
+            if (!soakTest)
+            {
+                logger.info("Replaying as a soak test so that the whole of the capture is validated");
+                soakTest = true;
+            }
+        }
+    }
+    
+    /**
+     * The test case, driven by the replay of a capture.
+     */
+    private static final class ReplayTestCase extends TC_0001_Warfare
+    {
+        /**
+         * The federation into which the capture is replayed.
+         */
+        private final LoopbackFederation federation;
+        
+        /**
+         * The reader of the capture.
+         */
+        private final CaptureFileReader reader;
+        
+        /**
+         * Replays the records of the capture into the federation.
+         */
+        private final CaptureReplayer replayer;
+        
+        /**
+         * The names of the SuT federates.
+         */
+        private final List<String> sutFederateNames;
+        
+        /**
+         * The logger to use.
+         */
+        private final Logger logger;
+        
+        /**
+         * The number of records replayed so far.
+         */
+        private long recordsReplayed;
+        
+        /**
+         * True once the whole of the capture has been replayed, or the replay
+         * failed.
+         */
+        private boolean finished;
+        
+        /**
+         * The error that stopped the replay, or null if there was none.
+         */
+        private Exception error;
+        
+        /**
+         * Constructor
+         *
+         * @param federation
+         *            The federation into which to replay the capture
+         * @param reader
+         *            The reader of the capture
+         * @param sutFederateNames
+         *            The names of the SuT federates
+         * @param logger
+         *            The logger to use
+         */
+        ReplayTestCase(final LoopbackFederation federation, final CaptureFileReader reader,
+                final List<String> sutFederateNames, final Logger logger)
+        {
+            this.federation = federation;
+            this.reader = reader;
+            this.replayer = new CaptureReplayer(federation);
+            this.sutFederateNames = sutFederateNames;
+            this.logger = logger;
+        }
+        
+        @Override
+        protected IVCT_RTIambassador createRtiAmbassador(final Logger tcLogger)
+        {
+            return federation.createIvctRtiAmbassador(tcLogger);
+        }
+        
+        @Override
+        protected TC_Warfare_Config createConfig(final String jsonFile, final Logger tcLogger)
+                throws TcInconclusive
+        {
+            return new ReplayConfig(jsonFile, tcLogger);
+        }
+        
+        @Override
+        public IVCT_BaseModel getIVCT_BaseModel(final String tcParamJson, final Logger tcLogger)
+                throws TcInconclusive
+        {
+            IVCT_BaseModel baseModel = super.getIVCT_BaseModel(tcParamJson, tcLogger);
+            ((TC_Warfare_BaseModel) baseModel).setReceiveClock(replayer::getReplayTime);
+            return baseModel;
+        }
+        
+        /**
+         * Replays the capture up to and including the next interaction, in place
+         * of waiting for it to be received.
+         */
+        @Override
+        protected void awaitCallbacks(final int sleepTimeMillis)
+        {
+            boolean interactionReplayed = false;
+            
+            while (!finished && !interactionReplayed)
+            {
+                try
+                {
+                    CaptureRecord record = reader.next();
+                    
+                    if (record == null)
+                    {
+                        finish();
+                    }
+                    else
+                    {
+                        record.replay(replayer);
+                        recordsReplayed++;
+                        interactionReplayed = record.getType() == CaptureFormat.INTERACTION;
+                    }
+                }
+                catch (IOException e)
+                {
+                    logger.error("Replay of the capture failed", e);
+                    error = e;
+                    finish();
+                }
+            }
+        }
+        
+        /**
+         * Ends the replay, stopping the test as a timeout would in a live run and
+         * resigning the SuT federates.
+         */
+        private void finish()
+        {
+            finished = true;
+            requestStop();
+            
+            for (String sutFederateName : sutFederateNames)
+            {
+                try
+                {
+                    federation.resignFederate(sutFederateName);
+                }
+                catch (FederateInternalError e)
+                {
+                    logger.error(String.join(" ", "SuT", sutFederateName, "failed to resign"), e);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Not instantiated.
+     */
+    private ReplayValidator()
+    {
+    }
+    
+    /**
+     * Entry point to re-run the test case against a capture.
+     * 
+     * @param args
+     *            The full path of the JSON configuration file, the path of the
+     *            capture file and, optionally, the number of threads over which to
+     *            decode the capture.
+     */
+    public static void main(final String[] args)
+    {
+        Logger logger = LoggerFactory.getLogger(ReplayValidator.class);
+        
+        if (args.length >= 2)
+        {
+            File file = new File(args[0]);
+            int decodeThreads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+            
+            try (Scanner scanner = new Scanner(file);
+                    CaptureFileReader reader = new CaptureFileReader(Paths.get(args[1]), decodeThreads))
+            {
+                scanner.useDelimiter("\\Z");
+                String paramJson = replayParameters(scanner.next());
+                TC_Warfare_TcParam tcParam = new TC_Warfare_TcParam(paramJson, logger);
+                
+                LoopbackFederation federation = new LoopbackFederation(
+                        RtiFactoryFactory.getRtiFactory().getEncoderFactory());
+                
+                // Join every SuT federate configured, as they were in the live run
+                List<String> sutFederateNames = new ArrayList<>();
+                for (SutFederate sut : tcParam.getSutFederates())
+                {
+                    federation.joinFederate(sut.getName());
+                    sutFederateNames.add(sut.getName());
+                }
+                
+                ReplayTestCase warfareTC = new ReplayTestCase(federation, reader, sutFederateNames, logger);
+                
+                long startTime = System.nanoTime();
+                warfareTC.execute(paramJson, logger);
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+                
+                logger.info(String.join(" ", "Replay of", args[1], "finished after", String.valueOf(elapsedMillis),
+                        "ms. Records replayed:", String.valueOf(warfareTC.recordsReplayed), "Interactions replayed:",
+                        String.valueOf(warfareTC.replayer.getInteractionsReplayed()),
+                        "Whole capture replayed:", String.valueOf(warfareTC.finished && warfareTC.error == null)));
+            }
+            catch (Exception e)
+            {
+                e.printStackTrace();
+            }
+        }
+        else
+        {
+            System.err.append("ReplayValidator. Expecting JSON filename and capture filename");
+        }
+    }
+    
+    /**
+     * Adapts the test case parameters for a replay: there is no need to sleep
+     * whilst waiting for callbacks or to time out, as the replay is paced by the
+     * capture, and the capture must not be overwritten by a new one.
+     * 
+     * @param paramJson
+     *            The test case parameters of the run
+     * @return The test case parameters for the replay
+     * @throws TcInconclusive
+     *             If the parameters could not be parsed
+     */
+    @SuppressWarnings("unchecked")
+    private static String replayParameters(final String paramJson) throws TcInconclusive
+    {
+        JSONObject jsonObject;
+        try
+        {
+            jsonObject = (JSONObject) new JSONParser().parse(paramJson);
+        }
+        catch (Exception e)
+        {
+            throw new TcInconclusive("Unable to parse test case parameter JSON string", e);
+        }
+        
+        jsonObject.put("sleepTime", 0.0);
+        jsonObject.put("testTimeout", -1.0);
+        jsonObject.remove("captureFile");
+        
+        return jsonObject.toJSONString();
+    }
+}
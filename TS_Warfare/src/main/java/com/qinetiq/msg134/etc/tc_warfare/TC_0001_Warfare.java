@@ -16,33 +16,69 @@
 package com.qinetiq.msg134.etc.tc_warfare;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.management.JMException;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.qinetiq.msg134.etc.tc_lib_warfare.AttributeRequestThrottle;
+import com.qinetiq.msg134.etc.tc_lib_warfare.AttributeSnapshot;
 import com.qinetiq.msg134.etc.tc_lib_warfare.DecoderGenerator;
 import com.qinetiq.msg134.etc.tc_lib_warfare.DiscoveredObject;
+import com.qinetiq.msg134.etc.tc_lib_warfare.FailureSummary;
+import com.qinetiq.msg134.etc.tc_lib_warfare.FlightTimeHistograms;
 import com.qinetiq.msg134.etc.tc_lib_warfare.InteractionRecord;
+import com.qinetiq.msg134.etc.tc_lib_warfare.ObjectLifecycleStore.Lifecycle;
+import com.qinetiq.msg134.etc.tc_lib_warfare.ReceiveClock;
 import com.qinetiq.msg134.etc.tc_lib_warfare.ReceivedInteraction;
+import com.qinetiq.msg134.etc.tc_lib_warfare.SoakStatistics;
+import com.qinetiq.msg134.etc.tc_lib_warfare.SutFederate;
 import com.qinetiq.msg134.etc.tc_lib_warfare.TC_Warfare_BaseModel;
 import com.qinetiq.msg134.etc.tc_lib_warfare.TC_Warfare_Config;
 import com.qinetiq.msg134.etc.tc_lib_warfare.TC_Warfare_TcParam;
+import com.qinetiq.msg134.etc.tc_lib_warfare.ValidationWorkers;
+import com.qinetiq.msg134.etc.tc_lib_warfare.capture.CaptureFileWriter;
+import com.qinetiq.msg134.etc.tc_lib_warfare.conformance.ConformanceEngine;
+import com.qinetiq.msg134.etc.tc_lib_warfare.conformance.ConformanceListener;
+import com.qinetiq.msg134.etc.tc_lib_warfare.conformance.ConformanceValidator;
+import com.qinetiq.msg134.etc.tc_lib_warfare.conformance.InteractionPlan;
 import com.qinetiq.msg134.etc.tc_lib_warfare.decode.Decoder;
 import com.qinetiq.msg134.etc.tc_lib_warfare.decode.EntityTypeStructDecoder;
 import com.qinetiq.msg134.etc.tc_lib_warfare.decode.EventIdentifierStructDecoder;
-import com.qinetiq.msg134.etc.tc_lib_warfare.decode.HLAVariableStringArrayDecoder;
 import com.qinetiq.msg134.etc.tc_lib_warfare.decode.RTIobjectIdDecoder;
+import com.qinetiq.msg134.etc.tc_lib_warfare.distributed.JmsCaptureSink;
+import com.qinetiq.msg134.etc.tc_lib_warfare.distributed.ResultAggregator;
+import com.qinetiq.msg134.etc.tc_lib_warfare.distributed.ValidationTally;
+import com.qinetiq.msg134.etc.tc_lib_warfare.jfr.ValidationEvents;
+import com.qinetiq.msg134.etc.tc_lib_warfare.metrics.ValidationMetrics;
 import com.qinetiq.msg134.etc.tc_lib_warfare.types.EventIdentifierStruct;
 import com.qinetiq.msg134.etc.tc_lib_warfare.types.EntityTypeStruct;
+import com.qinetiq.msg134.etc.tc_lib_warfare.verdict.EventVerdict;
+import com.qinetiq.msg134.etc.tc_lib_warfare.verdict.VerdictLogWriter;
 import de.fraunhofer.iosb.tc_lib.AbstractTestCase;
 import de.fraunhofer.iosb.tc_lib.IVCT_BaseModel;
 import de.fraunhofer.iosb.tc_lib.IVCT_RTI_Factory;
@@ -50,19 +86,18 @@ import de.fraunhofer.iosb.tc_lib.IVCT_RTIambassador;
 import de.fraunhofer.iosb.tc_lib.TcFailed;
 import de.fraunhofer.iosb.tc_lib.TcInconclusive;
 import hla.rti1516e.AttributeHandle;
-import hla.rti1516e.AttributeHandleValueMap;
+import hla.rti1516e.FederateHandle;
 import hla.rti1516e.InteractionClassHandle;
 import hla.rti1516e.ObjectClassHandle;
 import hla.rti1516e.ParameterHandle;
 import hla.rti1516e.ParameterHandleValueMap;
 import hla.rti1516e.encoding.DataElement;
 import hla.rti1516e.encoding.DecoderException;
+import hla.rti1516e.encoding.EncoderFactory;
 import hla.rti1516e.encoding.HLAunicodeString;
 import hla.rti1516e.encoding.HLAvariableArray;
 import hla.rti1516e.exceptions.FederateNotExecutionMember;
-import hla.rti1516e.exceptions.InteractionParameterNotDefined;
 import hla.rti1516e.exceptions.InvalidInteractionClassHandle;
-import hla.rti1516e.exceptions.InvalidParameterHandle;
 import hla.rti1516e.exceptions.NameNotFound;
 import hla.rti1516e.exceptions.NotConnected;
 import hla.rti1516e.exceptions.RTIinternalError;
@@ -74,6 +109,173 @@ import hla.rti1516e.exceptions.RTIinternalError;
  */
 public class TC_0001_Warfare extends AbstractTestCase
 {
+    /**
+     * The validation of one SuT federate, holding its own records, verdicts and
+     * statistics. The interactions attributed to a SuT are processed in the order
+     * received by one worker at a time, so a shard is never used by two threads
+     * at once.
+     */
+    private static final class SutShard
+    {
+        /**
+         * The SuT federate.
+         */
+        private final SutFederate sut;
+        
+        /**
+         * The interaction record of the WeaponFire interactions of the SuT.
+         */
+        private final InteractionRecord weaponFireRecord;
+        
+        /**
+         * The interaction record of the MunitionDetonation interactions of the SuT.
+         */
+        private final InteractionRecord munitionDetonationRecord;
+        
+        /**
+         * The times of flight from WeaponFire to the matching MunitionDetonation.
+         */
+        private final FlightTimeHistograms flightTimes;
+        
+        /**
+         * Validates the parameters of the interactions of the SuT against the
+         * plans of the conformance engine, with decoders of its own.
+         */
+        private final ConformanceValidator validator;
+        
+        /**
+         * The outcomes of validating the interactions of the further interaction
+         * classes configured, beyond WeaponFire and MunitionDetonation.
+         */
+        private final ValidationTally conformanceTally = new ValidationTally();
+        
+        /**
+         * The interactions attributed to the SuT that have yet to be processed, up
+         * to the capacity given by the TcParam.
+         */
+        private final Queue<ReceivedInteraction> queue = new ArrayDeque<>();
+        
+        /**
+         * The monotonic times, in nanoseconds, at which the MunitionDetonation
+         * interactions whose munition object instance has yet to be removed were
+         * received, by object name.
+         */
+        private final Map<String, Long> pendingRemovals = new LinkedHashMap<>();
+        
+        /**
+         * The number of interactions attributed to the SuT that were dropped
+         * because its queue was full.
+         */
+        private long dropped;
+        
+        /**
+         * The handle of the SuT federate, or null if it is not connected.
+         */
+        private FederateHandle federateHandle;
+        
+        /**
+         * The running aggregates of a soak test, or null if this is not a soak
+         * test.
+         */
+        private SoakStatistics soakStatistics;
+        
+        /**
+         * The verdict on the event being processed, or null if none is being
+         * recorded.
+         */
+        private EventVerdict verdict;
+        
+        /**
+         * True once a WeaponFire interaction has been received from the SuT.
+         */
+        private boolean weaponFireReceived;
+        
+        /**
+         * True once a MunitionDetonation interaction has been received from the
+         * SuT.
+         */
+        private boolean munitionDetonationReceived;
+        
+        /**
+         * True once the expected WeaponFire and MunitionDetonation interactions
+         * have been received from the SuT, or if neither is tested.
+         */
+        private boolean warfareComplete;
+        
+        /**
+         * True once the expected interactions have been received from the SuT, or
+         * its validation has failed.
+         */
+        private boolean complete;
+        
+        /**
+         * The reason the SuT failed or its validation was inconclusive, or null if
+         * it has not.
+         */
+        private Exception failure;
+        
+        /**
+         * Constructor
+         *
+         * @param sut
+         *            The SuT federate
+         * @param weaponFireRecord
+         *            The interaction record of the WeaponFire interactions
+         * @param munitionDetonationRecord
+         *            The interaction record of the MunitionDetonation interactions
+         * @param flightTimes
+         *            The times of flight from WeaponFire to the matching
+         *            MunitionDetonation
+         * @param validator
+         *            Validates the parameters of the interactions of the SuT
+         */
+        private SutShard(final SutFederate sut, final InteractionRecord weaponFireRecord,
+                final InteractionRecord munitionDetonationRecord, final FlightTimeHistograms flightTimes,
+                final ConformanceValidator validator)
+        {
+            this.sut = sut;
+            this.weaponFireRecord = weaponFireRecord;
+            this.munitionDetonationRecord = munitionDetonationRecord;
+            this.flightTimes = flightTimes;
+            this.validator = validator;
+        }
+        
+        /**
+         * Records the reason the SuT failed or its validation was inconclusive,
+         * which ends the validation of the SuT. Only the first reason is kept.
+         *
+         * @param reason
+         *            The TcFailed or TcInconclusive exception
+         */
+        private void fail(final Exception reason)
+        {
+            if (failure == null)
+            {
+                failure = reason;
+            }
+            complete = true;
+        }
+    }
+    
+    /**
+     * A test of a single SuT federate, such as that it joins the federation.
+     */
+    @FunctionalInterface
+    private interface SutTest
+    {
+        /**
+         * @param sut
+         *            The SuT federate
+         * @param logger
+         *            The logger to use
+         * @throws TcInconclusive
+         *             If the test is deemed inconclusive
+         * @throws TcFailed
+         *             If the test fails
+         */
+        void test(SutFederate sut, Logger logger) throws TcInconclusive, TcFailed;
+    }
+    
     private static final String CONFIG_FILE = "/TC_0001_Warfare_Config.json";
     
     /**
@@ -81,6 +283,11 @@ public class TC_0001_Warfare extends AbstractTestCase
      */
     private static final String HLA_FEDERATE_OBJECT = "HLAmanager.HLAfederate";
     
+    /**
+     * The name of the HLAFederate object class, as defined in the MIM.
+     */
+    private static final String HLA_FEDERATE_CLASS = "HLAfederate";
+    
     /**
      * The HLAfederateName attribute of the HLAFederate object, as declared in the
      * MIM.
@@ -119,6 +326,18 @@ public class TC_0001_Warfare extends AbstractTestCase
      */
     private static final String MUNITIONDETONATION = "MunitionDetonation";
     
+    /**
+     * The index of the plan of the WeaponFire interaction in the conformance
+     * engine.
+     */
+    private static final int WEAPONFIRE_PLAN = 0;
+    
+    /**
+     * The index of the plan of the MunitionDetonation interaction in the
+     * conformance engine.
+     */
+    private static final int MUNITIONDETONATION_PLAN = 1;
+    
     /**
      * The EventIdentifier parameter, as declared in the FOM for both WeaponFire and
      * MunitionDetonation interactions.
@@ -179,24 +398,51 @@ public class TC_0001_Warfare extends AbstractTestCase
     private DecoderGenerator decoderGenerator;
     
     /**
-     * The interaction record associated with the WeaponFire interaction. This will
-     * be set to null if the WeaponFire interaction is not tested, as defined in the
-     * configuration.
+     * The interaction record associated with the WeaponFire interaction of the
+     * first SuT. This will be set to null if the WeaponFire interaction is not
+     * tested, as defined in the configuration.
      */
     protected InteractionRecord weaponFireRecord;
     
     /**
-     * The interaction record associated with the MunitionDetonation interaction.
-     * This will be set to null if the MunitionDetonation interaction is not tested,
-     * as defined in the configuration.
+     * The interaction record associated with the MunitionDetonation interaction of
+     * the first SuT. This will be set to null if the MunitionDetonation
+     * interaction is not tested, as defined in the configuration.
      */
     protected InteractionRecord munitionDetonationRecord;
     
+    /**
+     * The compiled validation plans of the WeaponFire and MunitionDetonation
+     * interactions, at {@link #WEAPONFIRE_PLAN} and
+     * {@link #MUNITIONDETONATION_PLAN}, followed by those of the further
+     * interaction classes configured. Received interactions are dispatched by
+     * the index of the plan of their class.
+     */
+    private ConformanceEngine conformanceEngine;
+    
+    /**
+     * The validation of each SuT, in the order in which the SuTs are configured.
+     */
+    private final List<SutShard> shards = new ArrayList<>();
+    
+    /**
+     * The workers that process the interactions of the SuTs in parallel, or null
+     * if there is only one SuT.
+     */
+    private ExecutorService workers;
+    
     /**
      * The custom decoders (if any) configured for specific interaction parameters.
      */
     private Map<String, Decoder<?>> decoders = new HashMap<>();
     
+    /**
+     * The lock of each custom decoder, keyed as the decoders are. A decoder is
+     * shared by the workers of all the SuTs, and a {@link ReentrantLock} does not
+     * pin the carrier of a virtual thread that waits for it.
+     */
+    private Map<String, ReentrantLock> decoderLocks = new HashMap<>();
+    
     /**
      * The interaction parameters (if any) configured as being optional.
      */
@@ -207,6 +453,46 @@ public class TC_0001_Warfare extends AbstractTestCase
      */
     private Set<String> optionallyEmptyParams = new HashSet<>();
     
+    /**
+     * True if the per-message logging is reduced to keep its cost down.
+     */
+    private boolean lowOverheadLogging;
+    
+    /**
+     * The summary of repeated parameter failures, or null if every failure is
+     * logged in full.
+     */
+    private FailureSummary failureSummary;
+    
+    /**
+     * The writer of the verdict on each processed event, or null if the verdicts
+     * are only written to the log.
+     */
+    private VerdictLogWriter verdictLog;
+    
+    /**
+     * The connection to the JMS broker, or null if the interactions are validated
+     * here rather than by distributed validation workers.
+     */
+    private Connection brokerConnection;
+    
+    /**
+     * Publishes the received interactions to the validation workers, or null if
+     * they are validated here.
+     */
+    private JmsCaptureSink batchSink;
+    
+    /**
+     * Adds up the results sent back by the validation workers, or null if the
+     * interactions are validated here.
+     */
+    private ResultAggregator resultAggregator;
+    
+    /**
+     * Set to stop the test before it times out.
+     */
+    private volatile boolean stopRequested;
+    
     /**
      * Default constructor
      */
@@ -225,7 +511,8 @@ public class TC_0001_Warfare extends AbstractTestCase
      */
     private void initialise(final Logger logger) throws TcInconclusive
     {
-        tcWarfareConfig = new TC_Warfare_Config(CONFIG_FILE, logger);
+        tcWarfareConfig = createConfig(CONFIG_FILE, logger);
+        tcWarfareBaseModel.getObjectLifecycles().setCapacity(tcWarfareConfig.getMunitionLifecycleRetention());
         
         // Set up any configured custom decoders, throwing an exception if a decoder
         // could not be created.
@@ -234,6 +521,7 @@ public class TC_0001_Warfare extends AbstractTestCase
             try
             {
                 decoders.put(e.getKey(), e.getValue().newInstance());
+                decoderLocks.put(e.getKey(), new ReentrantLock());
             }
             catch (IllegalAccessException | InstantiationException ex)
             {
@@ -268,6 +556,43 @@ public class TC_0001_Warfare extends AbstractTestCase
             logger.error(msg);
             throw new TcInconclusive(msg);
         }
+        
+        // The distributed validation workers only check the parameters against the
+        // FOM, so deem the test inconclusive rather than silently skip the checks
+        // that they cannot apply
+        if (tcWarfareParam.isDistributedValidation())
+        {
+            List<String> unsupported = new ArrayList<>();
+            
+            if (tcWarfareConfig.isTestForMatchingPair())
+            {
+                unsupported.add("testForMatchingPair");
+            }
+            if (tcWarfareConfig.isTestMunitionInstance())
+            {
+                unsupported.add("testMunitionInstance");
+            }
+            if (tcWarfareConfig.isFlightTimeByShooter())
+            {
+                unsupported.add("flightTimeByShooter");
+            }
+            if (tcWarfareConfig.isSoakTest() && tcWarfareConfig.isSoakThresholdsSpecified())
+            {
+                unsupported.add("soakThresholds");
+            }
+            if (!tcWarfareConfig.getParamDecoders().isEmpty())
+            {
+                unsupported.add("paramDecoders");
+            }
+            
+            if (!unsupported.isEmpty())
+            {
+                String msg = String.join(" ", "Configuration parameter(s)", String.join(", ", unsupported),
+                        "are not supported when the validation is distributed");
+                logger.error(msg);
+                throw new TcInconclusive(msg);
+            }
+        }
     }
     
     /**
@@ -287,8 +612,14 @@ public class TC_0001_Warfare extends AbstractTestCase
         logger.debug("Parsing TcParam");
         tcWarfareParam = new TC_Warfare_TcParam(tcParamJson, logger);
         
+        lowOverheadLogging = tcWarfareParam.isLowOverheadLogging();
+        if (lowOverheadLogging)
+        {
+            failureSummary = new FailureSummary((long) (tcWarfareParam.getFailureSummaryInterval() * 1000));
+        }
+        
         // Create the HLA RTI ambassador
-        ivctRTI = IVCT_RTI_Factory.getIVCT_RTI(logger);
+        ivctRTI = createRtiAmbassador(logger);
         if (ivctRTI == null)
         {
             String msg = "Unable to create RTI ambassador";
@@ -301,6 +632,41 @@ public class TC_0001_Warfare extends AbstractTestCase
         {
             tcWarfareBaseModel = new TC_Warfare_BaseModel(logger, ivctRTI, tcWarfareParam);
             decoderGenerator = new DecoderGenerator(tcWarfareParam.getUrls(), ivctRTI.getEncoderFactory(), logger);
+            
+            if (tcWarfareParam.isDistributedValidation())
+            {
+                if (tcWarfareParam.getCaptureFile() != null)
+                {
+                    logger.warn("The capture file is not written when the validation is distributed");
+                }
+                startDistributedValidation(logger);
+            }
+            else if (tcWarfareParam.getCaptureFile() != null)
+            {
+                logger.info(String.join(" ", "Capturing received callbacks to", tcWarfareParam.getCaptureFile()));
+                tcWarfareBaseModel.setCaptureSink(new CaptureFileWriter(Paths.get(tcWarfareParam.getCaptureFile())));
+            }
+            
+            if (tcWarfareParam.getVerdictLogFile() != null)
+            {
+                logger.info(String.join(" ", "Writing event verdicts to", tcWarfareParam.getVerdictLogFile()));
+                verdictLog = new VerdictLogWriter(Paths.get(tcWarfareParam.getVerdictLogFile()));
+            }
+            
+            if (tcWarfareParam.isBatchedAttributeRequests())
+            {
+                logger.info("Batching attribute update requests");
+                tcWarfareBaseModel.setAttributeRequestThrottle(new AttributeRequestThrottle(
+                        (long) (tcWarfareParam.getAttributeRequestInterval() * 1000),
+                        tcWarfareParam.getMaxAttributeRequestsPerInterval()));
+            }
+            
+            if (tcWarfareParam.isLogicalTimeReordering())
+            {
+                logger.info("Reordering received interactions by logical time");
+                tcWarfareBaseModel.enableLogicalTimeReordering(tcWarfareParam.getReorderCapacity(),
+                        (long) (tcWarfareParam.getReorderHoldTime() * 1000));
+            }
         }
         catch (Exception ex)
         {
@@ -309,9 +675,140 @@ public class TC_0001_Warfare extends AbstractTestCase
             throw new TcInconclusive(msg, ex);
         }
         
+        // Expose the validation metrics. The test can run without them, so a failure
+        // to register them is not fatal.
+        ValidationMetrics metrics = tcWarfareBaseModel.getMetrics();
+        try
+        {
+            metrics.register(tcWarfareParam.getTcFederateName());
+        }
+        catch (JMException e)
+        {
+            logger.warn("Unable to register the validation metrics with JMX", e);
+        }
+        
+        if (tcWarfareParam.getMetricsInterval() > 0)
+        {
+            metrics.startReporting((long) (tcWarfareParam.getMetricsInterval() * 1000), TimeUnit.MILLISECONDS,
+                    logger);
+        }
+        
         return tcWarfareBaseModel;
     }
     
+    /**
+     * Connects to the JMS broker, and has the base model publish the received
+     * interactions to the validation workers rather than queue them to be
+     * validated here. The interactions are partitioned by the
+     * IssuingObjectIdentifier of their EventIdentifier, so that the interactions
+     * of an event are validated by the same worker. The parameters that are valid
+     * when empty are sent with every batch.
+     * 
+     * @param logger
+     *            The logger to use
+     * @throws JMSException
+     *             If the broker could not be reached
+     * @throws RTIinternalError
+     *             If the EventIdentifier decoder could not be created
+     */
+    private void startDistributedValidation(final Logger logger) throws JMSException, RTIinternalError
+    {
+        logger.info(String.join(" ", "Publishing received interactions to", tcWarfareParam.getBrokerUrl(),
+                "for validation by the distributed workers"));
+        
+        final EventIdentifierStructDecoder eventIdDecoder = new EventIdentifierStructDecoder();
+        
+        brokerConnection = new ActiveMQConnectionFactory(tcWarfareParam.getBrokerUrl()).createConnection();
+        brokerConnection.start();
+        
+        batchSink = new JmsCaptureSink(brokerConnection, tcWarfareParam.getBatchQueue(),
+                tcWarfareParam.getBatchSize(), tcWarfareParam.getPartitions(),
+                parameters -> issuingObjectIdentifier(eventIdDecoder, parameters), optionallyEmptyParams);
+        resultAggregator = new ResultAggregator(brokerConnection, tcWarfareParam.getResultQueue(), logger);
+        
+        tcWarfareBaseModel.setCaptureSink(batchSink);
+        tcWarfareBaseModel.setCaptureOnly(true);
+    }
+    
+    /**
+     * @param eventIdDecoder
+     *            The decoder of the EventIdentifier
+     * @param parameters
+     *            The encoded parameter values of an interaction, keyed by name
+     * @return The IssuingObjectIdentifier of the EventIdentifier of the
+     *         interaction, or null if it has none that can be decoded
+     */
+    private String issuingObjectIdentifier(final EventIdentifierStructDecoder eventIdDecoder,
+            final Map<String, byte[]> parameters)
+    {
+        String issuingObjectIdentifier = null;
+        byte[] value = parameters.get(EVENT_ID_PARAM);
+        
+        if (value != null)
+        {
+            try
+            {
+                issuingObjectIdentifier = eventIdDecoder.decode(value).getIssuingObjectIdentifier();
+            }
+            catch (DecoderException e)
+            {
+                // The worker that validates the interaction reports the failure
+                issuingObjectIdentifier = null;
+            }
+        }
+        
+        return issuingObjectIdentifier;
+    }
+    
+    /**
+     * Creates the RTI ambassador through which the test case communicates with the
+     * federation. Subclasses may override this to run the test case against
+     * something other than the RTI configured for IVCT.
+     * 
+     * @param logger
+     *            The logger to use
+     * @return The RTI ambassador, or null if one could not be created
+     */
+    protected IVCT_RTIambassador createRtiAmbassador(final Logger logger)
+    {
+        return IVCT_RTI_Factory.getIVCT_RTI(logger);
+    }
+    
+    /**
+     * Reads the configuration of the test case. Subclasses may override this to
+     * adjust the configuration read for the way in which they run the test case.
+     * 
+     * @param jsonFile
+     *            The JSON file from which to read the configuration
+     * @param logger
+     *            The logger to use
+     * @return The configuration
+     * @throws TcInconclusive
+     *             if the configuration could not be read
+     */
+    protected TC_Warfare_Config createConfig(final String jsonFile, final Logger logger) throws TcInconclusive
+    {
+        return new TC_Warfare_Config(jsonFile, logger);
+    }
+    
+    /**
+     * Prepares the test case to decode WeaponFire and MunitionDetonation
+     * interactions without joining a federation, so that the decoding can be
+     * exercised in isolation. {@link #getIVCT_BaseModel(String, Logger)} must have
+     * been called first.
+     * 
+     * @param logger
+     *            The logger to use
+     * @throws TcInconclusive
+     *             if the configuration is invalid or the interactions could not be
+     *             resolved
+     */
+    void prepareDecoding(final Logger logger) throws TcInconclusive
+    {
+        initialise(logger);
+        subscribeWarfareInteractions(logger);
+    }
+    
     /**
      * Called by the IVCT framework in order to establish a connection with the RTI
      * to configure the necessary object and interaction subscriptions, and to
@@ -327,13 +824,36 @@ public class TC_0001_Warfare extends AbstractTestCase
         initialise(logger);
         
         boolean isTestSutFederateJoin = tcWarfareConfig.isTestSutFederateJoin();
-        String sutFederateName = tcWarfareParam.getSutFederateName();
         
-        if (isTestSutFederateJoin && sutFederateName == null || sutFederateName.trim().isEmpty())
+        // Every SuT is identified by its federate name, which is needed to check that it
+        // is connected and to attribute its interactions, whether or not its joining is
+        // tested
+        List<SutFederate> suts = tcWarfareParam.getSutFederates();
+        Set<String> sutFederateNames = new HashSet<>();
+        for (int i = 0; i < suts.size(); i++)
         {
-            String msg = "The parameter testSutFederateJoin is set to true but the sutFederateName is not present or not valid";
-            logger.error(msg);
-            throw new TcInconclusive(msg);
+            String sutFederateName = suts.get(i).getName();
+            String msg = null;
+            
+            if (sutFederateName == null || sutFederateName.trim().isEmpty())
+            {
+                msg = String.join(" ", "The name of SuT federate", String.valueOf(i + 1),
+                        "given by sutFederates or sutFederateName is not present or not valid");
+                if (isTestSutFederateJoin)
+                {
+                    msg = String.join(" ", "The parameter testSutFederateJoin is set to true but", msg);
+                }
+            }
+            else if (!sutFederateNames.add(sutFederateName))
+            {
+                msg = String.join(" ", "SuT federate", sutFederateName, "is given more than once in sutFederates");
+            }
+            
+            if (msg != null)
+            {
+                logger.error(msg);
+                throw new TcInconclusive(msg);
+            }
         }
         
         logger.debug("Initiating RTI");
@@ -352,15 +872,8 @@ public class TC_0001_Warfare extends AbstractTestCase
             federateFOMSHandle = handles.get(2);
         }
         
-        // Configure the WeaponFire subscription.
-        logger.debug(String.join(" ", "Subscribing to interaction", WEAPONFIRE));
-        weaponFireRecord = tcWarfareBaseModel.subscribeInteraction(WEAPONFIRE,
-                decoderGenerator.generateParameterList(WEAPONFIRE));
-        
-        // Configure the MunitionDetonation subscription.
-        logger.debug(String.join(" ", "Subscribing to interaction", MUNITIONDETONATION));
-        munitionDetonationRecord = tcWarfareBaseModel.subscribeInteraction(MUNITIONDETONATION,
-                decoderGenerator.generateParameterList(MUNITIONDETONATION));
+        // Configure the WeaponFire and MunitionDetonation subscriptions.
+        subscribeWarfareInteractions(logger);
         
         // Configure the test to verify whether the munition object is correctly created
         // and removed
@@ -377,72 +890,257 @@ public class TC_0001_Warfare extends AbstractTestCase
     }
     
     /**
-     * Called by the IVCT framework to Perform the tests.
-     *
+     * Subscribes to the WeaponFire and MunitionDetonation interactions, and to any
+     * further interaction classes configured, compiles their validation plans and
+     * creates the records in which their outcomes are stored.
+     * 
+     * @param logger
+     *            The logger to use
      * @throws TcInconclusive
-     *             if an expected object update interaction message was never
-     *             received.
-     * @throws TcFailed
-     *             if an interaction message failed to decode properly.
+     *             if the subscriptions could not be made
      */
-    @Override
-    protected void performTest(final Logger logger) throws TcInconclusive, TcFailed
+    private void subscribeWarfareInteractions(final Logger logger) throws TcInconclusive
     {
-        // Test that the SuT has joined the federation if configured to do so
-        // If the test is deemed inconclusive, this will throw the relevant exception as
-        // appropriate.
-        if (tcWarfareConfig.isTestSutFederateJoin())
+        // Configure the WeaponFire subscription.
+        logger.debug(String.join(" ", "Subscribing to interaction", WEAPONFIRE));
+        weaponFireRecord = tcWarfareBaseModel.subscribeInteraction(WEAPONFIRE,
+                decoderGenerator.generateParameterList(WEAPONFIRE));
+        
+        // Configure the MunitionDetonation subscription.
+        logger.debug(String.join(" ", "Subscribing to interaction", MUNITIONDETONATION));
+        munitionDetonationRecord = tcWarfareBaseModel.subscribeInteraction(MUNITIONDETONATION,
+                decoderGenerator.generateParameterList(MUNITIONDETONATION));
+        
+        // Configure the subscriptions of the further interaction classes whose
+        // parameters are validated. A class named more than once is subscribed once.
+        List<InteractionRecord> records = new ArrayList<>(Arrays.asList(weaponFireRecord, munitionDetonationRecord));
+        Set<String> subscribed = new HashSet<>(Arrays.asList(WEAPONFIRE, MUNITIONDETONATION));
+        for (String interactionName : tcWarfareConfig.getConformanceInteractions())
         {
-            testSuTConnected(logger);
+            if (subscribed.add(interactionName))
+            {
+                List<String> paramNames = decoderGenerator.generateParameterList(interactionName);
+                if (paramNames == null)
+                {
+                    String msg = String.join(" ", "Interaction", interactionName, "is not defined in the FOM");
+                    logger.error(msg);
+                    throw new TcInconclusive(msg);
+                }
+                
+                logger.debug(String.join(" ", "Subscribing to interaction", interactionName));
+                records.add(tcWarfareBaseModel.subscribeInteraction(interactionName, paramNames));
+            }
         }
         
-        // Run the main warfare interaction tests
-        // If the test fails or is deemed inconclusive, this will throw the relevant
-        // exception as appropriate.
-        if (tcWarfareConfig.isTestWeaponFire() || tcWarfareConfig.isTestMunitionDetonation())
+        conformanceEngine = ConformanceEngine.compile(records, decoderGenerator, this::isOptionalParameter,
+                this::isParameterValidWhenEmpty);
+        
+        // Each SuT has its own records, so that it is given its own verdict
+        final boolean warfareTested = tcWarfareConfig.isTestWeaponFire() || tcWarfareConfig.isTestMunitionDetonation();
+        shards.clear();
+        for (SutFederate sut : tcWarfareParam.getSutFederates())
+        {
+            InteractionRecord sutWeaponFireRecord = shards.isEmpty() ? weaponFireRecord
+                    : new InteractionRecord(WEAPONFIRE, weaponFireRecord.getInteractionClassHandle(),
+                            weaponFireRecord.getExpectedParamMap());
+            InteractionRecord sutMunitionDetonationRecord = shards.isEmpty() ? munitionDetonationRecord
+                    : new InteractionRecord(MUNITIONDETONATION, munitionDetonationRecord.getInteractionClassHandle(),
+                            munitionDetonationRecord.getExpectedParamMap());
+            SutShard shard = new SutShard(sut, sutWeaponFireRecord, sutMunitionDetonationRecord,
+                    new FlightTimeHistograms(tcWarfareConfig.isFlightTimeByShooter()),
+                    conformanceEngine.newValidator(decoderGenerator));
+            shard.warfareComplete = !warfareTested;
+            shards.add(shard);
+        }
+    }
+    
+    /**
+     * Called by the IVCT framework to Perform the tests.
+     *
+     * @throws TcInconclusive
+     *             if an expected object update interaction message was never
+     *             received.
+     * @throws TcFailed
+     *             if an interaction message failed to decode properly.
+     */
+    @Override
+    protected void performTest(final Logger logger) throws TcInconclusive, TcFailed
+    {
+        if (tcWarfareParam.isVirtualThreads() && !ValidationWorkers.isVirtualThreadSupported())
         {
-            testWarfareInteractions(logger);
+            logger.warn("Virtual threads are not provided by this Java runtime, so platform threads are used");
         }
         
-        // Test for missing or failed parameters. This method will throw the relevant
-        // exception as appropriate.
-        testReceivedParams(logger);
+        // Test that the SuT has joined the federation if configured to do so
+        // If the test is deemed inconclusive, this will throw the relevant exception as
+        // appropriate.
+        if (tcWarfareConfig.isTestSutFederateJoin())
+        {
+            testEverySuT(this::testSuTConnected, logger);
+        }
         
-        // If configured, test for matching pairs of received WeaponFire and
-        // MunitionDetonation interactions.
-        // If the test fails or is deemed inconclusive this will throw the relevant
-        // exception as appropriate.
-        if (tcWarfareConfig.isTestForMatchingPair())
+        if (resultAggregator != null)
         {
-            testMatchingPairs(logger);
+            // Run the warfare interaction tests, along with the validation of any further
+            // interaction classes configured, on the distributed validation workers
+            testDistributedValidation(logger);
+        }
+        else
+        {
+            // Run the main warfare interaction tests, along with the validation of any
+            // further interaction classes configured
+            // If a SuT fails or is deemed inconclusive, the relevant exception is recorded
+            // against it.
+            if (tcWarfareConfig.isTestWeaponFire() || tcWarfareConfig.isTestMunitionDetonation()
+                    || !tcWarfareConfig.getConformanceInteractions().isEmpty())
+            {
+                testWarfareInteractions(logger);
+            }
+            
+            for (SutShard shard : shards)
+            {
+                if (shard.failure == null)
+                {
+                    try
+                    {
+                        testShardResults(shard, logger);
+                    }
+                    catch (TcFailed e)
+                    {
+                        shard.fail(e);
+                    }
+                }
+            }
+            
+            // Throw the relevant exception if any SuT failed or was inconclusive
+            testShardVerdicts(logger);
         }
         
         if (tcWarfareConfig.isTestSutFederateResign())
         {
-            testSuTResigned(logger);
+            testEverySuT(this::testSuTResigned, logger);
+        }
+        
+    }
+    
+    /**
+     * Tests the outcomes of the interactions received from a SuT once they have
+     * all been processed.
+     * 
+     * @param shard
+     *            The validation of the SuT
+     * @param logger
+     *            The logger to use
+     * @throws TcFailed
+     *             If the test fails
+     */
+    private void testShardResults(final SutShard shard, final Logger logger) throws TcFailed
+    {
+        if (shard.soakStatistics != null)
+        {
+            // The outcome of a soak test is judged from its aggregates
+            testSoakThresholds(shard, logger);
+        }
+        else
+        {
+            // Test for missing or failed parameters. This method will throw the relevant
+            // exception as appropriate.
+            testReceivedParams(shard, logger);
+            testConformanceParams(shard, logger);
+            
+            // If configured, test for matching pairs of received WeaponFire and
+            // MunitionDetonation interactions.
+            // If the test fails or is deemed inconclusive this will throw the relevant
+            // exception as appropriate.
+            if (tcWarfareConfig.isTestForMatchingPair())
+            {
+                testMatchingPairs(shard, logger);
+            }
         }
+    }
+    
+    /**
+     * Gives the verdict on each SuT. When there is a single SuT, the reason it
+     * failed or was inconclusive is thrown as it is. Otherwise the verdict on each
+     * SuT is logged, and the test fails if any SuT failed, or is inconclusive if
+     * any was inconclusive.
+     * 
+     * @param logger
+     *            The logger to use
+     * @throws TcFailed
+     *             If a SuT failed
+     * @throws TcInconclusive
+     *             If the validation of a SuT was inconclusive
+     */
+    private void testShardVerdicts(final Logger logger) throws TcFailed, TcInconclusive
+    {
+        Exception failure = shards.size() == 1 ? shards.get(0).failure : null;
         
+        if (failure instanceof TcFailed)
+        {
+            throw (TcFailed) failure;
+        }
+        else if (failure instanceof TcInconclusive)
+        {
+            throw (TcInconclusive) failure;
+        }
+        else if (shards.size() > 1)
+        {
+            StringJoiner failed = new StringJoiner(", ");
+            StringJoiner inconclusive = new StringJoiner(", ");
+            
+            for (SutShard shard : shards)
+            {
+                if (shard.failure == null)
+                {
+                    logger.info(String.join(" ", "SuT", shard.sut.getName(), "passed"));
+                }
+                else if (shard.failure instanceof TcFailed)
+                {
+                    logger.error(String.join(" ", "SuT", shard.sut.getName(), "failed:", shard.failure.getMessage()));
+                    failed.add(shard.sut.getName());
+                }
+                else
+                {
+                    logger.error(String.join(" ", "SuT", shard.sut.getName(), "was inconclusive:",
+                            shard.failure.getMessage()));
+                    inconclusive.add(shard.sut.getName());
+                }
+            }
+            
+            if (failed.length() > 0)
+            {
+                throw new TcFailed(String.join(" ", "SuT(s) failed:", failed.toString()));
+            }
+            else if (inconclusive.length() > 0)
+            {
+                throw new TcInconclusive(String.join(" ", "SuT(s) inconclusive:", inconclusive.toString()));
+            }
+        }
     }
     
     /**
      * Validate that the received interaction is expected and is testable.
      * 
+     * @param shard
+     *            The validation of the SuT that sent the interaction
      * @param receivedInteraction
      *            The interaction received.
+     * @param entityType
+     *            The MunitionType of the interaction, or null if it was not sent
      * @param logger
      *            The logger to use
      * @return True if the received interaction is valid, otherwise false.
      * @throws TcFailed
      *             If a required value is missing
-     * @throws TcInconclusive
      */
-    private boolean isValidInteractionType(final ReceivedInteraction receivedInteraction, final Logger logger)
-            throws TcFailed, TcInconclusive
+    private boolean isValidInteractionType(final SutShard shard, final ReceivedInteraction receivedInteraction,
+            final EntityTypeStruct entityType, final Logger logger) throws TcFailed
     {
         boolean valid;
         // Verify that the received interaction is from an expected interaction class
         // type
-        InteractionRecord interactionRecord = determineInteractionRecord(receivedInteraction, logger);
+        InteractionRecord interactionRecord = determineInteractionRecord(shard, receivedInteraction, logger);
         
         if (interactionRecord == null)
         {
@@ -453,8 +1151,6 @@ public class TC_0001_Warfare extends AbstractTestCase
             final String interactionName = interactionRecord.getInteractionName();
             
             // Check that the received interaction pertains to a munition
-            EntityTypeStruct entityType = determineMunitionType(receivedInteraction, logger);
-            
             if (entityType == null)
             {
                 String msg = String.join(" ", interactionName, "Unable to establish value of parameter",
@@ -491,18 +1187,30 @@ public class TC_0001_Warfare extends AbstractTestCase
         return valid;
     }
     
+    /**
+     * Determines the index of the validation plan of the class of an interaction,
+     * found from its class handle rather than by comparing it with each class.
+     * 
+     * @param interaction
+     *            The interaction
+     * @return The index of the plan, or -1 if the class is not validated
+     */
+    private int getPlanIndex(final ReceivedInteraction interaction)
+    {
+        InteractionPlan plan = conformanceEngine.getPlan(interaction.getInteractionClass());
+        return plan == null ? -1 : plan.getIndex();
+    }
+    
     /**
      * Determines whether or not this interaction is a WeaponFire
      * 
      * @param interaction
      *            The interaction to test
-     * @param logger
-     *            The logger to use
      * @return True if the interaction is a WeaponFire, otherwise false
      */
     private boolean isWeaponFireInteraction(final ReceivedInteraction interaction)
     {
-        return weaponFireRecord.isValidClassHandle(interaction.getInteractionClass());
+        return getPlanIndex(interaction) == WEAPONFIRE_PLAN;
     }
     
     /**
@@ -510,13 +1218,11 @@ public class TC_0001_Warfare extends AbstractTestCase
      * 
      * @param interaction
      *            The interaction to test
-     * @param logger
-     *            The logger to use
      * @return True if the interaction is a MunitionDetonation, otherwise false
      */
     private boolean isMunitionDetonationInteraction(final ReceivedInteraction interaction)
     {
-        return munitionDetonationRecord.isValidClassHandle(interaction.getInteractionClass());
+        return getPlanIndex(interaction) == MUNITIONDETONATION_PLAN;
     }
     
     /**
@@ -524,16 +1230,18 @@ public class TC_0001_Warfare extends AbstractTestCase
      * and correct. Report any missing of failed parameters to the log and throw an
      * exception if the test failed.
      * 
+     * @param shard
+     *            The validation of the SuT whose interactions are checked
      * @param logger
      *            The logger to use
      * @throws TcFailed
      *             If the test failed
      */
-    private void testReceivedParams(final Logger logger) throws TcFailed
+    private void testReceivedParams(final SutShard shard, final Logger logger) throws TcFailed
     {
         // Look at all interactions received and test that all parameters were present
         // and correct
-        Arrays.asList(weaponFireRecord, munitionDetonationRecord).forEach(record ->
+        Arrays.asList(shard.weaponFireRecord, shard.munitionDetonationRecord).forEach(record ->
         {
             if (record != null)
             {
@@ -578,7 +1286,71 @@ public class TC_0001_Warfare extends AbstractTestCase
             }
         });
         
-        if (weaponFireRecord.isErroneous() || munitionDetonationRecord.isErroneous())
+        if (shard.weaponFireRecord.isErroneous() || shard.munitionDetonationRecord.isErroneous())
+        {
+            String msg = "Failed or missing parameters were encountered. Refer to the log file for details.";
+            logger.error(msg);
+            throw new TcFailed(msg);
+        }
+    }
+    
+    /**
+     * Reports the outcomes of the parameters of the further interaction classes
+     * configured, and throws an exception if any failed, or was not sent without
+     * being optional.
+     * 
+     * @param shard
+     *            The validation of the SuT whose interactions are checked
+     * @param logger
+     *            The logger to use
+     * @throws TcFailed
+     *             If the test failed
+     */
+    private void testConformanceParams(final SutShard shard, final Logger logger) throws TcFailed
+    {
+        final ValidationTally tally = shard.conformanceTally;
+        boolean erroneous = false;
+        
+        for (String interactionName : tally.getInteractionClasses())
+        {
+            logger.info(String.join(" ", interactionName, "parameter analysis of",
+                    String.valueOf(tally.getInteractions(interactionName)), "interaction(s)"));
+            
+            final StringJoiner failedString = new StringJoiner(",", "[", "]");
+            failedString.setEmptyValue("None");
+            final StringJoiner notSentString = new StringJoiner(",", "[", "]");
+            notSentString.setEmptyValue("None");
+            final StringJoiner optionalNotSentString = new StringJoiner(",", "[", "]");
+            optionalNotSentString.setEmptyValue("None");
+            
+            for (String name : tally.getParameters(interactionName))
+            {
+                if (tally.getCount(interactionName, name, ValidationTally.Outcome.FAILED) > 0)
+                {
+                    failedString.add(name);
+                    erroneous = true;
+                }
+                
+                if (tally.getCount(interactionName, name, ValidationTally.Outcome.NOT_SENT) > 0)
+                {
+                    if (isOptionalParameter(interactionName, name))
+                    {
+                        optionalNotSentString.add(name);
+                    }
+                    else
+                    {
+                        notSentString.add(name);
+                        erroneous = true;
+                    }
+                }
+            }
+            
+            logger.info(String.join(" ", "Failed params:", failedString.toString()));
+            logger.info(String.join(" ", "Params not sent :", notSentString.toString()));
+            logger.info(String.join(" ", "Optional Params not sent :", optionalNotSentString.toString()));
+        }
+        
+        if (erroneous)
         {
             String msg = "Failed or missing parameters were encountered. Refer to the log file for details.";
             logger.error(msg);
@@ -586,10 +1358,84 @@ public class TC_0001_Warfare extends AbstractTestCase
         }
     }
     
+    /**
+     * Applies a test to every SuT federate. The SuTs are tested one after another,
+     * unless virtual threads are used and there is more than one SuT, in which
+     * case each is tested on a virtual thread of its own so that their waits
+     * overlap. The first SuT to fail or be inconclusive ends the test of the
+     * others.
+     * 
+     * @param test
+     *            The test to apply
+     * @param logger
+     *            The logger to use
+     * @throws TcInconclusive
+     *             If a SuT is deemed inconclusive
+     * @throws TcFailed
+     *             If a SuT fails
+     */
+    private void testEverySuT(final SutTest test, final Logger logger) throws TcInconclusive, TcFailed
+    {
+        if (shards.size() > 1 && tcWarfareParam.isVirtualThreads())
+        {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (SutShard shard : shards)
+            {
+                tasks.add(() ->
+                {
+                    test.test(shard.sut, logger);
+                    return null;
+                });
+            }
+            
+            ExecutorService waits = ValidationWorkers.newExecutor("SutWait", shards.size(), true);
+            try
+            {
+                ValidationWorkers.invokeAll(waits, tasks);
+            }
+            catch (InterruptedException e)
+            {
+                String msg = "Test interrupted whilst testing the SuT federates";
+                logger.error(msg);
+                throw new TcInconclusive(msg, e);
+            }
+            catch (ExecutionException e)
+            {
+                if (e.getCause() instanceof TcFailed)
+                {
+                    throw (TcFailed) e.getCause();
+                }
+                else if (e.getCause() instanceof TcInconclusive)
+                {
+                    throw (TcInconclusive) e.getCause();
+                }
+                else
+                {
+                    String msg = "Error occurred whilst testing the SuT federates";
+                    logger.error(msg, e.getCause());
+                    throw new TcInconclusive(msg, e.getCause());
+                }
+            }
+            finally
+            {
+                waits.shutdownNow();
+            }
+        }
+        else
+        {
+            for (SutShard shard : shards)
+            {
+                test.test(shard.sut, logger);
+            }
+        }
+    }
+    
     /**
      * Test that the SuT has connected and that the relevant attributes match those
      * defined in the configuration.
      * 
+     * @param sut
+     *            The SuT federate
      * @param logger
      *            The logger to use
      * @throws TcInconclusive
@@ -597,7 +1443,7 @@ public class TC_0001_Warfare extends AbstractTestCase
      * @throws TcFailed
      *             If the test fails
      */
-    private void testSuTConnected(final Logger logger) throws TcInconclusive, TcFailed
+    private void testSuTConnected(final SutFederate sut, final Logger logger) throws TcInconclusive, TcFailed
     {
         // Test that the SuT has joined the federation if configured to do so
         if (tcWarfareConfig.isTestSutFederateJoin())
@@ -606,8 +1452,8 @@ public class TC_0001_Warfare extends AbstractTestCase
             boolean correctFedNameType = false;
             boolean fomsLoadedCorrectly = false;
             
-            final String expectedFedName = tcWarfareParam.getSutFederateName();
-            final String expectedFedType = tcWarfareParam.getSutFederateType();
+            final String expectedFedName = sut.getName();
+            final String expectedFedType = sut.getType();
             
             // Wait for it to join until the timeout occurs
             // Test for Federate Name and Federate Type of the discovered HLAFederate Object
@@ -620,10 +1466,6 @@ public class TC_0001_Warfare extends AbstractTestCase
             logger.info(String.join(" ", "Testing for SuT", expectedFedName, "to join the federation within",
                     String.valueOf(timeoutMillis), "ms"));
             
-            // Test for correct value of Federate Name and Federate Type as defined in the
-            // configuration
-            HLAunicodeString stringCoder = ivctRTI.getEncoderFactory().createHLAunicodeString();
-            
             WAIT_FOR_SUT_FEDERATE_LOOP:
             while (timeoutMillis < 0 || (System.currentTimeMillis() - startTime) < timeoutMillis)
             {
@@ -632,29 +1474,37 @@ public class TC_0001_Warfare extends AbstractTestCase
                     // Read the received object attributes
                     for (DiscoveredObject fedObject : tcWarfareBaseModel.getDiscoveredObjects(federateHandle))
                     {
-                        AttributeHandleValueMap receivedAttributeHandleValueMap = fedObject.getTheAttributes();
+                        AttributeSnapshot receivedAttributes = fedObject.getAttributes();
                         
-                        // If an object instance has not yet been received, request it and decode it on
-                        // the next cycle
-                        if (receivedAttributeHandleValueMap == null)
+                        // If the attributes of an object instance have not all yet been received,
+                        // request them and decode them on the next cycle. Partial updates are merged,
+                        // so attributes already received are kept.
+                        if (!receivedAttributes.contains(federateNameNameHandle)
+                                || !receivedAttributes.contains(federateTypeHandle)
+                                || !receivedAttributes.contains(federateFOMSHandle))
                         {
                             tcWarfareBaseModel.requestAttributeValueUpdate(fedObject);
                         }
                         else
                         {
-                            stringCoder.decode(receivedAttributeHandleValueMap.get(federateNameNameHandle));
-                            String fedName = stringCoder.getValue();
+                            // Test for correct value of Federate Name and Federate Type as defined in the
+                            // configuration. Each attribute is only decoded again once it has been updated.
+                            HLAunicodeString fedNameElement = (HLAunicodeString) fedObject.getDecodedAttribute(
+                                    federateNameNameHandle, () -> federateAttributeDecoder(HLA_FEDERATE_NAME));
+                            String fedName = fedNameElement.getValue();
                             
                             sutConnected = fedName.equals(expectedFedName);
                             
                             if (sutConnected)
                             {
-                                stringCoder.decode(receivedAttributeHandleValueMap.get(federateTypeHandle));
-                                String fedType = stringCoder.getValue();
+                                HLAunicodeString fedTypeElement = (HLAunicodeString) fedObject.getDecodedAttribute(
+                                        federateTypeHandle, () -> federateAttributeDecoder(HLA_FEDERATE_TYPE));
+                                String fedType = fedTypeElement.getValue();
                                 correctFedNameType = fedType.equals(expectedFedType);
-                                HLAVariableStringArrayDecoder hlaVariableStringArrayDecoder = new HLAVariableStringArrayDecoder();
-                                HLAvariableArray<HLAunicodeString> foms = hlaVariableStringArrayDecoder
-                                        .decode(receivedAttributeHandleValueMap.get(federateFOMSHandle));
+                                @SuppressWarnings("unchecked")
+                                HLAvariableArray<HLAunicodeString> foms = (HLAvariableArray<HLAunicodeString>) fedObject
+                                        .getDecodedAttribute(federateFOMSHandle,
+                                                () -> federateAttributeDecoder(HLA_FEDERATE_FOMS));
                                 logger.info(String.join(" ", "SuT federate joined.", HLA_FEDERATE_NAME, "=", fedName,
                                         " ", HLA_FEDERATE_TYPE, "=", fedType));
                                 
@@ -672,7 +1522,7 @@ public class TC_0001_Warfare extends AbstractTestCase
                         }
                     }
                     
-                    Thread.sleep(sleepTimeMillis);
+                    awaitCallbacks(sleepTimeMillis);
                 }
                 catch (Exception e)
                 {
@@ -717,6 +1567,35 @@ public class TC_0001_Warfare extends AbstractTestCase
         }
     }
     
+    /**
+     * Creates an element with which to decode an attribute of the HLAfederate
+     * object. The element is generated from the FOM if the MIM is amongst the FOM
+     * files, otherwise the standard MIM data type is used.
+     * 
+     * @param attributeName
+     *            The name of the attribute
+     * @return The element with which to decode the attribute
+     */
+    private DataElement federateAttributeDecoder(final String attributeName)
+    {
+        EncoderFactory factory = ivctRTI.getEncoderFactory();
+        DataElement decoder = decoderGenerator.generateAttributeDecoder(HLA_FEDERATE_CLASS, attributeName);
+        
+        if (HLA_FEDERATE_FOMS.equals(attributeName))
+        {
+            if (!(decoder instanceof HLAvariableArray))
+            {
+                decoder = factory.createHLAvariableArray(index -> factory.createHLAunicodeString());
+            }
+        }
+        else if (!(decoder instanceof HLAunicodeString))
+        {
+            decoder = factory.createHLAunicodeString();
+        }
+        
+        return decoder;
+    }
+    
     /**
      * Tests that the expected FOMs were loaded by the SuT
      * 
@@ -783,6 +1662,8 @@ public class TC_0001_Warfare extends AbstractTestCase
     /**
      * Tests that the SuT has resigned before the configured timeout
      * 
+     * @param sut
+     *            The SuT federate
      * @param logger
      *            The logger to use
      * @throws TcFailed
@@ -790,9 +1671,9 @@ public class TC_0001_Warfare extends AbstractTestCase
      * @throws TcInconclusive
      *             If something goes wrong
      */
-    private void testSuTResigned(final Logger logger) throws TcFailed, TcInconclusive
+    private void testSuTResigned(final SutFederate sut, final Logger logger) throws TcFailed, TcInconclusive
     {
-        String sutFederateName = tcWarfareParam.getSutFederateName();
+        String sutFederateName = sut.getName();
         int timeoutMillis = (int) (tcWarfareParam.getSutFederateResignTimeout() * 1000);
         int sleepTimeMillis = (int) (tcWarfareParam.getSleepTime() * 1000);
         long startTime = System.currentTimeMillis(); // fetch starting time
@@ -808,7 +1689,7 @@ public class TC_0001_Warfare extends AbstractTestCase
             {
                 try
                 {
-                    Thread.sleep(sleepTimeMillis);
+                    awaitCallbacks(sleepTimeMillis);
                 }
                 catch (InterruptedException e)
                 {
@@ -843,156 +1724,253 @@ public class TC_0001_Warfare extends AbstractTestCase
      * matching pairs are tested, then it will wait for both interactions to be
      * received bearing the same EventIdentifier.
      * 
+     * Each interaction is attributed to the SuT that sent it, and the interactions
+     * of each SuT are processed in parallel with those of the others. The wait
+     * ends once every SuT has sent the expected interactions, and the failure of
+     * a SuT is recorded against it.
+     * 
      * @param logger
      *            The logger to use
-     * @throws TcFailed
-     *             If the test fails
      * @throws TcInconclusive
-     *             If something goes wrong
+     *             If the test is interrupted or something goes wrong
      */
-    private void testWarfareInteractions(final Logger logger) throws TcFailed, TcInconclusive
+    private void testWarfareInteractions(final Logger logger) throws TcInconclusive
     {
-        boolean weaponFireReceived = false;
-        boolean munitionDetonationReceived = false;
         /**
          * Keep trying as long as we haven't taken longer than the configured timeout
          */
         final boolean testWeaponFire = tcWarfareConfig.isTestWeaponFire();
         final boolean testMunitionDetonation = tcWarfareConfig.isTestMunitionDetonation();
         
-        final String sutFederateName = tcWarfareParam.getSutFederateName();
-        
         logWarfareTestStart(testWeaponFire, testMunitionDetonation, logger);
         
+        if (tcWarfareConfig.isSoakTest())
+        {
+            logger.info("Soak test: validating every interaction until the test times out or is stopped");
+            for (SutShard shard : shards)
+            {
+                shard.soakStatistics = new SoakStatistics();
+                shard.weaponFireRecord.setEventLimit(tcWarfareConfig.getSoakEventRetention());
+                shard.munitionDetonationRecord.setEventLimit(tcWarfareConfig.getSoakEventRetention());
+            }
+        }
+        
+        if (shards.size() > 1)
+        {
+            logger.info(String.join(" ", "Validating", String.valueOf(shards.size()), "SuT federates in parallel"));
+            workers = ValidationWorkers.newExecutor("SutValidation",
+                    Math.min(shards.size(), Runtime.getRuntime().availableProcessors()),
+                    tcWarfareParam.isVirtualThreads());
+        }
+        
         Queue<ReceivedInteraction> interactionQueue = tcWarfareBaseModel.getInteractionQueue();
         
         int timeoutMillis = (int) (tcWarfareParam.getTestTimeout() * 1000);
         int sleepTimeMillis = (int) (tcWarfareParam.getSleepTime() * 1000);
         long startTime = System.currentTimeMillis(); // fetch starting time
         
-        WARFARE_TEST_LOOP:
-        while (timeoutMillis < 0 || (System.currentTimeMillis() - startTime) < timeoutMillis)
+        try
         {
-            // Check that the SuT federate is still connected
-            if (isFederateConnected(sutFederateName, logger))
+            while (!stopRequested && !isEveryShardComplete()
+                    && (timeoutMillis < 0 || (System.currentTimeMillis() - startTime) < timeoutMillis))
             {
-                if (!interactionQueue.isEmpty())
+                // Check that the SuT federates are still connected
+                for (SutShard shard : shards)
                 {
-                    // Get the interaction
-                    final ReceivedInteraction received = interactionQueue.remove();
-                    
-                    boolean testThisInteraction = false;
-                    
-                    if (isWeaponFireInteraction(received))
+                    if (!shard.complete)
                     {
-                        testThisInteraction = testWeaponFire;
-                        weaponFireReceived = true;
+                        shard.federateHandle = getConnectedFederateHandle(shard.sut.getName(), logger);
+                        
+                        if (shard.federateHandle == null)
+                        {
+                            // SuT Federate isn't connected
+                            String msg = String.join(" ", "SuT federate", shard.sut.getName(), "is not connected");
+                            logger.error(msg);
+                            shard.fail(new TcInconclusive(msg));
+                        }
                     }
+                }
+                
+                // Queue any interactions held for reordering by logical time for too long
+                tcWarfareBaseModel.releaseDueInteractions();
+                
+                // Hand each interaction to the SuT that sent it
+                for (ReceivedInteraction received = interactionQueue.poll(); received != null;
+                        received = interactionQueue.poll())
+                {
+                    tcWarfareBaseModel.getMetrics().interactionDequeued();
+                    SutShard shard = attributeInteraction(received, logger);
                     
-                    if (isMunitionDetonationInteraction(received))
+                    if (shard != null && !shard.complete)
                     {
-                        testThisInteraction = testMunitionDetonation;
-                        munitionDetonationReceived = true;
+                        enqueue(shard, received, logger);
                     }
-                    
-                    if (testThisInteraction)
+                }
+                
+                processShards(logger);
+                
+                // Judge the removals of munition objects that are still awaited
+                checkPendingRemovals(false, logger);
+                
+                if (failureSummary != null)
+                {
+                    failureSummary.report(logger);
+                }
+                
+                // A soak test empties the queues before waiting for more callbacks
+                if (!tcWarfareConfig.isSoakTest() || shards.stream().allMatch(shard -> shard.queue.isEmpty()))
+                {
+                    try
                     {
-                        // Verify that the received interaction is from an expected interaction class
-                        // type
-                        if (isValidInteractionType(received, logger))
-                        {
-                            logReceivedInteractionParams(received, logger);
-                            logger.info("...processing...");
-                            
-                            // Decode the received interaction
-                            EventIdentifierStruct eventIdentifier = decodeReceivedInteraction(received, logger);
-                            
-                            // Break if a IssuingObjectIdentifier was not determinable from the received
-                            // interaction
-                            if (eventIdentifier == null)
-                            {
-                                String msg = "EventIdentifier parameter of received interaction was invalid";
-                                logger.error(msg);
-                                throw new TcFailed(msg);
-                            }
-                            
-                            // Test that the munition instance has been created or removed depending upon
-                            // whether a WeaponFire or MunitionDetonation interaction has been received
-                            if (tcWarfareConfig.isTestMunitionInstance())
-                            {
-                                testMunitionObject(received, logger);
-                            }
-                            
-                            // Break if only WeaponFire or MunitionDetonation (but not both) are being
-                            // tested
-                            if (testWeaponFire != testMunitionDetonation)
-                            {
-                                break WARFARE_TEST_LOOP;
-                            }
-                            
-                            // If testing for matching WeaponFire/MunitionDetonation pairs, break if
-                            // both types of interaction has been received from the same entity as defined
-                            // by the IssuingObjectIdentifier parameter. If not testing for matching pairs, just
-                            // break when both types of interaction have been received from anywhere.
-                            if (tcWarfareConfig.isTestForMatchingPair())
-                            {
-                                // Break if we have received both a WeaponFire or MunitionDetonation interaction
-                                // with matching EventIdentifier IssuingObjectId values.
-                                if (weaponFireRecord
-                                        .isIssuingObjectIdPresent(eventIdentifier.getIssuingObjectIdentifier())
-                                        && munitionDetonationRecord
-                                                .isIssuingObjectIdPresent(eventIdentifier.getIssuingObjectIdentifier()))
-                                {
-                                    logger.info(String.join(" ",
-                                            "Received WeaponFire and MunitionDetonation interactions with EventIdentifier.IssuingObjectIdentifier:",
-                                            eventIdentifier.getIssuingObjectIdentifier()));
-                                    break WARFARE_TEST_LOOP;
-                                }
-                            }
-                            else
-                            {
-                                // Not testing for matching pairs, so break if we have received both a
-                                // WeaponFire or MunitionDetonation interaction
-                                // without necessarily having matching EventIdentifier values.
-                                if (!weaponFireRecord.getEvents().isEmpty()
-                                        && !munitionDetonationRecord.getEvents().isEmpty())
-                                {
-                                    logger.info("Received WeaponFire and MunitionDetonation interactions");
-                                    break WARFARE_TEST_LOOP;
-                                }
-                            }
-                        }
-                        else
-                        {
-                            logger.info("Unexpected interaction received:");
-                            logReceivedInteractionParams(received, logger);
-                            logger.info("...ignoring...");
-                        }
+                        awaitCallbacks(sleepTimeMillis);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        logger.warn("Test interrupted", e);
                     }
                 }
-                try
+            }
+        }
+        finally
+        {
+            if (workers != null)
+            {
+                workers.shutdownNow();
+                workers = null;
+            }
+        }
+        
+        // Any munition object still awaited was not removed in time
+        checkPendingRemovals(true, logger);
+        
+        // If there were any missing interactions, fail the SuT
+        for (SutShard shard : shards)
+        {
+            if (shard.dropped > 0)
+            {
+                logger.warn(String.join(" ", String.valueOf(shard.dropped), "interactions of SuT",
+                        shard.sut.getName(), "were dropped because its queue was full"));
+            }
+            
+            boolean weaponFireMissing = testWeaponFire && !shard.weaponFireReceived;
+            boolean munitionDetonationMissing = testMunitionDetonation && !shard.munitionDetonationReceived;
+            List<String> conformanceMissing = getConformanceMissing(shard.conformanceTally);
+            
+            if (shard.failure == null && (weaponFireMissing || munitionDetonationMissing
+                    || !conformanceMissing.isEmpty()))
+            {
+                StringJoiner msg = new StringJoiner(" ");
+                
+                msg.add("Did not receive expected interaction(s)");
+                
+                if (weaponFireMissing)
                 {
-                    Thread.sleep(sleepTimeMillis);
+                    msg.add("WeaponFire");
                 }
-                catch (InterruptedException e)
+                if (munitionDetonationMissing)
                 {
-                    logger.warn("Test interrupted", e);
+                    msg.add("MunitionDetonation");
                 }
+                conformanceMissing.forEach(msg::add);
+                
+                msg.add("after the timeout period of").add(String.valueOf(timeoutMillis)).add("ms");
+                logger.error(msg.toString());
+                shard.fail(new TcFailed(msg.toString()));
             }
-            else
+        }
+        
+    }
+    
+    /**
+     * Tests the warfare interactions by publishing them to the distributed
+     * validation workers, and judging the results that the workers send back.
+     * This waits, as the local test does, until the expected interactions have
+     * been validated, or until the test times out or is stopped if it is a soak
+     * test, and then for the results of every interaction published.
+     * 
+     * The workers check that the parameters defined by the FOM were sent, and that
+     * those sent can be decoded as the FOM defines them, for the further
+     * interaction classes configured as well as for WeaponFire and
+     * MunitionDetonation. The checks that relate the interactions to one another
+     * or to the objects, and the custom decoders, are only applied when the
+     * interactions are validated here, so {@link #initialise(Logger)} rejects a
+     * configuration that asks for them. The verdict covers the interactions of
+     * every SuT together.
+     * 
+     * @param logger
+     *            The logger to use
+     * @throws TcInconclusive
+     *             If the results of the interactions were not all received
+     * @throws TcFailed
+     *             If an expected interaction was not received, or a parameter
+     *             failed or was missing
+     */
+    private void testDistributedValidation(final Logger logger) throws TcInconclusive, TcFailed
+    {
+        final boolean testWeaponFire = tcWarfareConfig.isTestWeaponFire();
+        final boolean testMunitionDetonation = tcWarfareConfig.isTestMunitionDetonation();
+        
+        logWarfareTestStart(testWeaponFire, testMunitionDetonation, logger);
+        
+        int timeoutMillis = (int) (tcWarfareParam.getTestTimeout() * 1000);
+        int sleepTimeMillis = (int) (tcWarfareParam.getSleepTime() * 1000);
+        long startTime = System.currentTimeMillis();
+        boolean interrupted = false;
+        
+        while (!stopRequested && !interrupted
+                && (tcWarfareConfig.isSoakTest()
+                        || !isDistributedValidationComplete(testWeaponFire, testMunitionDetonation))
+                && (timeoutMillis < 0 || (System.currentTimeMillis() - startTime) < timeoutMillis))
+        {
+            flushBatches();
+            
+            try
             {
-                // SuT Federate isn't connected
-                String msg = String.join(" ", "SuT federate", sutFederateName, "is not connected");
-                logger.error(msg);
-                throw new TcInconclusive(msg);
+                awaitCallbacks(sleepTimeMillis);
+            }
+            catch (InterruptedException e)
+            {
+                logger.warn("Test interrupted", e);
+                interrupted = true;
+            }
+        }
+        
+        // Wait for the results of every interaction published
+        flushBatches();
+        long published = batchSink.getInteractionsCaptured();
+        long resultDeadline = System.currentTimeMillis() + (long) (tcWarfareParam.getResultTimeout() * 1000);
+        
+        while (!interrupted && resultAggregator.getInteractionsValidated() < published
+                && System.currentTimeMillis() < resultDeadline)
+        {
+            try
+            {
+                Thread.sleep(Math.max(1, Math.min(sleepTimeMillis, resultDeadline - System.currentTimeMillis())));
+            }
+            catch (InterruptedException e)
+            {
+                logger.warn("Test interrupted", e);
+                interrupted = true;
             }
         }
         
-        // If there were any missing interactions, fail the test
-        boolean weaponFireMissing = testWeaponFire && !weaponFireReceived;
-        boolean munitionDetonationMissing = testMunitionDetonation && !munitionDetonationReceived;
+        ValidationTally total = resultAggregator.getTotal();
+        logger.info(String.join(" ", "Interactions published:", String.valueOf(published), "validated:",
+                String.valueOf(total.getInteractions())));
+        
+        if (total.getInteractions() < published)
+        {
+            String msg = String.join(" ", "The validation workers did not send the results of",
+                    String.valueOf(published - total.getInteractions()), "interaction(s)");
+            logger.error(msg);
+            throw new TcInconclusive(msg);
+        }
+        
+        boolean weaponFireMissing = testWeaponFire && total.getInteractions(WEAPONFIRE) == 0;
+        boolean munitionDetonationMissing = testMunitionDetonation && total.getInteractions(MUNITIONDETONATION) == 0;
+        List<String> conformanceMissing = getConformanceMissing(total);
         
-        if (weaponFireMissing || munitionDetonationMissing)
+        if (weaponFireMissing || munitionDetonationMissing || !conformanceMissing.isEmpty())
         {
             StringJoiner msg = new StringJoiner(" ");
             
@@ -1000,18 +1978,645 @@ public class TC_0001_Warfare extends AbstractTestCase
             
             if (weaponFireMissing)
             {
-                msg.add("WeaponFire");
+                msg.add(WEAPONFIRE);
             }
             if (munitionDetonationMissing)
             {
-                msg.add("MunitionDetonation");
+                msg.add(MUNITIONDETONATION);
             }
+            conformanceMissing.forEach(msg::add);
             
             msg.add("after the timeout period of").add(String.valueOf(timeoutMillis)).add("ms");
             logger.error(msg.toString());
             throw new TcFailed(msg.toString());
         }
         
+        boolean erroneous = false;
+        for (String interactionName : total.getInteractionClasses())
+        {
+            logger.info(String.join(" ", interactionName, "parameter analysis of",
+                    String.valueOf(total.getInteractions(interactionName)), "interaction(s)"));
+            
+            for (String param : total.getParameters(interactionName))
+            {
+                long failed = total.getCount(interactionName, param, ValidationTally.Outcome.FAILED);
+                long notSent = total.getCount(interactionName, param, ValidationTally.Outcome.NOT_SENT);
+                boolean optional = isOptionalParameter(interactionName, param);
+                
+                if (failed > 0 || (notSent > 0 && !optional))
+                {
+                    erroneous = true;
+                    logger.info(String.join(" ", "Param", param, "failed:", String.valueOf(failed), "not sent:",
+                            String.valueOf(notSent)));
+                }
+                else if (notSent > 0)
+                {
+                    logger.info(String.join(" ", "Optional param", param, "not sent:", String.valueOf(notSent)));
+                }
+            }
+        }
+        
+        if (erroneous)
+        {
+            String msg = "Failed or missing parameters were encountered. Refer to the log file for details.";
+            logger.error(msg);
+            throw new TcFailed(msg);
+        }
+    }
+    
+    /**
+     * @param testWeaponFire
+     *            True if WeaponFire is being tested
+     * @param testMunitionDetonation
+     *            True if MunitionDetonation is being tested
+     * @return True if the validation workers have validated the expected
+     *         interactions, including one of each further class configured
+     */
+    private boolean isDistributedValidationComplete(final boolean testWeaponFire,
+            final boolean testMunitionDetonation)
+    {
+        ValidationTally total = resultAggregator.getTotal();
+        return (!testWeaponFire || total.getInteractions(WEAPONFIRE) > 0)
+                && (!testMunitionDetonation || total.getInteractions(MUNITIONDETONATION) > 0)
+                && getConformanceMissing(total).isEmpty();
+    }
+    
+    /**
+     * Publishes the interactions gathered in batches to the validation workers.
+     * 
+     * @throws TcInconclusive
+     *             If the interactions could not be published
+     */
+    private void flushBatches() throws TcInconclusive
+    {
+        try
+        {
+            batchSink.flush();
+        }
+        catch (IOException e)
+        {
+            throw new TcInconclusive("Unable to publish the received interactions to the validation workers", e);
+        }
+    }
+    
+    /**
+     * @return True if every SuT has sent the expected interactions, and removed
+     *         the munition objects of its MunitionDetonation interactions, or
+     *         failed
+     */
+    private boolean isEveryShardComplete()
+    {
+        return shards.stream()
+                .allMatch(shard -> shard.complete && (shard.failure != null || shard.pendingRemovals.isEmpty()));
+    }
+    
+    /**
+     * Judges the removals of the munition objects of the MunitionDetonation
+     * interactions that were still awaited when the interactions were processed.
+     * A removal received at or after the interaction passes, whereas one that has
+     * not been received within the grace period configured, or by the end of the
+     * test, fails the SuT, or counts as a violation in a soak test.
+     * 
+     * @param endOfTest
+     *            True if the test has ended, so that no removal is awaited any
+     *            longer
+     * @param logger
+     *            The logger to use
+     */
+    private void checkPendingRemovals(final boolean endOfTest, final Logger logger)
+    {
+        long now = tcWarfareBaseModel.getReceiveClock().nanoTime();
+        double timeout = tcWarfareConfig.getMunitionRemovalTimeout();
+        long timeoutNanos = (long) (timeout * 1000 * ReceiveClock.NANOS_PER_MILLI);
+        
+        for (SutShard shard : shards)
+        {
+            if (shard.failure != null)
+            {
+                shard.pendingRemovals.clear();
+                continue;
+            }
+            
+            List<String> violations = new ArrayList<>();
+            
+            for (Iterator<Map.Entry<String, Long>> it = shard.pendingRemovals.entrySet().iterator(); it.hasNext();)
+            {
+                Map.Entry<String, Long> pending = it.next();
+                String munitionObjectIdentifier = pending.getKey();
+                long detonationTime = pending.getValue();
+                Lifecycle lifecycle = tcWarfareBaseModel.getObjectLifecycles().get(munitionObjectIdentifier);
+                boolean expired = timeout >= 0 && now - detonationTime > timeoutNanos;
+                
+                if (lifecycle != null && lifecycle.isRemovedSince(detonationTime))
+                {
+                    it.remove();
+                    logger.info(String.join(" ", "Munition object instance", munitionObjectIdentifier,
+                            "was removed",
+                            String.valueOf(
+                                    (lifecycle.getRemovedTime() - detonationTime) / ReceiveClock.NANOS_PER_MILLI),
+                            "ms after the MunitionDetonation interaction as expected"));
+                }
+                else if (expired || endOfTest)
+                {
+                    it.remove();
+                    violations.add(String.join(" ", "Munition object instance", munitionObjectIdentifier,
+                            "should have been removed following the MunitionDetonation interaction but was not removed",
+                            expired ? String.join(" ", "within", String.valueOf(timeout), "seconds")
+                                    : "by the end of the test"));
+                }
+            }
+            
+            for (String msg : violations)
+            {
+                logger.error(msg);
+                
+                // A soak test counts the violation towards its verdict instead
+                if (shard.soakStatistics == null)
+                {
+                    shard.fail(new TcFailed(msg));
+                }
+                else
+                {
+                    shard.soakStatistics.munitionViolation();
+                }
+            }
+        }
+    }
+    
+    /**
+     * @param shard
+     *            The validation of a SuT
+     * @return True if an interaction of each further class configured has been
+     *         received from the SuT
+     */
+    private boolean isConformanceComplete(final SutShard shard)
+    {
+        return getConformanceMissing(shard.conformanceTally).isEmpty();
+    }
+    
+    /**
+     * @param tally
+     *            The outcomes of validating the interactions of a SuT, or of every
+     *            SuT when the validation is distributed
+     * @return The names of the further classes configured of which no interaction
+     *         has been validated
+     */
+    private List<String> getConformanceMissing(final ValidationTally tally)
+    {
+        List<String> missing = new ArrayList<>();
+        List<InteractionPlan> plans = conformanceEngine.getPlans();
+        
+        for (int i = MUNITIONDETONATION_PLAN + 1; i < plans.size(); i++)
+        {
+            String interactionName = plans.get(i).getInteractionName();
+            if (tally.getInteractions(interactionName) == 0)
+            {
+                missing.add(interactionName);
+            }
+        }
+        
+        return missing;
+    }
+    
+    /**
+     * Queues an interaction to be processed for a SuT, unless the queue of the SuT
+     * is full, in which case the interaction is dropped and counted. A warning is
+     * logged when the first interaction of the SuT is dropped.
+     * 
+     * @param shard
+     *            The validation of the SuT
+     * @param received
+     *            The received interaction
+     * @param logger
+     *            The logger to use
+     */
+    private void enqueue(final SutShard shard, final ReceivedInteraction received, final Logger logger)
+    {
+        if (shard.queue.size() < tcWarfareParam.getShardQueueCapacity())
+        {
+            shard.queue.add(received);
+        }
+        else if (shard.dropped++ == 0)
+        {
+            logger.warn(String.join(" ", "The queue of SuT", shard.sut.getName(), "is full with",
+                    String.valueOf(shard.queue.size()), "interactions. Further interactions are dropped"));
+        }
+    }
+    
+    /**
+     * Attributes a received interaction to the SuT that sent it. Where the RTI
+     * reports the federate that produced the interaction, it is attributed to the
+     * SuT of that federate. Otherwise, or if that federate is not known to be a
+     * SuT, such as before its handle has been found, it is attributed to the SuT
+     * whose IssuingObjectIdentifier prefix matches that of its EventIdentifier.
+     * The prefix applies to an interaction of any class that is checked, the
+     * further classes configured as well as WeaponFire and MunitionDetonation, if
+     * it has an EventIdentifier.
+     * 
+     * @param received
+     *            The received interaction
+     * @param logger
+     *            The logger to use
+     * @return The validation of the SuT that sent the interaction, or null if it
+     *         was not sent by a SuT
+     */
+    private SutShard attributeInteraction(final ReceivedInteraction received, final Logger logger)
+    {
+        SutShard attributed = null;
+        
+        if (shards.size() == 1)
+        {
+            attributed = shards.get(0);
+        }
+        else
+        {
+            FederateHandle producingFederate = received.getProducingFederate();
+            String interactionName = tcWarfareBaseModel.getInteractionClassName(received.getInteractionClass());
+            
+            if (producingFederate != null)
+            {
+                for (SutShard shard : shards)
+                {
+                    if (attributed == null && producingFederate.equals(shard.federateHandle))
+                    {
+                        attributed = shard;
+                    }
+                }
+            }
+            
+            if (attributed == null)
+            {
+                String issuingObjectIdentifier = determineIssuingObjectIdentifier(received);
+                
+                for (SutShard shard : shards)
+                {
+                    if (attributed == null && shard.sut.isIssuerOf(issuingObjectIdentifier))
+                    {
+                        attributed = shard;
+                    }
+                }
+            }
+            
+            if (attributed == null && isDetailLogged(logger))
+            {
+                logDetail(logger, String.join(" ", interactionName, "was not sent by a SuT. Ignoring"));
+            }
+        }
+        
+        return attributed;
+    }
+    
+    /**
+     * Determines the IssuingObjectIdentifier by which an interaction is attributed
+     * to a SuT, without logging an error where there is none, as the interaction
+     * may be of a class that has no EventIdentifier.
+     * 
+     * @param received
+     *            The received interaction
+     * @return The IssuingObjectIdentifier of the EventIdentifier of the
+     *         interaction, or null if its class is not checked, or it has no
+     *         EventIdentifier that can be decoded
+     */
+    private String determineIssuingObjectIdentifier(final ReceivedInteraction received)
+    {
+        String issuingObjectIdentifier = null;
+        InteractionPlan plan = conformanceEngine.getPlan(received.getInteractionClass());
+        int parameter = plan == null ? -1 : plan.indexOf(EVENT_ID_PARAM);
+        byte[] encoded = parameter < 0 ? null : received.getParameters().get(plan.getParameterHandle(parameter));
+        
+        if (encoded != null)
+        {
+            try
+            {
+                issuingObjectIdentifier = new EventIdentifierStructDecoder().decode(encoded)
+                        .getIssuingObjectIdentifier();
+            }
+            catch (RTIinternalError | DecoderException e)
+            {
+                // The validation of the interaction reports the failure
+                issuingObjectIdentifier = null;
+            }
+        }
+        
+        return issuingObjectIdentifier;
+    }
+    
+    /**
+     * Processes the interactions attributed to each SuT, in parallel when there is
+     * more than one SuT. A soak test processes every interaction queued, whereas
+     * an ordinary test processes one interaction of each SuT before waiting for
+     * more callbacks.
+     * 
+     * @param logger
+     *            The logger to use
+     * @throws TcInconclusive
+     *             If the test is interrupted or the processing went wrong
+     */
+    private void processShards(final Logger logger) throws TcInconclusive
+    {
+        if (workers == null)
+        {
+            for (SutShard shard : shards)
+            {
+                processShard(shard, logger);
+            }
+        }
+        else
+        {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (SutShard shard : shards)
+            {
+                if (!shard.complete && !shard.queue.isEmpty())
+                {
+                    tasks.add(() ->
+                    {
+                        processShard(shard, logger);
+                        return null;
+                    });
+                }
+            }
+            
+            try
+            {
+                ValidationWorkers.invokeAll(workers, tasks);
+            }
+            catch (InterruptedException e)
+            {
+                String msg = "Test interrupted whilst processing the received interactions";
+                logger.error(msg);
+                throw new TcInconclusive(msg, e);
+            }
+            catch (ExecutionException e)
+            {
+                String msg = "Error occurred whilst processing the received interactions";
+                logger.error(msg, e.getCause());
+                throw new TcInconclusive(msg, e.getCause());
+            }
+        }
+    }
+    
+    /**
+     * Processes the interactions queued for a SuT, in the order received, until it
+     * is complete. The failure of the SuT is recorded against it.
+     * 
+     * @param shard
+     *            The validation of the SuT
+     * @param logger
+     *            The logger to use
+     */
+    private void processShard(final SutShard shard, final Logger logger)
+    {
+        boolean processNext = true;
+        
+        while (processNext && !shard.complete && !shard.queue.isEmpty())
+        {
+            try
+            {
+                processInteraction(shard, shard.queue.remove(), logger);
+            }
+            catch (TcFailed | TcInconclusive e)
+            {
+                shard.fail(e);
+            }
+            
+            // Only a soak test empties the queue before waiting for more callbacks
+            processNext = shard.soakStatistics != null;
+        }
+    }
+    
+    /**
+     * Processes an interaction received from a SuT, marking the SuT complete once
+     * the expected interactions have been received from it. Interactions of the
+     * further classes configured have their parameters validated by the
+     * conformance engine alone.
+     * 
+     * @param shard
+     *            The validation of the SuT
+     * @param received
+     *            The received interaction
+     * @param logger
+     *            The logger to use
+     * @throws TcFailed
+     *             If the SuT fails
+     * @throws TcInconclusive
+     *             If something goes wrong
+     */
+    private void processInteraction(final SutShard shard, final ReceivedInteraction received, final Logger logger)
+            throws TcFailed, TcInconclusive
+    {
+        final boolean testWeaponFire = tcWarfareConfig.isTestWeaponFire();
+        final boolean testMunitionDetonation = tcWarfareConfig.isTestMunitionDetonation();
+        boolean testThisInteraction = false;
+        
+        // Dispatch the interaction by the index of the plan of its class
+        InteractionPlan plan = shard.validator.getPlan(received.getInteractionClass());
+        int planIndex = plan == null ? -1 : plan.getIndex();
+        
+        if (planIndex == WEAPONFIRE_PLAN)
+        {
+            testThisInteraction = testWeaponFire;
+            shard.weaponFireReceived = true;
+        }
+        else if (planIndex == MUNITIONDETONATION_PLAN)
+        {
+            testThisInteraction = testMunitionDetonation;
+            shard.munitionDetonationReceived = true;
+        }
+        else if (plan != null)
+        {
+            testConformanceInteraction(shard, plan, received, logger);
+        }
+        
+        if (testThisInteraction)
+        {
+            // The MunitionType decides whether the interaction is tested, and the times of
+            // flight are recorded by it
+            EntityTypeStruct munitionType = determineMunitionType(received, logger);
+            
+            // Verify that the received interaction is from an expected interaction class
+            // type
+            if (isValidInteractionType(shard, received, munitionType, logger))
+            {
+                logReceivedInteractionParams(received, logger);
+                logDetail(logger, "...processing...");
+                
+                // Decode the received interaction
+                EventIdentifierStruct eventIdentifier = decodeReceivedInteraction(shard, received, logger);
+                
+                // Break if a IssuingObjectIdentifier was not determinable from the received
+                // interaction
+                if (eventIdentifier == null)
+                {
+                    String msg = "EventIdentifier parameter of received interaction was invalid";
+                    logger.error(msg);
+                    throw new TcFailed(msg);
+                }
+                
+                // Test that the munition instance has been created or removed depending upon
+                // whether a WeaponFire or MunitionDetonation interaction has been received
+                try
+                {
+                    if (tcWarfareConfig.isTestMunitionInstance())
+                    {
+                        testMunitionObject(shard, received, logger);
+                    }
+                }
+                catch (TcFailed e)
+                {
+                    // A soak test counts the violation towards its verdict instead
+                    if (shard.soakStatistics == null)
+                    {
+                        throw e;
+                    }
+                    shard.soakStatistics.munitionViolation();
+                }
+                finally
+                {
+                    completeEvent(shard, received, eventIdentifier, munitionType);
+                }
+                
+                // A soak test carries on validating every interaction until it times out or
+                // is stopped, so only an ordinary test completes once the expected interactions
+                // have been received
+                if (shard.soakStatistics == null)
+                {
+                    // Complete if only WeaponFire or MunitionDetonation (but not both) are being
+                    // tested
+                    if (testWeaponFire != testMunitionDetonation)
+                    {
+                        shard.warfareComplete = true;
+                    }
+                    else if (tcWarfareConfig.isTestForMatchingPair())
+                    {
+                        // If testing for matching WeaponFire/MunitionDetonation pairs, complete if
+                        // both types of interaction has been received from the same entity as defined
+                        // by the IssuingObjectIdentifier parameter, i.e. with matching EventIdentifier
+                        // IssuingObjectId values.
+                        String issuingObjectIdentifier = eventIdentifier.getIssuingObjectIdentifier();
+                        if (shard.weaponFireRecord.isIssuingObjectIdPresent(issuingObjectIdentifier)
+                                && shard.munitionDetonationRecord.isIssuingObjectIdPresent(issuingObjectIdentifier))
+                        {
+                            logger.info(String.join(" ",
+                                    "Received WeaponFire and MunitionDetonation interactions with EventIdentifier.IssuingObjectIdentifier:",
+                                    eventIdentifier.getIssuingObjectIdentifier()));
+                            shard.warfareComplete = true;
+                        }
+                    }
+                    else
+                    {
+                        // Not testing for matching pairs, so complete when both types of interaction
+                        // have been received, without necessarily having matching EventIdentifier
+                        // values.
+                        if (!shard.weaponFireRecord.getEvents().isEmpty()
+                                && !shard.munitionDetonationRecord.getEvents().isEmpty())
+                        {
+                            logger.info("Received WeaponFire and MunitionDetonation interactions");
+                            shard.warfareComplete = true;
+                        }
+                    }
+                }
+            }
+            else
+            {
+                logger.info("Unexpected interaction received:");
+                logReceivedInteractionParams(received, logger);
+                logger.info("...ignoring...");
+            }
+        }
+        
+        // An ordinary test completes once an interaction of each further class configured
+        // has also been received
+        if (shard.soakStatistics == null && shard.warfareComplete && isConformanceComplete(shard))
+        {
+            shard.complete = true;
+        }
+    }
+    
+    /**
+     * Validates the parameters of an interaction of one of the further classes
+     * configured against the plan of its class, and counts the outcomes against
+     * the SuT that sent it.
+     * 
+     * @param shard
+     *            The validation of the SuT
+     * @param plan
+     *            The plan of the class of the interaction
+     * @param received
+     *            The received interaction
+     * @param logger
+     *            The logger to use
+     */
+    private void testConformanceInteraction(final SutShard shard, final InteractionPlan plan,
+            final ReceivedInteraction received, final Logger logger)
+    {
+        final String interactionName = plan.getInteractionName();
+        final ValidationMetrics metrics = tcWarfareBaseModel.getMetrics();
+        metrics.decodeStarted(received.getReceivedNanoTime(), tcWarfareBaseModel.getReceiveClock().nanoTime());
+        
+        logReceivedInteractionParams(received, logger);
+        
+        shard.validator.validate(plan, received.getParameters(),
+                (validated, parameter, decoder, encoded, outcome, reason, decodeStart) ->
+                {
+                    final String name = validated.getParameterName(parameter);
+                    
+                    if (outcome.equals(ValidationEvents.DECODED))
+                    {
+                        metrics.parameterDecoded(interactionName, name, System.nanoTime() - decodeStart);
+                    }
+                    else if (outcome.equals(ValidationEvents.FAILED))
+                    {
+                        metrics.parameterFailed(interactionName, name);
+                        logParameterFailure(logger, interactionName, name, String.join(" ", interactionName,
+                                "Parameter", name, "failed to decode. Reason:", reason));
+                    }
+                    else if (outcome.equals(ValidationEvents.NO_DECODER))
+                    {
+                        metrics.parameterFailed(interactionName, name);
+                        logParameterFailure(logger, interactionName, name, String.join(" ", interactionName,
+                                "Cannot find decoder for param", name, "Recording as a failed param."));
+                    }
+                    else if (outcome.equals(ValidationEvents.NOT_SENT))
+                    {
+                        logParameterFailure(logger, interactionName, name,
+                                String.join(" ", interactionName, "Parameter not sent:", name));
+                    }
+                    
+                    shard.conformanceTally.parameterValidated(interactionName, name,
+                            ValidationTally.Outcome.of(outcome));
+                    recordOutcome(shard, interactionName, name, outcome);
+                });
+        
+        shard.conformanceTally.interactionValidated(interactionName);
+        if (shard.soakStatistics != null)
+        {
+            shard.soakStatistics.eventProcessed(interactionName);
+        }
+    }
+    
+    /**
+     * Waits between successive checks of the callbacks received from the RTI. By
+     * default this sleeps for the configured time, during which further callbacks
+     * may be received.
+     * 
+     * @param sleepTimeMillis
+     *            The configured time to wait, in milliseconds
+     * @throws InterruptedException
+     *             If the test is interrupted whilst waiting
+     */
+    protected void awaitCallbacks(final int sleepTimeMillis) throws InterruptedException
+    {
+        Thread.sleep(sleepTimeMillis);
+    }
+    
+    /**
+     * Stops the test at the end of the interaction being processed, rather than
+     * when it times out. This is how a soak test with no timeout is ended, for
+     * example from a shutdown hook.
+     */
+    public void requestStop()
+    {
+        stopRequested = true;
     }
     
     /**
@@ -1056,26 +2661,141 @@ public class TC_0001_Warfare extends AbstractTestCase
      */
     private void logReceivedInteractionParams(final ReceivedInteraction interaction, final Logger logger)
     {
-        InteractionClassHandle handle = interaction.getInteractionClass();
-        
-        try
+        if (isDetailLogged(logger))
         {
-            ParameterHandleValueMap params = interaction.getParameters();
+            // The names were cached when the interaction classes were subscribed, so the RTI
+            // is not called for every interaction just to build this message
+            InteractionClassHandle handle = interaction.getInteractionClass();
             StringJoiner sj = new StringJoiner(" ", "[", "]");
-            for (ParameterHandle param : params.keySet())
+            for (ParameterHandle param : interaction.getParameters().keySet())
             {
-                sj.add(ivctRTI.getParameterName(handle, param));
+                sj.add(tcWarfareBaseModel.getParameterName(handle, param));
             }
-            logger.info(String.join(" ", ivctRTI.getInteractionClassName(handle), sj.toString()));
-            
+            logDetail(logger, String.join(" ", tcWarfareBaseModel.getInteractionClassName(handle), sj.toString()));
+        }
+    }
+    
+    /**
+     * Determines whether the details of the processing of each interaction are
+     * written to the log.
+     * 
+     * @param logger
+     *            The logger to use
+     * @return True if the details are written at the level in use
+     */
+    private boolean isDetailLogged(final Logger logger)
+    {
+        return lowOverheadLogging ? logger.isDebugEnabled() : logger.isInfoEnabled();
+    }
+    
+    /**
+     * Logs a detail of the processing of an interaction, at debug level when low
+     * overhead logging is used and at info level otherwise.
+     * 
+     * @param logger
+     *            The logger to use
+     * @param msg
+     *            The message to log
+     */
+    private void logDetail(final Logger logger, final String msg)
+    {
+        if (lowOverheadLogging)
+        {
+            logger.debug(msg);
+        }
+        else
+        {
+            logger.info(msg);
+        }
+    }
+    
+    /**
+     * Determines whether the successful decoding of each parameter is written to
+     * the log.
+     * 
+     * @param logger
+     *            The logger to use
+     * @return True if the decoded parameters are written at the level in use
+     */
+    private boolean isDecodeLogged(final Logger logger)
+    {
+        return lowOverheadLogging ? logger.isTraceEnabled() : logger.isInfoEnabled();
+    }
+    
+    /**
+     * Logs the successful decoding of a parameter, at trace level when low
+     * overhead logging is used and at info level otherwise.
+     * 
+     * @param logger
+     *            The logger to use
+     * @param msg
+     *            The message to log
+     */
+    private void logDecode(final Logger logger, final String msg)
+    {
+        if (lowOverheadLogging)
+        {
+            logger.trace(msg);
+        }
+        else
+        {
+            logger.info(msg);
         }
-        catch (InvalidInteractionClassHandle | FederateNotExecutionMember | NotConnected | RTIinternalError
-                | InteractionParameterNotDefined | InvalidParameterHandle e)
+    }
+    
+    /**
+     * Logs the failure of a parameter. When low overhead logging is used, only the
+     * first failure of each parameter in a period is logged in full, and the
+     * others are counted in the failure summary.
+     * 
+     * @param logger
+     *            The logger to use
+     * @param interactionName
+     *            The name of the interaction class
+     * @param name
+     *            The name of the parameter
+     * @param msg
+     *            The message to log
+     */
+    private void logParameterFailure(final Logger logger, final String interactionName, final String name,
+            final String msg)
+    {
+        if (failureSummary == null || failureSummary.failed(interactionName, name))
         {
-            logger.warn(String.join(" ", "Unable to determine class and/or param names for interaction handle",
-                    handle.toString()));
+            logger.error(msg);
         }
+    }
+    
+    /**
+     * Compares the aggregates of a soak test with the thresholds in the
+     * configuration, and fails the test if any is breached.
+     * 
+     * @param shard
+     *            The validation of the SuT
+     * @param logger
+     *            The logger to use
+     * @throws TcFailed
+     *             If any threshold is breached
+     */
+    private void testSoakThresholds(final SutShard shard, final Logger logger) throws TcFailed
+    {
+        SoakStatistics soakStatistics = shard.soakStatistics;
+        logger.info(soakStatistics.toString());
         
+        List<String> breaches = soakStatistics.getBreaches(tcWarfareConfig.getMinEventsPerSecond(),
+                tcWarfareConfig.getMaxParameterFailureRate(), tcWarfareConfig.getMinPairMatchRatio(),
+                tcWarfareConfig.getMaxMunitionViolations());
+        
+        if (breaches.isEmpty())
+        {
+            logger.info("Soak test thresholds met");
+        }
+        else
+        {
+            breaches.forEach(logger::error);
+            String msg = String.join(" ", "Soak test failed", String.valueOf(breaches.size()), "threshold(s)");
+            throw new TcFailed(msg);
+        }
     }
     
     /**
@@ -1085,20 +2805,42 @@ public class TC_0001_Warfare extends AbstractTestCase
      * MunitionDetonation interaction, there is an earlier WeaponFire interaction
      * with the same EventIdentifier.
      * 
+     * @param shard
+     *            The validation of the SuT
      * @param logger
      *            The logger to use
      * @throws TcFailed
      *             If the test fails
      */
-    private void testMatchingPairs(final Logger logger) throws TcFailed
+    private void testMatchingPairs(final SutShard shard, final Logger logger) throws TcFailed
     {
         // Check that, for any MunitionDetonation, a matching prior WeaponFire was received.
         // A match means that the WeaponFire was received before the MunitionDetonation, the
         // IssuingObjectIdentifier values match, and the EventCount value of the WeaponFire is lower.
         logger.info("Testing matching WeaponFire / MuntionDetonation pairs");
         
-        if (munitionDetonationRecord.getEventsAndTimes().entrySet().stream()
-                .allMatch((e) -> weaponFireRecord.isPriorEventPresent(e.getKey(), e.getValue())))
+        ValidationMetrics metrics = tcWarfareBaseModel.getMetrics();
+        boolean allMatched = true;
+        
+        for (Map.Entry<EventIdentifierStruct, Long> e : shard.munitionDetonationRecord.getEventsAndTimes()
+                .entrySet())
+        {
+            Long fireTime = shard.weaponFireRecord.getPriorEventTime(e.getKey(), e.getValue());
+            
+            if (fireTime == null)
+            {
+                allMatched = false;
+                ValidationEvents.pairMatch(e.getKey().getIssuingObjectIdentifier(), false, 0);
+            }
+            else
+            {
+                long delayMillis = (e.getValue() - fireTime) / ReceiveClock.NANOS_PER_MILLI;
+                metrics.pairMatched(delayMillis);
+                ValidationEvents.pairMatch(e.getKey().getIssuingObjectIdentifier(), true, delayMillis);
+            }
+        }
+        
+        if (allMatched)
         {
             logger.info("Matching WeaponFire / MunitionDetonation pairs found");
         }
@@ -1116,8 +2858,12 @@ public class TC_0001_Warfare extends AbstractTestCase
      * then it is verified that a munition object instance, identified by the
      * MunitionObjectIdentifier parameter, was duly created in the environment. If
      * the received interaction is a MunitionDetonation, it is verified that the
-     * object was duly deleted.
+     * object was duly deleted at or after the interaction. As the object is
+     * deleted once the munition has detonated, a removal that has yet to be
+     * received is awaited, and judged by {@link #checkPendingRemovals}.
      * 
+     * @param shard
+     *            The validation of the SuT that sent the interaction
      * @param received
      *            The received interaction
      * @param logger
@@ -1125,7 +2871,8 @@ public class TC_0001_Warfare extends AbstractTestCase
      * @throws TcFailed
      *             If the test fails
      */
-    private void testMunitionObject(final ReceivedInteraction received, final Logger logger) throws TcFailed
+    private void testMunitionObject(final SutShard shard, final ReceivedInteraction received, final Logger logger)
+            throws TcFailed
     {
         String munitionObjectIdentifier = determineMunitionObjectIdentifier(received, logger);
         
@@ -1133,38 +2880,75 @@ public class TC_0001_Warfare extends AbstractTestCase
         {
             String msg = "Text case is configured to test for the Munition object instance but the MunitionObjectIdentifier parameter of received interaction was invalid";
             logger.error(msg);
+            recordMunitionCheck(shard, "Invalid identifier");
             throw new TcFailed(msg);
         }
         else
         {
+            // The munition instance is judged by whether its discovery and removal were
+            // received before the interaction, which does not change however far behind
+            // the processing of the interaction queue is, or whatever has been received
+            // since
+            Lifecycle lifecycle = tcWarfareBaseModel.getObjectLifecycles().get(munitionObjectIdentifier);
+            long receivedTime = received.getReceivedNanoTime();
+            
             if (isWeaponFireInteraction(received))
             {
-                if (tcWarfareBaseModel.isObjectInstanceDiscovered(munitionObjectIdentifier))
+                if (lifecycle != null && lifecycle.isPresentAt(receivedTime))
                 {
+                    recordMunitionCheck(shard, "Discovered");
                     logger.info(String.join(" ", "Munition object instance", munitionObjectIdentifier,
                             "pertaining to the WeaponFire interaction was discovered as expected"));
+                    
+                    if (logger.isDebugEnabled())
+                    {
+                        logger.debug(String.join(" ", "Munition object instance", munitionObjectIdentifier,
+                                "was discovered",
+                                String.valueOf((receivedTime - lifecycle.getDiscoveredTime())
+                                        / ReceiveClock.NANOS_PER_MILLI),
+                                "ms before the WeaponFire interaction was received"));
+                    }
                 }
                 else
                 {
                     String msg = String.join(" ", "Munition object instance", munitionObjectIdentifier,
-                            "pertaining to the WeaponFire interaction was expected but never discovered");
+                            "pertaining to the WeaponFire interaction was expected but was not discovered before",
+                            "the interaction was received");
                     logger.error(msg);
+                    recordMunitionCheck(shard, "Not discovered");
                     throw new TcFailed(msg);
                 }
             }
             else if (isMunitionDetonationInteraction(received))
             {
-                if (tcWarfareBaseModel.isObjectInstanceDiscovered(munitionObjectIdentifier))
+                if (lifecycle != null && lifecycle.isRemovedSince(receivedTime))
+                {
+                    recordMunitionCheck(shard, "Removed");
+                    logger.info(String.join(" ", "Munition object instance", munitionObjectIdentifier,
+                            "was removed following the MunitionDetonation interaction as expected"));
+                }
+                else if (lifecycle != null && lifecycle.isRemoved())
                 {
                     String msg = String.join(" ", "Munition object instance", munitionObjectIdentifier,
-                            "should have been removed following the MunitionDetonation interaction");
+                            "was removed",
+                            String.valueOf((receivedTime - lifecycle.getRemovedTime()) / ReceiveClock.NANOS_PER_MILLI),
+                            "ms before the MunitionDetonation interaction was received");
                     logger.error(msg);
+                    recordMunitionCheck(shard, "Removed early");
                     throw new TcFailed(msg);
                 }
                 else
                 {
-                    logger.info(String.join(" ", "Munition object instance", munitionObjectIdentifier,
-                            "was removed following the MunitionDetonation interaction as expected"));
+                    // The removal follows the detonation, so it is awaited rather than
+                    // expected to have been received already
+                    recordMunitionCheck(shard, "Removal pending");
+                    shard.pendingRemovals.put(munitionObjectIdentifier, receivedTime);
+                    
+                    if (logger.isDebugEnabled())
+                    {
+                        logger.debug(String.join(" ", "Awaiting the removal of munition object instance",
+                                munitionObjectIdentifier, "following the MunitionDetonation interaction"));
+                    }
                 }
             }
             else
@@ -1174,6 +2958,106 @@ public class TC_0001_Warfare extends AbstractTestCase
         }
     }
     
+    /**
+     * Records the outcome for a parameter in the verdict on the event being
+     * processed, if one is being recorded, and counts it in a soak test.
+     * 
+     * @param shard
+     *            The validation of the SuT that sent the interaction
+     * @param interactionName
+     *            The name of the interaction class
+     * @param name
+     *            The name of the parameter
+     * @param outcome
+     *            The outcome
+     */
+    private void recordOutcome(final SutShard shard, final String interactionName, final String name,
+            final String outcome)
+    {
+        if (shard.verdict != null)
+        {
+            shard.verdict.setParameterOutcome(name, outcome);
+        }
+        
+        if (shard.soakStatistics != null)
+        {
+            boolean failed = outcome.equals(ValidationEvents.NOT_SENT) || outcome.equals(ValidationEvents.NO_DECODER)
+                    || outcome.equals(ValidationEvents.FAILED);
+            shard.soakStatistics.parameterChecked(interactionName, name, failed);
+        }
+    }
+    
+    /**
+     * Records the result of the munition object check in the verdict on the event
+     * being processed, if one is being recorded.
+     * 
+     * @param shard
+     *            The validation of the SuT that sent the interaction
+     * @param result
+     *            The result of the check
+     */
+    private void recordMunitionCheck(final SutShard shard, final String result)
+    {
+        if (shard.verdict != null)
+        {
+            shard.verdict.setMunitionCheck(result);
+        }
+    }
+    
+    /**
+     * Completes the accounting for an event that has been processed: checks for a
+     * matching pair if needed and records its time of flight, counts the event in
+     * a soak test, and hands over the verdict on the event to be written if one is
+     * being recorded.
+     * 
+     * @param shard
+     *            The validation of the SuT that sent the interaction
+     * @param received
+     *            The received interaction
+     * @param eventIdentifier
+     *            The EventIdentifier of the received interaction
+     * @param munitionType
+     *            The MunitionType of the received interaction, or null if it was
+     *            not sent
+     */
+    private void completeEvent(final SutShard shard, final ReceivedInteraction received,
+            final EventIdentifierStruct eventIdentifier, final EntityTypeStruct munitionType)
+    {
+        if (tcWarfareConfig.isTestForMatchingPair() && isMunitionDetonationInteraction(received))
+        {
+            Long fireTime = shard.weaponFireRecord.getPriorEventTime(eventIdentifier, received.getOrderTime());
+            if (fireTime != null)
+            {
+                shard.flightTimes.record(munitionType, eventIdentifier.getIssuingObjectIdentifier(),
+                        (received.getOrderTime() - fireTime) / ReceiveClock.NANOS_PER_MILLI);
+            }
+            if (shard.verdict != null)
+            {
+                shard.verdict.setPairStatus(fireTime == null ? "Unmatched" : "Matched");
+            }
+            if (shard.soakStatistics != null)
+            {
+                shard.soakStatistics.pairChecked(fireTime != null);
+            }
+        }
+        
+        if (shard.soakStatistics != null)
+        {
+            // The outcome of each parameter has been counted, so the details need not be
+            // kept for the end of the test
+            InteractionRecord interactionRecord = isWeaponFireInteraction(received) ? shard.weaponFireRecord
+                    : shard.munitionDetonationRecord;
+            shard.soakStatistics.eventProcessed(interactionRecord.getInteractionName());
+            interactionRecord.forgetEventDetails(eventIdentifier);
+        }
+        
+        if (shard.verdict != null)
+        {
+            verdictLog.write(shard.verdict);
+            shard.verdict = null;
+        }
+    }
+    
     /**
      * Takes a parameter handle value map, and iterates over it using the decoder
      * class to generate HLA objects which are used to decode values in the map.
@@ -1196,10 +3080,37 @@ public class TC_0001_Warfare extends AbstractTestCase
      */
     protected EventIdentifierStruct decodeReceivedInteraction(final ReceivedInteraction receivedInteraction,
             final Logger logger) throws TcFailed, TcInconclusive
+    {
+        return decodeReceivedInteraction(shards.get(0), receivedInteraction, logger);
+    }
+    
+    /**
+     * Decodes a received interaction as {@link #decodeReceivedInteraction}, into
+     * the records of the SuT that sent it.
+     *
+     * @param shard
+     *            The validation of the SuT that sent the interaction
+     * @param receivedInteraction
+     *            The received interaction to decode
+     * @param logger
+     *            The logger to use
+     * @return The value of the EventIdentifier parameter of the recieved
+     *         interaction
+     * @throws TcFailed
+     *             If the test failed
+     * @throws TcInconclusive
+     *             If the test was deemed inconclusive
+     */
+    private EventIdentifierStruct decodeReceivedInteraction(final SutShard shard,
+            final ReceivedInteraction receivedInteraction, final Logger logger) throws TcFailed, TcInconclusive
     {
         EventIdentifierStruct eventIdentifier;
         
-        InteractionRecord interactionRecord = determineInteractionRecord(receivedInteraction, logger);
+        final ValidationMetrics metrics = tcWarfareBaseModel.getMetrics();
+        metrics.decodeStarted(receivedInteraction.getReceivedNanoTime(),
+                tcWarfareBaseModel.getReceiveClock().nanoTime());
+        
+        InteractionRecord interactionRecord = determineInteractionRecord(shard, receivedInteraction, logger);
         
         if (interactionRecord == null)
         {
@@ -1222,77 +3133,113 @@ public class TC_0001_Warfare extends AbstractTestCase
                 throw new TcInconclusive(msg);
             }
             
-            interactionRecord.addEvent(eventIdentifier, receivedInteraction.getReceivedTime());
+            interactionRecord.addEvent(eventIdentifier, receivedInteraction.getOrderTime());
+            final String issuingObjectIdentifier = eventIdentifier.getIssuingObjectIdentifier();
+            
+            if (verdictLog != null)
+            {
+                shard.verdict = new EventVerdict(interactionName, issuingObjectIdentifier,
+                        eventIdentifier.getEventCount(), receivedInteraction.getReceivedTime());
+                if (shards.size() > 1)
+                {
+                    shard.verdict.setSut(shard.sut.getName());
+                }
+            }
             
-            // First, get the MunitionObjectId value
-            interactionRecord.getExpectedParamMap().forEach((name, handle) ->
+            // Check each parameter against the plan of the interaction class, in the order
+            // the FOM defines them
+            final InteractionPlan plan = shard.validator.getPlan(receivedInteraction.getInteractionClass());
+            shard.validator.validate(plan, receivedInteraction.getParameters(), new ConformanceListener()
             {
-                byte[] encoded = receivedInteraction.getParameters().get(handle);
+                /**
+                 * True if the parameter being checked was decoded in full by a custom
+                 * decoder.
+                 */
+                private boolean fullyDecoded;
                 
-                // Was this parameter sent?
-                if (encoded == null)
+                @Override
+                public boolean decodeFully(final InteractionPlan validated, final int parameter, final byte[] encoded)
+                        throws DecoderException
                 {
-                    // The parameter was not sent, so record it accordingly
-                    if (isOptionalParameter(interactionName, name))
+                    fullyDecoded = TC_0001_Warfare.this.decodeFully(interactionName,
+                            validated.getParameterName(parameter), encoded, logger);
+                    return fullyDecoded;
+                }
+                
+                @Override
+                public void parameterChecked(final InteractionPlan validated, final int parameter,
+                        final DataElement decoder, final byte[] encoded, final String outcome, final String reason,
+                        final long decodeStart)
+                {
+                    final String name = validated.getParameterName(parameter);
+                    
+                    if (outcome.equals(ValidationEvents.OPTIONAL_NOT_SENT))
                     {
-                        logger.info(String.join(" ", interactionName, "Optional parameter not sent:", name));
+                        if (isDetailLogged(logger))
+                        {
+                            logDetail(logger, String.join(" ", interactionName, "Optional parameter not sent:", name));
+                        }
                         interactionRecord.addOptionalParamNotSent(eventIdentifier, name);
                     }
-                    else
+                    else if (outcome.equals(ValidationEvents.NOT_SENT))
                     {
-                        logger.error(String.join(" ", interactionName, "Parameter not sent:", name));
+                        logParameterFailure(logger, interactionName, name,
+                                String.join(" ", interactionName, "Parameter not sent:", name));
                         interactionRecord.addParamNotSent(eventIdentifier, name);
                     }
-                }
-                else
-                {
-                    // The parameter was sent, so attempt to decode it
-                    DataElement decoder = decoderGenerator.generateParameterDecoder(interactionName, name);
-                    
-                    // Could a valid decoder be found?
-                    if (decoder == null)
+                    else if (outcome.equals(ValidationEvents.NO_DECODER))
                     {
                         // A decoder could not be found, so record this as a failed parameter
-                        logger.error(String.join(" ", interactionName, "Cannot find decoder for param", name,
-                                "Recording as a failed param."));
+                        logParameterFailure(logger, interactionName, name, String.join(" ", interactionName,
+                                "Cannot find decoder for param", name, "Recording as a failed param."));
                         interactionRecord.addFailedParam(eventIdentifier, name);
+                        metrics.parameterFailed(interactionName, name);
+                        ValidationEvents.parameterDecoded(interactionName, issuingObjectIdentifier, name, null,
+                                encoded, outcome, ValidationEvents.start());
                     }
-                    else
+                    else if (outcome.equals(ValidationEvents.DECODED))
                     {
-                        // Attempt to decode the parameter
-                        try
+                        if (!fullyDecoded && isDecodeLogged(logger))
                         {
-                            // If this is a parameter that requires a full decode
-                            if (!decodeFully(interactionName, name, encoded, logger))
-                            {
-                                // Just make sure it decodes without throwing an exception
-                                decoder.decode(encoded);
-                                logger.info(String.join(" ", "Decoded",interactionName,"param", name, "Value=", decoder.toString()));
-                            }
-                            
-                            // If this point is reached without an exception being thrown, record this as a
-                            // successfully received parameter
-                            logger.info(String.join(" ", interactionName, "Successful decode for param", name));
-                            interactionRecord.addDecoded(eventIdentifier, decoder);
+                            logDecode(logger, String.join(" ", "Decoded", interactionName, "param", name, "Value=",
+                                    decoder.toString()));
                         }
-                        catch (final DecoderException de)
+                        metrics.parameterDecoded(interactionName, name, System.nanoTime() - decodeStart);
+                        ValidationEvents.parameterDecoded(interactionName, issuingObjectIdentifier, name, decoder,
+                                encoded, outcome, decodeStart);
+                        if (isDecodeLogged(logger))
                         {
-                            // If the parameter failed to decode because it was empty, check if empty
-                            // parameters are allowed
-                            if (encoded.length == 0 && isParameterValidWhenEmpty(interactionName, name))
-                            {
-                                logger.info(String.join(" ", interactionName, "param", name,
-                                        "was empty but deemed acceptable"));
-                                interactionRecord.addDecoded(eventIdentifier, decoder);
-                            }
-                            else
-                            {
-                                logger.error(String.join(" ", interactionName, "Parameter", name,
-                                        "failed to decode. Reason:", de.getMessage()));
-                                interactionRecord.addFailedParam(eventIdentifier, name);
-                            }
+                            logDecode(logger, String.join(" ", interactionName, "Successful decode for param", name));
+                        }
+                        // The decoder is reused for the next interaction of the class, so the
+                        // record keeps a copy of the value
+                        interactionRecord.addDecoded(eventIdentifier,
+                                shard.validator.copyValue(validated, parameter, encoded));
+                    }
+                    else if (outcome.equals(ValidationEvents.EMPTY))
+                    {
+                        if (isDecodeLogged(logger))
+                        {
+                            logDecode(logger, String.join(" ", interactionName, "param", name,
+                                    "was empty but deemed acceptable"));
                         }
+                        interactionRecord.addDecoded(eventIdentifier,
+                                shard.validator.copyValue(validated, parameter, encoded));
+                        ValidationEvents.parameterDecoded(interactionName, issuingObjectIdentifier, name, decoder,
+                                encoded, outcome, decodeStart);
+                    }
+                    else
+                    {
+                        logParameterFailure(logger, interactionName, name, String.join(" ", interactionName,
+                                "Parameter", name, "failed to decode. Reason:", reason));
+                        interactionRecord.addFailedParam(eventIdentifier, name);
+                        metrics.parameterFailed(interactionName, name);
+                        ValidationEvents.parameterDecoded(interactionName, issuingObjectIdentifier, name, decoder,
+                                encoded, outcome, decodeStart);
                     }
+                    
+                    recordOutcome(shard, interactionName, name, outcome);
+                    fullyDecoded = false;
                 }
             });
             
@@ -1416,28 +3363,30 @@ public class TC_0001_Warfare extends AbstractTestCase
      * Convenience method to determine which interaction record to update based upon
      * the interaction class of the received interaction.
      * 
+     * @param shard
+     *            The validation of the SuT that sent the interaction
      * @param receivedInteraction
      *            The received interaction.
      * @param logger
      *            The logger to use
      * @return The interaction record that was created earlier, or null.
      */
-    private InteractionRecord determineInteractionRecord(final ReceivedInteraction receivedInteraction,
-            final Logger logger)
+    private InteractionRecord determineInteractionRecord(final SutShard shard,
+            final ReceivedInteraction receivedInteraction, final Logger logger)
     {
         InteractionRecord interactionRecord;
         
-        if (isWeaponFireInteraction(receivedInteraction))
-        {
-            interactionRecord = weaponFireRecord;
-        }
-        else if (isMunitionDetonationInteraction(receivedInteraction))
-        {
-            interactionRecord = munitionDetonationRecord;
-        }
-        else
+        switch (getPlanIndex(receivedInteraction))
         {
-            interactionRecord = null;
+            case WEAPONFIRE_PLAN:
+                interactionRecord = shard.weaponFireRecord;
+                break;
+            case MUNITIONDETONATION_PLAN:
+                interactionRecord = shard.munitionDetonationRecord;
+                break;
+            default:
+                interactionRecord = null;
+                break;
         }
         return interactionRecord;
     }
@@ -1558,6 +3507,52 @@ public class TC_0001_Warfare extends AbstractTestCase
     {
         // Terminate rti
         tcWarfareBaseModel.terminateRti();
+        tcWarfareBaseModel.closeCaptureSink();
+        tcWarfareBaseModel.flushReorderedInteractions();
+        
+        if (resultAggregator != null)
+        {
+            try
+            {
+                resultAggregator.close();
+                brokerConnection.close();
+            }
+            catch (IOException | JMSException e)
+            {
+                logger.warn("Unable to close the connection to the JMS broker", e);
+            }
+        }
+        
+        if (failureSummary != null)
+        {
+            failureSummary.flush(logger);
+        }
+        
+        if (verdictLog != null)
+        {
+            try
+            {
+                verdictLog.close();
+            }
+            catch (IOException e)
+            {
+                logger.warn("Unable to write the event verdicts", e);
+            }
+            logger.info(String.join(" ", "Event verdicts written:", String.valueOf(verdictLog.getWritten()),
+                    "dropped:", String.valueOf(verdictLog.getDropped())));
+        }
+        
+        logger.info(tcWarfareBaseModel.getMetrics().toString());
+        tcWarfareBaseModel.getMetrics().close();
+        
+        for (SutShard shard : shards)
+        {
+            if (shards.size() > 1)
+            {
+                logger.info(String.join(" ", "SuT", shard.sut.getName()));
+            }
+            shard.flightTimes.report(logger);
+        }
     }
     
     /**
@@ -1657,11 +3652,13 @@ public class TC_0001_Warfare extends AbstractTestCase
     private boolean decodeFully(final String interactionName, final String paramName, final byte[] bytes,
             final Logger logger) throws DecoderException
     {
-        Decoder<?> decoder = decoders.get(String.join("", interactionName, ".", paramName));
+        String decoderKey = String.join("", interactionName, ".", paramName);
+        Decoder<?> decoder = decoders.get(decoderKey);
         
         if (decoder == null)
         {
-            decoder = decoders.get(paramName);
+            decoderKey = paramName;
+            decoder = decoders.get(decoderKey);
         }
         
         if (decoder != null)
@@ -1670,7 +3667,20 @@ public class TC_0001_Warfare extends AbstractTestCase
             // and print the toString to the log.
             // If the decode fails, a DecoderException is thrown at this point which is
             // propagated to the caller.
-            logger.info(String.join(" ", "Decoded", interactionName,"param",paramName, "Value=", decoder.decode(bytes).toString()));
+            // A decoder is shared by the workers of all the SuTs, so it is locked
+            // whilst decoding, but not whilst logging
+            String value;
+            ReentrantLock lock = decoderLocks.get(decoderKey);
+            lock.lock();
+            try
+            {
+                value = decoder.decode(bytes).toString();
+            }
+            finally
+            {
+                lock.unlock();
+            }
+            logger.info(String.join(" ", "Decoded", interactionName,"param",paramName, "Value=", value));
         }
         
         return decoder != null;
@@ -1691,22 +3701,39 @@ public class TC_0001_Warfare extends AbstractTestCase
      */
     private boolean isFederateConnected(final String sutFederateName, final Logger logger) throws TcInconclusive
     {
-        boolean sutConnected;
+        return getConnectedFederateHandle(sutFederateName, logger) != null;
+    }
+    
+    /**
+     * Finds the handle of the federate with the name defined by sutFederateName if
+     * it is connected to the federation
+     * 
+     * @param sutFederateName
+     *            The name of the federate
+     * @param logger
+     *            The logger to use
+     * @return The handle of the federate, or null if it is not connected
+     * @throws TcInconclusive
+     *             If something went wrong during the test
+     */
+    private FederateHandle getConnectedFederateHandle(final String sutFederateName, final Logger logger)
+            throws TcInconclusive
+    {
+        FederateHandle sutHandle;
         
         // Check if the SuT is already connected
         try
         {
             // If this does not throw an exception, it means that the SuT is present in the
             // federation
-            ivctRTI.getFederateHandle(sutFederateName);
-            sutConnected = true;
+            sutHandle = ivctRTI.getFederateHandle(sutFederateName);
         }
         catch (NameNotFound e)
         {
             // If a NameNotFound or NotConnected exception is thrown it might just mean that
             // the SuT has not yet joined the federation
             logger.info("Unknown federate exception ignored");
-            sutConnected = false;
+            sutHandle = null;
         }
         catch (FederateNotExecutionMember | RTIinternalError | NotConnected e2)
         {
@@ -1717,7 +3744,7 @@ public class TC_0001_Warfare extends AbstractTestCase
             logger.error(msg);
             throw new TcInconclusive(msg, e2);
         }
-        return sutConnected;
+        return sutHandle;
     }
     
 }
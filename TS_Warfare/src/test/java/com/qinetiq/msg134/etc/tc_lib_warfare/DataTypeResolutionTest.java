@@ -0,0 +1,72 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.net.URL;
+
+import org.slf4j.helpers.NOPLogger;
+
+import hla.rti1516e.RtiFactoryFactory;
+import hla.rti1516e.encoding.HLAinteger32BE;
+
+/**
+ * Tests that the data types resolved by a DecoderGenerator are remembered, so
+ * that the FOM modules are searched only once for each name, whether or not it
+ * is defined. It is in the package of the generator so that it can count the
+ * lookups of the shared FOM model.
+ *
+ * @author QinetiQ
+ */
+public class DataTypeResolutionTest {
+
+    /**
+     * Each data type is searched for on its first lookup only, including the
+     * representation of an enumerated type and a type that is not defined.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void repeatedLookupsAreAnsweredFromResolutions() throws Exception {
+        DecoderGenerator generator = new DecoderGenerator(
+                new URL[] { new File("src/test/resources/Fire-RangeEnum.xml").toURI().toURL() },
+                RtiFactoryFactory.getRtiFactory().getEncoderFactory(), NOPLogger.NOP_LOGGER);
+        FomModel model = generator.getModel();
+        long hits = model.getResolutionHits();
+        long misses = model.getResolutionMisses();
+
+        // The enumerated type and its representation are both searched for
+        assertTrue(generator.generateParameterDecoder("Fire", "Range") instanceof HLAinteger32BE);
+        assertEquals(hits, model.getResolutionHits());
+        assertEquals(misses + 2, model.getResolutionMisses());
+        assertEquals(DataTypeResolution.Category.ENUMERATED, model.getResolutions().get("RangeEnum32").getCategory());
+        assertEquals(DataTypeResolution.Category.BASIC, model.getResolutions().get("HLAinteger32BE").getCategory());
+
+        // Then found again without a search
+        assertTrue(generator.generateParameterDecoder("Fire", "Bearing") instanceof HLAinteger32BE);
+        assertTrue(generator.generateParameterDecoder("Fire", "Range") instanceof HLAinteger32BE);
+        assertEquals(hits + 4, model.getResolutionHits());
+        assertEquals(misses + 2, model.getResolutionMisses());
+
+        // A type that is not defined is remembered as such
+        assertNull(generator.generateParameterDecoder("Fire", "Mystery"));
+        assertNull(generator.generateParameterDecoder("Fire", "Mystery"));
+        assertEquals(hits + 5, model.getResolutionHits());
+        assertEquals(misses + 3, model.getResolutionMisses());
+        assertSame(DataTypeResolution.UNRESOLVED, model.getResolutions().get("UndefinedType"));
+    }
+}
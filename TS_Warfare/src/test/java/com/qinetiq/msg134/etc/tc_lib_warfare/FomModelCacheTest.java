@@ -0,0 +1,91 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.etc.tc_lib_warfare;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Collections;
+
+import org.slf4j.helpers.NOPLogger;
+
+import com.qinetiq.msg134.warfare.FomModules;
+
+/**
+ * Tests that the FOM modules loaded by a DecoderGenerator are shared with later
+ * generators only while the modules are unchanged. It is in the package of the
+ * generator so that it can compare the models that the generators hold.
+ *
+ * @author QinetiQ
+ */
+public class FomModelCacheTest {
+
+    /**
+     * Writes a FOM module defining a single interaction with a single parameter.
+     */
+    private static void writeModule(File file, String parameter) throws Exception {
+        FomModules.write(file, FomModules.interaction("Fire", FomModules.parameter(parameter, "HLAoctet")));
+    }
+
+    /**
+     * A generator created after a module has been edited sees the edit, whilst
+     * one created before it keeps the module it loaded.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void editedModulesAreLoadedAfresh() throws Exception {
+        File file = File.createTempFile("fom", ".xml");
+        file.deleteOnExit();
+        URL[] urls = new URL[] { file.toURI().toURL() };
+
+        writeModule(file, "Range");
+        DecoderGenerator first = new DecoderGenerator(urls, null, NOPLogger.NOP_LOGGER);
+        DecoderGenerator second = new DecoderGenerator(urls, null, NOPLogger.NOP_LOGGER);
+
+        writeModule(file, "Bearing");
+        DecoderGenerator edited = new DecoderGenerator(urls, null, NOPLogger.NOP_LOGGER);
+
+        assertEquals(Collections.singletonList("Range"), first.generateParameterList("Fire"));
+        assertEquals(Collections.singletonList("Range"), second.generateParameterList("Fire"));
+        assertEquals(Collections.singletonList("Bearing"), edited.generateParameterList("Fire"));
+    }
+
+    /**
+     * Generators given the same unchanged modules share one parsed model, an
+     * edited module is parsed again, and restoring its contents finds the model
+     * parsed before the edit.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void unchangedModulesShareOneModel() throws Exception {
+        File file = File.createTempFile("fom", ".xml");
+        file.deleteOnExit();
+        URL[] urls = new URL[] { file.toURI().toURL() };
+
+        writeModule(file, "Range");
+        FomModel model = new DecoderGenerator(urls, null, NOPLogger.NOP_LOGGER).getModel();
+        assertSame(model, new DecoderGenerator(urls, null, NOPLogger.NOP_LOGGER).getModel());
+
+        writeModule(file, "Bearing");
+        FomModel edited = new DecoderGenerator(urls, null, NOPLogger.NOP_LOGGER).getModel();
+        assertNotSame(model, edited);
+        assertSame(edited, new DecoderGenerator(urls, null, NOPLogger.NOP_LOGGER).getModel());
+
+        writeModule(file, "Range");
+        assertSame(model, new DecoderGenerator(urls, null, NOPLogger.NOP_LOGGER).getModel());
+    }
+}
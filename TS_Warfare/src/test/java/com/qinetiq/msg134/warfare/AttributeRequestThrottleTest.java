@@ -0,0 +1,71 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.AttributeRequestThrottle;
+
+/**
+ * Tests of the AttributeRequestThrottle.
+ *
+ * @author QinetiQ
+ */
+public class AttributeRequestThrottleTest {
+
+    /**
+     * A request is not repeated while it is pending, but may be repeated once it
+     * has been satisfied or the interval has passed.
+     */
+    @org.junit.Test
+    public void pendingRequestsAreNotRepeated() {
+        AtomicLong clock = new AtomicLong();
+        AttributeRequestThrottle throttle = new AttributeRequestThrottle(1000, 100, clock::get);
+
+        assertTrue(throttle.tryRequest("Munition1"));
+        assertTrue(throttle.isPending("Munition1"));
+        assertFalse(throttle.tryRequest("Munition1"));
+        assertTrue(throttle.tryRequest("Munition2"));
+
+        throttle.satisfied("Munition1");
+        assertFalse(throttle.isPending("Munition1"));
+        assertTrue(throttle.tryRequest("Munition1"));
+
+        clock.set(1000);
+        assertFalse(throttle.isPending("Munition2"));
+        assertTrue(throttle.tryRequest("Munition2"));
+        assertEquals(1, throttle.getSuppressed());
+    }
+
+    /**
+     * No more than the given number of requests are sent in an interval.
+     */
+    @org.junit.Test
+    public void requestsAreRateLimited() {
+        AtomicLong clock = new AtomicLong();
+        AttributeRequestThrottle throttle = new AttributeRequestThrottle(1000, 2, clock::get);
+
+        assertTrue(throttle.tryRequest("Munition1"));
+        assertTrue(throttle.tryRequest("Munition2"));
+        assertFalse(throttle.tryRequest("Munition3"));
+
+        clock.set(1500);
+        assertTrue(throttle.tryRequest("Munition3"));
+        assertEquals(1, throttle.getSuppressed());
+    }
+}
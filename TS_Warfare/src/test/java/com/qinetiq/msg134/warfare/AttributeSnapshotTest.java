@@ -0,0 +1,114 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.AttributeSnapshot;
+
+import hla.rti1516e.AttributeHandle;
+
+/**
+ * Tests of the AttributeSnapshot.
+ *
+ * @author QinetiQ
+ */
+public class AttributeSnapshotTest {
+
+    /**
+     * A minimal attribute handle, equal to other handles with the same value.
+     */
+    private static final class Handle implements AttributeHandle {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int value;
+
+        Handle(final int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int encodedLength() {
+            return 4;
+        }
+
+        @Override
+        public void encode(final byte[] buffer, final int offset) {
+            buffer[offset] = (byte) value;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof Handle && ((Handle) obj).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value;
+        }
+    }
+
+    /**
+     * A partial update keeps the attributes that it does not contain, and counts
+     * the updates to each attribute.
+     */
+    @org.junit.Test
+    public void partialUpdatesAreMerged() {
+        Map<AttributeHandle, byte[]> first = new HashMap<>();
+        first.put(new Handle(1), new byte[] { 1 });
+        first.put(new Handle(2), new byte[] { 2 });
+        Map<AttributeHandle, byte[]> second = new HashMap<>();
+        second.put(new Handle(2), new byte[] { 3 });
+
+        AttributeSnapshot snapshot = AttributeSnapshot.EMPTY.merge(first, 100).merge(second, 200);
+
+        assertEquals(2, snapshot.size());
+        assertEquals(2, snapshot.getVersion());
+        assertArrayEquals(new byte[] { 1 }, snapshot.get(new Handle(1)));
+        assertArrayEquals(new byte[] { 3 }, snapshot.get(new Handle(2)));
+        assertEquals(1, snapshot.getVersion(new Handle(1)));
+        assertEquals(2, snapshot.getVersion(new Handle(2)));
+        assertEquals(100, snapshot.getUpdateTime(new Handle(1)));
+        assertEquals(200, snapshot.getUpdateTime(new Handle(2)));
+        assertFalse(snapshot.contains(new Handle(3)));
+        assertNull(snapshot.get(new Handle(3)));
+    }
+
+    /**
+     * Merging leaves the earlier snapshot unchanged, and the values are copied
+     * from the update.
+     */
+    @org.junit.Test
+    public void snapshotsAreImmutable() {
+        byte[] value = new byte[] { 1 };
+        Map<AttributeHandle, byte[]> update = new HashMap<>();
+        update.put(new Handle(1), value);
+
+        AttributeSnapshot first = AttributeSnapshot.EMPTY.merge(update, 100);
+        value[0] = 9;
+        AttributeSnapshot second = first.merge(update, 200);
+
+        assertTrue(AttributeSnapshot.EMPTY.isEmpty());
+        assertArrayEquals(new byte[] { 1 }, first.get(new Handle(1)));
+        assertArrayEquals(new byte[] { 9 }, second.get(new Handle(1)));
+        assertEquals(1, first.getVersion(new Handle(1)));
+        assertEquals(2, second.getVersion(new Handle(1)));
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.helpers.NOPLogger;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.DecoderGenerator;
+import com.qinetiq.msg134.etc.tc_lib_warfare.decode.RTIobjectIdDecoder;
+
+import hla.rti1516e.RtiFactoryFactory;
+import hla.rti1516e.encoding.*;
+
+/**
+ * Tests that each HLA basic data representation, HLA predefined data type and
+ * RPR basic data representation in the table of the DecoderGenerator creates a
+ * data element of the expected class.
+ *
+ * @author QinetiQ
+ */
+public class BasicDataTypeTableTest {
+
+    /**
+     * @return The data element class expected for each data type of the table
+     */
+    private static Map<String, Class<?>> expectedClasses() {
+        Map<String, Class<?>> expected = new LinkedHashMap<>();
+        expected.put("HLAinteger16BE", HLAinteger16BE.class);
+        expected.put("HLAinteger32BE", HLAinteger32BE.class);
+        expected.put("HLAinteger64BE", HLAinteger64BE.class);
+        expected.put("HLAfloat32BE", HLAfloat32BE.class);
+        expected.put("HLAfloat64BE", HLAfloat64BE.class);
+        expected.put("HLAoctetPairBE", HLAoctetPairBE.class);
+        expected.put("HLAinteger16LE", HLAinteger16LE.class);
+        expected.put("HLAinteger32LE", HLAinteger32LE.class);
+        expected.put("HLAinteger64LE", HLAinteger64LE.class);
+        expected.put("HLAfloat32LE", HLAfloat32LE.class);
+        expected.put("HLAfloat64LE", HLAfloat64LE.class);
+        expected.put("HLAoctetPairLE", HLAoctetPairLE.class);
+        expected.put("HLAoctet", HLAoctet.class);
+        expected.put("HLAASCIIchar", HLAASCIIchar.class);
+        expected.put("HLAunicodeChar", HLAunicodeChar.class);
+        expected.put("HLAbyte", HLAbyte.class);
+        expected.put("HLAboolean", HLAboolean.class);
+        expected.put("HLAASCIIstring", HLAASCIIstring.class);
+        expected.put("HLAunicodeString", HLAunicodeString.class);
+        expected.put("HLAopaqueData", HLAopaqueData.class);
+        expected.put("RPRunsignedInteger8BE", HLAoctet.class);
+        expected.put("RPRunsignedInteger16BE", HLAinteger16BE.class);
+        expected.put("RPRunsignedInteger32BE", HLAinteger32BE.class);
+        expected.put("RPRunsignedInteger64BE", HLAinteger64BE.class);
+        expected.put("RTIobjectId", RTIobjectIdDecoder.class);
+        return expected;
+    }
+
+    /**
+     * Creates a generator for a module defining a Types interaction with a
+     * parameter of each of the given data types, named after its type.
+     */
+    private static DecoderGenerator generator(Iterable<String> dataTypes) throws Exception {
+        List<String> parameters = new ArrayList<>();
+        for (String dataType : dataTypes) {
+            parameters.add(FomModules.parameter(dataType, dataType));
+        }
+        URL[] urls = FomModules.write(FomModules.interaction("Types", parameters.toArray(new String[0])));
+
+        return new DecoderGenerator(urls, RtiFactoryFactory.getRtiFactory().getEncoderFactory(),
+                NOPLogger.NOP_LOGGER);
+    }
+
+    /**
+     * A parameter of each data type of the table is given a data element of the
+     * class expected for the type.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void everyTableEntryCreatesExpectedClass() throws Exception {
+        Map<String, Class<?>> expected = expectedClasses();
+        DecoderGenerator generator = generator(expected.keySet());
+
+        for (Map.Entry<String, Class<?>> e : expected.entrySet()) {
+            DataElement element = generator.generateParameterDecoder("Types", e.getKey());
+            assertNotNull(e.getKey(), element);
+            assertTrue(e.getKey() + " created " + element.getClass().getName(), e.getValue().isInstance(element));
+        }
+    }
+
+    /**
+     * Each call creates a new data element, so that decoders do not share values.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void tableEntriesCreateNewElements() throws Exception {
+        DecoderGenerator generator = generator(Collections.singleton("HLAinteger32BE"));
+
+        assertNotSame(generator.generateParameterDecoder("Types", "HLAinteger32BE"),
+                generator.generateParameterDecoder("Types", "HLAinteger32BE"));
+    }
+}
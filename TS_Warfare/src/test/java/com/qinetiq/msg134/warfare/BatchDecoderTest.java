@@ -0,0 +1,97 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.decode.VelocityVectorStructBatchDecoder;
+import com.qinetiq.msg134.etc.tc_lib_warfare.decode.WorldLocationStructBatchDecoder;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.VelocityVectorColumns;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.WorldLocationColumns;
+
+import hla.rti1516e.encoding.DecoderException;
+
+/**
+ * Tests of the batch decoders for the fixed layout RPR structs.
+ *
+ * @author QinetiQ
+ */
+public class BatchDecoderTest {
+
+    /**
+     * Locations are decoded into columns in the order given, from the current
+     * position of each buffer, and the positions are left unchanged.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void decodeWorldLocations() throws Exception {
+        List<ByteBuffer> codes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ByteBuffer code = ByteBuffer.allocate(WorldLocationStructBatchDecoder.ENCODED_LENGTH + 2);
+            code.position(2);
+            code.putDouble(i).putDouble(-i).putDouble(i * 0.5);
+            code.position(2);
+            codes.add(code);
+        }
+
+        WorldLocationColumns columns = new WorldLocationStructBatchDecoder().decodeAll(codes);
+
+        assertEquals(100, columns.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, columns.getX()[i], 0.0);
+            assertEquals(-i, columns.getY()[i], 0.0);
+            assertEquals(i * 0.5, columns.getZ()[i], 0.0);
+            assertEquals(2, codes.get(i).position());
+        }
+    }
+
+    /**
+     * Velocities are decoded as big endian even from a little endian buffer.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void decodeVelocityVectorsIgnoresBufferOrder() throws Exception {
+        ByteBuffer code = ByteBuffer.allocate(VelocityVectorStructBatchDecoder.ENCODED_LENGTH);
+        code.putFloat(1.5f).putFloat(-2.25f).putFloat(300f);
+        code.flip();
+        code.order(ByteOrder.LITTLE_ENDIAN);
+
+        List<ByteBuffer> codes = new ArrayList<>();
+        codes.add(code);
+        VelocityVectorColumns columns = new VelocityVectorStructBatchDecoder().decodeAll(codes);
+
+        assertEquals(1, columns.size());
+        assertEquals(1.5f, columns.getXVelocity()[0], 0.0f);
+        assertEquals(-2.25f, columns.getYVelocity()[0], 0.0f);
+        assertEquals(300f, columns.getZVelocity()[0], 0.0f);
+    }
+
+    /**
+     * A buffer too short to hold a location fails the whole batch.
+     * @throws Exception
+     */
+    @org.junit.Test(expected = DecoderException.class)
+    public void decodeWorldLocationsTooShort() throws Exception {
+        List<ByteBuffer> codes = new ArrayList<>();
+        codes.add(ByteBuffer.allocate(WorldLocationStructBatchDecoder.ENCODED_LENGTH - 1));
+        new WorldLocationStructBatchDecoder().decodeAll(codes);
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.capture.CaptureFileReader;
+import com.qinetiq.msg134.etc.tc_lib_warfare.capture.CaptureFileWriter;
+import com.qinetiq.msg134.etc.tc_lib_warfare.capture.CaptureFormat;
+import com.qinetiq.msg134.etc.tc_lib_warfare.capture.CaptureRecord;
+
+/**
+ * Tests that the CaptureFileReader reads back what the CaptureFileWriter wrote.
+ *
+ * @author QinetiQ
+ */
+public class CaptureFileReaderTest {
+
+    /**
+     * Writes an engagement per munition: discovery, WeaponFire, reflection,
+     * removal and MunitionDetonation.
+     */
+    private static File writeCapture(int munitions) throws Exception {
+        File file = File.createTempFile("capture", ".bin");
+        file.deleteOnExit();
+
+        try (CaptureFileWriter writer = new CaptureFileWriter(file.toPath())) {
+            for (int i = 0; i < munitions; i++) {
+                String munition = "M." + i;
+                Map<String, byte[]> parameters = new LinkedHashMap<>();
+                parameters.put("EventIdentifier", new byte[] { (byte) i, 1 });
+                parameters.put("MunitionObjectIdentifier", munition.getBytes("UTF-8"));
+                Map<String, byte[]> attributes = new LinkedHashMap<>();
+                attributes.put("Spatial", new byte[] { (byte) i });
+
+                writer.objectDiscovered("Munition", munition, 5L * i);
+                writer.interactionReceived("WeaponFire", parameters, null, 5L * i + 1);
+                writer.attributesReflected(munition, attributes, new byte[] { 0, 0, 0, 0, 0, 0, 0, (byte) i },
+                        5L * i + 2);
+                writer.objectRemoved(munition, null, 5L * i + 3);
+                writer.interactionReceived("MunitionDetonation", parameters, null, 5L * i + 4);
+            }
+        }
+
+        return file;
+    }
+
+    /**
+     * Reads all of the records of a capture.
+     */
+    private static List<CaptureRecord> readCapture(File file, int decodeThreads) throws Exception {
+        List<CaptureRecord> records = new ArrayList<>();
+        try (CaptureFileReader reader = new CaptureFileReader(file.toPath(), decodeThreads)) {
+            for (CaptureRecord record = reader.next(); record != null; record = reader.next()) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Checks that the records read are those written, in the same order.
+     */
+    private static void assertEngagements(List<CaptureRecord> records, int munitions) {
+        assertEquals(5 * munitions, records.size());
+
+        for (int i = 0; i < munitions; i++) {
+            String munition = "M." + i;
+            CaptureRecord discover = records.get(5 * i);
+            assertEquals(CaptureFormat.DISCOVER, discover.getType());
+            assertEquals("Munition", discover.getClassName());
+            assertEquals(munition, discover.getObjectName());
+            assertEquals(5L * i, discover.getReceiveTime());
+
+            CaptureRecord weaponFire = records.get(5 * i + 1);
+            assertEquals(CaptureFormat.INTERACTION, weaponFire.getType());
+            assertEquals("WeaponFire", weaponFire.getClassName());
+            assertNull(weaponFire.getLogicalTime());
+            assertArrayEquals(new byte[] { (byte) i, 1 }, weaponFire.getValues().get("EventIdentifier"));
+            assertEquals(munition, new String(weaponFire.getValues().get("MunitionObjectIdentifier")));
+
+            CaptureRecord reflect = records.get(5 * i + 2);
+            assertEquals(CaptureFormat.REFLECT, reflect.getType());
+            assertEquals(munition, reflect.getObjectName());
+            assertEquals((byte) i, reflect.getLogicalTime()[7]);
+            assertArrayEquals(new byte[] { (byte) i }, reflect.getValues().get("Spatial"));
+
+            CaptureRecord remove = records.get(5 * i + 3);
+            assertEquals(CaptureFormat.REMOVE, remove.getType());
+            assertEquals(munition, remove.getObjectName());
+
+            CaptureRecord detonation = records.get(5 * i + 4);
+            assertEquals("MunitionDetonation", detonation.getClassName());
+            assertEquals(5L * i + 4, detonation.getReceiveTime());
+        }
+    }
+
+    /**
+     * Records are read back in the order in which they were written.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void readRecords() throws Exception {
+        File file = writeCapture(10);
+        assertEngagements(readCapture(file, 1), 10);
+    }
+
+    /**
+     * Records decoded in parallel are still returned in the order in which they
+     * were written, across several batches.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void readRecordsInParallel() throws Exception {
+        File file = writeCapture(1000);
+        assertEngagements(readCapture(file, 4), 1000);
+    }
+
+    /**
+     * A record cut short by the end of the file is ignored.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void ignoreTruncatedRecord() throws Exception {
+        File file = writeCapture(2);
+        try (RandomAccessFile truncated = new RandomAccessFile(file, "rw")) {
+            truncated.setLength(truncated.length() - 1);
+        }
+
+        List<CaptureRecord> records = readCapture(file, 1);
+        assertEquals(9, records.size());
+        assertEquals(CaptureFormat.REMOVE, records.get(8).getType());
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.capture.CaptureFileWriter;
+import com.qinetiq.msg134.etc.tc_lib_warfare.capture.CaptureFormat;
+
+/**
+ * Tests of the layout of the files written by the CaptureFileWriter.
+ *
+ * @author QinetiQ
+ */
+public class CaptureFileWriterTest {
+
+    /**
+     * Each name is written once, before the first record that refers to it, and
+     * the records follow in the order in which they were captured.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void writeRecords() throws Exception {
+        File file = File.createTempFile("capture", ".bin");
+        file.deleteOnExit();
+
+        Map<String, byte[]> parameters = new LinkedHashMap<>();
+        parameters.put("FuseType", new byte[] { 0, 50 });
+        parameters.put("QuantityFired", new byte[] { 0, 1 });
+
+        try (CaptureFileWriter writer = new CaptureFileWriter(file.toPath())) {
+            writer.objectDiscovered("Munition", "M.1", 10L);
+            writer.interactionReceived("WeaponFire", parameters, null, 11L);
+            writer.interactionReceived("WeaponFire", parameters, new byte[] { 1, 2, 3, 4 }, 12L);
+            writer.objectRemoved("M.1", null, 13L);
+        }
+
+        ByteBuffer contents = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        assertEquals(CaptureFormat.MAGIC, contents.getInt());
+        assertEquals(CaptureFormat.VERSION, contents.getShort());
+        contents.getShort();
+
+        List<Byte> types = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        while (contents.hasRemaining()) {
+            int start = contents.position();
+            int length = contents.getInt();
+            byte type = contents.get();
+            types.add(type);
+
+            if (type == CaptureFormat.NAME) {
+                assertEquals(names.size(), contents.getInt());
+                byte[] name = new byte[length - CaptureFormat.RECORD_HEADER_LENGTH - Integer.BYTES];
+                contents.get(name);
+                names.add(new String(name, StandardCharsets.UTF_8));
+            } else if (type == CaptureFormat.INTERACTION) {
+                long receiveTime = contents.getLong();
+                int timeLength = contents.getInt();
+                assertEquals(receiveTime == 11L ? 0 : 4, timeLength);
+                contents.position(contents.position() + timeLength);
+                assertEquals("WeaponFire", names.get(contents.getInt()));
+                assertEquals(2, contents.getInt());
+                assertEquals("FuseType", names.get(contents.getInt()));
+                assertEquals(2, contents.getInt());
+                assertEquals(0, contents.get());
+                assertEquals(50, contents.get());
+            }
+            contents.position(start + length);
+        }
+
+        assertEquals(Arrays.asList("Munition", "M.1", "WeaponFire", "FuseType", "QuantityFired"), names);
+        assertEquals(9, types.size());
+        assertEquals(CaptureFormat.DISCOVER, (byte) types.get(2));
+        assertEquals(CaptureFormat.INTERACTION, (byte) types.get(6));
+        assertEquals(CaptureFormat.INTERACTION, (byte) types.get(7));
+        assertEquals(CaptureFormat.REMOVE, (byte) types.get(8));
+    }
+
+    /**
+     * A record larger than the buffer is written straight to the file, after the
+     * records already buffered.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void writeRecordLargerThanBuffer() throws Exception {
+        File file = File.createTempFile("capture", ".bin");
+        file.deleteOnExit();
+
+        Map<String, byte[]> attributes = new LinkedHashMap<>();
+        attributes.put("Spatial", new byte[1000]);
+
+        try (CaptureFileWriter writer = new CaptureFileWriter(file.toPath(), 64)) {
+            writer.objectDiscovered("Munition", "M.1", 10L);
+            writer.attributesReflected("M.1", attributes, null, 11L);
+            writer.objectRemoved("M.1", null, 12L);
+        }
+
+        ByteBuffer contents = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        contents.position(CaptureFormat.FILE_HEADER_LENGTH);
+
+        List<Byte> types = new ArrayList<>();
+        while (contents.hasRemaining()) {
+            int start = contents.position();
+            int length = contents.getInt();
+            types.add(contents.get());
+            contents.position(start + length);
+        }
+
+        assertEquals(Arrays.asList(CaptureFormat.NAME, CaptureFormat.NAME, CaptureFormat.DISCOVER,
+                CaptureFormat.NAME, CaptureFormat.REFLECT, CaptureFormat.REMOVE), types);
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.helpers.NOPLogger;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.DecoderGenerator;
+import com.qinetiq.msg134.etc.tc_lib_warfare.InteractionRecord;
+import com.qinetiq.msg134.etc.tc_lib_warfare.conformance.ConformanceEngine;
+import com.qinetiq.msg134.etc.tc_lib_warfare.conformance.ConformanceValidator;
+import com.qinetiq.msg134.etc.tc_lib_warfare.conformance.HandleIndex;
+import com.qinetiq.msg134.etc.tc_lib_warfare.conformance.InteractionPlan;
+import com.qinetiq.msg134.etc.tc_lib_warfare.jfr.ValidationEvents;
+import com.qinetiq.msg134.etc.tc_lib_warfare.loopback.LoopbackFederation;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.EventIdentifierStruct;
+
+import hla.rti1516e.InteractionClassHandle;
+import hla.rti1516e.ParameterHandle;
+import hla.rti1516e.ParameterHandleValueMap;
+import hla.rti1516e.RtiFactoryFactory;
+import hla.rti1516e.encoding.DataElement;
+import hla.rti1516e.encoding.HLAinteger32BE;
+
+/**
+ * Tests the compilation of the validation plans from the FOM, the dispatch of
+ * interaction classes by handle and the outcomes of validating the parameters.
+ *
+ * @author QinetiQ
+ */
+public class ConformanceEngineTest {
+
+    /**
+     * Every handle indexed is found at its position, and others are not found.
+     */
+    @org.junit.Test
+    public void handleIndexFindsEveryHandle() {
+        List<Integer> handles = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            handles.add(i * 16);
+        }
+
+        HandleIndex<Integer> index = new HandleIndex<>(handles);
+
+        assertEquals(100, index.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, index.indexOf(i * 16));
+        }
+        assertEquals(-1, index.indexOf(1));
+        assertEquals(-1, index.indexOf(null));
+    }
+
+    /**
+     * A handle may only be indexed once.
+     */
+    @org.junit.Test(expected = IllegalArgumentException.class)
+    public void handleIndexRejectsDuplicates() {
+        new HandleIndex<>(Arrays.asList(1, 2, 1));
+    }
+
+    /**
+     * The plans follow the FOM order of the parameters, and each class is
+     * dispatched to its own plan.
+     */
+    @org.junit.Test
+    public void plansFollowFomAndDispatchByHandle() throws Exception {
+        LoopbackFederation federation = new LoopbackFederation(null);
+        ConformanceEngine engine = compile(federation, fomUrls());
+
+        assertEquals(2, engine.getPlans().size());
+
+        InteractionPlan fire = engine.getPlan(federation.getInteractionClassHandle("Fire"));
+        assertEquals(0, fire.getIndex());
+        assertEquals("Fire", fire.getInteractionName());
+        assertEquals(2, fire.getParameterCount());
+        assertEquals("Range", fire.getParameterName(0));
+        assertEquals("Bearing", fire.getParameterName(1));
+        assertFalse(fire.isOptional(0));
+        assertTrue(fire.isOptional(1));
+        assertEquals(1, fire.indexOf("Bearing"));
+        assertEquals(0, fire.indexOf(fire.getParameterHandle(0)));
+
+        InteractionPlan radio = engine.getPlan(federation.getInteractionClassHandle("Radio"));
+        assertEquals(1, radio.getIndex());
+        assertSame(radio, engine.getPlan(1));
+
+        assertNull(engine.getPlan(federation.getInteractionClassHandle("Other")));
+    }
+
+    /**
+     * Each parameter of the plan is reported with its outcome, and only those
+     * that fail or are missing without being optional count as failures.
+     */
+    @org.junit.Test
+    public void validatorReportsOutcomes() throws Exception {
+        LoopbackFederation federation = new LoopbackFederation(null);
+        URL[] urls = fomUrls();
+        ConformanceEngine engine = compile(federation, urls);
+        ConformanceValidator validator = engine.newValidator(
+                new DecoderGenerator(urls, null, NOPLogger.NOP_LOGGER));
+
+        InteractionClassHandle fireHandle = federation.getInteractionClassHandle("Fire");
+        InteractionPlan fire = validator.getPlan(fireHandle);
+        Map<String, String> outcomes = new LinkedHashMap<>();
+
+        ParameterHandleValueMap parameters = federation.createParameterMap(1);
+        parameters.put(federation.getParameterHandle(fireHandle, "Range"), new byte[] { 1 });
+        int failures = validator.validate(fire, parameters,
+                (plan, parameter, decoder, encoded, outcome, reason, decodeStart) -> outcomes
+                        .put(plan.getParameterName(parameter), outcome));
+
+        assertEquals(Arrays.asList("Range", "Bearing"), new ArrayList<>(outcomes.keySet()));
+        assertEquals(ValidationEvents.NO_DECODER, outcomes.get("Range"));
+        assertEquals(ValidationEvents.OPTIONAL_NOT_SENT, outcomes.get("Bearing"));
+        assertEquals(1, failures);
+
+        InteractionPlan radio = validator.getPlan(federation.getInteractionClassHandle("Radio"));
+        outcomes.clear();
+        failures = validator.validate(radio, federation.createParameterMap(0),
+                (plan, parameter, decoder, encoded, outcome, reason, decodeStart) -> outcomes
+                        .put(plan.getParameterName(parameter), outcome));
+
+        assertEquals(ValidationEvents.NOT_SENT, outcomes.get("Frequency"));
+        assertEquals(1, failures);
+    }
+
+    /**
+     * The values recorded for an interaction are copies, which are not changed
+     * when the validator decodes the next interaction of the class.
+     */
+    @org.junit.Test
+    public void recordedValuesSurviveLaterInteractions() throws Exception {
+        LoopbackFederation federation = new LoopbackFederation(null);
+        URL[] urls = fomUrls("HLAinteger32BE");
+        ConformanceEngine engine = compile(federation, urls);
+        ConformanceValidator validator = engine.newValidator(new DecoderGenerator(urls,
+                RtiFactoryFactory.getRtiFactory().getEncoderFactory(), NOPLogger.NOP_LOGGER));
+
+        InteractionClassHandle fireHandle = federation.getInteractionClassHandle("Fire");
+        InteractionPlan fire = validator.getPlan(fireHandle);
+        InteractionRecord record = new InteractionRecord("Fire", fireHandle, new LinkedHashMap<>());
+        List<EventIdentifierStruct> events = Arrays.asList(new EventIdentifierStruct((short) 1, "Tank"),
+                new EventIdentifierStruct((short) 2, "Tank"));
+
+        for (int i = 0; i < events.size(); i++) {
+            EventIdentifierStruct event = events.get(i);
+            ParameterHandleValueMap parameters = federation.createParameterMap(1);
+            parameters.put(federation.getParameterHandle(fireHandle, "Range"),
+                    ByteBuffer.allocate(4).putInt(1000 * (i + 1)).array());
+            validator.validate(fire, parameters, (plan, parameter, decoder, encoded, outcome, reason, decodeStart) -> {
+                if (outcome.equals(ValidationEvents.DECODED)) {
+                    record.addDecoded(event, validator.copyValue(plan, parameter, encoded));
+                }
+            });
+        }
+
+        Collection<DataElement> first = record.getDecodedParams(events.get(0));
+        Collection<DataElement> second = record.getDecodedParams(events.get(1));
+        assertEquals(1, first.size());
+        assertEquals(1, second.size());
+        assertEquals(1000, ((HLAinteger32BE) first.iterator().next()).getValue());
+        assertEquals(2000, ((HLAinteger32BE) second.iterator().next()).getValue());
+    }
+
+    /**
+     * @return The URL of a FOM module defining the Fire and Radio interactions
+     */
+    private static URL[] fomUrls() throws Exception {
+        return fomUrls("UndefinedType");
+    }
+
+    /**
+     * @param rangeType
+     *            The data type of the Range parameter of the Fire interaction
+     * @return The URL of a FOM module defining the Fire and Radio interactions
+     */
+    private static URL[] fomUrls(String rangeType) throws Exception {
+        return FomModules.write(
+                FomModules.interaction("Fire", FomModules.parameter("Range", rangeType),
+                        FomModules.parameter("Bearing", "UndefinedType")),
+                FomModules.interaction("Radio", FomModules.parameter("Frequency", "UndefinedType")));
+    }
+
+    /**
+     * Compiles the plans of the Fire and Radio interactions, whose records name
+     * their parameters in the reverse of the FOM order. Bearing is optional.
+     */
+    private static ConformanceEngine compile(final LoopbackFederation federation, final URL[] urls)
+            throws Exception {
+        List<InteractionRecord> records = new ArrayList<>();
+        for (String interactionName : Arrays.asList("Fire", "Radio")) {
+            InteractionClassHandle handle = federation.getInteractionClassHandle(interactionName);
+            List<String> names = new ArrayList<>(interactionName.equals("Fire")
+                    ? Arrays.asList("Bearing", "Range") : Arrays.asList("Frequency"));
+            Map<String, ParameterHandle> paramMap = new LinkedHashMap<>();
+            for (String name : names) {
+                paramMap.put(name, federation.getParameterHandle(handle, name));
+            }
+            records.add(new InteractionRecord(interactionName, handle, paramMap));
+        }
+
+        return ConformanceEngine.compile(records, new DecoderGenerator(urls, null, NOPLogger.NOP_LOGGER),
+                (interactionName, name) -> name.equals("Bearing"), (interactionName, name) -> false);
+    }
+}
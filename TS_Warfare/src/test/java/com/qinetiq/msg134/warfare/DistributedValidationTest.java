@@ -0,0 +1,237 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.jms.Connection;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.slf4j.helpers.NOPLogger;
+
+import hla.rti1516e.RtiFactoryFactory;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.DecoderGenerator;
+import com.qinetiq.msg134.etc.tc_lib_warfare.distributed.InteractionBatch;
+import com.qinetiq.msg134.etc.tc_lib_warfare.distributed.JmsCaptureSink;
+import com.qinetiq.msg134.etc.tc_lib_warfare.distributed.ResultAggregator;
+import com.qinetiq.msg134.etc.tc_lib_warfare.distributed.ValidationTally;
+import com.qinetiq.msg134.etc.tc_lib_warfare.distributed.ValidationTally.Outcome;
+import com.qinetiq.msg134.etc.tc_lib_warfare.distributed.ValidationWorker;
+
+/**
+ * Tests the encoding of the batches and tallies exchanged with the distributed
+ * validation workers, and a worker validating batches published through an
+ * embedded broker.
+ *
+ * @author QinetiQ
+ */
+public class DistributedValidationTest {
+
+    /**
+     * A batch decodes to the interactions encoded, in order.
+     */
+    @org.junit.Test
+    public void batchRoundTrip() throws Exception {
+        Map<String, byte[]> fire = new LinkedHashMap<>();
+        fire.put("EventIdentifier", new byte[] { 1, 2, 3 });
+        fire.put("FuseType", new byte[0]);
+
+        InteractionBatch batch = new InteractionBatch(Collections.singleton("WeaponFire.FuseType"));
+        batch.add("WeaponFire", fire, 100);
+        batch.add("MunitionDetonation", Collections.singletonMap("EventIdentifier", new byte[] { 4 }), 200);
+
+        InteractionBatch decoded = InteractionBatch.decode(batch.encode());
+
+        assertEquals(2, decoded.size());
+        InteractionBatch.Interaction first = decoded.getInteractions().get(0);
+        assertEquals("WeaponFire", first.getInteractionClass());
+        assertEquals(100, first.getReceiveTime());
+        assertEquals(fire.keySet(), first.getParameters().keySet());
+        assertArrayEquals(new byte[] { 1, 2, 3 }, first.getParameters().get("EventIdentifier"));
+        assertArrayEquals(new byte[0], first.getParameters().get("FuseType"));
+        InteractionBatch.Interaction second = decoded.getInteractions().get(1);
+        assertEquals("MunitionDetonation", second.getInteractionClass());
+        assertArrayEquals(new byte[] { 4 }, second.getParameters().get("EventIdentifier"));
+        assertEquals(Collections.singleton("WeaponFire.FuseType"), decoded.getValidWhenEmpty());
+        assertTrue(decoded.isValidWhenEmpty("WeaponFire", "FuseType"));
+        assertFalse(decoded.isValidWhenEmpty("MunitionDetonation", "FuseType"));
+    }
+
+    /**
+     * Tallies survive encoding and add up.
+     */
+    @org.junit.Test
+    public void talliesAddUp() throws Exception {
+        ValidationTally first = new ValidationTally();
+        first.interactionValidated("WeaponFire");
+        first.parameterValidated("WeaponFire", "FuseType", Outcome.VALID);
+        first.parameterValidated("WeaponFire", "RateOfFire", Outcome.NOT_SENT);
+
+        ValidationTally second = new ValidationTally();
+        second.interactionValidated("WeaponFire");
+        second.parameterValidated("WeaponFire", "FuseType", Outcome.FAILED);
+        second.parameterValidated("WeaponFire", "RateOfFire", Outcome.NOT_SENT);
+
+        ValidationTally total = ValidationTally.decode(first.encode());
+        total.add(ValidationTally.decode(second.encode()));
+
+        assertEquals(2, total.getInteractions());
+        assertEquals(2, total.getInteractions("WeaponFire"));
+        assertEquals(0, total.getInteractions("MunitionDetonation"));
+        assertEquals(1, total.getCount("WeaponFire", "FuseType", Outcome.VALID));
+        assertEquals(1, total.getCount("WeaponFire", "FuseType", Outcome.FAILED));
+        assertEquals(2, total.getCount("WeaponFire", "RateOfFire", Outcome.NOT_SENT));
+        assertEquals(0, total.getCount("WeaponFire", "RateOfFire", Outcome.VALID));
+    }
+
+    /**
+     * An empty value that does not decode is valid only where the batch names
+     * the parameter as valid when empty, whether by its name alone or with its
+     * interaction class.
+     */
+    @org.junit.Test
+    public void workerAcceptsParametersValidWhenEmpty() throws Exception {
+        URL[] urls = fomUrls("HLAinteger32BE");
+
+        Connection connection = new ActiveMQConnectionFactory(
+                "vm://empty-validation-test?broker.persistent=false&broker.useJmx=false").createConnection();
+        try {
+            ValidationWorker worker = new ValidationWorker(connection, "Test.Batches", "Test.Results",
+                    new DecoderGenerator(urls, RtiFactoryFactory.getRtiFactory().getEncoderFactory(),
+                            NOPLogger.NOP_LOGGER), NOPLogger.NOP_LOGGER);
+
+            Map<String, byte[]> empty = new LinkedHashMap<>();
+            empty.put("Range", new byte[0]);
+            empty.put("Bearing", new byte[0]);
+
+            InteractionBatch batch = new InteractionBatch(Collections.singleton("Fire.Bearing"));
+            batch.add("Fire", empty, 0);
+            ValidationTally tally = worker.validate(InteractionBatch.decode(batch.encode()));
+
+            assertEquals(1, tally.getCount("Fire", "Bearing", Outcome.VALID));
+            assertEquals(0, tally.getCount("Fire", "Bearing", Outcome.FAILED));
+            assertEquals(1, tally.getCount("Fire", "Range", Outcome.FAILED));
+
+            batch = new InteractionBatch(Collections.singleton("Range"));
+            batch.add("Fire", empty, 0);
+            tally = worker.validate(InteractionBatch.decode(batch.encode()));
+
+            assertEquals(1, tally.getCount("Fire", "Range", Outcome.VALID));
+            assertEquals(1, tally.getCount("Fire", "Bearing", Outcome.FAILED));
+
+            worker.close();
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * A worker validates as the test case does: a parameter that the FOM does not
+     * define for the class is not checked, and neither is an interaction class
+     * that the FOM does not define.
+     */
+    @org.junit.Test
+    public void workerIgnoresParametersNotInFom() throws Exception {
+        URL[] urls = fomUrls("HLAinteger32BE");
+
+        Connection connection = new ActiveMQConnectionFactory(
+                "vm://undefined-validation-test?broker.persistent=false&broker.useJmx=false").createConnection();
+        try {
+            ValidationWorker worker = new ValidationWorker(connection, "Test.Batches", "Test.Results",
+                    new DecoderGenerator(urls, RtiFactoryFactory.getRtiFactory().getEncoderFactory(),
+                            NOPLogger.NOP_LOGGER), NOPLogger.NOP_LOGGER);
+
+            Map<String, byte[]> fire = new LinkedHashMap<>();
+            fire.put("Range", new byte[] { 0, 0, 0, 1 });
+            fire.put("Bearing", new byte[] { 0, 0, 0, 2 });
+            fire.put("Elevation", new byte[] { 3 });
+
+            InteractionBatch batch = new InteractionBatch();
+            batch.add("Fire", fire, 0);
+            batch.add("Other", Collections.singletonMap("Range", new byte[] { 4 }), 0);
+            ValidationTally tally = worker.validate(InteractionBatch.decode(batch.encode()));
+
+            assertEquals(1, tally.getCount("Fire", "Range", Outcome.VALID));
+            assertEquals(1, tally.getCount("Fire", "Bearing", Outcome.VALID));
+            assertFalse(tally.getParameters("Fire").contains("Elevation"));
+            assertEquals(1, tally.getInteractions("Other"));
+            assertTrue(tally.getParameters("Other").isEmpty());
+
+            worker.close();
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * Interactions published in batches to an embedded broker are validated by a
+     * worker against the FOM, and its results reach the aggregator.
+     */
+    @org.junit.Test
+    public void workerValidatesPublishedBatches() throws Exception {
+        URL[] urls = fomUrls("UndefinedType");
+
+        Connection connection = new ActiveMQConnectionFactory(
+                "vm://distributed-validation-test?broker.persistent=false&broker.useJmx=false").createConnection();
+        try {
+            ValidationWorker worker = new ValidationWorker(connection, "Test.Batches", "Test.Results",
+                    new DecoderGenerator(urls, null, NOPLogger.NOP_LOGGER), NOPLogger.NOP_LOGGER);
+            ResultAggregator aggregator = new ResultAggregator(connection, "Test.Results", NOPLogger.NOP_LOGGER);
+            JmsCaptureSink sink = new JmsCaptureSink(connection, "Test.Batches", 3, 4,
+                    parameters -> String.valueOf(parameters.get("Range")[0]), Collections.<String> emptySet());
+            connection.start();
+
+            for (int i = 0; i < 10; i++) {
+                sink.interactionReceived("Fire", Collections.singletonMap("Range", new byte[] { (byte) i }), null, i);
+            }
+            sink.close();
+            assertEquals(10, sink.getInteractionsCaptured());
+
+            long deadline = System.currentTimeMillis() + 10000;
+            while (aggregator.getInteractionsValidated() < 10 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            ValidationTally total = aggregator.getTotal();
+            assertEquals(10, total.getInteractions("Fire"));
+            assertEquals(10, total.getCount("Fire", "Range", Outcome.FAILED));
+            assertEquals(10, total.getCount("Fire", "Bearing", Outcome.NOT_SENT));
+            assertEquals(0, total.getCount("Fire", "Range", Outcome.NOT_SENT));
+
+            worker.close();
+            aggregator.close();
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * @param dataType
+     *            The data type of the parameters of the Fire interaction
+     * @return The URL of a FOM module defining the Fire interaction, with its
+     *         Range and Bearing parameters
+     */
+    private static URL[] fomUrls(String dataType) throws Exception {
+        return FomModules.write(FomModules.interaction("Fire", FomModules.parameter("Range", dataType),
+                FomModules.parameter("Bearing", dataType)));
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.FailureSummary;
+
+/**
+ * Tests of the FailureSummary.
+ *
+ * @author QinetiQ
+ */
+public class FailureSummaryTest {
+
+    /**
+     * Only the first failure of each parameter in a period is reported, and the
+     * rest are summarised once the period has elapsed.
+     */
+    @org.junit.Test
+    public void summariseRepeatedFailures() {
+        AtomicLong clock = new AtomicLong();
+        FailureSummary summary = new FailureSummary(10000, clock::get);
+        List<String> errors = new ArrayList<>();
+        Logger logger = errorLogger(errors);
+
+        assertTrue(summary.failed("WeaponFire", "FiringLocation"));
+        assertFalse(summary.failed("WeaponFire", "FiringLocation"));
+        assertFalse(summary.failed("WeaponFire", "FiringLocation"));
+        assertTrue(summary.failed("WeaponFire", "MunitionType"));
+
+        clock.set(5000);
+        summary.report(logger);
+        assertTrue(errors.isEmpty());
+
+        clock.set(10000);
+        summary.report(logger);
+        assertEquals(1, errors.size());
+        assertEquals("WeaponFire parameter FiringLocation failed a further 2 times in the last 10 seconds",
+                errors.get(0));
+
+        // A new period has started
+        assertTrue(summary.failed("WeaponFire", "FiringLocation"));
+    }
+
+    /**
+     * @param errors
+     *            The list to which error messages are added
+     * @return A logger that records the error messages written to it
+     */
+    private static Logger errorLogger(final List<String> errors) {
+        return (Logger) Proxy.newProxyInstance(Logger.class.getClassLoader(), new Class<?>[] { Logger.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("error")) {
+                        errors.add((String) args[0]);
+                    }
+                    return method.getReturnType() == boolean.class ? Boolean.TRUE : null;
+                });
+    }
+}
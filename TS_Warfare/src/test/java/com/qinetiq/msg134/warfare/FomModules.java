@@ -0,0 +1,72 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Writes the small FOM modules that tests build around the interactions they
+ * need. Modules that do not vary between tests are fixtures under
+ * src/test/resources instead.
+ *
+ * @author QinetiQ
+ */
+public final class FomModules {
+
+    private FomModules() {
+    }
+
+    /**
+     * @return The declaration of a parameter of the given data type
+     */
+    public static String parameter(String name, String dataType) {
+        return "<parameter><name>" + name + "</name><dataType>" + dataType + "</dataType></parameter>";
+    }
+
+    /**
+     * @return The declaration of a published and subscribed interaction class
+     *         with the given parameter declarations
+     */
+    public static String interaction(String name, String... parameters) {
+        return "<interactionClass><name>" + name + "</name><sharing>PublishSubscribe</sharing>"
+                + String.join("", parameters) + "</interactionClass>";
+    }
+
+    /**
+     * Writes a module defining the given interaction classes to a temporary file
+     * that is deleted on exit.
+     * @return The URLs of the FOM modules, being only the one written
+     */
+    public static URL[] write(String... interactions) throws Exception {
+        File file = File.createTempFile("fom", ".xml");
+        file.deleteOnExit();
+        write(file, interactions);
+        return new URL[] { file.toURI().toURL() };
+    }
+
+    /**
+     * Writes a module defining the given interaction classes to the given file,
+     * replacing its contents.
+     */
+    public static void write(File file, String... interactions) throws Exception {
+        String module = "<objectModel><interactions>" + String.join("", interactions)
+                + "</interactions></objectModel>";
+        Files.write(file.toPath(), module.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.FlightTimeHistograms;
+import com.qinetiq.msg134.etc.tc_lib_warfare.metrics.LatencyHistogram;
+import com.qinetiq.msg134.etc.tc_lib_warfare.decode.EntityTypeStructDecoder;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.EntityTypeStruct;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.EntityTypeStruct.EntityKind;
+import com.qinetiq.msg134.etc.tc_lib_warfare.types.EntityTypeStruct.MunitionDomain;
+
+/**
+ * Tests of the LatencyHistogram and FlightTimeHistograms.
+ *
+ * @author QinetiQ
+ */
+public class LatencyHistogramTest {
+
+    /**
+     * Small values are counted exactly, and larger ones to within 1/16 of
+     * themselves.
+     */
+    @org.junit.Test
+    public void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1, histogram.getMin());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500.5, histogram.getMean(), 1e-9);
+        assertEquals(10, histogram.getValueAtPercentile(1));
+        assertEquals(500, histogram.getValueAtPercentile(50), 500 / 16);
+        assertEquals(990, histogram.getValueAtPercentile(99), 990 / 16);
+        assertEquals(1000, histogram.getValueAtPercentile(100));
+    }
+
+    /**
+     * Very large and negative values are kept within range.
+     */
+    @org.junit.Test
+    public void extremes() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+    }
+
+    /**
+     * Flight times are gathered by munition type, with equal types sharing a
+     * histogram.
+     */
+    @org.junit.Test
+    public void byMunitionType() {
+        FlightTimeHistograms flightTimes = new FlightTimeHistograms(true);
+        flightTimes.record(new EntityTypeStruct(EntityKind.MUNITION, MunitionDomain.ANTI_ARMOR), "Tank1", 1200);
+        flightTimes.record(new EntityTypeStruct(EntityKind.MUNITION, MunitionDomain.ANTI_ARMOR), "Tank2", 1300);
+        flightTimes.record(new EntityTypeStruct(EntityKind.MUNITION, MunitionDomain.ANTI_AIR), "Tank1", 4000);
+        flightTimes.record(null, "Tank1", 10);
+
+        assertEquals(2, flightTimes.getHistogram(new EntityTypeStruct(EntityKind.MUNITION,
+                MunitionDomain.ANTI_ARMOR)).getCount());
+        assertEquals(4000, flightTimes.getHistogram(new EntityTypeStruct(EntityKind.MUNITION,
+                MunitionDomain.ANTI_AIR)).getMax());
+        assertEquals(1, flightTimes.getHistogram(null).getCount());
+    }
+
+    /**
+     * Munition types that differ only in the fields after the Domain, as decoded
+     * from the MunitionType parameter, have histograms of their own.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void byFullMunitionType() throws Exception {
+        EntityTypeStructDecoder decoder = new EntityTypeStructDecoder();
+        EntityTypeStruct tankRound = decoder.decode(new byte[] { 2, 2, 0, (byte) 225, 2, 1, 0, 0 });
+        EntityTypeStruct antiTankMissile = decoder.decode(new byte[] { 2, 2, 0, (byte) 225, 1, 3, 0, 0 });
+
+        assertEquals(225, tankRound.getCountryCode());
+        assertEquals(2, tankRound.getCategory());
+        assertEquals(1, tankRound.getSubcategory());
+        assertFalse(tankRound.equals(antiTankMissile));
+        assertEquals(tankRound, new EntityTypeStruct(EntityKind.MUNITION, MunitionDomain.ANTI_ARMOR, 225, 2, 1, 0, 0));
+
+        FlightTimeHistograms flightTimes = new FlightTimeHistograms(false);
+        flightTimes.record(tankRound, "Tank1", 1200);
+        flightTimes.record(antiTankMissile, "Tank1", 9000);
+        flightTimes.record(decoder.decode(new byte[] { 2, 2, 0, (byte) 225, 2, 1, 0, 0 }), "Tank1", 1300);
+
+        assertEquals(2, flightTimes.getHistogram(tankRound).getCount());
+        assertEquals(1, flightTimes.getHistogram(antiTankMissile).getCount());
+    }
+}
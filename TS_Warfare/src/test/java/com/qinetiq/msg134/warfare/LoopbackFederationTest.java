@@ -0,0 +1,204 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.helpers.NOPLogger;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.loopback.LoadGenerator;
+import com.qinetiq.msg134.etc.tc_lib_warfare.loopback.LoopbackFederation;
+
+import hla.rti1516e.AttributeHandleSet;
+import hla.rti1516e.AttributeHandleValueMap;
+import hla.rti1516e.CallbackModel;
+import hla.rti1516e.InteractionClassHandle;
+import hla.rti1516e.NullFederateAmbassador;
+import hla.rti1516e.ObjectClassHandle;
+import hla.rti1516e.ObjectInstanceHandle;
+import hla.rti1516e.OrderType;
+import hla.rti1516e.ParameterHandleValueMap;
+import hla.rti1516e.RTIambassador;
+import hla.rti1516e.RtiFactoryFactory;
+import hla.rti1516e.SupplementalReceiveInfo;
+import hla.rti1516e.SupplementalReflectInfo;
+import hla.rti1516e.SupplementalRemoveInfo;
+import hla.rti1516e.TransportationTypeHandle;
+
+/**
+ * Tests that the loopback federation delivers what is sent through it to a
+ * federate ambassador that has subscribed, and that a load generator's
+ * engagements reach it.
+ *
+ * @author QinetiQ
+ */
+public class LoopbackFederationTest {
+
+    /**
+     * Records the callbacks received from the loopback federation.
+     */
+    private static class RecordingAmbassador extends NullFederateAmbassador {
+        final List<InteractionClassHandle> interactionClasses = new ArrayList<>();
+        final List<ParameterHandleValueMap> parameters = new ArrayList<>();
+        final List<String> discovered = new ArrayList<>();
+        final List<AttributeHandleValueMap> reflected = new ArrayList<>();
+        final List<ObjectInstanceHandle> removed = new ArrayList<>();
+
+        @Override
+        public void receiveInteraction(InteractionClassHandle interactionClass,
+                ParameterHandleValueMap theParameters, byte[] userSuppliedTag, OrderType sentOrdering,
+                TransportationTypeHandle theTransport, SupplementalReceiveInfo receiveInfo) {
+            interactionClasses.add(interactionClass);
+            parameters.add(theParameters);
+        }
+
+        @Override
+        public void discoverObjectInstance(ObjectInstanceHandle theObject, ObjectClassHandle theObjectClass,
+                String objectName) {
+            discovered.add(objectName);
+        }
+
+        @Override
+        public void reflectAttributeValues(ObjectInstanceHandle theObject, AttributeHandleValueMap theAttributes,
+                byte[] userSuppliedTag, OrderType sentOrdering, TransportationTypeHandle theTransport,
+                SupplementalReflectInfo reflectInfo) {
+            reflected.add(theAttributes);
+        }
+
+        @Override
+        public void removeObjectInstance(ObjectInstanceHandle theObject, byte[] userSuppliedTag,
+                OrderType sentOrdering, SupplementalRemoveInfo removeInfo) {
+            removed.add(theObject);
+        }
+    }
+
+    private LoopbackFederation federation;
+    private RTIambassador rtiAmbassador;
+    private RecordingAmbassador federateAmbassador;
+
+    @org.junit.Before
+    public void connect() throws Exception {
+        federation = new LoopbackFederation(RtiFactoryFactory.getRtiFactory().getEncoderFactory());
+        rtiAmbassador = federation.createRtiAmbassador();
+        federateAmbassador = new RecordingAmbassador();
+        rtiAmbassador.connect(federateAmbassador, CallbackModel.HLA_IMMEDIATE);
+    }
+
+    /**
+     * An interaction published through the loopback is received by the
+     * subscriber with its parameters.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void subscribedInteractionIsDelivered() throws Exception {
+        InteractionClassHandle weaponFire = rtiAmbassador.getInteractionClassHandle("HLAinteractionRoot.WeaponFire");
+        rtiAmbassador.publishInteractionClass(weaponFire);
+        rtiAmbassador.subscribeInteractionClass(weaponFire);
+
+        byte[] value = new byte[] { 1, 2, 3 };
+        assertTrue(federation.sendInteraction("WeaponFire", Collections.singletonMap("FuseType", value)));
+
+        assertEquals(1, federateAmbassador.interactionClasses.size());
+        assertEquals(weaponFire, federateAmbassador.interactionClasses.get(0));
+        assertEquals("WeaponFire", rtiAmbassador.getInteractionClassName(weaponFire));
+        assertArrayEquals(value,
+                federateAmbassador.parameters.get(0).get(rtiAmbassador.getParameterHandle(weaponFire, "FuseType")));
+    }
+
+    /**
+     * An interaction of a class that has not been subscribed to is not delivered.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void unsubscribedInteractionIsDropped() throws Exception {
+        rtiAmbassador.subscribeInteractionClass(rtiAmbassador.getInteractionClassHandle("WeaponFire"));
+
+        assertFalse(federation.sendInteraction("MunitionDetonation",
+                Collections.singletonMap("FuseType", new byte[] { 1 })));
+        assertTrue(federateAmbassador.interactionClasses.isEmpty());
+    }
+
+    /**
+     * An object instance of a subscribed class is discovered, reflected and
+     * removed.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void subscribedObjectIsDiscoveredReflectedAndRemoved() throws Exception {
+        ObjectClassHandle munition = rtiAmbassador.getObjectClassHandle("HLAobjectRoot.BaseEntity.Munition");
+        AttributeHandleSet attributes = rtiAmbassador.getAttributeHandleSetFactory().create();
+        attributes.add(rtiAmbassador.getAttributeHandle(munition, "Spatial"));
+        rtiAmbassador.subscribeObjectClassAttributes(munition, attributes);
+
+        ObjectInstanceHandle instance = federation.registerObjectInstance("BaseEntity.Munition", "Munition.1");
+        byte[] spatial = new byte[] { 4, 5 };
+        federation.updateAttributeValues(instance, Collections.singletonMap("Spatial", spatial));
+        federation.deleteObjectInstance(instance);
+
+        assertEquals(Collections.singletonList("Munition.1"), federateAmbassador.discovered);
+        assertEquals(1, federateAmbassador.reflected.size());
+        assertArrayEquals(spatial, federateAmbassador.reflected.get(0).get(attributes.iterator().next()));
+        assertEquals(Collections.singletonList(instance), federateAmbassador.removed);
+    }
+
+    /**
+     * A service that the loopback does not provide is rejected rather than
+     * silently ignored.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void unsupportedServiceIsRejected() throws Exception {
+        try {
+            rtiAmbassador.getHLAversion();
+            fail("getHLAversion should not be provided");
+        } catch (UnsupportedOperationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("getHLAversion"));
+        }
+    }
+
+    /**
+     * Each engagement of a load generator delivers a WeaponFire and a
+     * MunitionDetonation to the subscriber.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void loadGeneratorEngagementsAreDelivered() throws Exception {
+        InteractionClassHandle weaponFire = rtiAmbassador.getInteractionClassHandle(LoadGenerator.WEAPON_FIRE);
+        InteractionClassHandle munitionDetonation = rtiAmbassador
+                .getInteractionClassHandle(LoadGenerator.MUNITION_DETONATION);
+        rtiAmbassador.subscribeInteractionClass(weaponFire);
+        rtiAmbassador.subscribeInteractionClass(munitionDetonation);
+
+        LoadGenerator generator = new LoadGenerator(federation, "Shooter", NOPLogger.NOP_LOGGER);
+        generator.setEngagementLimit(5);
+        generator.setFlightTime(0, TimeUnit.MILLISECONDS);
+        generator.setMunitionLifecycle(false);
+        generator.setSeed(1);
+        generator.run();
+
+        assertEquals(5, generator.getEngagementsStarted());
+        assertEquals(10, generator.getInteractionsDelivered());
+        assertEquals(0, generator.getInteractionsDropped());
+        assertEquals(0, generator.getErrorsInjected());
+        assertEquals(5, Collections.frequency(federateAmbassador.interactionClasses, weaponFire));
+        assertEquals(5, Collections.frequency(federateAmbassador.interactionClasses, munitionDetonation));
+    }
+}
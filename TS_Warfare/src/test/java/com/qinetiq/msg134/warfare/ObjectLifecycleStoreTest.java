@@ -0,0 +1,132 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.ObjectLifecycleStore;
+import com.qinetiq.msg134.etc.tc_lib_warfare.ObjectLifecycleStore.Lifecycle;
+
+/**
+ * Tests of the ObjectLifecycleStore.
+ *
+ * @author QinetiQ
+ */
+public class ObjectLifecycleStoreTest {
+
+    /**
+     * The lifecycle of an object is remembered after it has been removed, and only
+     * the first reflection is recorded.
+     */
+    @org.junit.Test
+    public void lifecycleOutlivesRemoval() {
+        ObjectLifecycleStore store = new ObjectLifecycleStore();
+        store.discovered("Munition1", 100);
+        store.reflected("Munition1", 110);
+        store.reflected("Munition1", 120);
+        store.removed("Munition1", 200);
+
+        Lifecycle lifecycle = store.get("Munition1");
+        assertTrue(lifecycle.isDiscovered());
+        assertTrue(lifecycle.isRemoved());
+        assertEquals(100, lifecycle.getDiscoveredTime());
+        assertEquals(110, lifecycle.getFirstReflectTime());
+        assertEquals(200, lifecycle.getRemovedTime());
+        assertNull(store.get("Munition2"));
+    }
+
+    /**
+     * Whether an object existed when an interaction was received depends only on
+     * the times of its callbacks, not on the order in which they are looked at:
+     * a removal received after the interaction does not change the judgement.
+     */
+    @org.junit.Test
+    public void presenceIsJudgedByReceiveTime() {
+        ObjectLifecycleStore store = new ObjectLifecycleStore();
+
+        // Discovered, then the interaction at 150, then removed at 200
+        store.discovered("Munition1", 100);
+        assertTrue(store.get("Munition1").isPresentAt(150));
+        store.removed("Munition1", 200);
+        Lifecycle removedAfter = store.get("Munition1");
+        assertTrue(removedAfter.isPresentAt(150));
+        assertFalse(removedAfter.isPresentAt(99));
+        assertFalse(removedAfter.isPresentAt(200));
+
+        // Discovered and removed before the interaction at 150
+        store.discovered("Munition2", 100);
+        store.removed("Munition2", 120);
+        assertFalse(store.get("Munition2").isPresentAt(150));
+
+        // Discovered only after the interaction at 150
+        store.discovered("Munition3", 160);
+        assertFalse(store.get("Munition3").isPresentAt(150));
+
+        // A discovery with the same time as the interaction came first
+        assertTrue(store.get("Munition3").isPresentAt(160));
+    }
+
+    /**
+     * A munition object is deleted after it detonates, so its removal counts
+     * only if it was received at or after the MunitionDetonation interaction,
+     * even with negative monotonic times.
+     */
+    @org.junit.Test
+    public void removalIsJudgedSinceDetonation() {
+        ObjectLifecycleStore store = new ObjectLifecycleStore();
+        store.discovered("Munition1", -300);
+        assertFalse(store.get("Munition1").isRemovedSince(-200));
+
+        store.removed("Munition1", -100);
+        Lifecycle lifecycle = store.get("Munition1");
+        assertTrue(lifecycle.isRemovedSince(-200));
+        assertTrue(lifecycle.isRemovedSince(-100));
+        assertFalse(lifecycle.isRemovedSince(-99));
+    }
+
+    /**
+     * An object discovered again under the same name starts a new lifecycle.
+     */
+    @org.junit.Test
+    public void rediscoveryStartsNewLifecycle() {
+        ObjectLifecycleStore store = new ObjectLifecycleStore();
+        store.discovered("Munition1", 100);
+        store.removed("Munition1", 200);
+        store.discovered("Munition1", 300);
+
+        Lifecycle lifecycle = store.get("Munition1");
+        assertEquals(300, lifecycle.getDiscoveredTime());
+        assertFalse(lifecycle.isRemoved());
+        assertEquals(ObjectLifecycleStore.NOT_RECEIVED, lifecycle.getFirstReflectTime());
+    }
+
+    /**
+     * Once the capacity is reached the least recently used object is forgotten.
+     */
+    @org.junit.Test
+    public void leastRecentlyUsedIsForgotten() {
+        ObjectLifecycleStore store = new ObjectLifecycleStore(2);
+        store.discovered("Munition1", 100);
+        store.discovered("Munition2", 110);
+        store.get("Munition1");
+        store.discovered("Munition3", 120);
+
+        assertEquals(2, store.size());
+        assertNotNull(store.get("Munition1"));
+        assertNull(store.get("Munition2"));
+        assertNotNull(store.get("Munition3"));
+    }
+}
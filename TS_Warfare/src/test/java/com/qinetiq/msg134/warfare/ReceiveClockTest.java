@@ -0,0 +1,66 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.ReceiveClock;
+
+/**
+ * Tests of the ReceiveClock.
+ *
+ * @author QinetiQ
+ */
+public class ReceiveClockTest {
+
+    /**
+     * Monotonic times are converted to wall clock times relative to the anchor,
+     * including times before it.
+     */
+    @org.junit.Test
+    public void monotonicTimesAreConvertedByTheAnchor() {
+        AtomicLong nanos = new AtomicLong(5_000_000_000L);
+        ReceiveClock clock = new ReceiveClock(nanos::get, 1_500_000_000_000L, 5_000_000_000L);
+
+        assertEquals(1_500_000_000_000L, clock.currentTimeMillis());
+
+        nanos.addAndGet(2_999_999L);
+        assertEquals(5_002_999_999L, clock.nanoTime());
+        assertEquals(1_500_000_000_002L, clock.currentTimeMillis());
+
+        assertEquals(1_499_999_999_999L, clock.toMillis(4_999_999_999L));
+    }
+
+    /**
+     * A clock driven by wall clock times gives those times back, with nanosecond
+     * time stamps that keep their order.
+     */
+    @org.junit.Test
+    public void millisecondSourceIsScaled() {
+        AtomicLong millis = new AtomicLong(1_500_000_000_000L);
+        ReceiveClock clock = ReceiveClock.ofMillis(millis::get);
+
+        assertEquals(1_500_000_000_000L, clock.currentTimeMillis());
+        assertEquals(1_500_000_000_000L * ReceiveClock.NANOS_PER_MILLI, clock.nanoTime());
+
+        long before = clock.nanoTime();
+        millis.incrementAndGet();
+        assertTrue(clock.nanoTime() > before);
+        assertEquals(1_500_000_000_001L, clock.currentTimeMillis());
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.ReorderBuffer;
+
+/**
+ * Tests of the ReorderBuffer.
+ *
+ * @author QinetiQ
+ */
+public class ReorderBufferTest {
+
+    /**
+     * Elements are held for the hold time, and are then released in time stamp
+     * order. Elements without a time stamp are not held.
+     */
+    @org.junit.Test
+    public void releasedInTimeStampOrder() {
+        AtomicLong clock = new AtomicLong();
+        List<String> released = new ArrayList<>();
+        ReorderBuffer<String> buffer = new ReorderBuffer<>(100, 1000, released::add, clock::get);
+
+        buffer.add(2.0, "Update");
+        buffer.add(1.0, "Fire");
+        buffer.add(null, "Receive order");
+        clock.set(500);
+        buffer.add(3.0, "Detonation");
+        buffer.releaseExpired();
+        assertEquals(Arrays.asList("Receive order"), released);
+
+        clock.set(1000);
+        buffer.releaseExpired();
+        assertEquals(Arrays.asList("Receive order", "Fire", "Update"), released);
+        assertEquals(1, buffer.size());
+
+        buffer.add(3.0, "Same time");
+        buffer.flush();
+        assertEquals(Arrays.asList("Receive order", "Fire", "Update", "Detonation", "Same time"), released);
+        assertEquals(0, buffer.getLate());
+    }
+
+    /**
+     * Elements held for the hold time are released along with any earlier ones,
+     * and elements earlier than one already released are counted as late.
+     */
+    @org.junit.Test
+    public void expiredAndLateElements() {
+        AtomicLong clock = new AtomicLong();
+        List<String> released = new ArrayList<>();
+        ReorderBuffer<String> buffer = new ReorderBuffer<>(100, 1000, released::add, clock::get);
+
+        buffer.add(5.0, "First");
+        clock.set(500);
+        buffer.add(4.0, "Second");
+        buffer.add(9.0, "Third");
+        clock.set(1000);
+        buffer.releaseExpired();
+        assertEquals(Arrays.asList("Second", "First"), released);
+
+        buffer.add(1.0, "Late");
+        assertEquals(Arrays.asList("Second", "First", "Late"), released);
+        assertEquals(1, buffer.getLate());
+        assertEquals(1, buffer.size());
+    }
+
+    /**
+     * When the buffer is full the earliest element is released to make room.
+     */
+    @org.junit.Test
+    public void fullBufferReleasesEarliest() {
+        List<String> released = new ArrayList<>();
+        ReorderBuffer<String> buffer = new ReorderBuffer<>(2, 1000, released::add, () -> 0);
+
+        buffer.add(2.0, "B");
+        buffer.add(1.0, "A");
+        buffer.add(3.0, "C");
+        assertEquals(Arrays.asList("A"), released);
+        assertEquals(1, buffer.getForced());
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.SoakStatistics;
+
+/**
+ * Tests of the SoakStatistics.
+ *
+ * @author QinetiQ
+ */
+public class SoakStatisticsTest {
+
+    /**
+     * The aggregates are compared with the thresholds, and each breach is
+     * reported.
+     */
+    @org.junit.Test
+    public void breaches() {
+        AtomicLong clock = new AtomicLong();
+        SoakStatistics statistics = new SoakStatistics(clock::get);
+
+        for (int i = 0; i < 100; i++) {
+            statistics.eventProcessed(i % 2 == 0 ? "WeaponFire" : "MunitionDetonation");
+            statistics.parameterChecked("WeaponFire", "FiringLocation", i < 5);
+            if (i % 2 == 1) {
+                statistics.pairChecked(i != 1);
+            }
+        }
+        statistics.munitionViolation();
+        clock.set(10000);
+
+        assertEquals(100, statistics.getEvents());
+        assertEquals(10.0, statistics.getEventsPerSecond(), 1e-9);
+        assertEquals(0.05, statistics.getParameterFailureRate("WeaponFire.FiringLocation"), 1e-9);
+        assertEquals(0.98, statistics.getPairMatchRatio(), 1e-9);
+
+        assertTrue(statistics.getBreaches(10, 0.05, 0.98, 1).isEmpty());
+
+        List<String> breaches = statistics.getBreaches(20, 0.01, 0.99, 0);
+        assertEquals(4, breaches.size());
+        assertTrue(breaches.get(1).contains("WeaponFire.FiringLocation"));
+    }
+}
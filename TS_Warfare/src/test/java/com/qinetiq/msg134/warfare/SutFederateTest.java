@@ -0,0 +1,44 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.SutFederate;
+
+/**
+ * Tests of the SutFederate.
+ *
+ * @author QinetiQ
+ */
+public class SutFederateTest {
+
+    /**
+     * Events are attributed to a SuT by the prefix of their
+     * IssuingObjectIdentifier, and never to a SuT without a prefix.
+     */
+    @org.junit.Test
+    public void eventsAttributedByIssuingObjectIdPrefix() {
+        SutFederate sut = new SutFederate("SuT1", "SimType", "Site1.");
+        SutFederate unprefixed = new SutFederate("SuT2", "SimType", null);
+
+        assertTrue(sut.isIssuerOf("Site1.Tank7"));
+        assertFalse(sut.isIssuerOf("Site2.Tank7"));
+        assertFalse(sut.isIssuerOf(null));
+        assertFalse(unprefixed.isIssuerOf("Site1.Tank7"));
+        assertEquals("SuT1", sut.toString());
+    }
+}
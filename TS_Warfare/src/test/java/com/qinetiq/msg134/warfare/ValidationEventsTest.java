@@ -0,0 +1,94 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.jfr.ValidationEvents;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Tests of the ValidationEvents.
+ *
+ * @author QinetiQ
+ */
+public class ValidationEventsTest {
+
+    /**
+     * Events are only emitted whilst a recording is running, and carry the values
+     * passed to them.
+     */
+    @org.junit.Test
+    public void emitWhilstRecording() throws Exception {
+        assertFalse(ValidationEvents.isRecording());
+        assertEquals(0, ValidationEvents.start());
+
+        Map<String, byte[]> parameters = Collections.singletonMap("EventIdentifier", new byte[12]);
+        Path file = Files.createTempFile("validation", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.qinetiq.msg134.warfare.InteractionReceived");
+            recording.enable("com.qinetiq.msg134.warfare.ParameterDecode");
+            recording.enable("com.qinetiq.msg134.warfare.PairMatch");
+            recording.start();
+            assertTrue(ValidationEvents.isRecording());
+
+            long start = ValidationEvents.start();
+            assertTrue(start != 0);
+            ValidationEvents.interactionReceived("WeaponFire", parameters);
+            ValidationEvents.parameterDecoded("WeaponFire", "Tank1", "EventIdentifier", "decoder",
+                    new byte[12], ValidationEvents.DECODED, start);
+            ValidationEvents.pairMatch("Tank1", true, 250);
+
+            recording.stop();
+            assertFalse(ValidationEvents.isRecording());
+            ValidationEvents.pairMatch("Tank2", false, 0);
+            recording.dump(file);
+        }
+
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertEquals(3, events.size());
+            for (RecordedEvent event : events) {
+                switch (event.getEventType().getName()) {
+                case "com.qinetiq.msg134.warfare.InteractionReceived":
+                    assertEquals("WeaponFire", event.getString("interactionClass"));
+                    assertEquals(12, event.getInt("byteLength"));
+                    break;
+                case "com.qinetiq.msg134.warfare.ParameterDecode":
+                    assertEquals("Tank1", event.getString("issuingObjectIdentifier"));
+                    assertEquals("String", event.getString("dataType"));
+                    assertEquals(ValidationEvents.DECODED, event.getString("outcome"));
+                    break;
+                default:
+                    assertEquals("Tank1", event.getString("issuingObjectIdentifier"));
+                    assertTrue(event.getBoolean("matched"));
+                    break;
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.metrics.ValidationMetrics;
+
+/**
+ * Tests of the ValidationMetrics.
+ *
+ * @author QinetiQ
+ */
+public class ValidationMetricsTest {
+
+    /**
+     * The queue depth follows the interactions queued and taken, and the high
+     * water mark survives a reset while the depth is kept.
+     */
+    @org.junit.Test
+    public void queueDepth() {
+        ValidationMetrics metrics = new ValidationMetrics();
+        metrics.interactionQueued("WeaponFire");
+        metrics.interactionQueued("WeaponFire");
+        metrics.interactionQueued("MunitionDetonation");
+        metrics.interactionDequeued();
+
+        assertEquals(2, metrics.getQueueDepth());
+        assertEquals(3, metrics.getQueueHighWaterMark());
+        assertEquals(Long.valueOf(2), metrics.getInteractionsReceived().get("WeaponFire"));
+
+        metrics.reset();
+        assertEquals(2, metrics.getQueueDepth());
+        assertEquals(2, metrics.getQueueHighWaterMark());
+        assertTrue(metrics.getInteractionsReceived().isEmpty());
+    }
+
+    /**
+     * Decode times and failures are reported by interaction and parameter name.
+     */
+    @org.junit.Test
+    public void parameterDecode() {
+        ValidationMetrics metrics = new ValidationMetrics();
+        metrics.parameterDecoded("WeaponFire", "FuseType", 1000);
+        metrics.parameterDecoded("WeaponFire", "FuseType", 3000);
+        metrics.parameterFailed("WeaponFire", "RateOfFire");
+        metrics.pairMatched(40);
+        metrics.pairMatched(60);
+
+        Map<String, Double> mean = metrics.getParameterDecodeMeanMicros();
+        assertEquals(2.0, mean.get("WeaponFire.FuseType"), 1e-9);
+        assertEquals(3.0, metrics.getParameterDecodeMaxMicros().get("WeaponFire.FuseType"), 1e-9);
+        assertEquals(Long.valueOf(1), metrics.getDecodeFailures().get("WeaponFire.RateOfFire"));
+        assertEquals(2, metrics.getPairsMatched());
+        assertEquals(50.0, metrics.getPairMatchMeanMillis(), 1e-9);
+        assertEquals(60.0, metrics.getPairMatchMaxMillis(), 1e-9);
+    }
+
+    /**
+     * The wait before decoding is measured between the two times given, so that
+     * it follows the clock with which interactions are received.
+     */
+    @org.junit.Test
+    public void receiveToDecode() {
+        ValidationMetrics metrics = new ValidationMetrics();
+        metrics.decodeStarted(1_000_000_000L, 1_004_000_000L);
+        metrics.decodeStarted(5_000_000_000L, 5_002_000_000L);
+
+        assertEquals(2, metrics.getInteractionsDecoded());
+        assertEquals(3.0, metrics.getReceiveToDecodeMeanMillis(), 1e-9);
+        assertEquals(4.0, metrics.getReceiveToDecodeMaxMillis(), 1e-9);
+    }
+
+    /**
+     * The metrics can be read over JMX once registered, and are gone once closed.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void registerWithJmx() throws Exception {
+        ValidationMetrics metrics = new ValidationMetrics();
+        metrics.interactionQueued("WeaponFire");
+        metrics.register("TestFederate");
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(ValidationMetrics.JMX_DOMAIN, "name", ObjectName.quote("TestFederate"));
+        assertEquals(1L, server.getAttribute(name, "QueueDepth"));
+
+        metrics.close();
+        assertFalse(server.isRegistered(name));
+    }
+}
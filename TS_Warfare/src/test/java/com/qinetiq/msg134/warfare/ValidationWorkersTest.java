@@ -0,0 +1,126 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.ValidationWorkers;
+
+/**
+ * Tests of the ValidationWorkers, on virtual threads where the Java runtime
+ * provides them and on platform threads otherwise.
+ *
+ * @author QinetiQ
+ */
+public class ValidationWorkersTest {
+
+    /**
+     * The results are given in the order of the tasks, whatever the order in
+     * which the tasks finish.
+     */
+    @org.junit.Test
+    public void resultsAreInTaskOrder() throws Exception {
+        ExecutorService workers = ValidationWorkers.newExecutor("Test", 3, true);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                int delay = 30 - 10 * i;
+                int result = i;
+                tasks.add(() -> {
+                    Thread.sleep(delay);
+                    return result;
+                });
+            }
+
+            assertEquals(Arrays.asList(0, 1, 2), ValidationWorkers.invokeAll(workers, tasks));
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * The failure of a task is reported without waiting for the others, which
+     * are interrupted.
+     */
+    @org.junit.Test
+    public void failureCancelsTheOtherTasks() throws Exception {
+        ExecutorService workers = ValidationWorkers.newExecutor("Test", 2, false);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            tasks.add(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(60000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return null;
+            });
+            tasks.add(() -> {
+                started.await();
+                throw new IllegalStateException("SuT failed");
+            });
+
+            try {
+                ValidationWorkers.invokeAll(workers, tasks);
+                fail("The failure of the task was not reported");
+            } catch (ExecutionException e) {
+                assertEquals("SuT failed", e.getCause().getMessage());
+            }
+            assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Each platform thread of the workers is named after them and numbered, so
+     * that the threads can be told apart.
+     */
+    @org.junit.Test
+    public void threadsHaveIndexedNames() throws Exception {
+        ExecutorService workers = ValidationWorkers.newExecutor("Test", 2, false);
+        CountDownLatch running = new CountDownLatch(2);
+        try {
+            List<Callable<String>> tasks = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                tasks.add(() -> {
+                    // Hold each thread until both are running, so that neither runs both tasks
+                    running.countDown();
+                    running.await();
+                    return Thread.currentThread().getName();
+                });
+            }
+
+            List<String> names = ValidationWorkers.invokeAll(workers, tasks);
+            assertEquals(new HashSet<>(Arrays.asList("Test-0", "Test-1")), new HashSet<>(names));
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+}
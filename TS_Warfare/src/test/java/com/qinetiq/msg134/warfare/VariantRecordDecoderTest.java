@@ -0,0 +1,166 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.ByteBuffer;
+
+import org.slf4j.helpers.NOPLogger;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.DecoderGenerator;
+import com.qinetiq.msg134.etc.tc_lib_warfare.decode.VariantRecordDecoder;
+
+import hla.rti1516e.RtiFactoryFactory;
+import hla.rti1516e.encoding.DataElement;
+import hla.rti1516e.encoding.DecoderException;
+import hla.rti1516e.encoding.HLAfixedRecord;
+
+/**
+ * Tests that variant records are decoded using the alternative selected by the
+ * discriminant, for the RPR FOM and for a module that uses enumerator ranges,
+ * HLAother and negative enumerators.
+ *
+ * @author QinetiQ
+ */
+public class VariantRecordDecoderTest {
+    private static String basePath = "src/test/resources/";
+    private static DecoderGenerator decoder;
+
+    /**
+     * Loads the RPR FOM modules together with a module defining the
+     * FireModeVariant record, whose alternatives are selected by a single
+     * enumerator, a negative enumerator, a range of enumerators and HLAother.
+     * @throws Exception
+     */
+    @org.junit.BeforeClass
+    public static void setupDecoder() throws Exception {
+        URL[] urls = new URL[] {
+                new File(basePath + "RPR-Warfare_v2.0.xml").toURI().toURL(),
+                new File(basePath + "RPR-Foundation_v2.0.xml").toURI().toURL(),
+                new File(basePath + "RPR-Enumerations_v2.0.xml").toURI().toURL(),
+                new File(basePath + "RPR-Base_v2.0.xml").toURI().toURL(),
+                new File(basePath + "Fire-ModeVariant.xml").toURI().toURL()
+        };
+        decoder = new DecoderGenerator(urls, RtiFactoryFactory.getRtiFactory().getEncoderFactory(),
+                NOPLogger.NOP_LOGGER);
+    }
+
+    /**
+     * Decodes a FireModeVariant whose discriminant has the given value and which
+     * is followed by the given encoded alternative.
+     */
+    private static VariantRecordDecoder decodeFireMode(int discriminant, byte... value) throws Exception {
+        DataElement element = decoder.generateParameterDecoder("Fire", "Mode");
+        assertTrue(element instanceof VariantRecordDecoder);
+
+        VariantRecordDecoder variant = (VariantRecordDecoder) element;
+        variant.decode(ByteBuffer.allocate(4 + value.length).putInt(discriminant).put(value).array());
+        return variant;
+    }
+
+    /**
+     * The articulated part of a MunitionDetonation is decoded through the
+     * ParameterValueVariantStruct of the RPR FOM.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void decodeArticulatedPartData() throws Exception {
+        DataElement element = decoder.generateParameterDecoder("MunitionDetonation", "ArticulatedPartData");
+        assertTrue(element instanceof HLAfixedRecord);
+
+        ByteBuffer code = ByteBuffer.allocate(20);
+        code.put((byte) 1).put((byte) 0).putShort((short) 7);
+        code.putInt(0).putInt(4096).putInt(11).putFloat(1.5f);
+        element.decode(code.array());
+
+        DataElement parameterValue = ((HLAfixedRecord) element).get(2);
+        assertTrue(parameterValue instanceof VariantRecordDecoder);
+        VariantRecordDecoder variant = (VariantRecordDecoder) parameterValue;
+        assertEquals("ArticulatedParts", variant.getSelectedAlternative());
+
+        HLAfixedRecord articulatedPart = (HLAfixedRecord) variant.getValue();
+        assertArrayEquals(ByteBuffer.allocate(12).putInt(4096).putInt(11).putFloat(1.5f).array(),
+                articulatedPart.toByteArray());
+    }
+
+    /**
+     * A discriminant listed as a single enumerator selects its alternative.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void decodeSingleEnumerator() throws Exception {
+        VariantRecordDecoder variant = decodeFireMode(1, (byte) 42);
+
+        assertEquals("SingleShot", variant.getSelectedAlternative());
+        assertArrayEquals(new byte[] { 42 }, variant.getValue().toByteArray());
+    }
+
+    /**
+     * A negative discriminant of a signed representation matches its enumerator.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void decodeNegativeEnumerator() throws Exception {
+        VariantRecordDecoder variant = decodeFireMode(-2);
+
+        assertEquals("Safety", variant.getSelectedAlternative());
+    }
+
+    /**
+     * Every value of a range of enumerators, including both ends, selects the
+     * alternative of the range.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void decodeEnumeratorRange() throws Exception {
+        for (int discriminant : new int[] { 10, 15, 20 }) {
+            VariantRecordDecoder variant = decodeFireMode(discriminant, (byte) 0, (byte) 3);
+
+            assertEquals("Burst", variant.getSelectedAlternative());
+            assertArrayEquals(new byte[] { 0, 3 }, variant.getValue().toByteArray());
+        }
+    }
+
+    /**
+     * A discriminant that is not otherwise listed, including those either side of
+     * the range, selects the HLAother alternative.
+     * @throws Exception
+     */
+    @org.junit.Test
+    public void decodeOtherEnumerator() throws Exception {
+        for (int discriminant : new int[] { 0, 9, 21, -1, Integer.MAX_VALUE }) {
+            VariantRecordDecoder variant = decodeFireMode(discriminant);
+
+            assertEquals("Other", variant.getSelectedAlternative());
+        }
+    }
+
+    /**
+     * A discriminant that selects no alternative of a record without HLAother is
+     * rejected.
+     * @throws Exception
+     */
+    @org.junit.Test(expected = DecoderException.class)
+    public void decodeUndefinedEnumerator() throws Exception {
+        DataElement element = decoder.generateParameterDecoder("MunitionDetonation", "ArticulatedPartData");
+        ByteBuffer code = ByteBuffer.allocate(20);
+        code.put((byte) 1).put((byte) 0).putShort((short) 7).putInt(99);
+        element.decode(code.array());
+    }
+}
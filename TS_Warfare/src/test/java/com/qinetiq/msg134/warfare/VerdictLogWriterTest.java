@@ -0,0 +1,73 @@
+/**
+ * Copyright 2017, QinetiQ
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.qinetiq.msg134.warfare;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.qinetiq.msg134.etc.tc_lib_warfare.verdict.EventVerdict;
+import com.qinetiq.msg134.etc.tc_lib_warfare.verdict.VerdictLogWriter;
+
+/**
+ * Tests of the VerdictLogWriter.
+ *
+ * @author QinetiQ
+ */
+public class VerdictLogWriterTest {
+
+    /**
+     * Each verdict is written as one line of JSON, in the order handed over, and
+     * checks that were not made are omitted.
+     */
+    @org.junit.Test
+    public void writeVerdicts() throws Exception {
+        Path file = Files.createTempFile("verdicts", ".jsonl");
+        try {
+            VerdictLogWriter writer = new VerdictLogWriter(file);
+            for (short i = 0; i < 1000; i++) {
+                EventVerdict verdict = new EventVerdict("MunitionDetonation", "Tank1", i, 1000L + i);
+                verdict.setParameterOutcome("EventIdentifier", "Decoded");
+                verdict.setParameterOutcome("ArticulatedPartData", "Optional not sent");
+                if (i % 2 == 0) {
+                    verdict.setMunitionCheck("Removed");
+                    verdict.setPairStatus("Matched");
+                }
+                assertTrue(writer.write(verdict));
+            }
+            writer.close();
+
+            assertEquals(1000, writer.getWritten());
+            assertEquals(0, writer.getDropped());
+            assertFalse(writer.write(new EventVerdict("WeaponFire", "Tank1", (short) 0, 0)));
+            assertEquals(1, writer.getDropped());
+
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            assertEquals(1000, lines.size());
+            assertEquals("{\"interaction\":\"MunitionDetonation\",\"issuingObjectIdentifier\":\"Tank1\","
+                    + "\"eventCount\":0,\"receiveTime\":1000,\"parameters\":{\"EventIdentifier\":\"Decoded\","
+                    + "\"ArticulatedPartData\":\"Optional not sent\"},\"munitionCheck\":\"Removed\","
+                    + "\"pairStatus\":\"Matched\"}", lines.get(0));
+            assertFalse(lines.get(1).contains("munitionCheck"));
+            assertTrue(lines.get(999).contains("\"eventCount\":999,"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}